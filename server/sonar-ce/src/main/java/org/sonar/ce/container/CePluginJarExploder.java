@@ -20,41 +20,31 @@
 package org.sonar.ce.container;
 
 import java.io.File;
-import org.apache.commons.io.FileUtils;
-import org.sonar.server.platform.ServerFileSystem;
-import org.sonar.api.utils.ZipUtils;
 import org.sonar.core.platform.ExplodedPlugin;
 import org.sonar.core.platform.PluginInfo;
 import org.sonar.core.platform.PluginJarExploder;
+import org.sonar.server.plugins.ExplodedPluginCache;
 
 /**
- * Explodes the plugin JARs of extensions/plugins/ into a temporary directory
- * dedicated to compute engine.
+ * Explodes the plugin JARs of extensions/plugins/ into {@link ExplodedPluginCache}, which
+ * is shared with web server and kept on restarts.
  */
 public class CePluginJarExploder extends PluginJarExploder {
 
-  private static final String TEMP_RELATIVE_PATH = "ce-exploded-plugins";
-  private final ServerFileSystem fs;
+  private final ExplodedPluginCache explodedPluginCache;
 
-  public CePluginJarExploder(ServerFileSystem fs) {
-    this.fs = fs;
+  public CePluginJarExploder(ExplodedPluginCache explodedPluginCache) {
+    this.explodedPluginCache = explodedPluginCache;
   }
 
   @Override
   public ExplodedPlugin explode(PluginInfo pluginInfo) {
-    File tempDir = new File(fs.getTempDir(), TEMP_RELATIVE_PATH);
-    File toDir = new File(tempDir, pluginInfo.getKey());
+    File jarSource = pluginInfo.getNonNullJarFile();
     try {
-      org.sonar.core.util.FileUtils.cleanDirectory(toDir);
-
-      File jarSource = pluginInfo.getNonNullJarFile();
-      File jarTarget = new File(toDir, jarSource.getName());
-      FileUtils.copyFile(jarSource, jarTarget);
-      ZipUtils.unzip(jarSource, toDir, newLibFilter());
-      return explodeFromUnzippedDir(pluginInfo.getKey(), jarTarget, toDir);
+      File unzippedDir = explodedPluginCache.unzip(pluginInfo.getKey(), jarSource, newLibFilter());
+      return explodeFromUnzippedDir(pluginInfo.getKey(), new File(unzippedDir, jarSource.getName()), unzippedDir);
     } catch (Exception e) {
-      throw new IllegalStateException(String.format(
-        "Fail to unzip plugin [%s] %s to %s", pluginInfo.getKey(), pluginInfo.getNonNullJarFile().getAbsolutePath(), toDir.getAbsolutePath()), e);
+      throw new IllegalStateException(String.format("Fail to unzip plugin [%s] %s", pluginInfo.getKey(), jarSource.getAbsolutePath()), e);
     }
   }
 }
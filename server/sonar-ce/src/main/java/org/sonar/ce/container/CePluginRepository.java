@@ -34,6 +34,7 @@ import org.sonar.core.platform.PluginInfo;
 import org.sonar.core.platform.PluginLoader;
 import org.sonar.core.platform.PluginRepository;
 import org.sonar.server.platform.ServerFileSystem;
+import org.sonar.server.plugins.ExplodedPluginCache;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -50,15 +51,17 @@ public class CePluginRepository implements PluginRepository, Startable {
 
   private final ServerFileSystem fs;
   private final PluginLoader loader;
+  private final ExplodedPluginCache explodedPluginCache;
   private final AtomicBoolean started = new AtomicBoolean(false);
 
   // following fields are available after startup
   private final Map<String, PluginInfo> pluginInfosByKeys = new HashMap<>();
   private final Map<String, Plugin> pluginInstancesByKeys = new HashMap<>();
 
-  public CePluginRepository(ServerFileSystem fs, PluginLoader loader) {
+  public CePluginRepository(ServerFileSystem fs, PluginLoader loader, ExplodedPluginCache explodedPluginCache) {
     this.fs = fs;
     this.loader = loader;
+    this.explodedPluginCache = explodedPluginCache;
   }
 
   @Override
@@ -69,6 +72,7 @@ public class CePluginRepository implements PluginRepository, Startable {
       pluginInfosByKeys.put(info.getKey(), info);
     }
     pluginInstancesByKeys.putAll(loader.load(pluginInfosByKeys));
+    explodedPluginCache.purgeUnused();
     started.set(true);
   }
 
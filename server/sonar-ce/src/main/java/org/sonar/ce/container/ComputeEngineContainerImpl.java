@@ -103,6 +103,7 @@ import org.sonar.server.measure.index.ProjectMeasuresIndex;
 import org.sonar.server.measure.index.ProjectMeasuresIndexer;
 import org.sonar.server.metric.CoreCustomMetrics;
 import org.sonar.server.metric.DefaultMetricFinder;
+import org.sonar.server.metric.MetricsCache;
 import org.sonar.server.notification.DefaultNotificationManager;
 import org.sonar.server.notification.NotificationService;
 import org.sonar.server.notification.email.AlertsEmailTemplate;
@@ -131,6 +132,7 @@ import org.sonar.server.platform.db.migration.version.DatabaseVersion;
 import org.sonar.server.platform.monitoring.DbSection;
 import org.sonar.server.platform.monitoring.OfficialDistribution;
 import org.sonar.server.platform.monitoring.cluster.ProcessInfoProvider;
+import org.sonar.server.plugins.ExplodedPluginCache;
 import org.sonar.server.plugins.InstalledPluginReferentialFactory;
 import org.sonar.server.plugins.ServerExtensionInstaller;
 import org.sonar.server.plugins.privileged.PrivilegedPluginsBootstraper;
@@ -139,6 +141,7 @@ import org.sonar.server.property.InternalPropertiesImpl;
 import org.sonar.server.qualityprofile.index.ActiveRuleIndexer;
 import org.sonar.server.rule.CommonRuleDefinitionsImpl;
 import org.sonar.server.rule.DefaultRuleFinder;
+import org.sonar.server.rule.RulesCache;
 import org.sonar.server.rule.DeprecatedRulesDefinitionLoader;
 import org.sonar.server.rule.RuleDefinitionsLoader;
 import org.sonar.server.rule.index.RuleIndex;
@@ -149,6 +152,9 @@ import org.sonar.server.setting.ThreadLocalSettings;
 import org.sonar.server.test.index.TestIndexer;
 import org.sonar.server.user.DefaultUserFinder;
 import org.sonar.server.user.DeprecatedUserFinder;
+import org.sonar.server.user.UserPermissionsCache;
+import org.sonar.server.user.UserPermissionsClusterVersion;
+import org.sonar.server.user.UserPermissionsStandaloneVersion;
 import org.sonar.server.user.index.UserIndex;
 import org.sonar.server.user.index.UserIndexer;
 import org.sonar.server.util.OkHttpClientProvider;
@@ -292,6 +298,7 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
 
       // plugins
       PluginClassloaderFactory.class,
+      ExplodedPluginCache.class,
       CePluginJarExploder.class,
       PluginLoader.class,
       CePluginRepository.class,
@@ -338,12 +345,14 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
       CommonRuleDefinitionsImpl.class,
       RuleDefinitionsLoader.class,
       RulesDefinitionXmlLoader.class,
+      RulesCache.class,
 
       // languages
       Languages.class, // used by CommonRuleDefinitionsImpl
 
       // measure
       CoreCustomMetrics.class,
+      MetricsCache.class,
       DefaultMetricFinder.class,
       ProjectMeasuresIndex.class,
 
@@ -358,6 +367,7 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
       PermissionTemplateService.class,
       PermissionUpdater.class,
       UserPermissionChanger.class,
+      UserPermissionsCache.class,
       GroupPermissionChanger.class,
 
       // components
@@ -435,12 +445,15 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
       container.add(
         // system health
         CeDistributedInformationImpl.class,
+        UserPermissionsClusterVersion.class,
 
         // system info
         DbSection.class,
         ProcessInfoProvider.class);
     } else {
-      container.add(StandaloneCeDistributedInformation.class);
+      container.add(
+        StandaloneCeDistributedInformation.class,
+        UserPermissionsStandaloneVersion.class);
     }
   }
 
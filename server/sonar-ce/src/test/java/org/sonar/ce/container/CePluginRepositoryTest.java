@@ -33,9 +33,11 @@ import org.sonar.api.Plugin;
 import org.sonar.core.platform.PluginInfo;
 import org.sonar.core.platform.PluginLoader;
 import org.sonar.server.platform.ServerFileSystem;
+import org.sonar.server.plugins.ExplodedPluginCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class CePluginRepositoryTest {
@@ -48,7 +50,8 @@ public class CePluginRepositoryTest {
 
   private ServerFileSystem fs = mock(ServerFileSystem.class, Mockito.RETURNS_DEEP_STUBS);
   private PluginLoader pluginLoader = new DumbPluginLoader();
-  private CePluginRepository underTest = new CePluginRepository(fs, pluginLoader);
+  private ExplodedPluginCache explodedPluginCache = mock(ExplodedPluginCache.class);
+  private CePluginRepository underTest = new CePluginRepository(fs, pluginLoader, explodedPluginCache);
 
   @After
   public void tearDown() {
@@ -77,6 +80,7 @@ public class CePluginRepositoryTest {
     assertThat(underTest.getPluginInfo(pluginKey).getKey()).isEqualTo(pluginKey);
     assertThat(underTest.getPluginInstance(pluginKey)).isNotNull();
     assertThat(underTest.hasPlugin(pluginKey)).isTrue();
+    verify(explodedPluginCache).purgeUnused();
   }
 
   @Test
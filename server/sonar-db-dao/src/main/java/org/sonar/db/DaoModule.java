@@ -46,6 +46,7 @@ import org.sonar.db.metric.MetricDao;
 import org.sonar.db.notification.NotificationQueueDao;
 import org.sonar.db.organization.OrganizationDao;
 import org.sonar.db.organization.OrganizationMemberDao;
+import org.sonar.db.permission.AuthorizationChanges;
 import org.sonar.db.permission.AuthorizationDao;
 import org.sonar.db.permission.GroupPermissionDao;
 import org.sonar.db.permission.UserPermissionDao;
@@ -136,6 +137,7 @@ public class DaoModule extends Module {
 
   @Override
   protected void configureModule() {
+    add(AuthorizationChanges.class);
     add(classes.toArray());
   }
 
@@ -23,4 +23,11 @@ import org.apache.ibatis.session.SqlSession;
 
 public interface DbSession extends SqlSession {
   SqlSession getSqlSession();
+
+  /**
+   * Registers a callback which is executed once, after the next successful commit of this session.
+   * Callbacks are discarded on rollback and on close. Registering the same instance several times
+   * before the commit executes it only once.
+   */
+  void addCommitListener(Runnable listener);
 }
@@ -20,8 +20,11 @@
 package org.sonar.db;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.session.Configuration;
@@ -32,6 +35,7 @@ import org.apache.ibatis.session.SqlSession;
 public class DbSessionImpl implements DbSession {
 
   private SqlSession session;
+  private final Set<Runnable> commitListeners = new LinkedHashSet<>();
 
   public DbSessionImpl(SqlSession session) {
     this.session = session;
@@ -40,11 +44,27 @@ public class DbSessionImpl implements DbSession {
   @Override
   public void commit() {
     session.commit();
+    notifyCommitListeners();
   }
 
   @Override
   public void commit(boolean force) {
     session.commit(force);
+    notifyCommitListeners();
+  }
+
+  @Override
+  public void addCommitListener(Runnable listener) {
+    commitListeners.add(listener);
+  }
+
+  private void notifyCommitListeners() {
+    if (commitListeners.isEmpty()) {
+      return;
+    }
+    List<Runnable> listeners = new ArrayList<>(commitListeners);
+    commitListeners.clear();
+    listeners.forEach(Runnable::run);
   }
 
   /**
@@ -155,11 +175,13 @@ public class DbSessionImpl implements DbSession {
   @Override
   public void rollback() {
     session.rollback();
+    commitListeners.clear();
   }
 
   @Override
   public void rollback(boolean force) {
     session.rollback(force);
+    commitListeners.clear();
   }
 
   @Override
@@ -169,6 +191,7 @@ public class DbSessionImpl implements DbSession {
 
   @Override
   public void close() {
+    commitListeners.clear();
     session.close();
   }
 
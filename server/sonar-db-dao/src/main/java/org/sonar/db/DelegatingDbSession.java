@@ -168,6 +168,11 @@ abstract class DelegatingDbSession implements DbSession {
     delegate.commit(force);
   }
 
+  @Override
+  public void addCommitListener(Runnable listener) {
+    delegate.addCommitListener(listener);
+  }
+
   @Override
   public void rollback() {
     delegate.rollback();
@@ -0,0 +1,44 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.permission;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.sonar.db.DbSession;
+
+/**
+ * Notifies listeners once the changes of tables groups_users, group_roles or user_roles are committed.
+ * DAOs writing these tables must call {@link #onChange(DbSession)}, so that caches of permissions
+ * do not have to be invalidated by each caller.
+ */
+public class AuthorizationChanges {
+
+  private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+  // same instance for all the changes of a session, so that listeners are notified once per commit
+  private final Runnable notifier = () -> listeners.forEach(Runnable::run);
+
+  public void addListener(Runnable listener) {
+    listeners.add(listener);
+  }
+
+  public void onChange(DbSession dbSession) {
+    dbSession.addCommitListener(notifier);
+  }
+}
@@ -40,6 +40,12 @@ public class GroupPermissionDao implements Dao {
 
   private static final String ANYONE_GROUP_PARAMETER = "anyoneGroup";
 
+  private final AuthorizationChanges authorizationChanges;
+
+  public GroupPermissionDao(AuthorizationChanges authorizationChanges) {
+    this.authorizationChanges = authorizationChanges;
+  }
+
   /**
    * Returns the names of the groups that match the given query, for the given organization.
    * The virtual group "Anyone" may be returned as the value {@link DefaultGroups#ANYONE}.
@@ -116,7 +122,7 @@ public class GroupPermissionDao implements Dao {
   public void insert(DbSession dbSession, GroupPermissionDto dto) {
     ensureComponentPermissionConsistency(dbSession, dto);
     ensureGroupPermissionConsistency(dbSession, dto);
-    mapper(dbSession).insert(dto);
+    writeMapper(dbSession).insert(dto);
   }
 
   private static void ensureComponentPermissionConsistency(DbSession dbSession, GroupPermissionDto dto) {
@@ -145,7 +151,7 @@ public class GroupPermissionDao implements Dao {
    * Delete all the permissions associated to a root component (project)
    */
   public void deleteByRootComponentId(DbSession dbSession, long rootComponentId) {
-    mapper(dbSession).deleteByRootComponentId(rootComponentId);
+    writeMapper(dbSession).deleteByRootComponentId(rootComponentId);
   }
 
   /**
@@ -153,14 +159,14 @@ public class GroupPermissionDao implements Dao {
    * component.
    */
   public int deleteByRootComponentIdAndGroupId(DbSession dbSession, long rootComponentId, @Nullable Integer groupId) {
-    return mapper(dbSession).deleteByRootComponentIdAndGroupId(rootComponentId, groupId);
+    return writeMapper(dbSession).deleteByRootComponentIdAndGroupId(rootComponentId, groupId);
   }
 
   /**
    * Delete the specified permission for the specified component for any group (including group AnyOne).
    */
   public int deleteByRootComponentIdAndPermission(DbSession dbSession, long rootComponentId, String permission) {
-    return mapper(dbSession).deleteByRootComponentIdAndPermission(rootComponentId, permission);
+    return writeMapper(dbSession).deleteByRootComponentIdAndPermission(rootComponentId, permission);
   }
 
   /**
@@ -178,11 +184,16 @@ public class GroupPermissionDao implements Dao {
    * @param rootComponentId if null, then global permission, else id of root component (project)
    */
   public void delete(DbSession dbSession, String permission, String organizationUuid, @Nullable Integer groupId, @Nullable Long rootComponentId) {
-    mapper(dbSession).delete(permission, organizationUuid, groupId, rootComponentId);
+    writeMapper(dbSession).delete(permission, organizationUuid, groupId, rootComponentId);
   }
 
   public void deleteByOrganization(DbSession dbSession, String organizationUuid) {
-    mapper(dbSession).deleteByOrganization(organizationUuid);
+    writeMapper(dbSession).deleteByOrganization(organizationUuid);
+  }
+
+  private GroupPermissionMapper writeMapper(DbSession session) {
+    authorizationChanges.onChange(session);
+    return mapper(session);
   }
 
   private static GroupPermissionMapper mapper(DbSession session) {
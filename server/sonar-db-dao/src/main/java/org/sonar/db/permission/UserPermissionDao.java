@@ -34,6 +34,12 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 
 public class UserPermissionDao implements Dao {
 
+  private final AuthorizationChanges authorizationChanges;
+
+  public UserPermissionDao(AuthorizationChanges authorizationChanges) {
+    this.authorizationChanges = authorizationChanges;
+  }
+
   /**
    * List of user permissions ordered by alphabetical order of user names.
    * Pagination is NOT applied.
@@ -96,7 +102,7 @@ public class UserPermissionDao implements Dao {
 
   public void insert(DbSession dbSession, UserPermissionDto dto) {
     ensureComponentPermissionConsistency(dbSession, dto);
-    mapper(dbSession).insert(dto);
+    writeMapper(dbSession).insert(dto);
   }
 
   private static void ensureComponentPermissionConsistency(DbSession dbSession, UserPermissionDto dto) {
@@ -114,40 +120,45 @@ public class UserPermissionDao implements Dao {
    * Removes a single global permission from user
    */
   public void deleteGlobalPermission(DbSession dbSession, int userId, String permission, String organizationUuid) {
-    mapper(dbSession).deleteGlobalPermission(userId, permission, organizationUuid);
+    writeMapper(dbSession).deleteGlobalPermission(userId, permission, organizationUuid);
   }
 
   /**
    * Removes a single project permission from user
    */
   public void deleteProjectPermission(DbSession dbSession, int userId, String permission, long projectId) {
-    mapper(dbSession).deleteProjectPermission(userId, permission, projectId);
+    writeMapper(dbSession).deleteProjectPermission(userId, permission, projectId);
   }
 
   /**
    * Deletes all the permissions defined on a project
    */
   public void deleteProjectPermissions(DbSession dbSession, long projectId) {
-    mapper(dbSession).deleteProjectPermissions(projectId);
+    writeMapper(dbSession).deleteProjectPermissions(projectId);
   }
 
   /**
    * Deletes the specified permission on the specified project for any user.
    */
   public int deleteProjectPermissionOfAnyUser(DbSession dbSession, long projectId, String permission) {
-    return mapper(dbSession).deleteProjectPermissionOfAnyUser(projectId, permission);
+    return writeMapper(dbSession).deleteProjectPermissionOfAnyUser(projectId, permission);
   }
 
   public void deleteByOrganization(DbSession dbSession, String organizationUuid) {
-    mapper(dbSession).deleteByOrganization(organizationUuid);
+    writeMapper(dbSession).deleteByOrganization(organizationUuid);
   }
 
   public void deleteOrganizationMemberPermissions(DbSession dbSession, String organizationUuid, int userId) {
-    mapper(dbSession).deleteOrganizationMemberPermissions(organizationUuid, userId);
+    writeMapper(dbSession).deleteOrganizationMemberPermissions(organizationUuid, userId);
   }
 
   public void deleteByUserId(DbSession dbSession, int userId) {
-    mapper(dbSession).deleteByUserId(userId);
+    writeMapper(dbSession).deleteByUserId(userId);
+  }
+
+  private UserPermissionMapper writeMapper(DbSession dbSession) {
+    authorizationChanges.onChange(dbSession);
+    return mapper(dbSession);
   }
 
   private static UserPermissionMapper mapper(DbSession dbSession) {
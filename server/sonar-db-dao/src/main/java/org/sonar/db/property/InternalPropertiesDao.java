@@ -89,6 +89,33 @@ public class InternalPropertiesDao implements Dao {
     mapper.insertAsEmpty(key, system2.now());
   }
 
+  /**
+   * Insert a property which value is empty. Contrary to {@link #saveAsEmpty(DbSession, String)}, an existing
+   * property is not replaced: the insert fails on the primary key.
+   */
+  public void insertAsEmpty(DbSession dbSession, String key) {
+    checkKey(key);
+
+    getMapper(dbSession).insertAsEmpty(key, system2.now());
+  }
+
+  /**
+   * Change the value of an existing property. Contrary to {@link #save(DbSession, String, String)}, the row is
+   * not deleted then inserted again, so that concurrent transactions which change the same property wait for
+   * each other instead of failing on the primary key.
+   * <p>Value can't be {@code null} nor empty and must be stored in varchar, i.e. its size is 4000 at most.</p>
+   *
+   * @return {@code false} if the property does not exist, in which case nothing is changed.
+   * @throws IllegalArgumentException if {@code key} or {@code value} is {@code null} or empty, or if {@code value} is too long.
+   */
+  public boolean update(DbSession dbSession, String key, String value) {
+    checkKey(key);
+    checkArgument(value != null && !value.isEmpty(), "value can't be null nor empty");
+    checkArgument(!mustsBeStoredInClob(value), "value can't be longer than %s characters", TEXT_VALUE_MAX_LENGTH);
+
+    return getMapper(dbSession).updateAsText(key, value, system2.now()) > 0;
+  }
+
   /**
    * @return a Map with an {link Optional<String>} for each String in {@code keys}.
    */
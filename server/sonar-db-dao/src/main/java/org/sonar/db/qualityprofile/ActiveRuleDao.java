@@ -21,6 +21,7 @@ package org.sonar.db.qualityprofile;
 
 import com.google.common.base.Preconditions;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -61,6 +62,14 @@ public class ActiveRuleDao implements Dao {
     return executeLargeInputs(ids, chunk -> mapper(dbSession).selectByRuleIds(organization.getUuid(), chunk));
   }
 
+  public List<ActiveRuleDto> selectByRuleIdsAndRuleProfileUuids(DbSession dbSession, Collection<Integer> ruleIds, Collection<String> ruleProfileUuids) {
+    if (ruleProfileUuids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    ActiveRuleMapper mapper = mapper(dbSession);
+    return executeLargeInputs(ruleIds, chunk -> mapper.selectByRuleIdsAndRuleProfileUuids(chunk, ruleProfileUuids));
+  }
+
   /**
    * Active rule on removed rule are NOT returned
    */
@@ -51,6 +51,9 @@ public interface ActiveRuleMapper {
 
   List<OrgActiveRuleDto> selectByRuleIds(@Param("organizationUuid") String organizationUuid, @Param("ruleIds") List<Integer> partitionOfRuleIds);
 
+  List<ActiveRuleDto> selectByRuleIdsAndRuleProfileUuids(@Param("ruleIds") Collection<Integer> partitionOfRuleIds,
+    @Param("ruleProfileUuids") Collection<String> ruleProfileUuids);
+
   List<OrgActiveRuleDto> selectByProfileUuid(String uuid);
 
   List<ActiveRuleDto> selectByRuleProfileUuid(@Param("ruleProfileUuid") String uuid);
@@ -117,6 +117,10 @@ public class RuleDao implements Dao {
     return mapper(session).selectAllDefinitions();
   }
 
+  public List<RuleMetadataDto> selectAllMetadata(DbSession session, String organizationUuid) {
+    return mapper(session).selectAllMetadata(organizationUuid);
+  }
+
   public List<RuleDto> selectByQuery(DbSession session, String organizationUuid, RuleQuery ruleQuery) {
     return ensureOrganizationIsSet(organizationUuid, mapper(session).selectByQuery(organizationUuid, ruleQuery));
   }
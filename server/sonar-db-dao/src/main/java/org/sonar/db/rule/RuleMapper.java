@@ -48,6 +48,8 @@ public interface RuleMapper {
 
   RuleMetadataDto selectMetadataByKey(@Param("ruleKey") RuleKey ruleKey, @Param("organizationUuid") String organizationUuid);
 
+  List<RuleMetadataDto> selectAllMetadata(@Param("organizationUuid") String organizationUuid);
+
   List<RuleDto> selectByKeys(@Param("organizationUuid") String organizationUuid, @Param("ruleKeys") List<RuleKey> keys);
 
   List<RuleDefinitionDto> selectDefinitionByKeys(@Param("ruleKeys") List<RuleKey> keys);
@@ -25,8 +25,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import javax.annotation.CheckForNull;
 import org.apache.commons.dbutils.DbUtils;
@@ -35,6 +37,8 @@ import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.source.FileSourceDto.Type;
 
+import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
+
 public class FileSourceDao implements Dao {
 
   private static final Splitter END_OF_LINE_SPLITTER = Splitter.on('\n');
@@ -44,6 +48,15 @@ public class FileSourceDao implements Dao {
     return mapper(session).select(fileUuid, Type.SOURCE);
   }
 
+  /**
+   * Returns the hash of the source data of the given file, without loading the data itself. Returns {@code null}
+   * if the file has no source.
+   */
+  @CheckForNull
+  public String selectSourceDataHash(DbSession session, String fileUuid) {
+    return mapper(session).selectDataHash(fileUuid, Type.SOURCE);
+  }
+
   @CheckForNull
   public FileSourceDto selectTest(DbSession dbSession, String fileUuid) {
     return mapper(dbSession).select(fileUuid, Type.TEST);
@@ -98,6 +111,16 @@ public class FileSourceDao implements Dao {
     }
   }
 
+  /**
+   * Streams the line hashes of the source of the given files. Only {@link FileSourceDto#getFileUuid()} and
+   * {@link FileSourceDto#getLineHashes()} are loaded. Files without source are ignored.
+   */
+  public void scrollLineHashes(DbSession dbSession, Collection<String> fileUuids, Consumer<FileSourceDto> consumer) {
+    FileSourceMapper mapper = mapper(dbSession);
+    executeLargeInputsWithoutOutput(fileUuids,
+      page -> mapper.scrollLineHashes(page, Type.SOURCE, context -> consumer.accept(context.getResultObject())));
+  }
+
   public void insert(DbSession session, FileSourceDto dto) {
     mapper(session).insert(dto);
   }
@@ -21,6 +21,7 @@ package org.sonar.db.source;
 
 import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -122,6 +123,54 @@ public class FileSourceDto {
     }
   }
 
+  /**
+   * Decodes the lines of source having a line number greater than or equal to {@code from}, at most
+   * {@code limit} of them. As lines are sorted, decompression stops as soon as the last requested
+   * line is read, and the lines before {@code from} are skipped without being fully parsed. This avoids
+   * decoding the whole blob when only the first lines of a huge file are requested.
+   */
+  public List<DbFileSources.Line> decodeSourceLines(int from, int limit) {
+    try (LZ4BlockInputStream lz4Input = new LZ4BlockInputStream(new ByteArrayInputStream(binaryData))) {
+      CodedInputStream input = CodedInputStream.newInstance(lz4Input);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      List<DbFileSources.Line> lines = new ArrayList<>();
+      int tag = input.readTag();
+      while (tag != 0 && lines.size() < limit) {
+        if (WireFormat.getTagFieldNumber(tag) == DbFileSources.Data.LINES_FIELD_NUMBER) {
+          byte[] lineBytes = input.readByteArray();
+          int lineNumber = peekLineNumber(lineBytes);
+          if (lineNumber == -1 || lineNumber >= from) {
+            DbFileSources.Line line = DbFileSources.Line.parseFrom(lineBytes);
+            if (line.hasLine() && line.getLine() >= from) {
+              lines.add(line);
+            }
+          }
+        } else {
+          input.skipField(tag);
+        }
+        tag = input.readTag();
+      }
+      return lines;
+    } catch (IOException e) {
+      throw new IllegalStateException(
+        format("Fail to decompress and deserialize source data [id=%s,fileUuid=%s,projectUuid=%s]", id, fileUuid, projectUuid),
+        e);
+    }
+  }
+
+  /**
+   * Protobuf serializes fields in the order of their numbers, so the line number is expected to be
+   * the first field. Returns -1 if it's not the case.
+   */
+  private static int peekLineNumber(byte[] lineBytes) throws IOException {
+    CodedInputStream lineInput = CodedInputStream.newInstance(lineBytes);
+    int tag = lineInput.readTag();
+    if (WireFormat.getTagFieldNumber(tag) == DbFileSources.Line.LINE_FIELD_NUMBER && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_VARINT) {
+      return lineInput.readInt32();
+    }
+    return -1;
+  }
+
   /**
    * Serialize and compress protobuf message {@link org.sonar.db.protobuf.DbFileSources.Data}
    * in the column BINARY_DATA.
@@ -25,6 +25,7 @@ import java.util.Set;
 import org.sonar.api.web.UserRole;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.permission.AuthorizationChanges;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.sonar.api.web.UserRole.CODEVIEWER;
@@ -33,6 +34,12 @@ import static org.sonar.api.web.UserRole.USER;
 public class RoleDao implements Dao {
   private static final Set<String> UNSUPPORTED_PROJECT_PERMISSIONS = ImmutableSet.of(USER, CODEVIEWER);
 
+  private final AuthorizationChanges authorizationChanges;
+
+  public RoleDao(AuthorizationChanges authorizationChanges) {
+    this.authorizationChanges = authorizationChanges;
+  }
+
   /**
    * All the projects on which the user has {@code permission}, directly or through
    * groups.
@@ -48,7 +55,12 @@ public class RoleDao implements Dao {
   }
 
   public void deleteGroupRolesByGroupId(DbSession session, int groupId) {
-    mapper(session).deleteGroupRolesByGroupId(groupId);
+    writeMapper(session).deleteGroupRolesByGroupId(groupId);
+  }
+
+  private RoleMapper writeMapper(DbSession session) {
+    authorizationChanges.onChange(session);
+    return mapper(session);
   }
 
   private static RoleMapper mapper(DbSession session) {
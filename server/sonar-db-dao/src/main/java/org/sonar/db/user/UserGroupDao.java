@@ -21,28 +21,40 @@ package org.sonar.db.user;
 
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.permission.AuthorizationChanges;
 
 public class UserGroupDao implements Dao {
 
+  private final AuthorizationChanges authorizationChanges;
+
+  public UserGroupDao(AuthorizationChanges authorizationChanges) {
+    this.authorizationChanges = authorizationChanges;
+  }
+
   public UserGroupDto insert(DbSession session, UserGroupDto dto) {
-    mapper(session).insert(dto);
+    writeMapper(session).insert(dto);
     return dto;
   }
 
   public void delete(DbSession session, int groupId, int userId) {
-    mapper(session).delete(groupId, userId);
+    writeMapper(session).delete(groupId, userId);
   }
 
   public void deleteByGroupId(DbSession session, int groupId) {
-    mapper(session).deleteByGroupId(groupId);
+    writeMapper(session).deleteByGroupId(groupId);
   }
 
   public void deleteByOrganizationAndUser(DbSession dbSession, String organizationUuid, int userId) {
-    mapper(dbSession).deleteByOrganizationAndUser(organizationUuid, userId);
+    writeMapper(dbSession).deleteByOrganizationAndUser(organizationUuid, userId);
   }
 
   public void deleteByUserId(DbSession dbSession, int userId) {
-    mapper(dbSession).deleteByUserId(userId);
+    writeMapper(dbSession).deleteByUserId(userId);
+  }
+
+  private UserGroupMapper writeMapper(DbSession session) {
+    authorizationChanges.onChange(session);
+    return mapper(session);
   }
 
   private static UserGroupMapper mapper(DbSession session) {
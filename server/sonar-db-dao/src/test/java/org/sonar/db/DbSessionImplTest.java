@@ -244,6 +244,32 @@ public class DbSessionImplTest {
     assertThat(underTest.getSqlSession()).isSameAs(sqlSessionMock);
   }
 
+  @Test
+  public void commit_listeners_are_executed_once_after_next_commit() {
+    List<String> calls = new ArrayList<>();
+    Runnable listener = () -> calls.add("listener");
+    underTest.addCommitListener(listener);
+    underTest.addCommitListener(listener);
+    assertThat(calls).isEmpty();
+
+    underTest.commit();
+    assertThat(calls).containsExactly("listener");
+
+    underTest.commit(true);
+    assertThat(calls).containsExactly("listener");
+  }
+
+  @Test
+  public void commit_listeners_are_discarded_on_rollback() {
+    List<String> calls = new ArrayList<>();
+    underTest.addCommitListener(() -> calls.add("listener"));
+
+    underTest.rollback();
+    underTest.commit();
+
+    assertThat(calls).isEmpty();
+  }
+
   private void verifyDelegation(Consumer<DbSessionImpl> t, Consumer<SqlSession> s) {
     reset(sqlSessionMock);
     t.accept(underTest);
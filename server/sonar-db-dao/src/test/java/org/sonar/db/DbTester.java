@@ -38,6 +38,7 @@ import org.sonar.db.notification.NotificationDbTester;
 import org.sonar.db.organization.OrganizationDbTester;
 import org.sonar.db.organization.OrganizationDto;
 import org.sonar.db.organization.OrganizationTesting;
+import org.sonar.db.permission.AuthorizationChanges;
 import org.sonar.db.permission.template.PermissionTemplateDbTester;
 import org.sonar.db.plugin.PluginDbTester;
 import org.sonar.db.property.PropertyDbTester;
@@ -59,6 +60,7 @@ import static org.apache.commons.lang.RandomStringUtils.randomAlphanumeric;
 public class DbTester extends AbstractDbTester<TestDb> {
 
   private final System2 system2;
+  private final AuthorizationChanges authorizationChanges = new AuthorizationChanges();
   private DbClient client;
   private DbSession session = null;
   private boolean disableDefaultOrganization = false;
@@ -126,6 +128,7 @@ public class DbTester extends AbstractDbTester<TestDb> {
     ioc.addComponent(db.getMyBatis());
     ioc.addComponent(system2);
     ioc.addComponent(new SequenceUuidFactory());
+    ioc.addComponent(authorizationChanges);
     for (Class daoClass : DaoModule.classes()) {
       ioc.addComponent(daoClass);
     }
@@ -268,6 +271,13 @@ public class DbTester extends AbstractDbTester<TestDb> {
     return client;
   }
 
+  /**
+   * Notified on commit of the changes of groups and permissions made with {@link #getDbClient()}
+   */
+  public AuthorizationChanges getAuthorizationChanges() {
+    return authorizationChanges;
+  }
+
   public int countRowsOfTable(DbSession dbSession, String tableName) {
     return super.countRowsOfTable(tableName, new DbSessionConnectionSupplier(dbSession));
   }
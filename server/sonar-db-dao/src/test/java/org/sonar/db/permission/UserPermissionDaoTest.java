@@ -59,7 +59,7 @@ public class UserPermissionDaoTest {
   public DbTester db = DbTester.create(System2.INSTANCE);
 
   private DbSession dbSession = db.getSession();
-  private UserPermissionDao underTest = new UserPermissionDao();
+  private UserPermissionDao underTest = new UserPermissionDao(new AuthorizationChanges());
 
   @Test
   public void select_global_permissions() {
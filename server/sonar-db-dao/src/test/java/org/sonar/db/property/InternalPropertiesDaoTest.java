@@ -33,6 +33,7 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.apache.ibatis.exceptions.PersistenceException;
 import org.assertj.core.api.AbstractAssert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -251,6 +252,73 @@ public class InternalPropertiesDaoTest {
       .hasCreatedAt(DATE_1);
   }
 
+  @Test
+  public void insertAsEmpty_persist_property_without_textvalue_nor_clob_value() {
+    when(system2.now()).thenReturn(DATE_1);
+
+    underTest.insertAsEmpty(dbSession, A_KEY);
+
+    assertThatInternalProperty(A_KEY)
+      .isEmpty()
+      .hasCreatedAt(DATE_1);
+  }
+
+  @Test
+  public void insertAsEmpty_fails_if_property_exists() {
+    when(system2.now()).thenReturn(DATE_1);
+    underTest.save(dbSession, A_KEY, VALUE_SMALL);
+
+    expectedException.expect(PersistenceException.class);
+
+    underTest.insertAsEmpty(dbSession, A_KEY);
+  }
+
+  @Test
+  public void update_throws_IAE_if_value_is_empty() {
+    expectValueNullOrEmptyIAE();
+
+    underTest.update(dbSession, A_KEY, EMPTY_STRING);
+  }
+
+  @Test
+  public void update_throws_IAE_if_value_is_more_than_4000() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("value can't be longer than 4000 characters");
+
+    underTest.update(dbSession, A_KEY, VALUE_SIZE_4001);
+  }
+
+  @Test
+  public void update_does_nothing_if_property_does_not_exist() {
+    assertThat(underTest.update(dbSession, A_KEY, VALUE_SMALL)).isFalse();
+
+    assertThat(underTest.selectByKey(dbSession, A_KEY)).isEmpty();
+  }
+
+  @Test
+  public void update_persists_new_value_in_varchar_when_old_one_was_empty() {
+    when(system2.now()).thenReturn(DATE_1, DATE_2);
+    underTest.saveAsEmpty(dbSession, A_KEY);
+
+    assertThat(underTest.update(dbSession, A_KEY, VALUE_SMALL)).isTrue();
+
+    assertThatInternalProperty(A_KEY)
+      .hasTextValue(VALUE_SMALL)
+      .hasCreatedAt(DATE_2);
+  }
+
+  @Test
+  public void update_persists_new_value_in_varchar_when_old_one_was_in_clob() {
+    when(system2.now()).thenReturn(DATE_1, DATE_2);
+    underTest.save(dbSession, A_KEY, VALUE_SIZE_4001);
+
+    assertThat(underTest.update(dbSession, A_KEY, VALUE_SMALL)).isTrue();
+
+    assertThatInternalProperty(A_KEY)
+      .hasTextValue(VALUE_SMALL)
+      .hasCreatedAt(DATE_2);
+  }
+
   @Test
   public void selectByKey_throws_IAE_when_key_is_null() {
     expectKeyNullOrEmptyIAE();
@@ -135,6 +135,25 @@ public class ActiveRuleDaoTest {
       .extracting("key").containsOnly(activeRule1.getKey(), activeRule2.getKey(), activeRule3.getKey());
   }
 
+  @Test
+  public void select_by_rule_ids_and_rule_profile_uuids() {
+    ActiveRuleDto activeRule1 = createFor(profile1, rule1).setSeverity(BLOCKER);
+    ActiveRuleDto activeRule2 = createFor(profile1, rule2).setSeverity(BLOCKER);
+    ActiveRuleDto activeRule3 = createFor(profile2, rule1).setSeverity(BLOCKER);
+    underTest.insert(dbSession, activeRule1);
+    underTest.insert(dbSession, activeRule2);
+    underTest.insert(dbSession, activeRule3);
+    dbSession.commit();
+
+    assertThat(underTest.selectByRuleIdsAndRuleProfileUuids(dbSession, singletonList(rule1.getId()), singletonList(profile1.getRulesProfileUuid())))
+      .extracting("key").containsOnly(activeRule1.getKey());
+    assertThat(underTest.selectByRuleIdsAndRuleProfileUuids(dbSession, newArrayList(rule1.getId(), rule2.getId()),
+      newArrayList(profile1.getRulesProfileUuid(), profile2.getRulesProfileUuid())))
+      .extracting("key").containsOnly(activeRule1.getKey(), activeRule2.getKey(), activeRule3.getKey());
+    assertThat(underTest.selectByRuleIdsAndRuleProfileUuids(dbSession, singletonList(rule3.getId()), singletonList(profile1.getRulesProfileUuid()))).isEmpty();
+    assertThat(underTest.selectByRuleIdsAndRuleProfileUuids(dbSession, singletonList(rule1.getId()), emptyList())).isEmpty();
+  }
+
   @Test
   public void selectByProfile() {
     ActiveRuleDto activeRule1 = createFor(profile1, rule1).setSeverity(BLOCKER);
@@ -264,6 +264,20 @@ public class RuleDaoTest {
     assertThat(ruleDtos).extracting("id").containsOnly(1, 2, 10);
   }
 
+  @Test
+  public void selectAllMetadata() {
+    RuleDefinitionDto rule1 = db.rules().insert();
+    RuleDefinitionDto rule2 = db.rules().insert();
+    OrganizationDto otherOrganization = db.organizations().insert();
+    db.rules().insertOrUpdateMetadata(rule1, organization, m -> m.setNoteData("note of rule 1"));
+    db.rules().insertOrUpdateMetadata(rule2, otherOrganization);
+
+    assertThat(underTest.selectAllMetadata(db.getSession(), organization.getUuid()))
+      .extracting(RuleMetadataDto::getRuleId, RuleMetadataDto::getOrganizationUuid, RuleMetadataDto::getNoteData)
+      .containsExactly(tuple(rule1.getId(), organization.getUuid(), "note of rule 1"));
+    assertThat(underTest.selectAllMetadata(db.getSession(), "unknown")).isEmpty();
+  }
+
   @Test
   public void selectEnabled_with_ResultHandler() {
     db.prepareDbUnit(getClass(), "selectEnabled.xml");
@@ -27,6 +27,7 @@ import org.junit.rules.ExpectedException;
 import org.sonar.db.protobuf.DbFileSources;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 public class FileSourceDtoTest {
   private static final String LOREM_IPSUM = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. Aliquam ac magna libero. " +
@@ -80,6 +81,32 @@ public class FileSourceDtoTest {
     assertThat(data.getLinesCount()).isEqualTo(build.getLinesCount());
   }
 
+  @Test
+  public void decodeSourceLines_returns_only_requested_range() {
+    DbFileSources.Data.Builder dataBuilder = DbFileSources.Data.newBuilder();
+    for (int i = 1; i <= 1000; i++) {
+      dataBuilder.addLinesBuilder().setLine(i).setSource("line " + i);
+    }
+    FileSourceDto underTest = new FileSourceDto().setSourceData(dataBuilder.build());
+
+    assertThat(underTest.decodeSourceLines(10, 3))
+      .extracting(DbFileSources.Line::getLine, DbFileSources.Line::getSource)
+      .containsExactly(tuple(10, "line 10"), tuple(11, "line 11"), tuple(12, "line 12"));
+    assertThat(underTest.decodeSourceLines(999, Integer.MAX_VALUE)).extracting(DbFileSources.Line::getLine).containsExactly(999, 1000);
+    assertThat(underTest.decodeSourceLines(1001, 10)).isEmpty();
+  }
+
+  @Test
+  public void decodeSourceLines_ignores_lines_without_line_number() {
+    DbFileSources.Data data = DbFileSources.Data.newBuilder()
+      .addLines(DbFileSources.Line.newBuilder().setSource("no line number"))
+      .addLines(DbFileSources.Line.newBuilder().setLine(1).setSource("first"))
+      .build();
+    FileSourceDto underTest = new FileSourceDto().setSourceData(data);
+
+    assertThat(underTest.decodeSourceLines(1, 10)).extracting(DbFileSources.Line::getSource).containsExactly("first");
+  }
+
   private static DbFileSources.Data createOver64MBDataStructure() {
     DbFileSources.Data.Builder dataBuilder = DbFileSources.Data.newBuilder();
     DbFileSources.Line.Builder lineBuilder = DbFileSources.Line.newBuilder();
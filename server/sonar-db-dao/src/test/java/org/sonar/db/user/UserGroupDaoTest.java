@@ -19,6 +19,7 @@
  */
 package org.sonar.db.user;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.utils.System2;
@@ -50,6 +51,21 @@ public class UserGroupDaoTest {
     assertThat(dbTester.getDbClient().groupMembershipDao().selectGroupIdsByUserId(dbTester.getSession(), user.getId())).containsOnly(group.getId());
   }
 
+  @Test
+  public void notify_authorization_changes_on_commit() {
+    AtomicInteger changes = new AtomicInteger();
+    dbTester.getAuthorizationChanges().addListener(changes::incrementAndGet);
+    UserDto user = dbTester.users().insertUser();
+    GroupDto group = dbTester.users().insertGroup();
+
+    underTest.insert(dbSession, new UserGroupDto().setUserId(user.getId()).setGroupId(group.getId()));
+    underTest.delete(dbSession, group.getId(), user.getId());
+    assertThat(changes.get()).isZero();
+
+    dbSession.commit();
+    assertThat(changes.get()).isEqualTo(1);
+  }
+
   @Test
   public void delete_members_by_group_id() {
     UserDto user1 = dbTester.users().insertUser();
@@ -49,6 +49,8 @@ public class DbVersion70 implements DbVersion {
       .add(1919, "Associate existing quality gates to default organization", AssociateQualityGatesToDefaultOrganization.class)
       .add(1920, "Delete 'sonar.qualitygate' setting at global level", DeleteGlobalSonarQualityGateSetting.class)
       .add(1921, "Make ORGANIZATIONS.DEFAULT_QUALITY_GATE_UUID not nullable", SetDefaultQualityGateUuidAsNotNullableInOrganizations.class)
+      .add(1922, "Drop index on QPROFILE_CHANGES.RULES_PROFILE_UUID", DropIndexRulesProfileUuidOnQProfileChanges.class)
+      .add(1923, "Add index on QPROFILE_CHANGES.RULES_PROFILE_UUID and CREATED_AT", AddIndexRulesProfileUuidAndCreatedAtOnQProfileChanges.class)
     ;
   }
 }
@@ -25,6 +25,7 @@ import com.hazelcast.core.MemberSelector;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import org.sonar.process.ProcessId;
 import org.sonar.process.cluster.NodeType;
@@ -74,6 +75,12 @@ public interface HazelcastMember extends AutoCloseable {
    */
   <K, V> Map<K, V> getMap(String name);
 
+  /**
+   * Puts an entry in the map shared by the cluster and identified by name. The entry is removed from the map
+   * once {@code ttl} has elapsed since this put.
+   */
+  <K, V> void putInMap(String mapName, K key, V value, long ttl, TimeUnit ttlUnit);
+
   /**
    * Gets the replicated map shared by the cluster and identified by name.
    * Result can be casted to {@link com.hazelcast.core.ReplicatedMap} if needed to
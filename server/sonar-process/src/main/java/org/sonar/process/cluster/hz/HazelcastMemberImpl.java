@@ -65,6 +65,11 @@ class HazelcastMemberImpl implements HazelcastMember {
     return hzInstance.getMap(s);
   }
 
+  @Override
+  public <K, V> void putInMap(String mapName, K key, V value, long ttl, TimeUnit ttlUnit) {
+    hzInstance.<K, V>getMap(mapName).set(key, value, ttl, ttlUnit);
+  }
+
   @Override
   public <K, V> Map<K, V> getReplicatedMap(String s) {
     return hzInstance.getReplicatedMap(s);
@@ -39,6 +39,7 @@ import org.sonar.process.NetworkUtilsImpl;
 import org.sonar.process.ProcessId;
 import org.sonar.process.cluster.NodeType;
 
+import static java.util.concurrent.TimeUnit.HOURS;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class HazelcastMemberImplTest {
@@ -110,6 +111,13 @@ public class HazelcastMemberImplTest {
     assertThat(failures.get(0)).hasMessageContaining("BOOM");
   }
 
+  @Test
+  public void entries_put_with_ttl_are_shared_by_members() {
+    member1.putInMap("entries_put_with_ttl", "foo", "bar", 1L, HOURS);
+
+    assertThat(member2.<String, String>getMap("entries_put_with_ttl")).containsEntry("foo", "bar");
+  }
+
   private static HazelcastMember newHzMember(int port, int... otherPorts) {
     return new HazelcastMemberBuilder()
       .setNodeType(NodeType.APPLICATION)
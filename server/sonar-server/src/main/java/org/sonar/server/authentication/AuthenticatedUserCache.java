@@ -0,0 +1,151 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.authentication;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.user.UserDto;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Short-lived cache of the users authenticated by JWT session or by user token, so that the
+ * authentication of successive requests of a same user does not need to request DB.
+ * <p>
+ * Only successful lookups are cached. Entries are stamped with the {@link AuthenticatedUserCacheVersion}
+ * read before they are loaded. {@link #invalidateAll()} must be called when a user is deactivated, when one
+ * of his tokens is revoked, or when his root flag changes. It increments this version on all the nodes of
+ * the cluster, so that all the entries loaded before are ignored. Entries also expire after
+ * {@link #PROPERTY_TTL_IN_SECONDS}.
+ * <p>
+ * Cached users are shared between requests, so they must not be modified.
+ */
+@ServerSide
+public class AuthenticatedUserCache {
+
+  public static final String PROPERTY_TTL_IN_SECONDS = "sonar.web.authenticationCache.ttlInSeconds";
+  static final long DEFAULT_TTL_IN_SECONDS = 30L;
+  private static final long MAX_SIZE = 10_000L;
+
+  private final AuthenticatedUserCacheVersion version;
+  private final long ttlInSeconds;
+  @CheckForNull
+  private final Cache<String, Entry<UserDto>> activeUsersByLogin;
+  @CheckForNull
+  private final Cache<String, Entry<String>> loginsByTokenHash;
+
+  public AuthenticatedUserCache(Configuration config, AuthenticatedUserCacheVersion version) {
+    this.version = version;
+    this.ttlInSeconds = config.getLong(PROPERTY_TTL_IN_SECONDS).orElse(DEFAULT_TTL_IN_SECONDS);
+    this.activeUsersByLogin = ttlInSeconds > 0 ? newCache(ttlInSeconds) : null;
+    this.loginsByTokenHash = ttlInSeconds > 0 ? newCache(ttlInSeconds) : null;
+  }
+
+  private static <K, V> Cache<K, V> newCache(long ttlInSeconds) {
+    return CacheBuilder.newBuilder()
+      .maximumSize(MAX_SIZE)
+      .expireAfterWrite(ttlInSeconds, SECONDS)
+      .recordStats()
+      .build();
+  }
+
+  public boolean isEnabled() {
+    return activeUsersByLogin != null;
+  }
+
+  public long getTtlInSeconds() {
+    return ttlInSeconds;
+  }
+
+  /**
+   * Returns the active user with the given login. If it's not in cache, then it's loaded by {@code loader},
+   * which returns {@code null} if the user does not exist or is not active.
+   */
+  @CheckForNull
+  public UserDto getActiveUser(String login, Function<String, UserDto> loader) {
+    return get(activeUsersByLogin, login, key -> Optional.ofNullable(loader.apply(key))).orElse(null);
+  }
+
+  /**
+   * Returns the login of the user owning the token with the given hash. If it's not in cache, then it's
+   * loaded by {@code loader}.
+   */
+  public Optional<String> getLoginByTokenHash(String tokenHash, Function<String, Optional<String>> loader) {
+    return get(loginsByTokenHash, tokenHash, loader);
+  }
+
+  private <V> Optional<V> get(@CheckForNull Cache<String, Entry<V>> cache, String key, Function<String, Optional<V>> loader) {
+    if (cache == null) {
+      return loader.apply(key);
+    }
+    // read before loading, so that a change committed during the load is not hidden
+    long currentVersion = version.get();
+    Entry<V> entry = cache.getIfPresent(key);
+    if (entry != null && entry.version == currentVersion) {
+      return Optional.of(entry.value);
+    }
+    Optional<V> loaded = loader.apply(key);
+    loaded.ifPresent(v -> cache.put(key, new Entry<>(currentVersion, v)));
+    return loaded;
+  }
+
+  /**
+   * Ignores all the users and tokens cached on all the nodes. Must be called once the change is committed.
+   */
+  public void invalidateAll() {
+    version.increment();
+    if (activeUsersByLogin != null && loginsByTokenHash != null) {
+      activeUsersByLogin.invalidateAll();
+      loginsByTokenHash.invalidateAll();
+    }
+  }
+
+  public long getUserEntries() {
+    return activeUsersByLogin == null ? 0L : activeUsersByLogin.size();
+  }
+
+  public long getTokenEntries() {
+    return loginsByTokenHash == null ? 0L : loginsByTokenHash.size();
+  }
+
+  public CacheStats getUserStats() {
+    return activeUsersByLogin == null ? new CacheStats(0, 0, 0, 0, 0, 0) : activeUsersByLogin.stats();
+  }
+
+  public CacheStats getTokenStats() {
+    return loginsByTokenHash == null ? new CacheStats(0, 0, 0, 0, 0, 0) : loginsByTokenHash.stats();
+  }
+
+  private static class Entry<V> {
+    private final long version;
+    private final V value;
+
+    private Entry(long version, V value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.authentication;
+
+import com.hazelcast.core.IAtomicReference;
+import org.sonar.process.cluster.hz.HazelcastMember;
+
+/**
+ * Version shared by the web servers of the cluster, so that the deactivation of a user or the revocation
+ * of a token on a node invalidates the {@link AuthenticatedUserCache} of all nodes.
+ */
+public class AuthenticatedUserCacheClusterVersion implements AuthenticatedUserCacheVersion {
+
+  private static final String REFERENCE_NAME = "AUTHENTICATED_USERS_VERSION";
+
+  private final HazelcastMember hazelcastMember;
+
+  public AuthenticatedUserCacheClusterVersion(HazelcastMember hazelcastMember) {
+    this.hazelcastMember = hazelcastMember;
+  }
+
+  @Override
+  public long get() {
+    Long version = reference().get();
+    return version == null ? 0L : version;
+  }
+
+  @Override
+  public void increment() {
+    // java.lang.Long only, so that no classes of the web server are sent to other members
+    IAtomicReference<Long> reference = reference();
+    Long current;
+    do {
+      current = reference.get();
+    } while (!reference.compareAndSet(current, current == null ? 1L : (current + 1L)));
+  }
+
+  private IAtomicReference<Long> reference() {
+    return hazelcastMember.getAtomicReference(REFERENCE_NAME);
+  }
+}
@@ -42,6 +42,7 @@ public class AuthenticationModule extends Module {
       UserSessionInitializer.class,
       JwtSerializer.class,
       JwtHttpHandler.class,
+      AuthenticatedUserCache.class,
       JwtCsrfVerifier.class,
       OAuth2Redirection.class,
       LoginAction.class,
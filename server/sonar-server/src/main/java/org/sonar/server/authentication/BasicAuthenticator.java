@@ -46,13 +46,15 @@ public class BasicAuthenticator {
   private final CredentialsAuthenticator credentialsAuthenticator;
   private final UserTokenAuthenticator userTokenAuthenticator;
   private final AuthenticationEvent authenticationEvent;
+  private final AuthenticatedUserCache authenticatedUserCache;
 
   public BasicAuthenticator(DbClient dbClient, CredentialsAuthenticator credentialsAuthenticator,
-    UserTokenAuthenticator userTokenAuthenticator, AuthenticationEvent authenticationEvent) {
+    UserTokenAuthenticator userTokenAuthenticator, AuthenticationEvent authenticationEvent, AuthenticatedUserCache authenticatedUserCache) {
     this.dbClient = dbClient;
     this.credentialsAuthenticator = credentialsAuthenticator;
     this.userTokenAuthenticator = userTokenAuthenticator;
     this.authenticationEvent = authenticationEvent;
+    this.authenticatedUserCache = authenticatedUserCache;
   }
 
   public Optional<UserDto> authenticate(HttpServletRequest request) {
@@ -113,15 +115,19 @@ public class BasicAuthenticator {
         .setMessage("Token doesn't exist")
         .build();
     }
+    UserDto userDto = authenticatedUserCache.getActiveUser(authenticatedLogin.get(), this::selectActiveUser);
+    if (userDto == null) {
+      throw AuthenticationException.newBuilder()
+        .setSource(Source.local(Method.BASIC_TOKEN))
+        .setMessage("User doesn't exist")
+        .build();
+    }
+    return userDto;
+  }
+
+  private UserDto selectActiveUser(String login) {
     try (DbSession dbSession = dbClient.openSession(false)) {
-      UserDto userDto = dbClient.userDao().selectActiveUserByLogin(dbSession, authenticatedLogin.get());
-      if (userDto == null) {
-        throw AuthenticationException.newBuilder()
-          .setSource(Source.local(Method.BASIC_TOKEN))
-          .setMessage("User doesn't exist")
-          .build();
-      }
-      return userDto;
+      return dbClient.userDao().selectActiveUserByLogin(dbSession, login);
     }
   }
 
@@ -29,6 +29,7 @@ public class BatchWsModule extends Module {
       ProjectAction.class,
       ProjectDataLoader.class,
       IssuesAction.class,
+      LineHashesAction.class,
       IndexAction.class,
       FileAction.class,
       BatchWs.class);
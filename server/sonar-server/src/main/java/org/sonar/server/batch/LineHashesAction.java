@@ -0,0 +1,127 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.batch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.source.FileSourceDto;
+import org.sonar.scanner.protocol.input.ScannerInput;
+import org.sonar.server.component.ComponentFinder;
+import org.sonar.server.user.UserSession;
+import org.sonarqube.ws.MediaTypes;
+
+import static java.util.stream.Collectors.toMap;
+import static org.sonar.api.web.UserRole.USER;
+import static org.sonar.server.ws.KeyExamples.KEY_BRANCH_EXAMPLE_001;
+import static org.sonar.server.ws.KeyExamples.KEY_FILE_EXAMPLE_001;
+import static org.sonar.server.ws.KeyExamples.KEY_PROJECT_EXAMPLE_001;
+
+/**
+ * Bulk equivalent of api/sources/hash, used by the scanner to load in a single call the line hashes
+ * of all the files that changed since the last analysis.
+ */
+public class LineHashesAction implements BatchWsAction {
+
+  private static final String PARAM_KEY = "key";
+  private static final String PARAM_BRANCH = "branch";
+  private static final String PARAM_FILES = "files";
+
+  private final DbClient dbClient;
+  private final UserSession userSession;
+  private final ComponentFinder componentFinder;
+
+  public LineHashesAction(DbClient dbClient, UserSession userSession, ComponentFinder componentFinder) {
+    this.dbClient = dbClient;
+    this.userSession = userSession;
+    this.componentFinder = componentFinder;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller.createAction("line_hashes")
+      .setDescription("Return the line hashes of a set of files of a project, as a stream of delimited protobuf messages. " +
+        "Files which are unknown, which do not belong to the project or which have no source are ignored.")
+      .setSince("7.0")
+      .setPost(true)
+      .setInternal(true)
+      .setHandler(this);
+
+    action
+      .createParam(PARAM_KEY)
+      .setRequired(true)
+      .setDescription("Project key")
+      .setExampleValue(KEY_PROJECT_EXAMPLE_001);
+
+    action
+      .createParam(PARAM_BRANCH)
+      .setDescription("Branch key")
+      .setExampleValue(KEY_BRANCH_EXAMPLE_001);
+
+    action
+      .createParam(PARAM_FILES)
+      .setRequired(true)
+      .setDescription("Comma-separated list of file keys")
+      .setExampleValue(KEY_FILE_EXAMPLE_001);
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      String branch = request.param(PARAM_BRANCH);
+      ComponentDto project = componentFinder.getByKeyAndOptionalBranch(dbSession, request.mandatoryParam(PARAM_KEY), branch);
+      userSession.checkComponentPermission(USER, project);
+
+      List<String> fileKeys = request.mandatoryParamAsStrings(PARAM_FILES);
+      List<ComponentDto> files = branch == null ? dbClient.componentDao().selectByKeys(dbSession, fileKeys)
+        : dbClient.componentDao().selectByKeysAndBranch(dbSession, fileKeys, branch);
+      Map<String, String> keysByUuid = files.stream()
+        .filter(file -> project.uuid().equals(file.projectUuid()))
+        .collect(toMap(ComponentDto::uuid, ComponentDto::getKey));
+
+      response.stream().setMediaType(MediaTypes.PROTOBUF);
+      OutputStream output = response.stream().output();
+      ScannerInput.FileLineHashes.Builder builder = ScannerInput.FileLineHashes.newBuilder();
+      dbClient.fileSourceDao().scrollLineHashes(dbSession, keysByUuid.keySet(), dto -> writeLineHashes(dto, keysByUuid::get, builder, output));
+    }
+  }
+
+  private static void writeLineHashes(FileSourceDto dto, Function<String, String> keysByUuid, ScannerInput.FileLineHashes.Builder builder, OutputStream output) {
+    builder.clear();
+    builder.setKey(keysByUuid.apply(dto.getFileUuid()));
+    String lineHashes = dto.getLineHashes();
+    if (lineHashes != null) {
+      builder.setLineHashes(lineHashes);
+    }
+    try {
+      builder.build().writeDelimitedTo(output);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to serialize line hashes", e);
+    }
+  }
+}
@@ -26,6 +26,7 @@ import org.sonar.db.DbSession;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.es.ProjectIndexers;
+import org.sonar.server.measure.ws.ComponentTreeMatrixCache;
 import org.sonar.server.user.UserSession;
 
 import static java.util.Collections.singletonList;
@@ -38,11 +39,14 @@ public class ComponentService {
   private final DbClient dbClient;
   private final UserSession userSession;
   private final ProjectIndexers projectIndexers;
+  private final ComponentTreeMatrixCache componentTreeMatrixCache;
 
-  public ComponentService(DbClient dbClient, UserSession userSession, ProjectIndexers projectIndexers) {
+  public ComponentService(DbClient dbClient, UserSession userSession, ProjectIndexers projectIndexers,
+    ComponentTreeMatrixCache componentTreeMatrixCache) {
     this.dbClient = dbClient;
     this.userSession = userSession;
     this.projectIndexers = projectIndexers;
+    this.componentTreeMatrixCache = componentTreeMatrixCache;
   }
 
   // TODO should be moved to UpdateKeyAction
@@ -52,12 +56,16 @@ public class ComponentService {
     checkProjectOrModuleKeyFormat(newKey);
     dbClient.componentKeyUpdaterDao().updateKey(dbSession, projectOrModule.uuid(), newKey);
     projectIndexers.commitAndIndex(dbSession, singletonList(projectOrModule), ProjectIndexer.Cause.PROJECT_KEY_UPDATE);
+    // keys are copied in the in-memory component trees
+    componentTreeMatrixCache.invalidateAll();
   }
 
   // TODO should be moved to BulkUpdateKeyAction
   public void bulkUpdateKey(DbSession dbSession, ComponentDto projectOrModule, String stringToReplace, String replacementString) {
     dbClient.componentKeyUpdaterDao().bulkUpdateKey(dbSession, projectOrModule.uuid(), stringToReplace, replacementString);
     projectIndexers.commitAndIndex(dbSession, singletonList(projectOrModule), ProjectIndexer.Cause.PROJECT_KEY_UPDATE);
+    // keys are copied in the in-memory component trees
+    componentTreeMatrixCache.invalidateAll();
   }
 
   private static void checkProjectOrModuleKeyFormat(String key) {
@@ -20,14 +20,12 @@
 package org.sonar.server.computation.task.projectanalysis.issue;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.ImmutableMap;
-import java.util.Map;
 import javax.annotation.CheckForNull;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
-import org.sonar.db.rule.RuleDto;
 import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolder;
+import org.sonar.server.rule.RulesCache;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
@@ -35,16 +33,21 @@ import static java.util.Objects.requireNonNull;
 public class RuleRepositoryImpl implements RuleRepository {
 
   @CheckForNull
-  private Map<RuleKey, Rule> rulesByKey;
+  private RulesCache.Snapshot rules;
+  /**
+   * Rules are created on first access, at the index of their DTO in {@link #rules}.
+   */
   @CheckForNull
-  private Map<Integer, Rule> rulesById;
+  private Rule[] rulesByIndex;
 
   private final DbClient dbClient;
   private final AnalysisMetadataHolder analysisMetadataHolder;
+  private final RulesCache rulesCache;
 
-  public RuleRepositoryImpl(DbClient dbClient, AnalysisMetadataHolder analysisMetadataHolder) {
+  public RuleRepositoryImpl(DbClient dbClient, AnalysisMetadataHolder analysisMetadataHolder, RulesCache rulesCache) {
     this.dbClient = dbClient;
     this.analysisMetadataHolder = analysisMetadataHolder;
+    this.rulesCache = rulesCache;
   }
 
   @Override
@@ -53,7 +56,7 @@ public class RuleRepositoryImpl implements RuleRepository {
 
     ensureInitialized();
 
-    Rule rule = rulesByKey.get(key);
+    Rule rule = getByIndex(rules.indexOf(key));
     checkArgument(rule != null, "Can not find rule for key %s. This rule does not exist in DB", key);
     return rule;
   }
@@ -64,14 +67,14 @@ public class RuleRepositoryImpl implements RuleRepository {
 
     ensureInitialized();
 
-    return Optional.fromNullable(rulesByKey.get(key));
+    return Optional.fromNullable(getByIndex(rules.indexOf(key)));
   }
 
   @Override
   public Rule getById(int id) {
     ensureInitialized();
 
-    Rule rule = rulesById.get(id);
+    Rule rule = getByIndex(rules.indexOf(id));
     checkArgument(rule != null, "Can not find rule for id %s. This rule does not exist in DB", id);
     return rule;
   }
@@ -80,15 +83,28 @@ public class RuleRepositoryImpl implements RuleRepository {
   public Optional<Rule> findById(int id) {
     ensureInitialized();
 
-    return Optional.fromNullable(rulesById.get(id));
+    return Optional.fromNullable(getByIndex(rules.indexOf(id)));
   }
 
   private static void verifyKeyArgument(RuleKey key) {
     requireNonNull(key, "RuleKey can not be null");
   }
 
+  @CheckForNull
+  private Rule getByIndex(int index) {
+    if (index < 0) {
+      return null;
+    }
+    Rule rule = rulesByIndex[index];
+    if (rule == null) {
+      rule = new RuleImpl(rules.get(index));
+      rulesByIndex[index] = rule;
+    }
+    return rule;
+  }
+
   private void ensureInitialized() {
-    if (rulesByKey == null) {
+    if (rules == null) {
       try (DbSession dbSession = dbClient.openSession(false)) {
         loadRulesFromDb(dbSession);
       }
@@ -96,16 +112,10 @@ public class RuleRepositoryImpl implements RuleRepository {
   }
 
   private void loadRulesFromDb(DbSession dbSession) {
-    ImmutableMap.Builder<RuleKey, Rule> rulesByKeyBuilder = ImmutableMap.builder();
-    ImmutableMap.Builder<Integer, Rule> rulesByIdBuilder = ImmutableMap.builder();
     String organizationUuid = analysisMetadataHolder.getOrganization().getUuid();
-    for (RuleDto ruleDto : dbClient.ruleDao().selectAll(dbSession, organizationUuid)) {
-      Rule rule = new RuleImpl(ruleDto);
-      rulesByKeyBuilder.put(ruleDto.getKey(), rule);
-      rulesByIdBuilder.put(ruleDto.getId(), rule);
-    }
-    this.rulesByKey = rulesByKeyBuilder.build();
-    this.rulesById = rulesByIdBuilder.build();
+    RulesCache.Snapshot snapshot = rulesCache.get(dbSession, organizationUuid);
+    this.rulesByIndex = new Rule[snapshot.size()];
+    this.rules = snapshot;
   }
 
 }
@@ -30,6 +30,7 @@ import org.picocontainer.Startable;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.metric.MetricDto;
+import org.sonar.server.metric.MetricsCache;
 
 import static com.google.common.collect.FluentIterable.from;
 import static java.util.Objects.requireNonNull;
@@ -37,20 +38,22 @@ import static java.util.Objects.requireNonNull;
 public class MetricRepositoryImpl implements MetricRepository, Startable {
 
   private final DbClient dbClient;
+  private final MetricsCache metricsCache;
   @CheckForNull
   private Map<String, Metric> metricsByKey;
   @CheckForNull
   private Map<Long, Metric> metricsById;
 
-  public MetricRepositoryImpl(DbClient dbClient) {
+  public MetricRepositoryImpl(DbClient dbClient, MetricsCache metricsCache) {
     this.dbClient = dbClient;
+    this.metricsCache = metricsCache;
   }
 
   @Override
   public void start() {
     DbSession dbSession = dbClient.openSession(false);
     try {
-      List<MetricDto> metricList = dbClient.metricDao().selectEnabled(dbSession);
+      List<MetricDto> metricList = metricsCache.get(dbSession).getAll();
       this.metricsByKey = from(metricList).transform(MetricDtoToMetric.INSTANCE).uniqueIndex(MetricToKey.INSTANCE);
       this.metricsById = from(metricList).transform(MetricDtoToMetric.INSTANCE).uniqueIndex(MetricToId.INSTANCE);
     } finally {
@@ -41,6 +41,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
@@ -74,6 +75,9 @@ public class BulkIndexer {
   private final IndexingResult result = new IndexingResult();
   private final IndexingListener indexingListener;
   private final SizeHandler sizeHandler;
+  // physical index being rebuilt, see IndexRebuild
+  @Nullable
+  private String rebuiltIndex;
 
   public BulkIndexer(EsClient client, IndexType indexType, Size size) {
     this(client, indexType, size, IndexingListener.FAIL_ON_ERROR);
@@ -112,7 +116,7 @@ public class BulkIndexer {
       Thread.currentThread().interrupt();
       throw new IllegalStateException("Elasticsearch bulk requests still being executed after 1 minute", e);
     }
-    client.prepareRefresh(indexType.getIndex()).get();
+    client.prepareRefresh(getWriteIndex()).get();
     sizeHandler.afterStop(this);
     indexingListener.onFinish(result);
     return result;
@@ -120,17 +124,33 @@ public class BulkIndexer {
 
   public void add(IndexRequest request) {
     result.incrementRequests();
-    bulkProcessor.add(request);
+    bulkProcessor.add(toWriteIndex(request));
   }
 
   public void add(DeleteRequest request) {
     result.incrementRequests();
-    bulkProcessor.add(request);
+    bulkProcessor.add(toWriteIndex(request));
   }
 
   public void add(DocWriteRequest request) {
     result.incrementRequests();
-    bulkProcessor.add(request);
+    bulkProcessor.add(toWriteIndex(request));
+  }
+
+  /**
+   * When the index is being rebuilt, requests of {@link Size#LARGE} indexing are redirected to the new physical index,
+   * so that the current one keeps on serving searches. {@link Size#REGULAR} requests are never redirected, see
+   * {@link IndexRebuild} for why they can't happen during a rebuild.
+   */
+  private <R extends DocWriteRequest> R toWriteIndex(R request) {
+    if (rebuiltIndex != null && indexType.getIndex().equals(request.index())) {
+      request.index(rebuiltIndex);
+    }
+    return request;
+  }
+
+  private String getWriteIndex() {
+    return rebuiltIndex == null ? indexType.getIndex() : rebuiltIndex;
   }
 
   public void addDeletion(SearchRequestBuilder searchRequest) {
@@ -203,7 +223,8 @@ public class BulkIndexer {
           LOGGER.error("index [{}], type [{}], id [{}], message [{}]", item.getIndex(), item.getType(), item.getId(), item.getFailureMessage());
         } else {
           result.incrementSuccess();
-          successDocIds.add(new DocId(item.getIndex(), item.getType(), item.getId()));
+          // reported in the index requested by indexers, even if the physical index is an alias or a rebuilt index
+          successDocIds.add(new DocId(indexType.getIndex(), item.getType(), item.getId()));
         }
       }
       indexingListener.onSuccess(successDocIds);
@@ -286,21 +307,25 @@ public class BulkIndexer {
 
     @Override
     void beforeStart(BulkIndexer bulkIndexer) {
-      this.progress = new ProgressLogger(format("Progress[BulkIndexer[%s]]", bulkIndexer.indexType.getIndex()), bulkIndexer.result.total, LOGGER)
+      bulkIndexer.rebuiltIndex = IndexRebuild.getRebuiltIndex(bulkIndexer.client, bulkIndexer.indexType.getIndex()).orElse(null);
+      String writeIndex = bulkIndexer.getWriteIndex();
+      this.progress = new ProgressLogger(format("Progress[BulkIndexer[%s]]", writeIndex), bulkIndexer.result.total, LOGGER)
         .setPluralLabel("requests");
       this.progress.start();
       Map<String, Object> temporarySettings = new HashMap<>();
-      GetSettingsResponse settingsResp = bulkIndexer.client.nativeClient().admin().indices().prepareGetSettings(bulkIndexer.indexType.getIndex()).get();
+      GetSettingsResponse settingsResp = bulkIndexer.client.nativeClient().admin().indices().prepareGetSettings(writeIndex).get();
+      // settings are keyed by physical index, which may be different than the requested alias
+      Settings indexSettings = settingsResp.getIndexToSettings().valuesIt().next();
 
       // deactivate replicas
-      int initialReplicas = Integer.parseInt(settingsResp.getSetting(bulkIndexer.indexType.getIndex(), IndexMetaData.SETTING_NUMBER_OF_REPLICAS));
+      int initialReplicas = Integer.parseInt(indexSettings.get(IndexMetaData.SETTING_NUMBER_OF_REPLICAS));
       if (initialReplicas > 0) {
         initialSettings.put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, initialReplicas);
         temporarySettings.put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0);
       }
 
       // deactivate periodical refresh
-      String refreshInterval = settingsResp.getSetting(bulkIndexer.indexType.getIndex(), REFRESH_INTERVAL_SETTING);
+      String refreshInterval = indexSettings.get(REFRESH_INTERVAL_SETTING);
       initialSettings.put(REFRESH_INTERVAL_SETTING, refreshInterval);
       temporarySettings.put(REFRESH_INTERVAL_SETTING, "-1");
 
@@ -312,14 +337,14 @@ public class BulkIndexer {
       // optimize lucene segments and revert index settings
       // Optimization must be done before re-applying replicas:
       // http://www.elasticsearch.org/blog/performance-considerations-elasticsearch-indexing/
-      bulkIndexer.client.prepareForceMerge(bulkIndexer.indexType.getIndex()).get();
+      bulkIndexer.client.prepareForceMerge(bulkIndexer.getWriteIndex()).get();
 
       updateSettings(bulkIndexer, initialSettings);
       this.progress.stop();
     }
 
     private static void updateSettings(BulkIndexer bulkIndexer, Map<String, Object> settings) {
-      UpdateSettingsRequestBuilder req = bulkIndexer.client.nativeClient().admin().indices().prepareUpdateSettings(bulkIndexer.indexType.getIndex());
+      UpdateSettingsRequestBuilder req = bulkIndexer.client.nativeClient().admin().indices().prepareUpdateSettings(bulkIndexer.getWriteIndex());
       req.setSettings(settings);
       req.get();
     }
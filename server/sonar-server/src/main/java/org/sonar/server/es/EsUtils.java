@@ -23,11 +23,9 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.function.Function;
 import java.util.regex.Pattern;
@@ -42,6 +40,7 @@ import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.sort.SortOrder;
 import org.joda.time.format.ISODateTimeFormat;
+import org.sonar.core.util.CloseableIterator;
 import org.sonar.core.util.stream.MoreCollectors;
 
 public class EsUtils {
@@ -115,17 +114,22 @@ public class EsUtils {
     return SPECIAL_REGEX_CHARS.matcher(str).replaceAll("\\\\$0");
   }
 
-  public static <I> Iterator<I> scrollIds(EsClient esClient, SearchResponse scrollResponse, Function<String, I> idConverter) {
+  /**
+   * Iterates over the ids of the documents returned by a scroll search. The scroll context is released when
+   * all the documents have been read, or when the iterator is closed before, for example on failure of the caller.
+   */
+  public static <I> CloseableIterator<I> scrollIds(EsClient esClient, SearchResponse scrollResponse, Function<String, I> idConverter) {
     return new IdScrollIterator<>(esClient, scrollResponse, idConverter);
   }
 
-  private static class IdScrollIterator<I> implements Iterator<I> {
+  private static class IdScrollIterator<I> extends CloseableIterator<I> {
 
     private final EsClient esClient;
     private final String scrollId;
     private final Function<String, I> idConverter;
 
     private final Queue<SearchHit> hits = new ArrayDeque<>();
+    private boolean cleared = false;
 
     private IdScrollIterator(EsClient esClient, SearchResponse scrollResponse, Function<String, I> idConverter) {
       this.esClient = esClient;
@@ -135,26 +139,23 @@ public class EsUtils {
     }
 
     @Override
-    public boolean hasNext() {
+    @CheckForNull
+    protected I doNext() {
       if (hits.isEmpty()) {
         SearchScrollRequestBuilder esRequest = esClient.prepareSearchScroll(scrollId)
           .setScroll(TimeValue.timeValueMinutes(SCROLL_TIME_IN_MINUTES));
         Collections.addAll(hits, esRequest.get().getHits().getHits());
       }
-      return !hits.isEmpty();
+      SearchHit hit = hits.poll();
+      return hit == null ? null : idConverter.apply(hit.getId());
     }
 
     @Override
-    public I next() {
-      if (!hasNext()) {
-        throw new NoSuchElementException();
+    protected void doClose() {
+      if (!cleared) {
+        cleared = true;
+        esClient.nativeClient().prepareClearScroll().addScrollId(scrollId).get();
       }
-      return idConverter.apply(hits.poll().getId());
-    }
-
-    @Override
-    public void remove() {
-      throw new UnsupportedOperationException("Cannot remove item when scrolling");
     }
   }
 }
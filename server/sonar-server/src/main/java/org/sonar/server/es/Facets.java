@@ -185,6 +185,15 @@ public class Facets {
     return facetsByName.keySet();
   }
 
+  /**
+   * Deep copy, which can be modified without changing this instance
+   */
+  public Facets copy() {
+    LinkedHashMap<String, LinkedHashMap<String, Long>> copy = new LinkedHashMap<>();
+    facetsByName.forEach((name, facet) -> copy.put(name, new LinkedHashMap<>(facet)));
+    return new Facets(copy, timeZone);
+  }
+
   @Override
   public String toString() {
     return ReflectionToStringBuilder.toString(this, ToStringStyle.SIMPLE_STYLE);
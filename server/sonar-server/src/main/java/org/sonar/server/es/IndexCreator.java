@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
+import org.elasticsearch.action.admin.indices.alias.Alias;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
 import org.elasticsearch.cluster.health.ClusterHealthStatus;
@@ -31,6 +33,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.picocontainer.Startable;
 import org.sonar.api.config.Configuration;
 import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.System2;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.server.es.IndexDefinitions.Index;
@@ -53,15 +56,17 @@ public class IndexCreator implements Startable {
   private final IndexDefinitions definitions;
   private final EsDbCompatibility esDbCompatibility;
   private final Configuration configuration;
+  private final System2 system2;
 
   public IndexCreator(EsClient client, IndexDefinitions definitions, MetadataIndexDefinition metadataIndexDefinition,
-    MetadataIndex metadataIndex, EsDbCompatibility esDbCompatibility, Configuration configuration) {
+    MetadataIndex metadataIndex, EsDbCompatibility esDbCompatibility, Configuration configuration, System2 system2) {
     this.client = client;
     this.definitions = definitions;
     this.metadataIndexDefinition = metadataIndexDefinition;
     this.metadataIndex = metadataIndex;
     this.esDbCompatibility = esDbCompatibility;
     this.configuration = configuration;
+    this.system2 = system2;
   }
 
   @Override
@@ -71,7 +76,8 @@ public class IndexCreator implements Startable {
       IndexDefinition.IndexDefinitionContext context = new IndexDefinition.IndexDefinitionContext();
       metadataIndexDefinition.define(context);
       NewIndex index = context.getIndices().values().iterator().next();
-      createIndex(new Index(index), false);
+      Index metadata = new Index(index);
+      createIndex(metadata, metadata.getName(), false);
     }
 
     checkDbCompatibility();
@@ -79,13 +85,10 @@ public class IndexCreator implements Startable {
     // create indices that do not exist or that have a new definition (different mapping, cluster enabled, ...)
     for (Index index : definitions.getIndices().values()) {
       boolean exists = client.prepareIndicesExist(index.getName()).get().isExists();
-      if (exists && !index.getName().equals(MetadataIndexDefinition.INDEX_TYPE_METADATA.getIndex()) && hasDefinitionChange(index)) {
-        LOGGER.info("Delete Elasticsearch index {} (structure changed)", index.getName());
-        deleteIndex(index.getName());
-        exists = false;
-      }
       if (!exists) {
-        createIndex(index, true);
+        createIndex(index, index.getName(), true);
+      } else if (!index.getName().equals(MetadataIndexDefinition.INDEX_TYPE_METADATA.getIndex()) && hasDefinitionChange(index)) {
+        rebuildIndex(index);
       }
     }
   }
@@ -95,8 +98,23 @@ public class IndexCreator implements Startable {
     // nothing to do
   }
 
-  private void createIndex(Index index, boolean useMetadata) {
-    LOGGER.info(String.format("Create index %s", index.getName()));
+  /**
+   * The existing index is kept until the new definition is filled by {@link IndexerStartupTask}.
+   *
+   * @see IndexRebuild
+   */
+  private void rebuildIndex(Index index) {
+    IndexRebuild.getRebuiltIndex(client, index.getName()).ifPresent(pendingIndex -> {
+      LOGGER.info("Delete Elasticsearch index {} (structure changed again before end of rebuild)", pendingIndex);
+      deleteIndex(pendingIndex);
+    });
+    String physicalName = IndexRebuild.newPhysicalName(index.getName(), system2.now());
+    LOGGER.info("Rebuild Elasticsearch index {} into {} (structure changed)", index.getName(), physicalName);
+    createIndex(index, physicalName, true);
+  }
+
+  private void createIndex(Index index, String physicalName, boolean useMetadata) {
+    LOGGER.info(String.format("Create index %s", physicalName));
     Settings.Builder settings = Settings.builder();
     settings.put(index.getSettings());
     if (useMetadata) {
@@ -105,19 +123,22 @@ public class IndexCreator implements Startable {
         metadataIndex.setInitialized(new IndexType(index.getName(), type.getName()), false);
       }
     }
-    CreateIndexResponse indexResponse = client
-      .prepareCreate(index.getName())
-      .setSettings(settings)
-      .get();
+    CreateIndexRequestBuilder createRequest = client
+      .prepareCreate(physicalName)
+      .setSettings(settings);
+    if (!physicalName.equals(index.getName())) {
+      createRequest.addAlias(new Alias(IndexRebuild.rebuildAliasOf(index.getName())));
+    }
+    CreateIndexResponse indexResponse = createRequest.get();
     if (!indexResponse.isAcknowledged()) {
-      throw new IllegalStateException("Failed to create index " + index.getName());
+      throw new IllegalStateException("Failed to create index " + physicalName);
     }
     client.waitForStatus(ClusterHealthStatus.YELLOW);
 
     // create types
     for (Map.Entry<String, IndexDefinitions.IndexType> entry : index.getTypes().entrySet()) {
-      LOGGER.info(String.format("Create type %s/%s", index.getName(), entry.getKey()));
-      PutMappingResponse mappingResponse = client.preparePutMapping(index.getName())
+      LOGGER.info(String.format("Create type %s/%s", physicalName, entry.getKey()));
+      PutMappingResponse mappingResponse = client.preparePutMapping(physicalName)
         .setType(entry.getKey())
         .setSource(entry.getValue().getAttributes())
         .get();
@@ -0,0 +1,119 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.client.IndicesAdminClient;
+import org.elasticsearch.cluster.metadata.AliasMetaData;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Rebuild of an index which definition changed, without dropping the existing index before the new one is filled.
+ * <ul>
+ *   <li>{@link IndexCreator} creates the new definition in a physical index named after the index and suffixed
+ *   by its creation date. It is flagged by the alias "{index}.rebuild"</li>
+ *   <li>the existing index keeps on serving requests, while the documents indexed on startup by {@link BulkIndexer}
+ *   are written in the flagged index</li>
+ *   <li>once all the types of the index are initialized, {@link IndexerStartupTask} atomically moves the alias
+ *   named after the index to the new physical index, then deletes the previous one</li>
+ * </ul>
+ * <p>
+ * Only {@link BulkIndexer.Size#LARGE} indexing, which is used by {@link StartupIndexer}s, writes in the rebuilt index.
+ * {@link BulkIndexer.Size#REGULAR} indexing keeps on writing in the served index. No change is lost in the rebuilt
+ * index, because no regular write of a change that the startup indexers do not read from database can happen
+ * during the rebuild:
+ * <ul>
+ *   <li>the startup tasks that change the database are executed before {@link IndexerStartupTask}</li>
+ *   <li>web services are served by the container of level 4 only once all the startup tasks are done</li>
+ *   <li>Compute Engine and the web servers of the other nodes of a cluster start only once this web server
+ *   is operational, that is after the switch</li>
+ *   <li>{@link RecoveryIndexer} may run during the rebuild, but it replays changes that are already in the database</li>
+ * </ul>
+ */
+final class IndexRebuild {
+
+  private static final Logger LOGGER = Loggers.get(IndexRebuild.class);
+  private static final String REBUILD_ALIAS_SUFFIX = ".rebuild";
+
+  private IndexRebuild() {
+    // only static stuff
+  }
+
+  static String rebuildAliasOf(String index) {
+    return index + REBUILD_ALIAS_SUFFIX;
+  }
+
+  static String newPhysicalName(String index, long createdAt) {
+    return index + "_" + createdAt;
+  }
+
+  /**
+   * @return the physical index being built for the given index, if any
+   */
+  static Optional<String> getRebuiltIndex(EsClient client, String index) {
+    return physicalIndicesOf(client, rebuildAliasOf(index)).stream().findFirst();
+  }
+
+  /**
+   * Requests on {@code index} are served by {@code rebuiltIndex} once this method returns.
+   */
+  static void switchTo(EsClient client, String index, String rebuiltIndex) {
+    IndicesAdminClient indices = client.nativeClient().admin().indices();
+    Set<String> previousIndices = physicalIndicesOf(client, index);
+    if (previousIndices.isEmpty() && indices.prepareExists(index).get().isExists()) {
+      // index created before the support of rebuilds. Its name can be used as an alias only once it's deleted.
+      LOGGER.info("Delete Elasticsearch index {} (replaced by {})", index, rebuiltIndex);
+      indices.prepareDelete(index).get();
+    }
+
+    IndicesAliasesRequestBuilder request = indices.prepareAliases()
+      .removeAlias(rebuiltIndex, rebuildAliasOf(index))
+      .addAlias(rebuiltIndex, index);
+    previousIndices.forEach(previousIndex -> request.removeAlias(previousIndex, index));
+    request.get();
+    LOGGER.info("Elasticsearch index {} is served by {}", index, rebuiltIndex);
+
+    previousIndices.forEach(previousIndex -> {
+      LOGGER.info("Delete Elasticsearch index {} (replaced by {})", previousIndex, rebuiltIndex);
+      indices.prepareDelete(previousIndex).get();
+    });
+  }
+
+  private static Set<String> physicalIndicesOf(EsClient client, String alias) {
+    ImmutableOpenMap<String, List<AliasMetaData>> aliasesByIndex = client.nativeClient().admin().indices()
+      .prepareGetAliases(alias).get().getAliases();
+    Set<String> result = new HashSet<>();
+    Iterator<String> indices = aliasesByIndex.keysIt();
+    while (indices.hasNext()) {
+      String index = indices.next();
+      if (!aliasesByIndex.get(index).isEmpty()) {
+        result.add(index);
+      }
+    }
+    return result;
+  }
+}
@@ -19,6 +19,9 @@
  */
 package org.sonar.server.es;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthAction;
@@ -31,6 +34,7 @@ import org.sonar.api.utils.log.Profiler;
 import org.sonar.server.es.metadata.MetadataIndex;
 
 import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toSet;
 
 public class IndexerStartupTask {
@@ -51,8 +55,10 @@ public class IndexerStartupTask {
 
   public void execute() {
     if (indexesAreEnabled()) {
+      Set<IndexType> indexTypes = new HashSet<>();
       stream(indexers)
-        .forEach(this::indexUninitializedTypes);
+        .forEach(indexer -> indexTypes.addAll(indexUninitializedTypes(indexer)));
+      switchToRebuiltIndices(indexTypes);
     }
   }
 
@@ -60,8 +66,12 @@ public class IndexerStartupTask {
     return !config.getBoolean("sonar.internal.es.disableIndexes").orElse(false);
   }
 
-  private void indexUninitializedTypes(StartupIndexer indexer) {
-    Set<IndexType> uninitializedTypes = getUninitializedTypes(indexer);
+  /**
+   * @return all the types supported by the indexer
+   */
+  private Set<IndexType> indexUninitializedTypes(StartupIndexer indexer) {
+    Set<IndexType> indexTypes = indexer.getIndexTypes();
+    Set<IndexType> uninitializedTypes = getUninitializedTypes(indexTypes);
     if (!uninitializedTypes.isEmpty()) {
       Profiler profiler = Profiler.create(LOG);
       profiler.startInfo(getLogMessage(uninitializedTypes, "..."));
@@ -69,10 +79,25 @@ public class IndexerStartupTask {
       uninitializedTypes.forEach(this::setInitialized);
       profiler.stopInfo(getLogMessage(uninitializedTypes, "done"));
     }
+    return indexTypes;
   }
 
-  private Set<IndexType> getUninitializedTypes(StartupIndexer indexer) {
-    return indexer.getIndexTypes().stream().filter(indexType -> !metadataIndex.getInitialized(indexType)).collect(toSet());
+  private Set<IndexType> getUninitializedTypes(Set<IndexType> indexTypes) {
+    return indexTypes.stream().filter(indexType -> !metadataIndex.getInitialized(indexType)).collect(toSet());
+  }
+
+  /**
+   * Indices rebuilt because of a change of definition start serving requests only when all their types
+   * are initialized. Types of an index can be populated by different indexers, for example the authorization
+   * type of issues index.
+   *
+   * @see IndexRebuild
+   */
+  private void switchToRebuiltIndices(Set<IndexType> indexTypes) {
+    Map<String, List<IndexType>> typesByIndex = indexTypes.stream().collect(groupingBy(IndexType::getIndex));
+    typesByIndex.forEach((index, types) -> IndexRebuild.getRebuiltIndex(esClient, index)
+      .filter(rebuiltIndex -> types.stream().allMatch(metadataIndex::getInitialized))
+      .ifPresent(rebuiltIndex -> IndexRebuild.switchTo(esClient, index, rebuiltIndex)));
   }
 
   private void setInitialized(IndexType indexType) {
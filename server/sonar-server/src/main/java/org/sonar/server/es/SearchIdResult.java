@@ -35,7 +35,14 @@ public class SearchIdResult<ID> {
   private final long total;
 
   public SearchIdResult(SearchResponse response, Function<String, ID> converter, TimeZone timeZone) {
-    this.facets = new Facets(response, timeZone);
+    this(response, converter, new Facets(response, timeZone));
+  }
+
+  /**
+   * Result with facets which are not read from {@code response}, for example because they were previously computed
+   */
+  public SearchIdResult(SearchResponse response, Function<String, ID> converter, Facets facets) {
+    this.facets = facets;
     this.total = response.getHits().getTotalHits();
     this.ids = convertToIds(response.getHits(), converter);
   }
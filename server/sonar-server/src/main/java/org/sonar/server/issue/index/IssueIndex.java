@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -39,6 +40,7 @@ import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.StringUtils;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -64,6 +66,7 @@ import org.joda.time.DateTimeZone;
 import org.joda.time.Duration;
 import org.sonar.api.utils.DateUtils;
 import org.sonar.api.utils.System2;
+import org.sonar.core.util.CloseableIterator;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.organization.OrganizationDto;
 import org.sonar.server.es.BaseDoc;
@@ -89,7 +92,10 @@ import static org.elasticsearch.index.query.QueryBuilders.termQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 import static org.sonar.core.util.stream.MoreCollectors.uniqueIndex;
 import static org.sonar.server.es.BaseDoc.epochMillisToEpochSeconds;
+import static org.sonar.server.es.EsUtils.SCROLL_TIME_IN_MINUTES;
 import static org.sonar.server.es.EsUtils.escapeSpecialRegexChars;
+import static org.sonar.server.es.EsUtils.optimizeScrollRequest;
+import static org.sonar.server.es.EsUtils.scrollIds;
 import static org.sonar.server.issue.index.IssueIndexDefinition.FIELD_ISSUE_ORGANIZATION_UUID;
 import static org.sonar.server.issue.index.IssueIndexDefinition.INDEX_TYPE_ISSUE;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.DEPRECATED_FACET_MODE_DEBT;
@@ -145,6 +151,7 @@ public class IssueIndex {
   private static final SumAggregationBuilder EFFORT_AGGREGATION = AggregationBuilders.sum(FACET_MODE_EFFORT).field(IssueIndexDefinition.FIELD_ISSUE_EFFORT);
   private static final Order EFFORT_AGGREGATION_ORDER = Order.aggregation(FACET_MODE_EFFORT, false);
   private static final int DEFAULT_FACET_SIZE = 15;
+  private static final int SCROLL_SIZE = 1_000;
   private static final Duration TWENTY_DAYS = Duration.standardDays(20L);
   private static final Duration TWENTY_WEEKS = Duration.standardDays(20L * 7L);
   private static final Duration TWENTY_MONTHS = Duration.standardDays(20L * 30L);
@@ -185,13 +192,19 @@ public class IssueIndex {
    * Optimization - do not send ES request to all shards when scope is restricted
    * to a set of projects. Because project UUID is used for routing, the request
    * can be sent to only the shards containing the specified projects.
-   * Note that sticky facets may involve all projects, so this optimization must be
-   * disabled when facets are enabled.
+   * Note that the sticky facet on projects ignores the filter on projects, so this
+   * optimization must be disabled when this facet is requested. Other facets
+   * keep the filter on projects and can be computed on the same shards.
    */
   private static void configureRouting(IssueQuery query, SearchOptions options, SearchRequestBuilder requestBuilder) {
-    Collection<String> uuids = query.projectUuids();
-    if (!uuids.isEmpty() && options.getFacets().isEmpty()) {
-      requestBuilder.setRouting(uuids.toArray(new String[uuids.size()]));
+    if (!options.getFacets().contains(PARAM_PROJECT_UUIDS)) {
+      configureRouting(query.projectUuids(), requestBuilder);
+    }
+  }
+
+  private static void configureRouting(Collection<String> projectUuids, SearchRequestBuilder requestBuilder) {
+    if (!projectUuids.isEmpty()) {
+      requestBuilder.setRouting(projectUuids.toArray(new String[projectUuids.size()]));
     }
   }
 
@@ -365,6 +378,22 @@ public class IssueIndex {
     return requestBuilder.get();
   }
 
+  /**
+   * Returns the keys of all the issues matching the query, without pagination nor facets nor sorting. Issues
+   * are scrolled, so the number of issues is not limited by the maximum result window of search requests.
+   * The iterator must be closed if it is not read until the end, in order to release the scroll context.
+   */
+  public CloseableIterator<String> searchAll(IssueQuery query) {
+    SearchRequestBuilder requestBuilder = client.prepareSearch(INDEX_TYPE_ISSUE)
+      .setScroll(TimeValue.timeValueMinutes(SCROLL_TIME_IN_MINUTES))
+      .setSize(SCROLL_SIZE)
+      .setFetchSource(false)
+      .setQuery(boolQuery().must(matchAllQuery()).filter(createBoolFilter(query)));
+    configureRouting(query.projectUuids(), requestBuilder);
+    optimizeScrollRequest(requestBuilder);
+    return scrollIds(client, requestBuilder.get(), Function.identity());
+  }
+
   private void configureSorting(IssueQuery query, SearchRequestBuilder esRequest) {
     createSortBuilders(query).forEach(esRequest::addSort);
   }
@@ -646,6 +675,7 @@ public class IssueIndex {
       .setSize(0);
 
     requestBuilder.setQuery(boolQuery().must(QueryBuilders.matchAllQuery()).filter(createBoolFilter(query)));
+    configureRouting(query.projectUuids(), requestBuilder);
 
     TermsAggregationBuilder aggreg = AggregationBuilders.terms("_ref")
       .field(fieldName)
@@ -682,6 +712,8 @@ public class IssueIndex {
           .mustNot(existsQuery(IssueIndexDefinition.FIELD_ISSUE_RESOLUTION))
           .filter(termQuery(IssueIndexDefinition.FIELD_ISSUE_ASSIGNEE, assignee)))
       .setSize(0);
+    // aggregations are computed on the issues of the requested projects only
+    configureRouting(projectUuids, request);
     IntStream.range(0, projectUuids.size()).forEach(i -> {
       String projectUuid = projectUuids.get(i);
       long from = froms.get(i);
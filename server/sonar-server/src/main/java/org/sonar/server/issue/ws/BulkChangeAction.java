@@ -19,18 +19,16 @@
  */
 package org.sonar.server.issue.ws;
 
+import com.google.common.collect.Lists;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Stream;
 import org.sonar.api.issue.DefaultTransitions;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rule.Severity;
@@ -62,7 +60,6 @@ import org.sonar.server.issue.notification.IssueChangeNotification;
 import org.sonar.server.notification.NotificationManager;
 import org.sonar.server.qualitygate.changeevent.IssueChangeTrigger;
 import org.sonar.server.user.UserSession;
-import org.sonarqube.ws.Issues;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.copyOf;
@@ -88,8 +85,10 @@ import static org.sonar.server.issue.TransitionAction.DO_TRANSITION_KEY;
 import static org.sonar.server.issue.TransitionAction.TRANSITION_PARAMETER;
 import static org.sonar.server.ws.WsUtils.writeProtobuf;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.ACTION_BULK_CHANGE;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.ACTION_BULK_CHANGE_STATUS;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ADD_TAGS;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ASSIGN;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ASYNC;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_COMMENT;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_DO_TRANSITION;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ISSUES;
@@ -102,6 +101,7 @@ import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SET_TYPE;
 public class BulkChangeAction implements IssuesWsAction {
 
   private static final Logger LOG = Loggers.get(BulkChangeAction.class);
+  private static final int BATCH_SIZE = MAX_LIMIT;
 
   private final System2 system2;
   private final UserSession userSession;
@@ -110,9 +110,10 @@ public class BulkChangeAction implements IssuesWsAction {
   private final NotificationManager notificationService;
   private final List<Action> actions;
   private final IssueChangeTrigger issueChangeTrigger;
+  private final BulkChangeTasks bulkChangeTasks;
 
   public BulkChangeAction(System2 system2, UserSession userSession, DbClient dbClient, IssueStorage issueStorage, NotificationManager notificationService, List<Action> actions,
-    IssueChangeTrigger issueChangeTrigger) {
+    IssueChangeTrigger issueChangeTrigger, BulkChangeTasks bulkChangeTasks) {
     this.system2 = system2;
     this.userSession = userSession;
     this.dbClient = dbClient;
@@ -120,22 +121,26 @@ public class BulkChangeAction implements IssuesWsAction {
     this.notificationService = notificationService;
     this.actions = actions;
     this.issueChangeTrigger = issueChangeTrigger;
+    this.bulkChangeTasks = bulkChangeTasks;
   }
 
   @Override
   public void define(WebService.NewController context) {
     WebService.NewAction action = context.createAction(ACTION_BULK_CHANGE)
       .setDescription("Bulk change on issues.<br/>" +
+        "When '" + PARAM_ASYNC + "' is true, the change is executed in background and its progress can be followed with " +
+        "api/issues/" + ACTION_BULK_CHANGE_STATUS + ".<br/>" +
         "Requires authentication.")
       .setSince("3.7")
       .setChangelog(
-        new Change("6.3", "'actions' parameter is ignored"))
+        new Change("6.3", "'actions' parameter is ignored"),
+        new Change("7.0", "'" + PARAM_ASYNC + "' parameter is added"))
       .setHandler(this)
       .setResponseExample(getClass().getResource("bulk_change-example.json"))
       .setPost(true);
 
     action.createParam(PARAM_ISSUES)
-      .setDescription("Comma-separated list of issue keys")
+      .setDescription(format("Comma-separated list of issue keys. Limited to %s issues, unless '%s' is true", MAX_LIMIT, PARAM_ASYNC))
       .setRequired(true)
       .setExampleValue(UUID_EXAMPLE_01 + "," + UUID_EXAMPLE_02);
     action.createParam(PARAM_ASSIGN)
@@ -176,44 +181,68 @@ public class BulkChangeAction implements IssuesWsAction {
       .setSince("4.0")
       .setBooleanPossibleValues()
       .setDefaultValue("false");
+    action.createParam(PARAM_ASYNC)
+      .setDescription("Execute the bulk change in background. The response then contains the id of the task to poll. " +
+        "Total is then the number of requested issues, and the issues which are not found are counted as ignored.")
+      .setSince("7.0")
+      .setBooleanPossibleValues()
+      .setDefaultValue("false");
   }
 
   @Override
   public void handle(Request request, Response response) throws Exception {
     userSession.checkLoggedIn();
-    try (DbSession dbSession = dbClient.openSession(false)) {
-      Issues.BulkChangeWsResponse wsResponse = Stream.of(request)
-        .map(loadData(dbSession))
-        .map(executeBulkChange())
-        .map(toWsResponse())
-        .collect(MoreCollectors.toOneElement());
-      writeProtobuf(wsResponse, request, response);
+    boolean sendNotification = request.mandatoryParamAsBoolean(PARAM_SEND_NOTIFICATIONS);
+    Map<String, Map<String, Object>> propertiesByActions = toPropertiesByActions(request);
+    boolean async = request.mandatoryParamAsBoolean(PARAM_ASYNC);
+    List<String> issueKeys = request.mandatoryParamAsStrings(PARAM_ISSUES);
+    checkArgument(async || issueKeys.size() <= MAX_LIMIT, "Number of issues is limited to %s", MAX_LIMIT);
+
+    if (async) {
+      BulkChangeResult result = BulkChangeResult.ofRequestedIssues(issueKeys.size());
+      BulkChangeTask task = bulkChangeTasks.submit(result,
+        onBatchProcessed -> executeBulkChange(issueKeys, propertiesByActions, sendNotification, result, onBatchProcessed));
+      writeProtobuf(task.toWsResponse(), request, response);
+    } else {
+      BulkChangeResult result = new BulkChangeResult();
+      executeBulkChange(issueKeys, propertiesByActions, sendNotification, result, () -> {
+        // progress is not published
+      });
+      writeProtobuf(result.toWsResponse().build(), request, response);
     }
   }
 
-  private Function<Request, BulkChangeData> loadData(DbSession dbSession) {
-    return request -> new BulkChangeData(dbSession, request);
+  /**
+   * Issues are processed by batches of {@link #BATCH_SIZE}, each batch being loaded, saved and indexed in its own session.
+   * A synchronous bulk change is made of a single batch.
+   */
+  private void executeBulkChange(List<String> issueKeys, Map<String, Map<String, Object>> propertiesByActions, boolean sendNotification, BulkChangeResult result,
+    Runnable onBatchProcessed) {
+    IssueChangeContext issueChangeContext = IssueChangeContext.createUser(new Date(system2.now()), userSession.getLogin());
+    for (List<String> batch : Lists.partition(issueKeys, BATCH_SIZE)) {
+      try (DbSession dbSession = dbClient.openSession(false)) {
+        BulkChangeData bulkChangeData = new BulkChangeData(dbSession, batch, propertiesByActions, sendNotification);
+        executeBatch(bulkChangeData, issueChangeContext, result);
+      }
+      result.onBatchProcessed(batch.size());
+      onBatchProcessed.run();
+    }
   }
 
-  private Function<BulkChangeData, BulkChangeResult> executeBulkChange() {
-    return bulkChangeData -> {
-      BulkChangeResult result = new BulkChangeResult(bulkChangeData.issues.size());
-      IssueChangeContext issueChangeContext = IssueChangeContext.createUser(new Date(system2.now()), userSession.getLogin());
-
-      List<DefaultIssue> items = bulkChangeData.issues.stream()
-        .filter(bulkChange(issueChangeContext, bulkChangeData, result))
-        .collect(MoreCollectors.toList());
-      issueStorage.save(items);
-      items.forEach(sendNotification(issueChangeContext, bulkChangeData));
-      buildWebhookIssueChange(bulkChangeData.propertiesByActions)
-        .ifPresent(issueChange -> issueChangeTrigger.onChange(
-          new IssueChangeTrigger.IssueChangeData(
-            bulkChangeData.issues.stream().filter(i -> result.success.contains(i.key())).collect(MoreCollectors.toList()),
-            copyOf(bulkChangeData.componentsByUuid.values())),
-          issueChange,
-          issueChangeContext));
-      return result;
-    };
+  private void executeBatch(BulkChangeData bulkChangeData, IssueChangeContext issueChangeContext, BulkChangeResult result) {
+    result.onBatchLoaded(bulkChangeData.issues.size());
+    List<DefaultIssue> items = bulkChangeData.issues.stream()
+      .filter(bulkChange(issueChangeContext, bulkChangeData, result))
+      .collect(MoreCollectors.toList());
+    issueStorage.save(items);
+    items.forEach(sendNotification(issueChangeContext, bulkChangeData));
+    buildWebhookIssueChange(bulkChangeData.propertiesByActions)
+      .ifPresent(issueChange -> issueChangeTrigger.onChange(
+        new IssueChangeTrigger.IssueChangeData(
+          bulkChangeData.issues.stream().filter(i -> result.isSuccess(i.key())).collect(MoreCollectors.toList()),
+          copyOf(bulkChangeData.componentsByUuid.values())),
+        issueChange,
+        issueChangeContext));
   }
 
   private static Optional<IssueChangeTrigger.IssueChange> buildWebhookIssueChange(Map<String, Map<String, Object>> propertiesByActions) {
@@ -235,7 +264,7 @@ public class BulkChangeAction implements IssuesWsAction {
       ActionContext actionContext = new ActionContext(issue, issueChangeContext, bulkChangeData.projectsByUuid.get(issue.projectUuid()));
       bulkChangeData.getActionsWithoutComment().forEach(applyAction(actionContext, bulkChangeData, result));
       addCommentIfNeeded(actionContext, bulkChangeData);
-      return result.success.contains(issue.key());
+      return result.isSuccess(issue.key());
     };
   }
 
@@ -271,13 +300,22 @@ public class BulkChangeAction implements IssuesWsAction {
     };
   }
 
-  private static Function<BulkChangeResult, Issues.BulkChangeWsResponse> toWsResponse() {
-    return bulkChangeResult -> Issues.BulkChangeWsResponse.newBuilder()
-      .setTotal(bulkChangeResult.getTotal())
-      .setSuccess(bulkChangeResult.getSuccess())
-      .setIgnored((long) bulkChangeResult.getTotal() - (bulkChangeResult.getSuccess() + bulkChangeResult.getFailures()))
-      .setFailures(bulkChangeResult.getFailures())
-      .build();
+  private static Map<String, Map<String, Object>> toPropertiesByActions(Request request) {
+    Map<String, Map<String, Object>> properties = new HashMap<>();
+    request.getParam(PARAM_ASSIGN, value -> properties.put(AssignAction.ASSIGN_KEY, new HashMap<>(of(ASSIGNEE_PARAMETER, value))));
+    request.getParam(PARAM_SET_SEVERITY, value -> properties.put(SET_SEVERITY_KEY, new HashMap<>(of(SEVERITY_PARAMETER, value))));
+    request.getParam(PARAM_SET_TYPE, value -> properties.put(SET_TYPE_KEY, new HashMap<>(of(TYPE_PARAMETER, value))));
+    request.getParam(PARAM_DO_TRANSITION, value -> properties.put(DO_TRANSITION_KEY, new HashMap<>(of(TRANSITION_PARAMETER, value))));
+    request.getParam(PARAM_ADD_TAGS, value -> properties.put(AddTagsAction.KEY, new HashMap<>(of(TAGS_PARAMETER, value))));
+    request.getParam(PARAM_REMOVE_TAGS, value -> properties.put(RemoveTagsAction.KEY, new HashMap<>(of(TAGS_PARAMETER, value))));
+    request.getParam(PARAM_COMMENT, value -> properties.put(COMMENT_KEY, new HashMap<>(of(COMMENT_PROPERTY, value))));
+    checkAtLeastOneActionIsDefined(properties.keySet());
+    return properties;
+  }
+
+  private static void checkAtLeastOneActionIsDefined(Set<String> actions) {
+    long actionsDefined = actions.stream().filter(action -> !action.equals(COMMENT_KEY)).count();
+    checkArgument(actionsDefined > 0, "At least one action must be provided");
   }
 
   public static class ActionContext implements Action.Context {
@@ -316,12 +354,9 @@ public class BulkChangeAction implements IssuesWsAction {
     private final Map<RuleKey, RuleDefinitionDto> rulesByKey;
     private final List<Action> availableActions;
 
-    BulkChangeData(DbSession dbSession, Request request) {
-      this.sendNotification = request.mandatoryParamAsBoolean(PARAM_SEND_NOTIFICATIONS);
-      this.propertiesByActions = toPropertiesByActions(request);
-
-      List<String> issueKeys = request.mandatoryParamAsStrings(PARAM_ISSUES);
-      checkArgument(issueKeys.size() <= MAX_LIMIT, "Number of issues is limited to %s", MAX_LIMIT);
+    BulkChangeData(DbSession dbSession, List<String> issueKeys, Map<String, Map<String, Object>> propertiesByActions, boolean sendNotification) {
+      this.sendNotification = sendNotification;
+      this.propertiesByActions = propertiesByActions;
       List<IssueDto> allIssues = dbClient.issueDao().selectByKeys(dbSession, issueKeys);
 
       List<ComponentDto> allProjects = getComponents(dbSession, allIssues.stream().map(IssueDto::getProjectUuid).collect(MoreCollectors.toSet()));
@@ -367,53 +402,5 @@ public class BulkChangeAction implements IssuesWsAction {
     Optional<Action> getCommentAction() {
       return availableActions.stream().filter(action -> action.key().equals(COMMENT_KEY)).findFirst();
     }
-
-    private Map<String, Map<String, Object>> toPropertiesByActions(Request request) {
-      Map<String, Map<String, Object>> properties = new HashMap<>();
-      request.getParam(PARAM_ASSIGN, value -> properties.put(AssignAction.ASSIGN_KEY, new HashMap<>(of(ASSIGNEE_PARAMETER, value))));
-      request.getParam(PARAM_SET_SEVERITY, value -> properties.put(SET_SEVERITY_KEY, new HashMap<>(of(SEVERITY_PARAMETER, value))));
-      request.getParam(PARAM_SET_TYPE, value -> properties.put(SET_TYPE_KEY, new HashMap<>(of(TYPE_PARAMETER, value))));
-      request.getParam(PARAM_DO_TRANSITION, value -> properties.put(DO_TRANSITION_KEY, new HashMap<>(of(TRANSITION_PARAMETER, value))));
-      request.getParam(PARAM_ADD_TAGS, value -> properties.put(AddTagsAction.KEY, new HashMap<>(of(TAGS_PARAMETER, value))));
-      request.getParam(PARAM_REMOVE_TAGS, value -> properties.put(RemoveTagsAction.KEY, new HashMap<>(of(TAGS_PARAMETER, value))));
-      request.getParam(PARAM_COMMENT, value -> properties.put(COMMENT_KEY, new HashMap<>(of(COMMENT_PROPERTY, value))));
-      checkAtLeastOneActionIsDefined(properties.keySet());
-      return properties;
-    }
-
-    private void checkAtLeastOneActionIsDefined(Set<String> actions) {
-      long actionsDefined = actions.stream().filter(action -> !action.equals(COMMENT_KEY)).count();
-      checkArgument(actionsDefined > 0, "At least one action must be provided");
-    }
-  }
-
-  private static class BulkChangeResult {
-    private final int total;
-    private Set<String> success = new HashSet<>();
-    private int failures = 0;
-
-    BulkChangeResult(int total) {
-      this.total = total;
-    }
-
-    void increaseSuccess(DefaultIssue issue) {
-      this.success.add(issue.key());
-    }
-
-    void increaseFailure() {
-      this.failures++;
-    }
-
-    public int getTotal() {
-      return total;
-    }
-
-    public int getSuccess() {
-      return success.size();
-    }
-
-    public int getFailures() {
-      return failures;
-    }
   }
 }
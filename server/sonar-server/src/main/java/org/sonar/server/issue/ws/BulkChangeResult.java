@@ -0,0 +1,108 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.sonar.core.issue.DefaultIssue;
+import org.sonarqube.ws.Issues;
+
+/**
+ * Counters of a bulk change. They can be read while the bulk change is executed in background.
+ * <p>
+ * Synchronous bulk changes count in total the issues which are found and visible by the user. Bulk changes executed
+ * in background count in total the requested issues, so that the progress of the task ({@code processed / total})
+ * is known from the start. Issues which are not found are then ignored.
+ */
+class BulkChangeResult {
+  private final boolean totalOfRequestedIssues;
+  private final AtomicInteger total = new AtomicInteger();
+  private final AtomicInteger processed = new AtomicInteger();
+  private final AtomicInteger failures = new AtomicInteger();
+  private final Set<String> success = ConcurrentHashMap.newKeySet();
+
+  BulkChangeResult() {
+    this.totalOfRequestedIssues = false;
+  }
+
+  private BulkChangeResult(int requestedIssues) {
+    this.totalOfRequestedIssues = true;
+    this.total.set(requestedIssues);
+  }
+
+  static BulkChangeResult ofRequestedIssues(int requestedIssues) {
+    return new BulkChangeResult(requestedIssues);
+  }
+
+  /**
+   * @param foundIssues number of the issues of the batch which are found and visible by the user
+   */
+  void onBatchLoaded(int foundIssues) {
+    if (!totalOfRequestedIssues) {
+      total.addAndGet(foundIssues);
+    }
+  }
+
+  /**
+   * @param requestedIssues number of the requested issues of the batch, found or not
+   */
+  void onBatchProcessed(int requestedIssues) {
+    processed.addAndGet(requestedIssues);
+  }
+
+  void increaseSuccess(DefaultIssue issue) {
+    success.add(issue.key());
+  }
+
+  void increaseFailure() {
+    failures.incrementAndGet();
+  }
+
+  boolean isSuccess(String issueKey) {
+    return success.contains(issueKey);
+  }
+
+  int getTotal() {
+    return total.get();
+  }
+
+  int getProcessed() {
+    return processed.get();
+  }
+
+  int getSuccess() {
+    return success.size();
+  }
+
+  int getFailures() {
+    return failures.get();
+  }
+
+  Issues.BulkChangeWsResponse.Builder toWsResponse() {
+    int successCount = getSuccess();
+    int failuresCount = getFailures();
+    return Issues.BulkChangeWsResponse.newBuilder()
+      .setTotal(getTotal())
+      .setSuccess(successCount)
+      .setIgnored(Math.max(0L, (long) getTotal() - (successCount + failuresCount)))
+      .setFailures(failuresCount);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.server.exceptions.NotFoundException;
+import org.sonar.server.user.UserSession;
+import org.sonarqube.ws.Issues.BulkChangeWsResponse;
+
+import static java.lang.String.format;
+import static org.sonar.core.util.Uuids.UUID_EXAMPLE_01;
+import static org.sonar.server.ws.WsUtils.writeProtobuf;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.ACTION_BULK_CHANGE;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.ACTION_BULK_CHANGE_STATUS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ASYNC;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TASK_ID;
+
+public class BulkChangeStatusAction implements IssuesWsAction {
+
+  private final UserSession userSession;
+  private final BulkChangeTasks bulkChangeTasks;
+
+  public BulkChangeStatusAction(UserSession userSession, BulkChangeTasks bulkChangeTasks) {
+    this.userSession = userSession;
+    this.bulkChangeTasks = bulkChangeTasks;
+  }
+
+  @Override
+  public void define(WebService.NewController context) {
+    WebService.NewAction action = context.createAction(ACTION_BULK_CHANGE_STATUS)
+      .setDescription(format("Get the progress of a bulk change requested with api/issues/%s and '%s=true'.<br/>" +
+        "Possible statuses are PENDING, IN_PROGRESS, SUCCESS and FAILED.<br/>" +
+        "Requires authentication. Only the user who requested the bulk change can get its status.", ACTION_BULK_CHANGE, PARAM_ASYNC))
+      .setSince("7.0")
+      .setInternal(true)
+      .setHandler(this)
+      .setResponseExample(getClass().getResource("bulk_change_status-example.json"));
+
+    action.createParam(PARAM_TASK_ID)
+      .setDescription("Id of the bulk change, as returned by api/issues/" + ACTION_BULK_CHANGE)
+      .setRequired(true)
+      .setExampleValue(UUID_EXAMPLE_01);
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    userSession.checkLoggedIn();
+    String taskId = request.mandatoryParam(PARAM_TASK_ID);
+    BulkChangeWsResponse state = bulkChangeTasks.get(userSession.getLogin(), taskId)
+      .orElseThrow(() -> new NotFoundException(format("Bulk change '%s' not found", taskId)));
+    writeProtobuf(state, request, response);
+  }
+}
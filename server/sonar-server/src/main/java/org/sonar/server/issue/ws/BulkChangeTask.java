@@ -0,0 +1,70 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import org.sonarqube.ws.Issues;
+
+import static java.util.Objects.requireNonNull;
+
+class BulkChangeTask {
+
+  enum Status {
+    PENDING, IN_PROGRESS, SUCCESS, FAILED
+  }
+
+  private final String uuid;
+  private final String login;
+  private final BulkChangeResult result;
+  private volatile Status status = Status.PENDING;
+
+  BulkChangeTask(String uuid, String login, BulkChangeResult result) {
+    this.uuid = requireNonNull(uuid);
+    this.login = requireNonNull(login);
+    this.result = requireNonNull(result);
+  }
+
+  String getUuid() {
+    return uuid;
+  }
+
+  String getLogin() {
+    return login;
+  }
+
+  Status getStatus() {
+    return status;
+  }
+
+  void setStatus(Status status) {
+    this.status = status;
+  }
+
+  BulkChangeResult getResult() {
+    return result;
+  }
+
+  Issues.BulkChangeWsResponse toWsResponse() {
+    return result.toWsResponse()
+      .setTaskId(uuid)
+      .setStatus(status.name())
+      .setProcessed(result.getProcessed())
+      .build();
+  }
+}
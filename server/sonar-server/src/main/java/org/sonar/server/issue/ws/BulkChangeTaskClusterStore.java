@@ -0,0 +1,63 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.Optional;
+import org.sonar.process.cluster.hz.HazelcastMember;
+import org.sonarqube.ws.Issues.BulkChangeWsResponse;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+/**
+ * States of bulk changes, shared by the nodes of the cluster for one hour after their last update.
+ * <p>
+ * States are stored as serialized protobuf messages, so that no classes of the web server are sent
+ * to the other members.
+ */
+public class BulkChangeTaskClusterStore implements BulkChangeTaskStore {
+
+  private static final String MAP_NAME = "BULK_CHANGE_TASKS";
+  private static final long RETENTION_IN_HOURS = 1L;
+
+  private final HazelcastMember hazelcastMember;
+
+  public BulkChangeTaskClusterStore(HazelcastMember hazelcastMember) {
+    this.hazelcastMember = hazelcastMember;
+  }
+
+  @Override
+  public void put(String login, BulkChangeWsResponse state) {
+    hazelcastMember.putInMap(MAP_NAME, BulkChangeTaskStore.key(login, state.getTaskId()), state.toByteArray(), RETENTION_IN_HOURS, HOURS);
+  }
+
+  @Override
+  public Optional<BulkChangeWsResponse> get(String login, String taskId) {
+    byte[] bytes = hazelcastMember.<String, byte[]>getMap(MAP_NAME).get(BulkChangeTaskStore.key(login, taskId));
+    if (bytes == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(BulkChangeWsResponse.parseFrom(bytes));
+    } catch (InvalidProtocolBufferException e) {
+      throw new IllegalStateException("Fail to read state of bulk change " + taskId, e);
+    }
+  }
+}
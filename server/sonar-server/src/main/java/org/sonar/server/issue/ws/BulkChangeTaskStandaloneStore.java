@@ -0,0 +1,49 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Optional;
+import org.sonarqube.ws.Issues.BulkChangeWsResponse;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+/**
+ * States of bulk changes, kept in memory of the single web server for one hour after their last update.
+ */
+public class BulkChangeTaskStandaloneStore implements BulkChangeTaskStore {
+
+  private static final long RETENTION_IN_HOURS = 1L;
+
+  private final Cache<String, BulkChangeWsResponse> statesByKey = CacheBuilder.newBuilder()
+    .expireAfterWrite(RETENTION_IN_HOURS, HOURS)
+    .build();
+
+  @Override
+  public void put(String login, BulkChangeWsResponse state) {
+    statesByKey.put(BulkChangeTaskStore.key(login, state.getTaskId()), state);
+  }
+
+  @Override
+  public Optional<BulkChangeWsResponse> get(String login, String taskId) {
+    return Optional.ofNullable(statesByKey.getIfPresent(BulkChangeTaskStore.key(login, taskId)));
+  }
+}
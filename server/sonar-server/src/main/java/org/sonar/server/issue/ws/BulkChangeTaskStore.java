@@ -0,0 +1,44 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.Optional;
+import org.sonarqube.ws.Issues.BulkChangeWsResponse;
+
+/**
+ * States of the bulk changes executed in background, so that their progress can be requested to any
+ * web server, whatever the node which executes them.
+ */
+public interface BulkChangeTaskStore {
+
+  /**
+   * Stores the latest state of a bulk change requested by the given user. The task id is the one of the state.
+   */
+  void put(String login, BulkChangeWsResponse state);
+
+  /**
+   * Latest state of the given bulk change, if it has been requested by the given user and if it has not expired.
+   */
+  Optional<BulkChangeWsResponse> get(String login, String taskId);
+
+  static String key(String login, String taskId) {
+    return login + ':' + taskId;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.util.UuidFactory;
+import org.sonar.server.async.AsyncExecution;
+import org.sonar.server.user.ThreadLocalUserSession;
+import org.sonar.server.user.UserSession;
+import org.sonarqube.ws.Issues.BulkChangeWsResponse;
+
+import static java.lang.String.format;
+
+/**
+ * Executes bulk changes of issues in background, with the session of the user who requested them.
+ * <p>
+ * The state of each task is published to {@link BulkChangeTaskStore} when it's submitted, after each batch of issues
+ * and when it ends, so that its progress can be requested to any node of a cluster.
+ */
+@ServerSide
+public class BulkChangeTasks {
+
+  private static final Logger LOG = Loggers.get(BulkChangeTasks.class);
+
+  private final ThreadLocalUserSession threadLocalUserSession;
+  private final AsyncExecution asyncExecution;
+  private final UuidFactory uuidFactory;
+  private final BulkChangeTaskStore store;
+
+  public BulkChangeTasks(ThreadLocalUserSession threadLocalUserSession, AsyncExecution asyncExecution, UuidFactory uuidFactory, BulkChangeTaskStore store) {
+    this.threadLocalUserSession = threadLocalUserSession;
+    this.asyncExecution = asyncExecution;
+    this.uuidFactory = uuidFactory;
+    this.store = store;
+  }
+
+  /**
+   * @param bulkChange executes the bulk change. It's given a callback to be called after each batch of issues,
+   *                   so that progress is published.
+   */
+  BulkChangeTask submit(BulkChangeResult result, Consumer<Runnable> bulkChange) {
+    UserSession userSession = threadLocalUserSession.get();
+    BulkChangeTask task = new BulkChangeTask(uuidFactory.create(), userSession.getLogin(), result);
+    publish(task);
+    asyncExecution.addToQueue(() -> execute(task, userSession, bulkChange));
+    return task;
+  }
+
+  Optional<BulkChangeWsResponse> get(String login, String uuid) {
+    return store.get(login, uuid);
+  }
+
+  private void execute(BulkChangeTask task, UserSession userSession, Consumer<Runnable> bulkChange) {
+    threadLocalUserSession.set(userSession);
+    task.setStatus(BulkChangeTask.Status.IN_PROGRESS);
+    publish(task);
+    try {
+      bulkChange.accept(() -> publish(task));
+      task.setStatus(BulkChangeTask.Status.SUCCESS);
+    } catch (RuntimeException e) {
+      task.setStatus(BulkChangeTask.Status.FAILED);
+      LOG.error(format("Bulk change of issues '%s' failed", task.getUuid()), e);
+    } finally {
+      threadLocalUserSession.unload();
+      publish(task);
+    }
+  }
+
+  private void publish(BulkChangeTask task) {
+    store.put(task.getLogin(), task.toWsResponse());
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import com.google.common.collect.Iterators;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.List;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.core.util.CloseableIterator;
+import org.sonar.server.issue.IssueQuery;
+import org.sonar.server.issue.IssueQueryFactory;
+import org.sonar.server.issue.SearchRequest;
+import org.sonar.server.issue.index.IssueIndex;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.MediaTypes;
+
+import static java.lang.String.format;
+import static org.sonar.server.ws.KeyExamples.KEY_BRANCH_EXAMPLE_001;
+import static org.sonar.server.ws.KeyExamples.KEY_PROJECT_EXAMPLE_001;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.ACTION_EXPORT;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_BRANCH;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_COMPONENT_KEYS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_CREATED_AFTER;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_CREATED_BEFORE;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_ORGANIZATION;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RESOLUTIONS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RESOLVED;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RULES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SEVERITIES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_STATUSES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TAGS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TYPES;
+
+/**
+ * Streams all the issues matching the request, without the 10'000 issues limit of api/issues/search. Issue keys are
+ * scrolled from Elasticsearch, then issues are loaded and written by batches, so that memory does not depend on the
+ * number of issues.
+ */
+public class ExportAction implements IssuesWsAction {
+
+  static final int BATCH_SIZE = 500;
+
+  private final IssueQueryFactory issueQueryFactory;
+  private final IssueIndex issueIndex;
+  private final SearchResponseLoader searchResponseLoader;
+  private final SearchResponseFormat searchResponseFormat;
+
+  public ExportAction(IssueQueryFactory issueQueryFactory, IssueIndex issueIndex, SearchResponseLoader searchResponseLoader,
+    SearchResponseFormat searchResponseFormat) {
+    this.issueQueryFactory = issueQueryFactory;
+    this.issueIndex = issueIndex;
+    this.searchResponseLoader = searchResponseLoader;
+    this.searchResponseFormat = searchResponseFormat;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller.createAction(ACTION_EXPORT)
+      .setDescription("Export all the issues matching the given criteria, without limit on the number of issues.<br/>" +
+        "The response is a stream of delimited protobuf messages of type Issue, in no particular order. " +
+        "Only the issues of the projects the user is allowed to browse are exported.")
+      .setSince("7.0")
+      .setInternal(true)
+      .setHandler(this);
+
+    action.createParam(PARAM_COMPONENT_KEYS)
+      .setDescription("Comma-separated list of component keys. Export issues associated to a specific list of components (and all its descendants). " +
+        "A component can be a portfolio, project, module, directory or file.")
+      .setExampleValue(KEY_PROJECT_EXAMPLE_001);
+    action.createParam(PARAM_BRANCH)
+      .setDescription("Branch key")
+      .setExampleValue(KEY_BRANCH_EXAMPLE_001);
+    action.createParam(PARAM_ORGANIZATION)
+      .setDescription("Organization key")
+      .setExampleValue("my-org");
+    action.createParam(PARAM_SEVERITIES)
+      .setDescription("Comma-separated list of severities")
+      .setExampleValue(Severity.BLOCKER + "," + Severity.CRITICAL)
+      .setPossibleValues(Severity.ALL);
+    action.createParam(PARAM_STATUSES)
+      .setDescription("Comma-separated list of statuses")
+      .setExampleValue(Issue.STATUS_OPEN + "," + Issue.STATUS_REOPENED)
+      .setPossibleValues(Issue.STATUSES);
+    action.createParam(PARAM_RESOLUTIONS)
+      .setDescription("Comma-separated list of resolutions")
+      .setExampleValue(Issue.RESOLUTION_FIXED + "," + Issue.RESOLUTION_REMOVED)
+      .setPossibleValues(Issue.RESOLUTIONS);
+    action.createParam(PARAM_RESOLVED)
+      .setDescription("To match resolved or unresolved issues")
+      .setBooleanPossibleValues();
+    action.createParam(PARAM_RULES)
+      .setDescription("Comma-separated list of coding rule keys. Format is &lt;repository&gt;:&lt;rule&gt;")
+      .setExampleValue("squid:AvoidCycles");
+    action.createParam(PARAM_TAGS)
+      .setDescription("Comma-separated list of tags.")
+      .setExampleValue("security,convention");
+    action.createParam(PARAM_TYPES)
+      .setDescription("Comma-separated list of types.")
+      .setPossibleValues((Object[]) RuleType.values())
+      .setExampleValue(format("%s,%s", RuleType.CODE_SMELL, RuleType.BUG));
+    action.createParam(PARAM_CREATED_AFTER)
+      .setDescription("To export issues created after the given date (inclusive). <br>" +
+        "Either a date (server timezone) or datetime can be provided.")
+      .setExampleValue("2017-10-19 or 2017-10-19T13:00:00+0200");
+    action.createParam(PARAM_CREATED_BEFORE)
+      .setDescription("To export issues created before the given date (inclusive). <br>" +
+        "Either a date (server timezone) or datetime can be provided.")
+      .setExampleValue("2017-10-19 or 2017-10-19T13:00:00+0200");
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    IssueQuery query = issueQueryFactory.create(toSearchRequest(request));
+    // scroll is released even if the export fails or is aborted by the client
+    try (CloseableIterator<String> issueKeys = issueIndex.searchAll(query)) {
+      response.stream().setMediaType(MediaTypes.PROTOBUF);
+      OutputStream output = response.stream().output();
+      Iterators.partition(issueKeys, BATCH_SIZE).forEachRemaining(keys -> writeIssues(keys, output));
+    }
+  }
+
+  private void writeIssues(List<String> issueKeys, OutputStream output) {
+    SearchResponseLoader.Collector collector = new SearchResponseLoader.Collector(EnumSet.noneOf(SearchAdditionalField.class), issueKeys);
+    SearchResponseData data = searchResponseLoader.load(collector, null);
+    try {
+      for (Issues.Issue issue : searchResponseFormat.formatIssues(EnumSet.noneOf(SearchAdditionalField.class), data)) {
+        issue.writeDelimitedTo(output);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to serialize issues", e);
+    }
+  }
+
+  private static SearchRequest toSearchRequest(Request request) {
+    return new SearchRequest()
+      .setComponentKeys(request.paramAsStrings(PARAM_COMPONENT_KEYS))
+      .setBranch(request.param(PARAM_BRANCH))
+      .setOrganization(request.param(PARAM_ORGANIZATION))
+      .setSeverities(request.paramAsStrings(PARAM_SEVERITIES))
+      .setStatuses(request.paramAsStrings(PARAM_STATUSES))
+      .setResolutions(request.paramAsStrings(PARAM_RESOLUTIONS))
+      .setResolved(request.paramAsBoolean(PARAM_RESOLVED))
+      .setRules(request.paramAsStrings(PARAM_RULES))
+      .setTags(request.paramAsStrings(PARAM_TAGS))
+      .setTypes(request.paramAsStrings(PARAM_TYPES))
+      .setCreatedAfter(request.param(PARAM_CREATED_AFTER))
+      .setCreatedBefore(request.param(PARAM_CREATED_BEFORE));
+  }
+}
@@ -49,8 +49,11 @@ public class IssueWsModule extends Module {
       IssueQueryFactory.class,
       IssuesWs.class,
       AvatarResolverImpl.class,
+      SearchResponseCache.class,
+      SearchResponseLoaderExecutorServiceImpl.class,
       SearchResponseLoader.class,
       SearchResponseFormat.class,
+      ExportAction.class,
       OperationResponseWriter.class,
       WsResponseCommonFormat.class,
       AddCommentAction.class,
@@ -67,6 +70,8 @@ public class IssueWsModule extends Module {
       AuthorsAction.class,
       ChangelogAction.class,
       BulkChangeAction.class,
+      BulkChangeTasks.class,
+      BulkChangeStatusAction.class,
       ProjectConfigurationLoaderImpl.class,
       LiveQualityGateFactoryImpl.class,
       IssueChangeTriggerImpl.class,
@@ -0,0 +1,87 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.db.user.UserDto;
+
+import static com.google.common.collect.Sets.difference;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Short-lived cache of the rules and users referenced by issues search responses. Most of the
+ * requests of a dashboard reference the same rules and assignees, so they are not loaded again
+ * from DB for each request. Because of the short time-to-live, changes on rules or users are
+ * visible in responses after a few seconds.
+ * <p>
+ * Cached DTOs are shared between requests, so they must not be modified.
+ */
+@ServerSide
+public class SearchResponseCache {
+
+  private static final long TTL_IN_SECONDS = 30L;
+  private static final long MAX_SIZE = 10_000L;
+
+  private final Cache<RuleKey, RuleDefinitionDto> rules = newCache();
+  private final Cache<String, UserDto> users = newCache();
+
+  /**
+   * Returns the rules with the given keys. Rules which are not in cache are loaded by {@code loader}.
+   */
+  public List<RuleDefinitionDto> getRules(Set<RuleKey> keys, Function<Set<RuleKey>, List<RuleDefinitionDto>> loader) {
+    return get(rules, keys, loader, RuleDefinitionDto::getKey);
+  }
+
+  /**
+   * Returns the users with the given logins. Users which are not in cache are loaded by {@code loader}.
+   */
+  public List<UserDto> getUsers(Set<String> logins, Function<Set<String>, List<UserDto>> loader) {
+    return get(users, logins, loader, UserDto::getLogin);
+  }
+
+  private static <K, V> List<V> get(Cache<K, V> cache, Set<K> keys, Function<Set<K>, List<V>> loader, Function<V, K> keyFunction) {
+    Map<K, V> cached = cache.getAllPresent(keys);
+    List<V> result = new ArrayList<>(cached.values());
+    Set<K> keysToLoad = difference(keys, cached.keySet()).immutableCopy();
+    if (!keysToLoad.isEmpty()) {
+      Collection<V> loaded = loader.apply(keysToLoad);
+      loaded.forEach(value -> cache.put(keyFunction.apply(value), value));
+      result.addAll(loaded);
+    }
+    return result;
+  }
+
+  private static <K, V> Cache<K, V> newCache() {
+    return CacheBuilder.newBuilder()
+      .expireAfterWrite(TTL_IN_SECONDS, SECONDS)
+      .maximumSize(MAX_SIZE)
+      .build();
+  }
+}
@@ -28,6 +28,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.sonar.api.resources.Language;
 import org.sonar.api.resources.Languages;
@@ -45,6 +46,7 @@ import org.sonar.db.user.UserDto;
 import org.sonar.markdown.Markdown;
 import org.sonar.server.es.Facets;
 import org.sonar.server.issue.workflow.Transition;
+import org.sonar.server.ws.ProtobufStreamWriter;
 import org.sonar.server.ws.WsResponseCommonFormat;
 import org.sonarqube.ws.Common;
 import org.sonarqube.ws.Issues;
@@ -78,14 +80,26 @@ public class SearchResponseFormat {
     this.avatarFactory = avatarFactory;
   }
 
-  public SearchWsResponse formatSearch(Set<SearchAdditionalField> fields, SearchResponseData data,
+  /**
+   * Issues and components are written one by one, so that the complete response is never built in memory
+   */
+  public void writeSearch(Set<SearchAdditionalField> fields, SearchResponseData data,
+    Paging paging, @Nullable Facets facets, ProtobufStreamWriter writer) {
+    writer.writeFields(formatSearchWithoutIssuesAndComponents(fields, data, paging, facets));
+    writer.beginArray("issues");
+    formatIssues(fields, data, writer::writeElement);
+    writer.endArray();
+    writer.beginArray("components");
+    formatComponents(data, writer::writeElement);
+    writer.endArray();
+  }
+
+  private SearchWsResponse formatSearchWithoutIssuesAndComponents(Set<SearchAdditionalField> fields, SearchResponseData data,
     Paging paging, @Nullable Facets facets) {
     SearchWsResponse.Builder response = SearchWsResponse.newBuilder();
 
     formatPaging(paging, response);
     formatEffortTotal(data, response);
-    response.addAllIssues(formatIssues(fields, data));
-    response.addAllComponents(formatComponents(data));
     if (facets != null) {
       formatFacets(facets, response);
     }
@@ -134,8 +148,13 @@ public class SearchResponseFormat {
     response.setPaging(commonFormat.formatPaging(paging));
   }
 
-  private List<Issues.Issue> formatIssues(Set<SearchAdditionalField> fields, SearchResponseData data) {
+  List<Issues.Issue> formatIssues(Set<SearchAdditionalField> fields, SearchResponseData data) {
     List<Issues.Issue> result = new ArrayList<>();
+    formatIssues(fields, data, result::add);
+    return result;
+  }
+
+  private void formatIssues(Set<SearchAdditionalField> fields, SearchResponseData data, Consumer<Issues.Issue> consumer) {
     Issue.Builder issueBuilder = Issue.newBuilder();
     data.getIssues().forEach(dto -> {
       issueBuilder.clear();
@@ -149,9 +168,8 @@ public class SearchResponseFormat {
       if (fields.contains(SearchAdditionalField.COMMENTS)) {
         formatIssueComments(data, issueBuilder, dto);
       }
-      result.add(issueBuilder.build());
+      consumer.accept(issueBuilder.build());
     });
-    return result;
   }
 
   private void formatIssue(Issue.Builder issueBuilder, IssueDto dto, SearchResponseData data) {
@@ -296,8 +314,13 @@ public class SearchResponseFormat {
   }
 
   private static List<Issues.Component> formatComponents(SearchResponseData data) {
-    Collection<ComponentDto> components = data.getComponents();
     List<Issues.Component> result = new ArrayList<>();
+    formatComponents(data, result::add);
+    return result;
+  }
+
+  private static void formatComponents(SearchResponseData data, Consumer<Issues.Component> consumer) {
+    Collection<ComponentDto> components = data.getComponents();
     for (ComponentDto dto : components) {
       String uuid = dto.uuid();
       Component.Builder builder = Component.newBuilder()
@@ -316,9 +339,8 @@ public class SearchResponseFormat {
         builder.setPath(path);
       }
 
-      result.add(builder.build());
+      consumer.accept(builder.build());
     }
-    return result;
   }
 
   private Users.Builder formatUsers(SearchResponseData data) {
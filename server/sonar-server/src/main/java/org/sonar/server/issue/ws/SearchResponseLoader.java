@@ -27,9 +27,19 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.api.utils.log.Profiler;
 import org.sonar.core.issue.DefaultIssue;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
@@ -49,6 +59,8 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.collect.ImmutableSet.copyOf;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.difference;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Stream.concat;
 import static org.sonar.api.web.UserRole.ISSUE_ADMIN;
@@ -65,38 +77,47 @@ import static org.sonar.server.issue.ws.SearchAdditionalField.USERS;
 
 /**
  * Loads all the information required for the response of api/issues/search.
+ * <p>
+ * Once issues are loaded, rules and comments (followed by users) are loaded concurrently by
+ * {@link SearchResponseLoaderExecutorService}, each task with its own DB session, while components and
+ * organizations are loaded by the calling thread. These tasks fill distinct fields of {@link SearchResponseData}.
+ * {@link UserSession} and {@link Collector} are not thread-safe, so they are used by the calling thread only.
+ * <p>
+ * Durations of the different steps are logged in DEBUG level.
  */
 public class SearchResponseLoader {
 
+  private static final Logger LOGGER = Loggers.get(SearchResponseLoader.class);
+  private static final String STEP_ISSUES = "issues";
+  private static final String STEP_RULES = "rules";
+  private static final String STEP_COMMENTS = "comments";
+  private static final String STEP_USERS = "users";
+  private static final String STEP_COMPONENTS = "components";
+  private static final String STEP_ORGANIZATIONS = "organizations";
+  private static final String STEP_ACTIONS = "actions";
+  private static final List<String> STEPS = asList(STEP_ISSUES, STEP_RULES, STEP_COMMENTS, STEP_USERS, STEP_COMPONENTS, STEP_ORGANIZATIONS, STEP_ACTIONS);
+
   private final UserSession userSession;
   private final DbClient dbClient;
   private final TransitionService transitionService;
+  private final SearchResponseCache cache;
+  private final SearchResponseLoaderExecutorService executorService;
 
-  public SearchResponseLoader(UserSession userSession, DbClient dbClient, TransitionService transitionService) {
+  public SearchResponseLoader(UserSession userSession, DbClient dbClient, TransitionService transitionService, SearchResponseCache cache,
+    SearchResponseLoaderExecutorService executorService) {
     this.userSession = userSession;
     this.dbClient = dbClient;
     this.transitionService = transitionService;
+    this.cache = cache;
+    this.executorService = executorService;
   }
 
   /**
    * The issue keys are given by the multi-criteria search in Elasticsearch index.
    */
   public SearchResponseData load(Collector collector, @Nullable Facets facets) {
-    try (DbSession dbSession = dbClient.openSession(false)) {
-      SearchResponseData result = new SearchResponseData(dbClient.issueDao().selectByOrderedKeys(dbSession, collector.getIssueKeys()));
-      collector.collect(result.getIssues());
-
-      loadRules(collector, dbSession, result);
-      // order is important - loading of comments complete the list of users: loadComments() is
-      // before loadUsers()
-      loadComments(collector, dbSession, result);
-      loadUsers(collector, dbSession, result);
-      loadComponents(collector, dbSession, result);
-      loadOrganizations(dbSession, result);
-      loadActionsAndTransitions(collector, result);
-      completeTotalEffortFromFacet(facets, result);
-      return result;
-    }
+    return load(new SearchResponseData(emptyList()), collector, facets,
+      dbSession -> dbClient.issueDao().selectByOrderedKeys(dbSession, collector.getIssueKeys()));
   }
 
   /**
@@ -108,19 +129,38 @@ public class SearchResponseLoader {
    * </p>
    */
   public SearchResponseData load(SearchResponseData preloadedResponseData, Collector collector, @Nullable Facets facets) {
+    return load(preloadedResponseData, collector, facets, dbSession -> loadIssues(preloadedResponseData, collector, dbSession));
+  }
+
+  private SearchResponseData load(SearchResponseData preloadedResponseData, Collector collector, @Nullable Facets facets,
+    Function<DbSession, List<IssueDto>> issuesLoader) {
+    Profiler profiler = Profiler.createIfDebug(LOGGER).start();
+    Map<String, Long> durations = new ConcurrentHashMap<>();
     try (DbSession dbSession = dbClient.openSession(false)) {
-      SearchResponseData result = new SearchResponseData(loadIssues(preloadedResponseData, collector, dbSession));
+      SearchResponseData result = new SearchResponseData(time(STEP_ISSUES, durations, () -> issuesLoader.apply(dbSession)));
       collector.collect(result.getIssues());
 
-      loadRules(preloadedResponseData, collector, dbSession, result);
-      // order is important - loading of comments complete the list of users: loadComments() is
-      // before loadUsers()
-      loadComments(collector, dbSession, result);
-      loadUsers(preloadedResponseData, collector, dbSession, result);
-      loadComponents(preloadedResponseData, collector, dbSession, result);
-      loadOrganizations(dbSession, result);
-      loadActionsAndTransitions(collector, result);
+      Future<?> rulesLoading = null;
+      if (collector.contains(RULES)) {
+        Set<RuleKey> ruleKeys = copyOf(collector.<RuleKey>get(RULES));
+        rulesLoading = executorService.submit(() -> loadRules(preloadedResponseData, ruleKeys, result, durations));
+      }
+      Future<List<IssueChangeDto>> commentsLoading = null;
+      if (collector.contains(COMMENTS) || collector.contains(USERS)) {
+        List<String> issueKeys = collector.contains(COMMENTS) ? collector.getIssueKeys() : null;
+        Set<String> logins = collector.contains(USERS) ? copyOf(collector.<String>get(USERS)) : null;
+        commentsLoading = executorService.submit(() -> loadCommentsAndUsers(preloadedResponseData, issueKeys, logins, result, durations));
+      }
+
+      time(STEP_COMPONENTS, durations, () -> loadComponents(preloadedResponseData, collector, dbSession, result));
+      time(STEP_ORGANIZATIONS, durations, () -> loadOrganizations(dbSession, result));
+      waitFor(rulesLoading);
+      completeComments(waitFor(commentsLoading), collector, result);
+      time(STEP_ACTIONS, durations, () -> loadActionsAndTransitions(collector, result));
       completeTotalEffortFromFacet(facets, result);
+
+      STEPS.forEach(step -> profiler.addContext(step + "Ms", durations.get(step)));
+      profiler.stopDebug(format("Issues search response loaded [%d issues]", result.getIssues().size()));
       return result;
     }
   }
@@ -138,22 +178,71 @@ public class SearchResponseLoader {
       .collect(toList(preloadedIssues.size() + loadedIssues.size()));
   }
 
-  private void loadUsers(SearchResponseData preloadedResponseData, Collector collector, DbSession dbSession, SearchResponseData result) {
-    if (collector.contains(USERS)) {
-      List<UserDto> preloadedUsers = firstNonNull(preloadedResponseData.getUsers(), emptyList());
-      Set<String> preloadedLogins = preloadedUsers.stream().map(UserDto::getLogin).collect(MoreCollectors.toSet(preloadedUsers.size()));
-      Set<String> requestedLogins = collector.get(USERS);
-      Set<String> loginsToLoad = copyOf(difference(requestedLogins, preloadedLogins));
-
-      if (loginsToLoad.isEmpty()) {
-        result.setUsers(preloadedUsers);
-      } else {
-        List<UserDto> loadedUsers = dbClient.userDao().selectByLogins(dbSession, loginsToLoad);
-        result.setUsers(concat(preloadedUsers.stream(), loadedUsers.stream()).collect(toList(preloadedUsers.size() + loadedUsers.size())));
+  private void loadRules(SearchResponseData preloadedResponseData, Set<RuleKey> ruleKeys, SearchResponseData result, Map<String, Long> durations) {
+    List<RuleDefinitionDto> preloadedRules = firstNonNull(preloadedResponseData.getRules(), emptyList());
+    Set<RuleKey> preloadedRuleKeys = preloadedRules.stream().map(RuleDefinitionDto::getKey).collect(MoreCollectors.toSet());
+    Set<RuleKey> ruleKeysToLoad = copyOf(difference(ruleKeys, preloadedRuleKeys));
+    if (ruleKeysToLoad.isEmpty()) {
+      result.setRules(preloadedRules);
+      return;
+    }
+    List<RuleDefinitionDto> loadedRules = time(STEP_RULES, durations, () -> cache.getRules(ruleKeysToLoad, keys -> {
+      try (DbSession dbSession = dbClient.openSession(false)) {
+        return dbClient.ruleDao().selectDefinitionByKeys(dbSession, keys);
+      }
+    }));
+    result.setRules(concat(preloadedRules.stream(), loadedRules.stream()).collect(toList(preloadedRules.size() + loadedRules.size())));
+  }
+
+  /**
+   * Loading of comments completes the list of users, so users are loaded after comments.
+   *
+   * @return the loaded comments
+   */
+  private List<IssueChangeDto> loadCommentsAndUsers(SearchResponseData preloadedResponseData, @Nullable List<String> issueKeys, @Nullable Set<String> logins,
+    SearchResponseData result, Map<String, Long> durations) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      List<IssueChangeDto> comments = emptyList();
+      if (issueKeys != null) {
+        comments = time(STEP_COMMENTS, durations, () -> dbClient.issueChangeDao().selectByTypeAndIssueKeys(dbSession, issueKeys, IssueChangeDto.TYPE_COMMENT));
+        result.setComments(comments);
       }
+      if (logins != null) {
+        Set<String> requestedLogins = new HashSet<>(logins);
+        comments.stream().map(IssueChangeDto::getUserLogin).filter(Objects::nonNull).forEach(requestedLogins::add);
+        result.setUsers(time(STEP_USERS, durations, () -> loadUsers(preloadedResponseData, requestedLogins, dbSession)));
+      }
+      return comments;
     }
   }
 
+  private List<UserDto> loadUsers(SearchResponseData preloadedResponseData, Set<String> requestedLogins, DbSession dbSession) {
+    List<UserDto> preloadedUsers = firstNonNull(preloadedResponseData.getUsers(), emptyList());
+    Set<String> preloadedLogins = preloadedUsers.stream().map(UserDto::getLogin).collect(MoreCollectors.toSet(preloadedUsers.size()));
+    Set<String> loginsToLoad = copyOf(difference(requestedLogins, preloadedLogins));
+    if (loginsToLoad.isEmpty()) {
+      return preloadedUsers;
+    }
+    List<UserDto> loadedUsers = cache.getUsers(loginsToLoad, logins -> dbClient.userDao().selectByLogins(dbSession, logins));
+    return concat(preloadedUsers.stream(), loadedUsers.stream()).collect(toList(preloadedUsers.size() + loadedUsers.size()));
+  }
+
+  private void completeComments(@Nullable List<IssueChangeDto> comments, Collector collector, SearchResponseData result) {
+    if (comments == null) {
+      return;
+    }
+    for (IssueChangeDto comment : comments) {
+      collector.add(USERS, comment.getUserLogin());
+      if (canEditOrDelete(comment)) {
+        result.addUpdatableComment(comment.getKey());
+      }
+    }
+  }
+
+  private boolean canEditOrDelete(IssueChangeDto dto) {
+    return userSession.isLoggedIn() && userSession.getLogin().equals(dto.getUserLogin());
+  }
+
   private void loadComponents(SearchResponseData preloadedResponseData, Collector collector, DbSession dbSession, SearchResponseData result) {
     Collection<ComponentDto> preloadedComponents = preloadedResponseData.getComponents();
     Set<String> preloadedComponentUuids = preloadedComponents.stream().map(ComponentDto::uuid).collect(MoreCollectors.toSet(preloadedComponents.size()));
@@ -183,57 +272,6 @@ public class SearchResponseLoader {
     }
   }
 
-  private void loadRules(SearchResponseData preloadedResponseData, Collector collector, DbSession dbSession, SearchResponseData result) {
-    if (collector.contains(RULES)) {
-      List<RuleDefinitionDto> preloadedRules = firstNonNull(preloadedResponseData.getRules(), emptyList());
-      Set<RuleKey> preloaedRuleKeys = preloadedRules.stream().map(RuleDefinitionDto::getKey).collect(MoreCollectors.toSet());
-      Set<RuleKey> ruleKeysToLoad = copyOf(difference(collector.get(RULES), preloaedRuleKeys));
-      if (ruleKeysToLoad.isEmpty()) {
-        result.setRules(preloadedResponseData.getRules());
-      } else {
-        List<RuleDefinitionDto> loadedRules = dbClient.ruleDao().selectDefinitionByKeys(dbSession, ruleKeysToLoad);
-        result.setRules(concat(preloadedRules.stream(), loadedRules.stream()).collect(toList(preloadedRules.size() + loadedRules.size())));
-      }
-    }
-  }
-
-  private void loadUsers(Collector collector, DbSession dbSession, SearchResponseData result) {
-    if (collector.contains(USERS)) {
-      result.setUsers(dbClient.userDao().selectByLogins(dbSession, collector.getList(USERS)));
-    }
-  }
-
-  private void loadComments(Collector collector, DbSession dbSession, SearchResponseData result) {
-    if (collector.contains(COMMENTS)) {
-      List<IssueChangeDto> comments = dbClient.issueChangeDao().selectByTypeAndIssueKeys(dbSession, collector.getIssueKeys(), IssueChangeDto.TYPE_COMMENT);
-      result.setComments(comments);
-      for (IssueChangeDto comment : comments) {
-        collector.add(USERS, comment.getUserLogin());
-        if (canEditOrDelete(comment)) {
-          result.addUpdatableComment(comment.getKey());
-        }
-      }
-    }
-  }
-
-  private boolean canEditOrDelete(IssueChangeDto dto) {
-    return userSession.isLoggedIn() && userSession.getLogin().equals(dto.getUserLogin());
-  }
-
-  private void loadRules(Collector collector, DbSession dbSession, SearchResponseData result) {
-    if (collector.contains(RULES)) {
-      result.setRules(dbClient.ruleDao().selectDefinitionByKeys(dbSession, collector.getList(RULES)));
-    }
-  }
-
-  private void loadComponents(Collector collector, DbSession dbSession, SearchResponseData result) {
-    // always load components and projects, because some issue fields still relate to component ids/keys.
-    // They should be dropped but are kept for backward-compatibility (see SearchResponseFormat)
-    result.addComponents(dbClient.componentDao().selectByUuids(dbSession, collector.getComponentUuids()));
-    result.addComponents(dbClient.componentDao().selectSubProjectsByComponentUuids(dbSession, collector.getComponentUuids()));
-    addProjectUuids(collector, dbSession, result);
-  }
-
   private void loadOrganizations(DbSession dbSession, SearchResponseData result) {
     Collection<ComponentDto> components = result.getComponents();
     dbClient.organizationDao().selectByUuids(
@@ -292,6 +330,37 @@ public class SearchResponseLoader {
     }
   }
 
+  private static <T> T time(String step, Map<String, Long> durations, Supplier<T> supplier) {
+    long start = System.currentTimeMillis();
+    try {
+      return supplier.get();
+    } finally {
+      durations.put(step, System.currentTimeMillis() - start);
+    }
+  }
+
+  private static void time(String step, Map<String, Long> durations, Runnable runnable) {
+    time(step, durations, () -> {
+      runnable.run();
+      return null;
+    });
+  }
+
+  @CheckForNull
+  private static <T> T waitFor(@Nullable Future<T> future) {
+    if (future == null) {
+      return null;
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading issues search response", e);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+    }
+  }
+
   /**
    * Collects the keys of all the data to be loaded (users, rules, ...)
    */
@@ -0,0 +1,95 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.sonar.api.config.Configuration;
+import org.sonar.server.util.AbstractStoppableExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Pool of threads loading in parallel the data of responses of issues search. Threads
+ * are shared by all the concurrent requests, so the queue of pending tasks is bounded:
+ * when it's full, the task is executed by the thread of the request which submits it,
+ * instead of waiting behind the tasks of the other requests. Once the pool is shut down, tasks
+ * are rejected.
+ */
+public class SearchResponseLoaderExecutorServiceImpl
+  extends AbstractStoppableExecutorService<ThreadPoolExecutor>
+  implements SearchResponseLoaderExecutorService {
+
+  /**
+   * Each thread holds a DB connection while running, so the pool must stay small compared to the DB connection pool.
+   */
+  public static final String PROPERTY_THREAD_COUNT = "sonar.web.issuesSearchLoader.threads";
+  static final int DEFAULT_THREAD_COUNT = 4;
+
+  /**
+   * Number of pending tasks allowed per thread before tasks are executed by the calling thread.
+   */
+  private static final int QUEUE_SIZE_PER_THREAD = 2;
+  private static final long KEEP_ALIVE_TIME_IN_MINUTES = 1L;
+
+  public SearchResponseLoaderExecutorServiceImpl(Configuration config) {
+    super(createDelegate(config.getInt(PROPERTY_THREAD_COUNT).orElse(DEFAULT_THREAD_COUNT)));
+  }
+
+  private static ThreadPoolExecutor createDelegate(int threadCount) {
+    checkArgument(threadCount > 0, "Property %s must be strictly positive. Got %s", PROPERTY_THREAD_COUNT, threadCount);
+    ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+      threadCount, threadCount,
+      KEEP_ALIVE_TIME_IN_MINUTES, MINUTES,
+      new ArrayBlockingQueue<>(threadCount * QUEUE_SIZE_PER_THREAD),
+      new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("issues_search_loader-%d")
+        .build(),
+      new CallerRunsUnlessShutdownPolicy());
+    threadPoolExecutor.allowCoreThreadTimeOut(true);
+    return threadPoolExecutor;
+  }
+
+  @VisibleForTesting
+  ThreadPoolExecutor getThreadPool() {
+    return delegate;
+  }
+
+  /**
+   * Same as {@link ThreadPoolExecutor.CallerRunsPolicy}, except that tasks are rejected once the pool is shut down.
+   * {@link ThreadPoolExecutor.CallerRunsPolicy} silently discards them, so callers waiting for their result
+   * would be blocked forever.
+   */
+  private static class CallerRunsUnlessShutdownPolicy implements RejectedExecutionHandler {
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Pool of loaders of issues search responses is shut down");
+      }
+      task.run();
+    }
+  }
+}
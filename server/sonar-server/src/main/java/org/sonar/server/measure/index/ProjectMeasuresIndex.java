@@ -176,12 +176,24 @@ public class ProjectMeasuresIndex {
     Map<String, QueryBuilder> filters = createFilters(query);
     filters.values().forEach(esFilter::must);
     requestBuilder.setQuery(esFilter);
+    configureRouting(query, requestBuilder);
 
     addFacets(requestBuilder, searchOptions, filters, query);
     addSort(query, requestBuilder);
     return new SearchIdResult<>(requestBuilder.get(), id -> id, system2.getDefaultTimeZone());
   }
 
+  /**
+   * Documents are routed by project UUID, so when the search is restricted to a set of projects (for example
+   * the favorites of a user), the request is sent only to the shards containing them. Facets never ignore
+   * the filter on projects, so they can be computed on the same shards.
+   */
+  private static void configureRouting(ProjectMeasuresQuery query, SearchRequestBuilder requestBuilder) {
+    query.getProjectUuids()
+      .filter(projectUuids -> !projectUuids.isEmpty())
+      .ifPresent(projectUuids -> requestBuilder.setRouting(projectUuids.toArray(new String[projectUuids.size()])));
+  }
+
   public ProjectMeasuresStatistics searchTelemetryStatistics() {
     SearchRequestBuilder request = client
       .prepareSearch(INDEX_TYPE_PROJECT_MEASURES)
@@ -68,6 +68,7 @@ import org.sonar.db.metric.MetricDtoFunctions;
 import org.sonar.server.component.ComponentFinder;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.user.UserSession;
+import org.sonar.server.ws.ProtobufStreamWriter;
 import org.sonarqube.ws.Measures;
 import org.sonarqube.ws.Measures.ComponentTreeWsResponse;
 
@@ -162,14 +163,16 @@ public class ComponentTreeAction implements MeasuresWsAction {
   private final UserSession userSession;
   private final I18n i18n;
   private final ResourceTypes resourceTypes;
+  private final ComponentTreeMatrixCache matrixCache;
 
   public ComponentTreeAction(DbClient dbClient, ComponentFinder componentFinder, UserSession userSession, I18n i18n,
-    ResourceTypes resourceTypes) {
+    ResourceTypes resourceTypes, ComponentTreeMatrixCache matrixCache) {
     this.dbClient = dbClient;
     this.componentFinder = componentFinder;
     this.userSession = userSession;
     this.i18n = i18n;
     this.resourceTypes = resourceTypes;
+    this.matrixCache = matrixCache;
   }
 
   @Override
@@ -256,30 +259,30 @@ public class ComponentTreeAction implements MeasuresWsAction {
 
   @Override
   public void handle(Request request, Response response) throws Exception {
-    ComponentTreeWsResponse componentTreeWsResponse = doHandle(toComponentTreeWsRequest(request));
-    writeProtobuf(componentTreeWsResponse, request, response);
-  }
-
-  private ComponentTreeWsResponse doHandle(ComponentTreeRequest request) {
-    if (request.getDeveloperId() != null || request.getDeveloperKey() != null) {
-      return emptyResponse(null, request);
+    ComponentTreeRequest componentTreeRequest = toComponentTreeWsRequest(request);
+    if (componentTreeRequest.getDeveloperId() != null || componentTreeRequest.getDeveloperKey() != null) {
+      writeProtobuf(emptyResponse(null, componentTreeRequest), request, response);
+      return;
     }
 
-    ComponentTreeData data = load(request);
+    ComponentTreeData data = load(componentTreeRequest);
     if (data.getComponents() == null) {
-      return emptyResponse(data.getBaseComponent(), request);
+      writeProtobuf(emptyResponse(data.getBaseComponent(), componentTreeRequest), request, response);
+      return;
     }
 
-    return buildResponse(
-      request,
-      data,
-      Paging.forPageIndex(
-        request.getPage())
-        .withPageSize(request.getPageSize())
-        .andTotal(data.getComponentCount()));
+    Paging paging = Paging.forPageIndex(componentTreeRequest.getPage())
+      .withPageSize(componentTreeRequest.getPageSize())
+      .andTotal(data.getComponentCount());
+    try (ProtobufStreamWriter writer = ProtobufStreamWriter.of(ComponentTreeWsResponse.getDescriptor(), request, response)) {
+      writeResponse(componentTreeRequest, data, paging, writer);
+    }
   }
 
-  private static ComponentTreeWsResponse buildResponse(ComponentTreeRequest request, ComponentTreeData data, Paging paging) {
+  /**
+   * Components are written one by one, so that the complete response is never built in memory
+   */
+  private static void writeResponse(ComponentTreeRequest request, ComponentTreeData data, Paging paging, ProtobufStreamWriter writer) {
     ComponentTreeWsResponse.Builder response = ComponentTreeWsResponse.newBuilder();
     response.getPagingBuilder()
       .setPageIndex(paging.pageIndex())
@@ -293,13 +296,6 @@ public class ComponentTreeAction implements MeasuresWsAction {
         data.getMeasuresByComponentUuidAndMetric().row(data.getBaseComponent().uuid()),
         data.getReferenceComponentsByUuid()));
 
-    for (ComponentDto componentDto : data.getComponents()) {
-      response.addComponents(toWsComponent(
-        componentDto,
-        data.getMeasuresByComponentUuidAndMetric().row(componentDto.uuid()),
-        data.getReferenceComponentsByUuid()));
-    }
-
     if (areMetricsInResponse(request)) {
       Measures.Metrics.Builder metricsBuilder = response.getMetricsBuilder();
       for (MetricDto metricDto : data.getMetrics()) {
@@ -310,8 +306,16 @@ public class ComponentTreeAction implements MeasuresWsAction {
     if (arePeriodsInResponse(request)) {
       response.getPeriodsBuilder().addAllPeriods(data.getPeriods());
     }
+    writer.writeFields(response.build());
 
-    return response.build();
+    writer.beginArray("components");
+    for (ComponentDto componentDto : data.getComponents()) {
+      writer.writeElement(toWsComponent(
+        componentDto,
+        data.getMeasuresByComponentUuidAndMetric().row(componentDto.uuid()),
+        data.getReferenceComponentsByUuid()).build());
+    }
+    writer.endArray();
   }
 
   private static boolean areMetricsInResponse(ComponentTreeRequest request) {
@@ -403,11 +407,17 @@ public class ComponentTreeAction implements MeasuresWsAction {
       }
 
       ComponentTreeQuery componentTreeQuery = toComponentTreeQuery(wsRequest, baseComponent);
-      List<ComponentDto> components = searchComponents(dbSession, componentTreeQuery);
       List<MetricDto> metrics = searchMetrics(dbSession, wsRequest);
-      Table<String, MetricDto, ComponentTreeData.Measure> measuresByComponentUuidAndMetric = searchMeasuresByComponentUuidAndMetric(dbSession, baseComponent, componentTreeQuery,
-              components,
-              metrics);
+      Optional<ComponentTreeMatrix> matrix = matrixCache.get(dbSession, baseComponent, baseSnapshot.get().getUuid());
+      List<ComponentDto> components;
+      Table<String, MetricDto, ComponentTreeData.Measure> measuresByComponentUuidAndMetric;
+      if (matrix.isPresent()) {
+        components = searchComponents(matrix.get(), baseComponent, componentTreeQuery);
+        measuresByComponentUuidAndMetric = searchMeasuresByComponentUuidAndMetric(dbSession, matrix.get(), baseComponent, components, metrics);
+      } else {
+        components = searchComponents(dbSession, componentTreeQuery);
+        measuresByComponentUuidAndMetric = searchMeasuresByComponentUuidAndMetric(dbSession, baseComponent, componentTreeQuery, components, metrics);
+      }
 
       components = filterComponents(components, measuresByComponentUuidAndMetric, metrics, wsRequest);
       components = sortComponents(components, wsRequest, metrics, measuresByComponentUuidAndMetric);
@@ -458,6 +468,14 @@ public class ComponentTreeAction implements MeasuresWsAction {
     return dbClient.componentDao().selectDescendants(dbSession, componentTreeQuery);
   }
 
+  private static List<ComponentDto> searchComponents(ComponentTreeMatrix matrix, ComponentDto baseComponent, ComponentTreeQuery componentTreeQuery) {
+    Collection<String> qualifiers = componentTreeQuery.getQualifiers();
+    if (qualifiers != null && qualifiers.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return matrix.selectDescendants(baseComponent, componentTreeQuery);
+  }
+
   private List<MetricDto> searchMetrics(DbSession dbSession, ComponentTreeRequest request) {
     List<String> metricKeys = requireNonNull(request.getMetricKeys());
     List<MetricDto> metrics = dbClient.metricDao().selectByKeys(dbSession, metricKeys);
@@ -503,6 +521,25 @@ public class ComponentTreeAction implements MeasuresWsAction {
     return measuresByComponentUuidAndMetric;
   }
 
+  private Table<String, MetricDto, ComponentTreeData.Measure> searchMeasuresByComponentUuidAndMetric(DbSession dbSession, ComponentTreeMatrix matrix,
+    ComponentDto baseComponent, List<ComponentDto> components, List<MetricDto> metrics) {
+    matrixCache.loadMeasures(dbSession, matrix, metrics.stream().map(MetricDto::getId).collect(MoreCollectors.toList(metrics.size())));
+
+    Table<String, MetricDto, ComponentTreeData.Measure> measuresByComponentUuidAndMetric = HashBasedTable.create(components.size() + 1, metrics.size());
+    Stream.concat(Stream.of(baseComponent), components.stream()).forEach(component -> {
+      for (MetricDto metric : metrics) {
+        ComponentTreeData.Measure measure = matrix.getMeasure(metric.getId(), component.uuid());
+        if (measure != null) {
+          measuresByComponentUuidAndMetric.put(component.uuid(), metric, measure);
+        }
+      }
+    });
+
+    addBestValuesToMeasures(measuresByComponentUuidAndMetric, components, metrics);
+
+    return measuresByComponentUuidAndMetric;
+  }
+
   /**
    * Conditions for best value measure:
    * <ul>
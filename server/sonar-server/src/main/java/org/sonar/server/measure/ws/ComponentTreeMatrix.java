@@ -0,0 +1,187 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.ws;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
+import org.sonar.core.util.stream.MoreCollectors;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.component.ComponentTreeQuery;
+import org.sonar.db.measure.LiveMeasureDto;
+import org.sonar.db.measure.MeasureTreeQuery;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.sonar.db.component.ComponentDto.UUID_PATH_SEPARATOR;
+
+/**
+ * Enabled components of a branch and their measures, as of a given analysis. Measures are loaded
+ * by metric, the first time that a metric is requested.
+ * <p>
+ * Components are sorted by uuid path, so that the descendants of a component are contiguous
+ * and can be found by binary search, without browsing the whole branch.
+ */
+class ComponentTreeMatrix {
+
+  private static final Comparator<ComponentDto> UUID_PATH_COMPARATOR = Comparator.comparing(ComponentDto::getUuidPath);
+
+  private final String analysisUuid;
+  private final ComponentDto root;
+  private final ComponentDto[] componentsByUuidPath;
+  private final Map<String, List<ComponentDto>> childrenByUuidPath;
+  private final Map<Integer, Map<String, ComponentTreeData.Measure>> measuresByMetricId = new ConcurrentHashMap<>();
+  private final AtomicInteger measureCount = new AtomicInteger();
+
+  private ComponentTreeMatrix(String analysisUuid, ComponentDto root, List<ComponentDto> descendants) {
+    this.analysisUuid = analysisUuid;
+    this.root = root;
+    this.componentsByUuidPath = descendants.toArray(new ComponentDto[descendants.size()]);
+    Arrays.sort(componentsByUuidPath, UUID_PATH_COMPARATOR);
+    this.childrenByUuidPath = new HashMap<>();
+    for (ComponentDto component : componentsByUuidPath) {
+      childrenByUuidPath.computeIfAbsent(component.getUuidPath(), p -> new ArrayList<>()).add(component);
+    }
+  }
+
+  static ComponentTreeMatrix load(DbClient dbClient, DbSession dbSession, String analysisUuid, ComponentDto root) {
+    List<ComponentDto> descendants = dbClient.componentDao().selectDescendants(dbSession, ComponentTreeQuery.builder()
+      .setBaseUuid(root.uuid())
+      .setStrategy(ComponentTreeQuery.Strategy.LEAVES)
+      .build());
+    return new ComponentTreeMatrix(analysisUuid, root, descendants);
+  }
+
+  String getAnalysisUuid() {
+    return analysisUuid;
+  }
+
+  String getBranchUuid() {
+    return root.uuid();
+  }
+
+  /**
+   * Number of components, including the root
+   */
+  int size() {
+    return componentsByUuidPath.length + 1;
+  }
+
+  /**
+   * Number of components and of loaded measures, as an estimation of the memory used by this matrix
+   */
+  int weight() {
+    return size() + measureCount.get();
+  }
+
+  /**
+   * Same as {@link org.sonar.db.component.ComponentDao#selectDescendants(DbSession, ComponentTreeQuery)}, for a base
+   * component of the branch
+   */
+  List<ComponentDto> selectDescendants(ComponentDto base, ComponentTreeQuery query) {
+    String uuidPath = base.getUuidPath() + base.uuid() + UUID_PATH_SEPARATOR;
+    Collection<String> qualifiers = query.getQualifiers();
+    String nameOrKeyQuery = query.getNameOrKeyQuery();
+    Predicate<ComponentDto> filter = c -> (qualifiers == null || qualifiers.contains(c.qualifier())) &&
+      (nameOrKeyQuery == null || matches(c, nameOrKeyQuery));
+
+    List<ComponentDto> result = new ArrayList<>();
+    if (query.getStrategy() == ComponentTreeQuery.Strategy.CHILDREN) {
+      childrenByUuidPath.getOrDefault(uuidPath, emptyList()).stream().filter(filter).forEach(result::add);
+      return result;
+    }
+    for (int i = firstIndexOfUuidPath(uuidPath); i < componentsByUuidPath.length && componentsByUuidPath[i].getUuidPath().startsWith(uuidPath); i++) {
+      if (filter.test(componentsByUuidPath[i])) {
+        result.add(componentsByUuidPath[i]);
+      }
+    }
+    return result;
+  }
+
+  private int firstIndexOfUuidPath(String uuidPath) {
+    int low = 0;
+    int high = componentsByUuidPath.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (componentsByUuidPath[middle].getUuidPath().compareTo(uuidPath) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static boolean matches(ComponentDto component, String nameOrKeyQuery) {
+    String name = component.name();
+    return nameOrKeyQuery.equals(component.getDbKey()) ||
+      (name != null && name.toUpperCase(Locale.ENGLISH).contains(nameOrKeyQuery.toUpperCase(Locale.ENGLISH)));
+  }
+
+  /**
+   * Loads from DB the measures of the metrics which have not been requested yet
+   *
+   * @return true if measures have been loaded, so that the {@link #weight()} may have changed
+   */
+  boolean loadMeasures(DbClient dbClient, DbSession dbSession, Collection<Integer> metricIds) {
+    List<Integer> missingMetricIds = metricIds.stream()
+      .filter(metricId -> !measuresByMetricId.containsKey(metricId))
+      .collect(MoreCollectors.toArrayList());
+    if (missingMetricIds.isEmpty()) {
+      return false;
+    }
+
+    Map<Integer, Map<String, ComponentTreeData.Measure>> loadedMeasures = new HashMap<>();
+    missingMetricIds.forEach(metricId -> loadedMeasures.put(metricId, new HashMap<>()));
+    MeasureTreeQuery query = MeasureTreeQuery.builder()
+      .setStrategy(MeasureTreeQuery.Strategy.LEAVES)
+      .setMetricIds(missingMetricIds)
+      .build();
+    dbClient.liveMeasureDao().selectTreeByQuery(dbSession, root, query, result -> {
+      LiveMeasureDto measureDto = result.getResultObject();
+      loadedMeasures.get(measureDto.getMetricId()).put(measureDto.getComponentUuid(), ComponentTreeData.Measure.createFromMeasureDto(measureDto));
+    });
+    loadedMeasures.forEach((metricId, measures) -> {
+      if (measuresByMetricId.putIfAbsent(metricId, measures) == null) {
+        measureCount.addAndGet(measures.size());
+      }
+    });
+    return true;
+  }
+
+  /**
+   * Measure of a metric previously loaded with {@link #loadMeasures(DbClient, DbSession, Collection)}
+   */
+  @CheckForNull
+  ComponentTreeData.Measure getMeasure(int metricId, String componentUuid) {
+    return measuresByMetricId.getOrDefault(metricId, emptyMap()).get(componentUuid);
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.ws;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.CheckForNull;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.component.ComponentDto;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Keeps in memory the {@link ComponentTreeMatrix} of the most recently browsed branches, so that
+ * api/measures/component_tree does not load all the components and measures of the branch
+ * from DB for each page.
+ * <p>
+ * Live measures are updated by Compute Engine only, so a matrix is valid as long as the last analysis of the
+ * branch does not change. Component keys can also be changed by web services, in which case
+ * {@link #invalidateAll()} must be called. As this is done only on the node which processed the
+ * change, matrices also expire after {@link #PROPERTY_TTL_IN_SECONDS}.
+ */
+@ServerSide
+public class ComponentTreeMatrixCache {
+
+  public static final String PROPERTY_TTL_IN_SECONDS = "sonar.web.componentTreeCache.ttlInSeconds";
+  static final long DEFAULT_TTL_IN_SECONDS = 600L;
+  /**
+   * Maximum number of components and measures of all the cached matrices. Branches which are bigger are never cached.
+   */
+  static final long MAX_WEIGHT = 200_000L;
+
+  private final DbClient dbClient;
+  private final long maxWeight;
+  @CheckForNull
+  private final Cache<String, ComponentTreeMatrix> matricesByBranchUuid;
+  // last analysis of the branches which are too big to be cached
+  @CheckForNull
+  private final Cache<String, String> analysisUuidsOfBigBranches;
+
+  public ComponentTreeMatrixCache(DbClient dbClient, Configuration config) {
+    this(dbClient, config, MAX_WEIGHT);
+  }
+
+  ComponentTreeMatrixCache(DbClient dbClient, Configuration config, long maxWeight) {
+    this.dbClient = dbClient;
+    this.maxWeight = maxWeight;
+    long ttlInSeconds = config.getLong(PROPERTY_TTL_IN_SECONDS).orElse(DEFAULT_TTL_IN_SECONDS);
+    this.matricesByBranchUuid = ttlInSeconds > 0 ? CacheBuilder.newBuilder()
+      // the maximum weight is divided between segments, so a single segment is required to keep big branches
+      .concurrencyLevel(1)
+      .maximumWeight(maxWeight)
+      .<String, ComponentTreeMatrix>weigher((branchUuid, matrix) -> matrix.weight())
+      .expireAfterWrite(ttlInSeconds, SECONDS)
+      .recordStats()
+      .build() : null;
+    this.analysisUuidsOfBigBranches = ttlInSeconds > 0 ? CacheBuilder.newBuilder()
+      .maximumSize(1_000L)
+      .expireAfterWrite(ttlInSeconds, SECONDS)
+      .<String, String>build() : null;
+  }
+
+  /**
+   * Returns the matrix of the branch of {@code component}, as of the given analysis. It is loaded
+   * if the cache does not contain the matrix of this analysis yet. Concurrent requests on the same
+   * branch wait for the matrix loaded by the first one.
+   *
+   * @return empty if cache is disabled, or if the branch is known to be too big to be cached
+   */
+  Optional<ComponentTreeMatrix> get(DbSession dbSession, ComponentDto component, String analysisUuid) {
+    if (matricesByBranchUuid == null || analysisUuidsOfBigBranches == null) {
+      return Optional.empty();
+    }
+    String branchUuid = component.projectUuid();
+    ComponentTreeMatrix matrix = matricesByBranchUuid.getIfPresent(branchUuid);
+    if (matrix != null) {
+      if (matrix.getAnalysisUuid().equals(analysisUuid)) {
+        return Optional.of(matrix);
+      }
+      // matrix of a previous analysis
+      matricesByBranchUuid.asMap().remove(branchUuid, matrix);
+    }
+    if (analysisUuid.equals(analysisUuidsOfBigBranches.getIfPresent(branchUuid))) {
+      return Optional.empty();
+    }
+
+    Optional<ComponentDto> root = dbClient.componentDao().selectByUuid(dbSession, branchUuid);
+    if (!root.isPresent()) {
+      return Optional.empty();
+    }
+    try {
+      matrix = matricesByBranchUuid.get(branchUuid, () -> load(dbSession, analysisUuid, root.get()));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof TooBigMatrixException) {
+        return Optional.of(((TooBigMatrixException) e.getCause()).matrix);
+      }
+      Throwables.propagateIfPossible(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+    // loaded concurrently for another analysis
+    return matrix.getAnalysisUuid().equals(analysisUuid) ? Optional.of(matrix) : Optional.empty();
+  }
+
+  private ComponentTreeMatrix load(DbSession dbSession, String analysisUuid, ComponentDto root) {
+    ComponentTreeMatrix matrix = ComponentTreeMatrix.load(dbClient, dbSession, analysisUuid, root);
+    if (matrix.weight() > maxWeight) {
+      markAsTooBig(matrix);
+      // not cached, but still used by the requests waiting for it
+      throw new TooBigMatrixException(matrix);
+    }
+    return matrix;
+  }
+
+  /**
+   * Loads the measures of the given metrics into {@code matrix}. Guava weighs entries only when they are written,
+   * so the matrix is written again to take into account the new measures.
+   */
+  void loadMeasures(DbSession dbSession, ComponentTreeMatrix matrix, Collection<Integer> metricIds) {
+    if (!matrix.loadMeasures(dbClient, dbSession, metricIds) || matricesByBranchUuid == null) {
+      return;
+    }
+    if (matrix.weight() > maxWeight) {
+      if (matricesByBranchUuid.asMap().remove(matrix.getBranchUuid(), matrix)) {
+        markAsTooBig(matrix);
+      }
+    } else {
+      matricesByBranchUuid.asMap().replace(matrix.getBranchUuid(), matrix, matrix);
+    }
+  }
+
+  private void markAsTooBig(ComponentTreeMatrix matrix) {
+    if (analysisUuidsOfBigBranches != null) {
+      analysisUuidsOfBigBranches.put(matrix.getBranchUuid(), matrix.getAnalysisUuid());
+    }
+  }
+
+  public void invalidateAll() {
+    if (matricesByBranchUuid != null) {
+      matricesByBranchUuid.invalidateAll();
+    }
+    if (analysisUuidsOfBigBranches != null) {
+      analysisUuidsOfBigBranches.invalidateAll();
+    }
+  }
+
+  long size() {
+    return matricesByBranchUuid == null ? 0L : matricesByBranchUuid.size();
+  }
+
+  long weight() {
+    return matricesByBranchUuid == null ? 0L : matricesByBranchUuid.asMap().values().stream().mapToLong(ComponentTreeMatrix::weight).sum();
+  }
+
+  private static class TooBigMatrixException extends RuntimeException {
+    private final transient ComponentTreeMatrix matrix;
+
+    private TooBigMatrixException(ComponentTreeMatrix matrix) {
+      super("Branch is too big to be cached", null, false, false);
+      this.matrix = matrix;
+    }
+  }
+}
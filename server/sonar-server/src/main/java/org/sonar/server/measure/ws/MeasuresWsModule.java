@@ -27,6 +27,7 @@ public class MeasuresWsModule extends Module {
     add(
       MeasuresWs.class,
       ComponentTreeAction.class,
+      ComponentTreeMatrixCache.class,
       ComponentAction.class,
       SearchAction.class,
       SearchHistoryAction.class);
@@ -20,10 +20,10 @@
 package org.sonar.server.metric;
 
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import javax.annotation.Nonnull;
 import org.sonar.api.measures.Metric;
 import org.sonar.api.measures.MetricFinder;
@@ -36,54 +36,39 @@ import static com.google.common.collect.FluentIterable.from;
 public class DefaultMetricFinder implements MetricFinder {
 
   private final DbClient dbClient;
+  private final MetricsCache metricsCache;
 
-  public DefaultMetricFinder(DbClient dbClient) {
+  public DefaultMetricFinder(DbClient dbClient, MetricsCache metricsCache) {
     this.dbClient = dbClient;
+    this.metricsCache = metricsCache;
   }
 
   @Override
   public Metric findById(int id) {
-    try (DbSession session = dbClient.openSession(false)) {
-      MetricDto dto = dbClient.metricDao().selectById(session, id);
-      if (dto != null && dto.isEnabled()) {
-        return ToMetric.INSTANCE.apply(dto);
-      }
-      return null;
-    }
+    MetricDto dto = loadMetrics().getById(id);
+    return dto == null ? null : ToMetric.INSTANCE.apply(dto);
   }
 
   @Override
   public Metric findByKey(String key) {
-    try (DbSession session = dbClient.openSession(false)) {
-      MetricDto dto = dbClient.metricDao().selectByKey(session, key);
-      if (dto != null && dto.isEnabled()) {
-        return ToMetric.INSTANCE.apply(dto);
-      }
-      return null;
-    }
+    MetricDto dto = loadMetrics().getByKey(key);
+    return dto == null ? null : ToMetric.INSTANCE.apply(dto);
   }
 
   @Override
   public Collection<Metric> findAll(List<String> metricKeys) {
-    try (DbSession session = dbClient.openSession(false)) {
-      List<MetricDto> dtos = dbClient.metricDao().selectByKeys(session, metricKeys);
-      return from(dtos).filter(IsEnabled.INSTANCE).transform(ToMetric.INSTANCE).toList();
-    }
+    MetricsCache.Snapshot metrics = loadMetrics();
+    return from(metricKeys).transform(metrics::getByKey).filter(Objects::nonNull).transform(ToMetric.INSTANCE).toList();
   }
 
   @Override
   public Collection<Metric> findAll() {
-    try (DbSession session = dbClient.openSession(false)) {
-      List<MetricDto> dtos = dbClient.metricDao().selectEnabled(session);
-      return from(dtos).transform(ToMetric.INSTANCE).toList();
-    }
+    return from(loadMetrics().getAll()).transform(ToMetric.INSTANCE).toList();
   }
 
-  private enum IsEnabled implements Predicate<MetricDto> {
-    INSTANCE;
-    @Override
-    public boolean apply(@Nonnull MetricDto dto) {
-      return dto.isEnabled();
+  private MetricsCache.Snapshot loadMetrics() {
+    try (DbSession session = dbClient.openSession(false)) {
+      return metricsCache.get(session);
     }
   }
 
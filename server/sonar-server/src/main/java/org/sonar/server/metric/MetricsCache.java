@@ -0,0 +1,118 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.metric;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.metric.MetricDto;
+import org.sonar.server.property.InternalProperties;
+import org.sonar.server.property.InternalPropertyVersion;
+
+import static java.util.Collections.unmodifiableList;
+import static org.sonar.core.util.stream.MoreCollectors.uniqueIndex;
+
+/**
+ * Enabled metrics, shared by the successive tasks and requests of the process so that they are not
+ * loaded from DB each time.
+ * <p>
+ * The snapshot is stamped with the version of metrics stored in DB ({@link InternalProperties#METRICS_VERSION}).
+ * Any change of metrics must call {@link #invalidate(DbClient, DbSession)} in the same transaction, so that
+ * the snapshots of all the processes are reloaded.
+ */
+@ServerSide
+@ComputeEngineSide
+public class MetricsCache {
+
+  private final DbClient dbClient;
+  @CheckForNull
+  private volatile Snapshot snapshot;
+
+  public MetricsCache(DbClient dbClient) {
+    this.dbClient = dbClient;
+  }
+
+  /**
+   * Enabled metrics. They are loaded from DB only if metrics have been changed since the previous call.
+   */
+  public Snapshot get(DbSession dbSession) {
+    // version is read before metrics, so that a concurrent change is detected on next call
+    String version = dbClient.internalPropertiesDao().selectByKey(dbSession, InternalProperties.METRICS_VERSION).orElse("");
+    Snapshot current = this.snapshot;
+    if (current == null || !current.version.equals(version)) {
+      current = new Snapshot(version, dbClient.metricDao().selectEnabled(dbSession));
+      this.snapshot = current;
+    }
+    return current;
+  }
+
+  /**
+   * Changes the version of metrics. Must be called in the transaction which changes metrics.
+   */
+  public static void invalidate(DbClient dbClient, DbSession dbSession) {
+    InternalPropertyVersion.change(dbClient, dbSession, InternalProperties.METRICS_VERSION);
+  }
+
+  /**
+   * Immutable set of metrics. The returned DTOs are shared and must not be modified.
+   */
+  public static final class Snapshot {
+    private final String version;
+    private final List<MetricDto> metrics;
+    private final Map<String, MetricDto> metricsByKey;
+    // ids are sorted so that metrics are looked up by binary search, without boxing ids
+    private final int[] ids;
+    private final MetricDto[] metricsSortedById;
+
+    private Snapshot(String version, List<MetricDto> metrics) {
+      this.version = version;
+      this.metrics = unmodifiableList(metrics);
+      this.metricsByKey = metrics.stream().collect(uniqueIndex(MetricDto::getKey, metrics.size()));
+      this.metricsSortedById = metrics.stream()
+        .sorted((m1, m2) -> Integer.compare(m1.getId(), m2.getId()))
+        .toArray(MetricDto[]::new);
+      this.ids = Arrays.stream(metricsSortedById).mapToInt(MetricDto::getId).toArray();
+    }
+
+    public String getVersion() {
+      return version;
+    }
+
+    public List<MetricDto> getAll() {
+      return metrics;
+    }
+
+    @CheckForNull
+    public MetricDto getByKey(String key) {
+      return metricsByKey.get(key);
+    }
+
+    @CheckForNull
+    public MetricDto getById(int id) {
+      int index = Arrays.binarySearch(ids, id);
+      return index < 0 ? null : metricsSortedById[index];
+    }
+  }
+}
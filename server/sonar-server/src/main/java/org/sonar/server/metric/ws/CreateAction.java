@@ -30,6 +30,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.measure.custom.CustomMeasureDto;
 import org.sonar.db.metric.MetricDto;
+import org.sonar.server.metric.MetricsCache;
 import org.sonar.server.user.UserSession;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -150,6 +151,7 @@ public class CreateAction implements MetricsWsAction {
       .setDescription(metricTemplate.getDescription())
       .setEnabled(true);
     dbClient.metricDao().update(dbSession, metricInDb);
+    MetricsCache.invalidate(dbClient, dbSession);
     dbSession.commit();
   }
 
@@ -169,6 +171,7 @@ public class CreateAction implements MetricsWsAction {
       .setDeleteHistoricalData(false);
 
     dbClient.metricDao().insert(dbSession, metric);
+    MetricsCache.invalidate(dbClient, dbSession);
     dbSession.commit();
     return metric;
   }
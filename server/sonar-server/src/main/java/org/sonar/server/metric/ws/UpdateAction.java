@@ -30,6 +30,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.measure.custom.CustomMeasureDto;
 import org.sonar.db.metric.MetricDto;
+import org.sonar.server.metric.MetricsCache;
 import org.sonar.server.user.UserSession;
 import org.sonar.server.util.MetricKeyValidator;
 
@@ -172,6 +173,7 @@ public class UpdateAction implements MetricsWsAction {
       metricInDb.setDescription(description);
     }
     dbClient.metricDao().update(dbSession, metricInDb);
+    MetricsCache.invalidate(dbClient, dbSession);
     dbSession.commit();
   }
 
@@ -22,8 +22,10 @@ package org.sonar.server.platform;
 import com.google.common.collect.Lists;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.servlet.ServletContext;
 import org.sonar.api.utils.log.Logger;
@@ -48,6 +50,7 @@ public class Platform {
   private static final Logger LOGGER = Loggers.get(Platform.class);
 
   private static final Platform INSTANCE = new Platform();
+  private static final int SLOWEST_COMPONENTS_TO_LOG = 5;
 
   private final Supplier<AutoStarter> autoStarterSupplier;
   private AutoStarter autoStarter = null;
@@ -191,11 +194,10 @@ public class Platform {
 
   private void executeStartupTasks(Startup startup) {
     if (startup.ordinal() >= Startup.ALL.ordinal()) {
-      new PlatformLevelStartup(level4)
-        .configure()
-        .start()
+      start(new PlatformLevelStartup(level4))
         .stop()
         .destroy();
+      logSlowestComponents();
     }
   }
 
@@ -208,12 +210,28 @@ public class Platform {
     platformLevel.configure();
     profiler.stopTrace(String.format("%s configured", platformLevel.getName()));
     profiler.start();
-    platformLevel.start();
+    Optional<StartupProfiler> startupProfiler = getStartupProfiler(platformLevel);
+    if (startupProfiler.isPresent()) {
+      startupProfiler.get().profileLevel(platformLevel.getName(), platformLevel::start);
+    } else {
+      platformLevel.start();
+    }
     profiler.stopTrace(String.format("%s started", platformLevel.getName()));
 
     return platformLevel;
   }
 
+  private static Optional<StartupProfiler> getStartupProfiler(PlatformLevel platformLevel) {
+    return Optional.ofNullable(platformLevel.getContainer().getComponentByType(StartupProfiler.class));
+  }
+
+  private void logSlowestComponents() {
+    getStartupProfiler(level4).ifPresent(startupProfiler -> LOGGER.info("Slowest components to start: {}", startupProfiler.getSlowestComponents(SLOWEST_COMPONENTS_TO_LOG)
+      .stream()
+      .map(entry -> String.format("%s (%d ms)", entry.getKey(), entry.getValue()))
+      .collect(Collectors.joining(", "))));
+  }
+
   /**
    * Stops level 1
    */
@@ -0,0 +1,91 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.api.utils.System2;
+import org.sonar.core.util.stream.MoreCollectors;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Durations of the startup of the web server, by platform level and by component. Components
+ * are recorded by {@link StartupProfilingLifecycleStrategy}.
+ */
+public class StartupProfiler {
+
+  private final System2 system2;
+  private final Map<String, Long> durationsByLevel = new LinkedHashMap<>();
+  private final Map<String, Long> durationsByComponent = new HashMap<>();
+
+  public StartupProfiler(System2 system2) {
+    this.system2 = system2;
+  }
+
+  /**
+   * Runs the start of the level and records its duration
+   */
+  public void profileLevel(String levelName, Runnable levelStart) {
+    long startedAt = system2.now();
+    levelStart.run();
+    addLevel(levelName, system2.now() - startedAt);
+  }
+
+  /**
+   * Runs the start of the component and records its duration
+   */
+  public void profileComponent(Class<?> componentClass, Runnable componentStart) {
+    long startedAt = system2.now();
+    componentStart.run();
+    addComponent(componentClass, system2.now() - startedAt);
+  }
+
+  public synchronized void addLevel(String levelName, long durationInMs) {
+    durationsByLevel.put(levelName, durationInMs);
+  }
+
+  public synchronized void addComponent(Class<?> componentClass, long durationInMs) {
+    // the same class can be started in different levels, for example the web services of the safe mode
+    // then of level 4, or again when server restarts. Only the last start is kept.
+    durationsByComponent.put(componentClass.getName(), durationInMs);
+  }
+
+  /**
+   * Durations in milliseconds by name of level, in the order levels have been started
+   */
+  public synchronized Map<String, Long> getLevelDurations() {
+    return unmodifiableMap(new LinkedHashMap<>(durationsByLevel));
+  }
+
+  /**
+   * Durations in milliseconds of the components that are the longest to start, the longest first
+   */
+  public synchronized List<Map.Entry<String, Long>> getSlowestComponents(int limit) {
+    return durationsByComponent.entrySet().stream()
+      .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.<String, Long>comparingByKey()))
+      .limit(limit)
+      .<Map.Entry<String, Long>>map(SimpleImmutableEntry::new)
+      .collect(MoreCollectors.toList());
+  }
+}
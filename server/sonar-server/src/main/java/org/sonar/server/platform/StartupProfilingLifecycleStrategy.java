@@ -0,0 +1,41 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform;
+
+import org.picocontainer.ComponentMonitor;
+import org.sonar.core.platform.StopSafeReflectionLifecycleStrategy;
+
+/**
+ * Records in {@link StartupProfiler} the duration of the start of each component
+ */
+public class StartupProfilingLifecycleStrategy extends StopSafeReflectionLifecycleStrategy {
+
+  private final StartupProfiler startupProfiler;
+
+  public StartupProfilingLifecycleStrategy(ComponentMonitor componentMonitor, StartupProfiler startupProfiler) {
+    super(componentMonitor);
+    this.startupProfiler = startupProfiler;
+  }
+
+  @Override
+  public void start(Object component) {
+    startupProfiler.profileComponent(component.getClass(), () -> super.start(component));
+  }
+}
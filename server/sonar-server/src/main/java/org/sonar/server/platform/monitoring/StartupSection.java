@@ -0,0 +1,58 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.util.List;
+import java.util.Map;
+import org.sonar.api.server.ServerSide;
+import org.sonar.core.util.stream.MoreCollectors;
+import org.sonar.process.systeminfo.SystemInfoSection;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.platform.StartupProfiler;
+
+import static java.lang.String.format;
+import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
+
+@ServerSide
+public class StartupSection implements SystemInfoSection {
+  private static final int SLOWEST_COMPONENTS = 20;
+
+  private final StartupProfiler startupProfiler;
+
+  public StartupSection(StartupProfiler startupProfiler) {
+    this.startupProfiler = startupProfiler;
+  }
+
+  @Override
+  public ProtobufSystemInfo.Section toProtobuf() {
+    ProtobufSystemInfo.Section.Builder protobuf = ProtobufSystemInfo.Section.newBuilder();
+    protobuf.setName("Web Startup");
+    startupProfiler.getLevelDurations().forEach((level, duration) -> setAttribute(protobuf, format("Start of %s (ms)", level), duration));
+    List<String> slowestComponents = startupProfiler.getSlowestComponents(SLOWEST_COMPONENTS).stream()
+      .map(StartupSection::toString)
+      .collect(MoreCollectors.toList());
+    setAttribute(protobuf, "Slowest Components", slowestComponents);
+    return protobuf.build();
+  }
+
+  private static String toString(Map.Entry<String, Long> componentDuration) {
+    return format("%s: %d ms", componentDuration.getKey(), componentDuration.getValue());
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.sonar.api.server.ServerSide;
+import org.sonar.process.systeminfo.SystemInfoSection;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.user.UserPermissionsCache;
+
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
+
+@ServerSide
+public class UserPermissionsCacheSection implements SystemInfoSection {
+  private final UserPermissionsCache userPermissionsCache;
+
+  public UserPermissionsCacheSection(UserPermissionsCache userPermissionsCache) {
+    this.userPermissionsCache = userPermissionsCache;
+  }
+
+  @Override
+  public ProtobufSystemInfo.Section toProtobuf() {
+    ProtobufSystemInfo.Section.Builder protobuf = ProtobufSystemInfo.Section.newBuilder();
+    protobuf.setName("Web Permissions Cache");
+    long hits = userPermissionsCache.getHits();
+    long requests = hits + userPermissionsCache.getMisses();
+    setAttribute(protobuf, "Enabled", userPermissionsCache.isEnabled());
+    setAttribute(protobuf, "Time To Live (seconds)", userPermissionsCache.getTtlInSeconds());
+    setAttribute(protobuf, "Entries", userPermissionsCache.getEntries());
+    setAttribute(protobuf, "Hits", hits);
+    setAttribute(protobuf, "Misses", userPermissionsCache.getMisses());
+    setAttribute(protobuf, "Hit Rate", format(ENGLISH, "%.2f%%", requests == 0 ? 0D : (hits * 100D / requests)));
+    return protobuf.build();
+  }
+}
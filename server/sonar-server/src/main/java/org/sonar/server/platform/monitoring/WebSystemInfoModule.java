@@ -44,6 +44,7 @@ public class WebSystemInfoModule {
     return new Object[] {
       new JvmPropertiesSection("Web JVM Properties"),
       new JvmStateSection("Web JVM State"),
+      AuthenticationCacheSection.class,
       DbSection.class,
       DbConnectionSection.class,
       EsStateSection.class,
@@ -51,6 +52,9 @@ public class WebSystemInfoModule {
       LoggingSection.class,
       PluginsSection.class,
       SettingsSection.class,
+      SourceCacheSection.class,
+      StartupSection.class,
+      UserPermissionsCacheSection.class,
       StandaloneSystemSection.class,
 
       OfficialDistribution.class,
@@ -63,6 +67,7 @@ public class WebSystemInfoModule {
     return new Object[] {
       new JvmPropertiesSection("Web JVM Properties"),
       new JvmStateSection("Web JVM State"),
+      AuthenticationCacheSection.class,
       CeQueueGlobalSection.class,
       DbSection.class,
       DbConnectionSection.class,
@@ -73,6 +78,9 @@ public class WebSystemInfoModule {
       NodeSystemSection.class,
       PluginsSection.class,
       SettingsSection.class,
+      SourceCacheSection.class,
+      StartupSection.class,
+      UserPermissionsCacheSection.class,
 
       OfficialDistribution.class,
 
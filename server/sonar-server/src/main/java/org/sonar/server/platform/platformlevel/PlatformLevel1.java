@@ -31,6 +31,7 @@ import org.sonar.api.utils.Version;
 import org.sonar.api.utils.internal.TempFolderCleaner;
 import org.sonar.core.config.ConfigurationProvider;
 import org.sonar.core.config.CorePropertyDefinitions;
+import org.sonar.core.platform.ComponentContainer;
 import org.sonar.core.util.UuidFactoryImpl;
 import org.sonar.db.DBSessionsImpl;
 import org.sonar.db.DaoModule;
@@ -48,10 +49,13 @@ import org.sonar.server.issue.index.IssueIndex;
 import org.sonar.server.platform.LogServerVersion;
 import org.sonar.server.platform.Platform;
 import org.sonar.server.platform.ServerFileSystemImpl;
+import org.sonar.server.platform.StartupProfiler;
+import org.sonar.server.platform.StartupProfilingLifecycleStrategy;
 import org.sonar.server.platform.TempFolderProvider;
 import org.sonar.server.platform.UrlSettings;
 import org.sonar.server.platform.WebServerImpl;
 import org.sonar.server.platform.db.EmbeddedDatabaseFactory;
+import org.sonar.server.rule.index.RuleAggregationsCache;
 import org.sonar.server.rule.index.RuleIndex;
 import org.sonar.server.search.EsSearchModule;
 import org.sonar.server.setting.ThreadLocalSettings;
@@ -72,6 +76,17 @@ public class PlatformLevel1 extends PlatformLevel {
     this.extraRootComponents = extraRootComponents;
   }
 
+  /**
+   * The components of all the levels are started through {@link StartupProfilingLifecycleStrategy}
+   */
+  @Override
+  protected ComponentContainer createContainer(@Nullable ComponentContainer parent) {
+    StartupProfiler startupProfiler = new StartupProfiler(System2.INSTANCE);
+    ComponentContainer container = new ComponentContainer(monitor -> new StartupProfilingLifecycleStrategy(monitor, startupProfiler));
+    container.add(startupProfiler);
+    return container;
+  }
+
   @Override
   public void configureLevel() {
     add(platform, properties);
@@ -117,6 +132,7 @@ public class PlatformLevel1 extends PlatformLevel {
       EsSearchModule.class,
 
       // rules/qprofiles
+      RuleAggregationsCache.class,
       RuleIndex.class,
 
       // issues
@@ -35,6 +35,7 @@ import org.sonar.server.platform.db.migration.charset.DatabaseCharsetChecker;
 import org.sonar.server.platform.db.migration.history.MigrationHistoryTable;
 import org.sonar.server.platform.db.migration.history.MigrationHistoryTableImpl;
 import org.sonar.server.platform.db.migration.version.DatabaseVersion;
+import org.sonar.server.plugins.ExplodedPluginCache;
 import org.sonar.server.plugins.InstalledPluginReferentialFactory;
 import org.sonar.server.plugins.PluginCompression;
 import org.sonar.server.plugins.ServerPluginJarExploder;
@@ -60,6 +61,7 @@ public class PlatformLevel2 extends PlatformLevel {
       // plugins
       ServerPluginRepository.class,
       ServerPluginJarExploder.class,
+      ExplodedPluginCache.class,
       PluginLoader.class,
       PluginCompression.class,
       PluginClassloaderFactory.class,
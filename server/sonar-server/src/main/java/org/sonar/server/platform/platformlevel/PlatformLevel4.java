@@ -34,6 +34,8 @@ import org.sonar.ce.notification.ReportAnalysisFailureNotificationModule;
 import org.sonar.ce.settings.ProjectConfigurationFactory;
 import org.sonar.core.component.DefaultResourceTypes;
 import org.sonar.core.timemachine.Periods;
+import org.sonar.server.authentication.AuthenticatedUserCacheClusterVersion;
+import org.sonar.server.authentication.AuthenticatedUserCacheStandaloneVersion;
 import org.sonar.server.authentication.AuthenticationModule;
 import org.sonar.server.authentication.LogOAuthWarning;
 import org.sonar.server.batch.BatchWsModule;
@@ -85,6 +87,8 @@ import org.sonar.server.issue.notification.MyNewIssuesNotificationDispatcher;
 import org.sonar.server.issue.notification.NewIssuesEmailTemplate;
 import org.sonar.server.issue.notification.NewIssuesNotificationDispatcher;
 import org.sonar.server.issue.notification.NewIssuesNotificationFactory;
+import org.sonar.server.issue.ws.BulkChangeTaskClusterStore;
+import org.sonar.server.issue.ws.BulkChangeTaskStandaloneStore;
 import org.sonar.server.issue.ws.IssueWsModule;
 import org.sonar.server.language.ws.LanguageWs;
 import org.sonar.server.measure.custom.ws.CustomMeasuresWsModule;
@@ -93,6 +97,7 @@ import org.sonar.server.measure.ws.MeasuresWsModule;
 import org.sonar.server.measure.ws.TimeMachineWs;
 import org.sonar.server.metric.CoreCustomMetrics;
 import org.sonar.server.metric.DefaultMetricFinder;
+import org.sonar.server.metric.MetricsCache;
 import org.sonar.server.metric.ws.MetricsWsModule;
 import org.sonar.server.notification.NotificationModule;
 import org.sonar.server.notification.ws.NotificationWsModule;
@@ -188,6 +193,7 @@ import org.sonar.server.rule.ws.RulesWs;
 import org.sonar.server.rule.ws.TagsAction;
 import org.sonar.server.setting.ws.SettingsWsModule;
 import org.sonar.server.source.HtmlSourceDecorator;
+import org.sonar.server.source.SourceCache;
 import org.sonar.server.source.SourceService;
 import org.sonar.server.source.ws.HashAction;
 import org.sonar.server.source.ws.IndexAction;
@@ -214,6 +220,9 @@ import org.sonar.server.user.DefaultUserFinder;
 import org.sonar.server.user.DeprecatedUserFinder;
 import org.sonar.server.user.NewUserNotifier;
 import org.sonar.server.user.SecurityRealmFactory;
+import org.sonar.server.user.UserPermissionsCache;
+import org.sonar.server.user.UserPermissionsClusterVersion;
+import org.sonar.server.user.UserPermissionsStandaloneVersion;
 import org.sonar.server.user.UserSessionFactoryImpl;
 import org.sonar.server.user.UserUpdater;
 import org.sonar.server.user.index.UserIndex;
@@ -255,9 +264,15 @@ public class PlatformLevel4 extends PlatformLevel {
 
     addIfCluster(
       NodeHealthModule.class,
-      ChangeLogLevelClusterService.class);
+      ChangeLogLevelClusterService.class,
+      UserPermissionsClusterVersion.class,
+      AuthenticatedUserCacheClusterVersion.class,
+      BulkChangeTaskClusterStore.class);
     addIfStandalone(
-      ChangeLogLevelStandaloneService.class);
+      ChangeLogLevelStandaloneService.class,
+      UserPermissionsStandaloneVersion.class,
+      AuthenticatedUserCacheStandaloneVersion.class,
+      BulkChangeTaskStandaloneStore.class);
 
     add(
       ClusterVerification.class,
@@ -350,6 +365,7 @@ public class PlatformLevel4 extends PlatformLevel {
       MeasuresWsModule.class,
       CustomMeasuresWsModule.class,
       CoreCustomMetrics.class,
+      MetricsCache.class,
       DefaultMetricFinder.class,
       TimeMachineWs.class,
 
@@ -371,6 +387,7 @@ public class PlatformLevel4 extends PlatformLevel {
 
       // users
       UserSessionFactoryImpl.class,
+      UserPermissionsCache.class,
       SecurityRealmFactory.class,
       DeprecatedUserFinder.class,
       NewUserNotifier.class,
@@ -453,6 +470,7 @@ public class PlatformLevel4 extends PlatformLevel {
 
       // source
       HtmlSourceDecorator.class,
+      SourceCache.class,
       SourceService.class,
       SourcesWs.class,
       org.sonar.server.source.ws.ShowAction.class,
@@ -0,0 +1,134 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.plugins;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.ZipUtils;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.server.platform.ServerFileSystem;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.commons.io.FileUtils.copyFile;
+import static org.apache.commons.io.FileUtils.forceMkdir;
+import static org.sonar.core.util.FileUtils.deleteQuietly;
+
+/**
+ * Plugin JARs unzipped in the data directory, so that they are not unzipped again when web server
+ * and compute engine restart. Directories are named after the plugin key and the MD5 hash of the JAR, so that
+ * they never change once created and can be shared by the processes.
+ * <p>
+ * Each process loads all the installed plugins, then calls {@link #purgeUnused()} to delete the directories
+ * of the plugins which are no longer installed, whatever their version.
+ * </p>
+ */
+@ServerSide
+@ComputeEngineSide
+public class ExplodedPluginCache {
+
+  private static final Logger LOG = Loggers.get(ExplodedPluginCache.class);
+  static final String DIR_NAME = "exploded-plugins";
+  // "<plugin key>-<md5 of JAR>", possibly suffixed by the lock file or the temporary directory of unzip
+  private static final Pattern ENTRY_PATTERN = Pattern.compile("(.+-[0-9a-f]{32})(\\.lock|\\.tmp)?");
+
+  private final File cacheDir;
+  // names of the directories returned by unzip(), which must not be purged
+  private final Set<String> usedDirNames = ConcurrentHashMap.newKeySet();
+
+  public ExplodedPluginCache(ServerFileSystem fs) {
+    this.cacheDir = new File(fs.getDataDir(), DIR_NAME);
+  }
+
+  /**
+   * @return the directory containing a copy of the JAR and its entries accepted by {@code filter}
+   */
+  public File unzip(String pluginKey, File jar, Predicate<ZipEntry> filter) throws IOException {
+    File dir = new File(cacheDir, pluginKey + "-" + md5(jar));
+    usedDirNames.add(dir.getName());
+    File jarCopy = new File(dir, jar.getName());
+    if (jarCopy.isFile()) {
+      return dir;
+    }
+    forceMkdir(cacheDir);
+    // lock is exclusive between web server and compute engine
+    try (FileChannel channel = FileChannel.open(new File(cacheDir, dir.getName() + ".lock").toPath(), CREATE, WRITE);
+      FileLock lock = channel.lock()) {
+      // the other process may have unzipped the JAR in the meantime
+      if (!dir.isDirectory()) {
+        File tempDir = new File(cacheDir, dir.getName() + ".tmp");
+        deleteQuietly(tempDir);
+        forceMkdir(tempDir);
+        ZipUtils.unzip(jar, tempDir, filter);
+        copyFile(jar, new File(tempDir, jar.getName()));
+        Files.move(tempDir.toPath(), dir.toPath(), ATOMIC_MOVE);
+      } else if (!jarCopy.isFile()) {
+        // same content but JAR has been renamed
+        File tempJar = new File(dir, jar.getName() + ".tmp");
+        copyFile(jar, tempJar);
+        Files.move(tempJar.toPath(), jarCopy.toPath(), ATOMIC_MOVE);
+      }
+    }
+    return dir;
+  }
+
+  /**
+   * Deletes the directories, lock files and temporary directories which have not been returned by
+   * {@link #unzip(String, File, Predicate)} since this instance has been created, for example the
+   * previous versions of upgraded plugins and the uninstalled plugins.
+   */
+  public void purgeUnused() {
+    File[] files = cacheDir.listFiles((dir, name) -> {
+      Matcher matcher = ENTRY_PATTERN.matcher(name);
+      return matcher.matches() && !usedDirNames.contains(matcher.group(1));
+    });
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      LOG.debug("Delete unused exploded plugin {}", file);
+      if (!deleteQuietly(file)) {
+        LOG.debug("Fail to delete {}", file);
+      }
+    }
+  }
+
+  private static String md5(File file) throws IOException {
+    try (InputStream input = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+      return DigestUtils.md5Hex(input);
+    }
+  }
+}
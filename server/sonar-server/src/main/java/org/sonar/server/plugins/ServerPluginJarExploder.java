@@ -23,7 +23,6 @@ import java.io.File;
 import org.apache.commons.io.FileUtils;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.server.ServerSide;
-import org.sonar.api.utils.ZipUtils;
 import org.sonar.core.platform.ExplodedPlugin;
 import org.sonar.core.platform.PluginInfo;
 import org.sonar.core.platform.PluginJarExploder;
@@ -36,16 +35,19 @@ import static org.apache.commons.io.FileUtils.forceMkdir;
 public class ServerPluginJarExploder extends PluginJarExploder {
   private final ServerFileSystem fs;
   private final PluginCompression pluginCompression;
+  private final ExplodedPluginCache explodedPluginCache;
 
-  public ServerPluginJarExploder(ServerFileSystem fs, PluginCompression pluginCompression) {
+  public ServerPluginJarExploder(ServerFileSystem fs, PluginCompression pluginCompression, ExplodedPluginCache explodedPluginCache) {
     this.fs = fs;
     this.pluginCompression = pluginCompression;
+    this.explodedPluginCache = explodedPluginCache;
   }
 
   /**
    * JAR files of directory extensions/plugins can be moved when server is up and plugins are uninstalled.
    * For this reason these files must not be locked by classloaders. They are copied to the directory
-   * web/deploy/plugins in order to be loaded by {@link org.sonar.core.platform.PluginLoader}.
+   * web/deploy/plugins in order to be loaded by {@link org.sonar.core.platform.PluginLoader}. The libraries
+   * of META-INF/lib are loaded from {@link ExplodedPluginCache}, so that they are unzipped only once.
    */
   @Override
   public ExplodedPlugin explode(PluginInfo pluginInfo) {
@@ -59,8 +61,8 @@ public class ServerPluginJarExploder extends PluginJarExploder {
 
       FileUtils.copyFile(jarSource, jarTarget);
       pluginCompression.compressJar(pluginInfo.getKey(), jarTarget.toPath());
-      ZipUtils.unzip(jarSource, toDir, newLibFilter());
-      return explodeFromUnzippedDir(pluginInfo.getKey(), jarTarget, toDir);
+      File unzippedDir = explodedPluginCache.unzip(pluginInfo.getKey(), jarSource, newLibFilter());
+      return explodeFromUnzippedDir(pluginInfo.getKey(), jarTarget, unzippedDir);
     } catch (Exception e) {
       throw new IllegalStateException(String.format(
         "Fail to unzip plugin [%s] %s to %s", pluginInfo.getKey(), pluginInfo.getNonNullJarFile().getAbsolutePath(), toDir.getAbsolutePath()), e);
@@ -83,6 +83,7 @@ public class ServerPluginRepository implements PluginRepository, Startable {
   private final ServerFileSystem fs;
   private final ServerUpgradeStatus upgradeStatus;
   private final PluginLoader loader;
+  private final ExplodedPluginCache explodedPluginCache;
   private final AtomicBoolean started = new AtomicBoolean(false);
   private Set<String> blacklistedPluginKeys = DEFAULT_BLACKLISTED_PLUGINS;
 
@@ -91,11 +92,13 @@ public class ServerPluginRepository implements PluginRepository, Startable {
   private final Map<String, Plugin> pluginInstancesByKeys = new HashMap<>();
   private final Map<ClassLoader, String> keysByClassLoader = new HashMap<>();
 
-  public ServerPluginRepository(SonarRuntime runtime, ServerUpgradeStatus upgradeStatus, ServerFileSystem fs, PluginLoader loader) {
+  public ServerPluginRepository(SonarRuntime runtime, ServerUpgradeStatus upgradeStatus, ServerFileSystem fs, PluginLoader loader,
+    ExplodedPluginCache explodedPluginCache) {
     this.runtime = runtime;
     this.upgradeStatus = upgradeStatus;
     this.fs = fs;
     this.loader = loader;
+    this.explodedPluginCache = explodedPluginCache;
   }
 
   @VisibleForTesting
@@ -300,6 +303,7 @@ public class ServerPluginRepository implements PluginRepository, Startable {
 
   private void loadInstances() {
     pluginInstancesByKeys.putAll(loader.load(pluginInfosByKeys));
+    explodedPluginCache.purgeUnused();
 
     for (Map.Entry<String, Plugin> e : pluginInstancesByKeys.entrySet()) {
       keysByClassLoader.put(e.getValue().getClass().getClassLoader(), e.getKey());
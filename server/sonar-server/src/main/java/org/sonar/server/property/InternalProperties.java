@@ -35,6 +35,27 @@ public interface InternalProperties {
   String ORGANIZATION_ENABLED = "organization.enabled";
 
   String SERVER_ID_CHECKSUM = "server.idChecksum";
+
+  /**
+   * Fingerprints of the rule repositories registered at last startup
+   */
+  String RULES_FINGERPRINTS = "rules.fingerprints";
+
+  /**
+   * Fingerprints of the built-in quality profiles registered at last startup
+   */
+  String QPROFILES_FINGERPRINTS = "qp.fingerprints";
+
+  /**
+   * Version of the rules, changed each time rules or their parameters are changed
+   */
+  String RULES_VERSION = "rules.version";
+
+  /**
+   * Version of the metrics, changed each time metrics are changed
+   */
+  String METRICS_VERSION = "metrics.version";
+
   /**
    * Read the value of the specified property.
    *
@@ -0,0 +1,66 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.property;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.sonar.core.util.Uuids;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.property.InternalPropertiesDao;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Internal properties which version data cached by processes, for example {@link InternalProperties#RULES_VERSION}.
+ * They are changed by the transactions which change the cached data.
+ */
+public class InternalPropertyVersion {
+
+  private InternalPropertyVersion() {
+    // only statics
+  }
+
+  /**
+   * Changes the version to a new random value in the transaction of {@code dbSession}. The row of the property is
+   * updated, not deleted then inserted again, so that concurrent transactions wait for each other instead of
+   * failing on the primary key.
+   */
+  public static void change(DbClient dbClient, DbSession dbSession, String key) {
+    InternalPropertiesDao dao = dbClient.internalPropertiesDao();
+    if (!dao.selectByKey(dbSession, key).isPresent()) {
+      insertIfMissing(dbClient, key);
+    }
+    checkState(dao.update(dbSession, key, Uuids.create()), "Internal property %s does not exist", key);
+  }
+
+  /**
+   * Creates the property in its own transaction, so that the transaction of the caller is not broken if the property
+   * is created at the same time by another one. The property is empty, which is read the same way as a missing property.
+   */
+  @VisibleForTesting
+  static void insertIfMissing(DbClient dbClient, String key) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dbClient.internalPropertiesDao().insertAsEmpty(dbSession, key);
+      dbSession.commit();
+    } catch (RuntimeException e) {
+      // duplicate key: already created by a concurrent transaction
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.qualityprofile;
+
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.Map;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition.BuiltInActiveRule;
+import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition.OverriddenParam;
+
+import static org.sonar.server.util.Fingerprints.update;
+
+/**
+ * Fingerprint of the content of a built-in profile. Fingerprints of the last registered profiles are
+ * persisted so that unchanged profiles are not compared again with DB at startup.
+ */
+class BuiltInQProfileFingerprint {
+
+  private BuiltInQProfileFingerprint() {
+    // only statics
+  }
+
+  /**
+   * @param rulesFingerprintsByRepositoryKey fingerprints of the registered rule repositories. Only the ones of the
+   *                                         repositories of the activated rules are part of the fingerprint, so that
+   *                                         the profile is updated again only when these rules change.
+   */
+  static String compute(BuiltInQProfile builtIn, Map<String, String> rulesFingerprintsByRepositoryKey) {
+    MessageDigest digest = DigestUtils.getSha1Digest();
+    update(digest, builtIn.getLanguage(), builtIn.getName());
+    builtIn.getActiveRules().stream()
+      .map(BuiltInActiveRule::repoKey)
+      .distinct()
+      .sorted()
+      .forEach(repositoryKey -> update(digest, repositoryKey, rulesFingerprintsByRepositoryKey.get(repositoryKey)));
+    builtIn.getActiveRules().stream()
+      .sorted(Comparator.comparing(BuiltInActiveRule::repoKey).thenComparing(BuiltInActiveRule::ruleKey))
+      .forEach(activeRule -> {
+        update(digest, activeRule.repoKey(), activeRule.ruleKey(), activeRule.overriddenSeverity());
+        activeRule.overriddenParams().stream()
+          .sorted(Comparator.comparing(OverriddenParam::key))
+          .forEach(param -> update(digest, param.key(), param.overriddenValue()));
+      });
+    return Hex.encodeHexString(digest.digest());
+  }
+}
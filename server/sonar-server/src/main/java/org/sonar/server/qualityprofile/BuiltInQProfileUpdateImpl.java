@@ -20,9 +20,13 @@
 package org.sonar.server.qualityprofile;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition;
 import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition.BuiltInActiveRule;
@@ -30,7 +34,9 @@ import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.qualityprofile.ActiveRuleDto;
+import org.sonar.db.qualityprofile.ActiveRuleParamDto;
 import org.sonar.db.qualityprofile.RulesProfileDto;
+import org.sonar.db.rule.RuleParamDto;
 import org.sonar.server.qualityprofile.index.ActiveRuleIndexer;
 
 public class BuiltInQProfileUpdateImpl implements BuiltInQProfileUpdate {
@@ -47,16 +53,21 @@ public class BuiltInQProfileUpdateImpl implements BuiltInQProfileUpdate {
 
   public List<ActiveRuleChange> update(DbSession dbSession, BuiltInQProfile builtIn, RulesProfileDto ruleProfile) {
     // Keep reference to all the activated rules before update
-    Set<RuleKey> toBeDeactivated = dbClient.activeRuleDao().selectByRuleProfile(dbSession, ruleProfile)
-      .stream()
-      .map(ActiveRuleDto::getRuleKey)
-      .collect(MoreCollectors.toHashSet());
+    List<ActiveRuleDto> activeRules = dbClient.activeRuleDao().selectByRuleProfile(dbSession, ruleProfile);
+    Map<RuleKey, ActiveRuleDto> activeRulesByKey = activeRules.stream()
+      .collect(MoreCollectors.uniqueIndex(ActiveRuleDto::getRuleKey, activeRules.size()));
+    Set<RuleKey> toBeDeactivated = new HashSet<>(activeRulesByKey.keySet());
+    ActiveRuleParams activeRuleParams = new ActiveRuleParams(dbSession, activeRules);
 
     List<ActiveRuleChange> changes = new ArrayList<>();
     builtIn.getActiveRules().forEach(ar -> {
       RuleActivation activation = convert(ar);
       toBeDeactivated.remove(activation.getRuleKey());
-      changes.addAll(ruleActivator.activateOnBuiltInRulesProfile(dbSession, activation, ruleProfile));
+      ActiveRuleDto activeRule = activeRulesByKey.get(activation.getRuleKey());
+      // only the delta with DB is applied
+      if (activeRule == null || !activeRuleParams.isSame(activation, activeRule)) {
+        changes.addAll(ruleActivator.activateOnBuiltInRulesProfile(dbSession, activation, ruleProfile));
+      }
     });
 
     // these rules are not part of the built-in profile anymore
@@ -66,6 +77,49 @@ public class BuiltInQProfileUpdateImpl implements BuiltInQProfileUpdate {
     return changes;
   }
 
+  /**
+   * Parameters of the rules already activated on the built-in profile, loaded at once
+   */
+  private class ActiveRuleParams {
+    private final Map<Integer, List<RuleParamDto>> ruleParamsByRuleId;
+    private final Map<Integer, List<ActiveRuleParamDto>> activeRuleParamsByActiveRuleId;
+
+    ActiveRuleParams(DbSession dbSession, List<ActiveRuleDto> activeRules) {
+      List<RuleKey> ruleKeys = activeRules.stream().map(ActiveRuleDto::getRuleKey).collect(MoreCollectors.toList(activeRules.size()));
+      List<Integer> activeRuleIds = activeRules.stream().map(ActiveRuleDto::getId).collect(MoreCollectors.toList(activeRules.size()));
+      this.ruleParamsByRuleId = dbClient.ruleDao().selectRuleParamsByRuleKeys(dbSession, ruleKeys).stream()
+        .collect(Collectors.groupingBy(RuleParamDto::getRuleId));
+      this.activeRuleParamsByActiveRuleId = dbClient.activeRuleDao().selectParamsByActiveRuleIds(dbSession, activeRuleIds).stream()
+        .collect(Collectors.groupingBy(ActiveRuleParamDto::getActiveRuleId));
+    }
+
+    /**
+     * Same rules as {@link RuleActivator} when a rule is already activated: severity and parameters
+     * are taken from the request, else from DB, else from rule defaults.
+     */
+    boolean isSame(RuleActivation activation, ActiveRuleDto activeRule) {
+      String severity = activation.getSeverity();
+      if (severity != null && !severity.equals(activeRule.getSeverityString())) {
+        return false;
+      }
+      Map<String, String> currentValues = activeRuleParamsByActiveRuleId.getOrDefault(activeRule.getId(), Collections.emptyList()).stream()
+        .filter(param -> param.getValue() != null)
+        .collect(MoreCollectors.uniqueIndex(ActiveRuleParamDto::getKey, ActiveRuleParamDto::getValue));
+      for (RuleParamDto ruleParam : ruleParamsByRuleId.getOrDefault(activeRule.getRuleId(), Collections.emptyList())) {
+        String key = ruleParam.getName();
+        String currentValue = currentValues.get(key);
+        String expectedValue = activation.hasParameter(key) ? activation.getParameter(key) : currentValue;
+        if (expectedValue == null) {
+          expectedValue = ruleParam.getDefaultValue();
+        }
+        if (!Objects.equals(expectedValue, currentValue)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
   private static RuleActivation convert(BuiltInActiveRule ar) {
     Map<String, String> params = ar.overriddenParams().stream()
       .collect(MoreCollectors.uniqueIndex(BuiltInQualityProfilesDefinition.OverriddenParam::key, BuiltInQualityProfilesDefinition.OverriddenParam::overriddenValue));
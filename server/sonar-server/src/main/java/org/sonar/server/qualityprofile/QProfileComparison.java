@@ -19,16 +19,19 @@
  */
 package org.sonar.server.qualityprofile;
 
-import com.google.common.base.Function;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.MapDifference;
 import com.google.common.collect.Maps;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.server.ServerSide;
@@ -50,30 +53,60 @@ public class QProfileComparison {
   }
 
   public QProfileComparisonResult compare(DbSession dbSession, QProfileDto left, QProfileDto right) {
-    Map<RuleKey, OrgActiveRuleDto> leftActiveRulesByRuleKey = loadActiveRules(dbSession, left);
-    Map<RuleKey, OrgActiveRuleDto> rightActiveRulesByRuleKey = loadActiveRules(dbSession, right);
-
-    Set<RuleKey> allRules = new HashSet<>();
-    allRules.addAll(leftActiveRulesByRuleKey.keySet());
-    allRules.addAll(rightActiveRulesByRuleKey.keySet());
+    List<OrgActiveRuleDto> leftActiveRules = loadActiveRulesSortedByRuleKey(dbSession, left);
+    List<OrgActiveRuleDto> rightActiveRules = loadActiveRulesSortedByRuleKey(dbSession, right);
 
+    // Sorted merge of both profiles: rules activated on a single side are classified on the fly,
+    // while rules activated on both sides are kept for the comparison of their parameters
     QProfileComparisonResult result = new QProfileComparisonResult(left, right);
-    for (RuleKey ruleKey : allRules) {
-      if (!leftActiveRulesByRuleKey.containsKey(ruleKey)) {
-        result.inRight.put(ruleKey, rightActiveRulesByRuleKey.get(ruleKey));
-      } else if (!rightActiveRulesByRuleKey.containsKey(ruleKey)) {
-        result.inLeft.put(ruleKey, leftActiveRulesByRuleKey.get(ruleKey));
+    List<OrgActiveRuleDto> commonLeftRules = new ArrayList<>();
+    List<OrgActiveRuleDto> commonRightRules = new ArrayList<>();
+    int leftIndex = 0;
+    int rightIndex = 0;
+    while (leftIndex < leftActiveRules.size() || rightIndex < rightActiveRules.size()) {
+      OrgActiveRuleDto leftRule = leftIndex < leftActiveRules.size() ? leftActiveRules.get(leftIndex) : null;
+      OrgActiveRuleDto rightRule = rightIndex < rightActiveRules.size() ? rightActiveRules.get(rightIndex) : null;
+      int cmp = compareRuleKeys(leftRule, rightRule);
+      if (cmp < 0) {
+        result.inLeft.put(leftRule.getRuleKey(), leftRule);
+        leftIndex++;
+      } else if (cmp > 0) {
+        result.inRight.put(rightRule.getRuleKey(), rightRule);
+        rightIndex++;
       } else {
-        compareActivationParams(dbSession, leftActiveRulesByRuleKey.get(ruleKey), rightActiveRulesByRuleKey.get(ruleKey), result);
+        commonLeftRules.add(leftRule);
+        commonRightRules.add(rightRule);
+        leftIndex++;
+        rightIndex++;
       }
     }
+
+    ListMultimap<Integer, ActiveRuleParamDto> paramsByActiveRuleId = loadParams(dbSession, commonLeftRules, commonRightRules);
+    for (int i = 0; i < commonLeftRules.size(); i++) {
+      compareActivationParams(commonLeftRules.get(i), commonRightRules.get(i), paramsByActiveRuleId, result);
+    }
     return result;
   }
 
-  private void compareActivationParams(DbSession session, ActiveRuleDto leftRule, ActiveRuleDto rightRule, QProfileComparisonResult result) {
+  /**
+   * Rules missing on one side (null) are sorted after all the others, so that the remaining rules
+   * of the other side are consumed.
+   */
+  private static int compareRuleKeys(@Nullable ActiveRuleDto leftRule, @Nullable ActiveRuleDto rightRule) {
+    if (rightRule == null) {
+      return -1;
+    }
+    if (leftRule == null) {
+      return 1;
+    }
+    return leftRule.getRuleKey().compareTo(rightRule.getRuleKey());
+  }
+
+  private static void compareActivationParams(ActiveRuleDto leftRule, ActiveRuleDto rightRule, ListMultimap<Integer, ActiveRuleParamDto> paramsByActiveRuleId,
+    QProfileComparisonResult result) {
     RuleKey key = leftRule.getRuleKey();
-    Map<String, String> leftParams = paramDtoToMap(dbClient.activeRuleDao().selectParamsByActiveRuleId(session, leftRule.getId()));
-    Map<String, String> rightParams = paramDtoToMap(dbClient.activeRuleDao().selectParamsByActiveRuleId(session, rightRule.getId()));
+    Map<String, String> leftParams = paramDtoToMap(paramsByActiveRuleId.get(leftRule.getId()));
+    Map<String, String> rightParams = paramDtoToMap(paramsByActiveRuleId.get(rightRule.getId()));
     if (leftParams.equals(rightParams) && leftRule.getSeverityString().equals(rightRule.getSeverityString())) {
       result.same.put(key, leftRule);
     } else {
@@ -87,18 +120,36 @@ public class QProfileComparison {
     }
   }
 
-  private Map<RuleKey, OrgActiveRuleDto> loadActiveRules(DbSession dbSession, QProfileDto profile) {
-    return Maps.uniqueIndex(dbClient.activeRuleDao().selectByProfile(dbSession, profile), ActiveRuleToRuleKey.INSTANCE);
+  private List<OrgActiveRuleDto> loadActiveRulesSortedByRuleKey(DbSession dbSession, QProfileDto profile) {
+    List<OrgActiveRuleDto> activeRules = new ArrayList<>(dbClient.activeRuleDao().selectByProfile(dbSession, profile));
+    activeRules.sort(Comparator.comparing(ActiveRuleDto::getRuleKey));
+    return activeRules;
+  }
+
+  /**
+   * Parameters are loaded in batch, and only for the rules activated in both profiles
+   */
+  private ListMultimap<Integer, ActiveRuleParamDto> loadParams(DbSession dbSession, List<OrgActiveRuleDto> leftRules, List<OrgActiveRuleDto> rightRules) {
+    if (leftRules.isEmpty()) {
+      return ArrayListMultimap.create();
+    }
+    List<Integer> activeRuleIds = new ArrayList<>(leftRules.size() + rightRules.size());
+    leftRules.forEach(r -> activeRuleIds.add(r.getId()));
+    rightRules.forEach(r -> activeRuleIds.add(r.getId()));
+    ListMultimap<Integer, ActiveRuleParamDto> result = ArrayListMultimap.create();
+    dbClient.activeRuleDao().selectParamsByActiveRuleIds(dbSession, activeRuleIds)
+      .forEach(param -> result.put(param.getActiveRuleId(), param));
+    return result;
   }
 
   public static class QProfileComparisonResult {
 
     private final QProfileDto left;
     private final QProfileDto right;
-    private final Map<RuleKey, ActiveRuleDto> inLeft = Maps.newHashMap();
-    private final Map<RuleKey, ActiveRuleDto> inRight = Maps.newHashMap();
-    private final Map<RuleKey, ActiveRuleDiff> modified = Maps.newHashMap();
-    private final Map<RuleKey, ActiveRuleDto> same = Maps.newHashMap();
+    private final Map<RuleKey, ActiveRuleDto> inLeft = Maps.newLinkedHashMap();
+    private final Map<RuleKey, ActiveRuleDto> inRight = Maps.newLinkedHashMap();
+    private final Map<RuleKey, ActiveRuleDiff> modified = Maps.newLinkedHashMap();
+    private final Map<RuleKey, ActiveRuleDto> same = Maps.newLinkedHashMap();
 
     public QProfileComparisonResult(QProfileDto left, QProfileDto right) {
       this.left = left;
@@ -157,15 +208,6 @@ public class QProfileComparison {
     }
   }
 
-  private enum ActiveRuleToRuleKey implements Function<ActiveRuleDto, RuleKey> {
-    INSTANCE;
-
-    @Override
-    public RuleKey apply(@Nonnull ActiveRuleDto input) {
-      return input.getRuleKey();
-    }
-  }
-
   private static Map<String, String> paramDtoToMap(List<ActiveRuleParamDto> params) {
     Map<String, String> map = new HashMap<>();
     for (ActiveRuleParamDto dto : params) {
@@ -22,8 +22,10 @@ package org.sonar.server.qualityprofile;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.CheckForNull;
 import org.sonar.api.server.ServerSide;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.log.Logger;
@@ -33,6 +35,8 @@ import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.qualityprofile.RulesProfileDto;
+import org.sonar.server.property.InternalProperties;
+import org.sonar.server.util.Fingerprints;
 
 import static java.lang.String.format;
 import static org.sonar.server.qualityprofile.ActiveRule.Inheritance.NONE;
@@ -75,12 +79,20 @@ public class RegisterQualityProfiles {
       long startDate = system2.now();
 
       Map<QProfileName, RulesProfileDto> persistedRuleProfiles = loadPersistedProfiles(dbSession);
+      Map<String, String> persistedFingerprints = Fingerprints.parse(selectInternalProperty(dbSession, InternalProperties.QPROFILES_FINGERPRINTS));
+      Map<String, String> rulesFingerprints = Fingerprints.parse(selectInternalProperty(dbSession, InternalProperties.RULES_FINGERPRINTS));
+      Map<String, String> fingerprints = new HashMap<>();
 
       Multimap<QProfileName, ActiveRuleChange> changedProfiles = ArrayListMultimap.create();
       builtInQProfiles.forEach(builtIn -> {
+        String profileKey = builtIn.getQProfileName().toString();
+        String fingerprint = BuiltInQProfileFingerprint.compute(builtIn, rulesFingerprints);
+        fingerprints.put(profileKey, fingerprint);
         RulesProfileDto ruleProfile = persistedRuleProfiles.get(builtIn.getQProfileName());
         if (ruleProfile == null) {
           register(dbSession, batchDbSession, builtIn);
+        } else if (fingerprint.equals(persistedFingerprints.get(profileKey))) {
+          LOGGER.debug("Profile {} is unchanged", builtIn.getQProfileName());
         } else {
           List<ActiveRuleChange> changes = update(dbSession, builtIn, ruleProfile);
           changedProfiles.putAll(builtIn.getQProfileName(), changes.stream()
@@ -91,6 +103,8 @@ public class RegisterQualityProfiles {
             .collect(MoreCollectors.toList()));
         }
       });
+      dbClient.internalPropertiesDao().save(dbSession, InternalProperties.QPROFILES_FINGERPRINTS, Fingerprints.format(fingerprints));
+      dbSession.commit();
       if (!changedProfiles.isEmpty()) {
         long endDate = system2.now();
         builtInQualityProfilesNotification.onChange(changedProfiles, startDate, endDate);
@@ -104,6 +118,11 @@ public class RegisterQualityProfiles {
       .collect(MoreCollectors.uniqueIndex(rp -> new QProfileName(rp.getLanguage(), rp.getName())));
   }
 
+  @CheckForNull
+  private String selectInternalProperty(DbSession dbSession, String key) {
+    return dbClient.internalPropertiesDao().selectByKey(dbSession, key).orElse(null);
+  }
+
   private void register(DbSession dbSession, DbSession batchDbSession, BuiltInQProfile builtIn) {
     LOGGER.info("Register profile {}", builtIn.getQProfileName());
 
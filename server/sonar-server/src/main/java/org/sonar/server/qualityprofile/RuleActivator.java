@@ -22,6 +22,7 @@ package org.sonar.server.qualityprofile;
 import com.google.common.base.Splitter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -95,6 +96,15 @@ public class RuleActivator {
   }
 
   private List<ActiveRuleChange> doActivate(DbSession dbSession, RuleActivation activation, RuleActivatorContext context) {
+    return doActivate(dbSession, activation, context, null);
+  }
+
+  /**
+   * @param bulkData if not null, then contexts of descendant profiles are read from it instead of DB. Changelog
+   *                 and dates of profiles are not persisted, they must be persisted at the end of the bulk change.
+   */
+  private List<ActiveRuleChange> doActivate(DbSession dbSession, RuleActivation activation, RuleActivatorContext context,
+    @Nullable RuleActivatorBulkData bulkData) {
     context.verifyForActivation();
     List<ActiveRuleChange> changes = new ArrayList<>();
     ActiveRuleChange change;
@@ -139,15 +149,19 @@ public class RuleActivator {
 
     if (change != null) {
       changes.add(change);
-      persist(change, context, dbSession);
+      persist(change, context, dbSession, bulkData);
     }
 
     if (!stopPropagation) {
-      changes.addAll(cascadeActivation(dbSession, activation, context));
+      changes.addAll(cascadeActivation(dbSession, activation, context, bulkData));
     }
 
     if (!changes.isEmpty()) {
-      updateProfileDates(dbSession, context);
+      if (bulkData == null) {
+        updateProfileDates(dbSession, context);
+      } else {
+        bulkData.markAsUpdated(context.getProfile());
+      }
     }
     return changes;
   }
@@ -155,11 +169,7 @@ public class RuleActivator {
   private void updateProfileDates(DbSession dbSession, RuleActivatorContext context) {
     QProfileDto profile = context.getProfile();
     if (profile != null) {
-      profile.setRulesUpdatedAtAsDate(context.getInitDate());
-      if (userSession.isLoggedIn()) {
-        profile.setUserUpdatedAt(context.getInitDate().getTime());
-      }
-      db.qualityProfileDao().update(dbSession, profile);
+      updateProfileDates(dbSession, profile, context.getInitDate());
     } else {
       // built-in profile, change rules_profiles.rules_updated_at
       RulesProfileDto rulesProfile = context.getRulesProfile();
@@ -168,6 +178,14 @@ public class RuleActivator {
     }
   }
 
+  private void updateProfileDates(DbSession dbSession, QProfileDto profile, Date date) {
+    profile.setRulesUpdatedAtAsDate(date);
+    if (userSession.isLoggedIn()) {
+      profile.setUserUpdatedAt(date.getTime());
+    }
+    db.qualityProfileDao().update(dbSession, profile);
+  }
+
   /**
    * Severity and parameter values are :
    * 1. defined by end-user
@@ -238,13 +256,16 @@ public class RuleActivator {
     return null;
   }
 
-  private List<ActiveRuleChange> cascadeActivation(DbSession dbSession, RuleActivation activation, RuleActivatorContext context) {
+  private List<ActiveRuleChange> cascadeActivation(DbSession dbSession, RuleActivation activation, RuleActivatorContext context,
+    @Nullable RuleActivatorBulkData bulkData) {
     List<ActiveRuleChange> changes = new ArrayList<>();
 
     // get all inherited profiles
-    getChildren(dbSession, context).forEach(child -> {
-      RuleActivatorContext childContext = contextFactory.create(dbSession, activation.getRuleKey(), child, true);
-      changes.addAll(doActivate(dbSession, activation, childContext));
+    List<QProfileDto> children = bulkData == null ? getChildren(dbSession, context) : bulkData.getChildren(context.getProfile());
+    children.forEach(child -> {
+      RuleActivatorContext childContext = bulkData == null ? contextFactory.create(dbSession, activation.getRuleKey(), child, true)
+        : bulkData.createContext(activation.getRuleKey(), child, true);
+      changes.addAll(doActivate(dbSession, activation, childContext, bulkData));
     });
     return changes;
   }
@@ -257,6 +278,10 @@ public class RuleActivator {
   }
 
   private void persist(ActiveRuleChange change, RuleActivatorContext context, DbSession dbSession) {
+    persist(change, context, dbSession, null);
+  }
+
+  private void persist(ActiveRuleChange change, RuleActivatorContext context, DbSession dbSession, @Nullable RuleActivatorBulkData bulkData) {
     ActiveRuleDto activeRule = null;
     if (change.getType() == ActiveRuleChange.Type.ACTIVATED) {
       activeRule = doInsert(change, context, dbSession);
@@ -268,7 +293,12 @@ public class RuleActivator {
       activeRule = doUpdate(change, context, dbSession);
     }
     change.setActiveRule(activeRule);
-    db.qProfileChangeDao().insert(dbSession, change.toDto(userSession.getLogin()));
+    if (bulkData == null) {
+      db.qProfileChangeDao().insert(dbSession, change.toDto(userSession.getLogin()));
+    } else {
+      context.setActiveRule(activeRule);
+      bulkData.update(context);
+    }
   }
 
   private ActiveRuleDto doInsert(ActiveRuleChange change, RuleActivatorContext context, DbSession dbSession) {
@@ -288,13 +318,16 @@ public class RuleActivator {
     activeRule.setUpdatedAt(system2.now());
     activeRule.setCreatedAt(system2.now());
     dao.insert(dbSession, activeRule);
+    List<ActiveRuleParamDto> params = new ArrayList<>();
     for (Map.Entry<String, String> param : change.getParameters().entrySet()) {
       if (param.getValue() != null) {
         ActiveRuleParamDto paramDto = ActiveRuleParamDto.createFor(context.ruleParamsByKeys().get(param.getKey()));
         paramDto.setValue(param.getValue());
         dao.insertParam(dbSession, activeRule, paramDto);
+        params.add(paramDto);
       }
     }
+    context.setActiveRuleParams(params);
     return activeRule;
   }
 
@@ -321,6 +354,7 @@ public class RuleActivator {
             activeRuleParamDto = ActiveRuleParamDto.createFor(context.ruleParamsByKeys().get(param.getKey()));
             activeRuleParamDto.setValue(param.getValue());
             dao.insertParam(dbSession, activeRule, activeRuleParamDto);
+            context.activeRuleParamsAsMap().put(param.getKey(), activeRuleParamDto);
           }
         } else {
           if (param.getValue() != null) {
@@ -328,6 +362,7 @@ public class RuleActivator {
             dao.updateParam(dbSession, activeRuleParamDto);
           } else {
             dao.deleteParam(dbSession, activeRuleParamDto);
+            context.activeRuleParamsAsMap().remove(param.getKey());
           }
         }
       }
@@ -423,14 +458,21 @@ public class RuleActivator {
     return value;
   }
 
+  /**
+   * Rules, active rules and inheritance tree of the profile are loaded once. Changes are computed
+   * in memory, then dates of profiles and changelog are persisted at the end.
+   */
   public BulkChangeResult bulkActivateAndCommit(DbSession dbSession, RuleQuery ruleQuery, QProfileDto profile, @Nullable String severity) {
     BulkChangeResult result = new BulkChangeResult();
-    Iterator<RuleKey> rules = ruleIndex.searchAll(ruleQuery);
-    while (rules.hasNext()) {
-      RuleKey ruleKey = rules.next();
+    Date now = new Date(system2.now());
+    List<RuleKey> ruleKeys = new ArrayList<>();
+    ruleIndex.searchAll(ruleQuery).forEachRemaining(ruleKeys::add);
+    RuleActivatorBulkData bulkData = contextFactory.createBulk(dbSession, ruleKeys, profile);
+    for (RuleKey ruleKey : ruleKeys) {
       try {
         RuleActivation activation = RuleActivation.create(ruleKey, severity, null);
-        List<ActiveRuleChange> changes = activate(dbSession, activation, profile);
+        RuleActivatorContext context = bulkData.createContext(ruleKey, profile, false);
+        List<ActiveRuleChange> changes = doActivate(dbSession, activation, context, bulkData);
         result.addChanges(changes);
         if (!changes.isEmpty()) {
           result.incrementSucceeded();
@@ -442,6 +484,9 @@ public class RuleActivator {
         result.getErrors().addAll(e.errors());
       }
     }
+    bulkData.getUpdatedProfiles().forEach(updatedProfile -> updateProfileDates(dbSession, updatedProfile, now));
+    String login = userSession.getLogin();
+    result.getChanges().forEach(change -> db.qProfileChangeDao().insert(dbSession, change.toDto(login)));
     activeRuleIndexer.commitAndIndex(dbSession, result.getChanges());
     return result;
   }
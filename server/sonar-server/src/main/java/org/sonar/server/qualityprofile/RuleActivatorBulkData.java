@@ -0,0 +1,121 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.qualityprofile;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.db.qualityprofile.ActiveRuleDto;
+import org.sonar.db.qualityprofile.ActiveRuleKey;
+import org.sonar.db.qualityprofile.ActiveRuleParamDto;
+import org.sonar.db.qualityprofile.QProfileDto;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.db.rule.RuleParamDto;
+
+import static org.sonar.server.ws.WsUtils.checkRequest;
+
+/**
+ * Rules, active rules and inheritance tree of a profile loaded at once when activating
+ * a large set of rules. Active rules are kept in sync with the changes persisted by
+ * {@link RuleActivator}, so that the activation on a profile is visible when cascading
+ * to its children.
+ */
+class RuleActivatorBulkData {
+
+  private final Map<RuleKey, RuleDefinitionDto> rulesByKey = new HashMap<>();
+  private final ListMultimap<Integer, RuleParamDto> ruleParamsByRuleId = ArrayListMultimap.create();
+  private final Map<String, QProfileDto> profilesByUuid = new HashMap<>();
+  private final ListMultimap<String, QProfileDto> childrenByParentUuid = ArrayListMultimap.create();
+  private final Map<ActiveRuleKey, ActiveRuleDto> activeRulesByKey = new HashMap<>();
+  private final ListMultimap<Integer, ActiveRuleParamDto> activeRuleParamsByActiveRuleId = ArrayListMultimap.create();
+  private final Map<String, QProfileDto> updatedProfilesByUuid = new LinkedHashMap<>();
+
+  RuleActivatorBulkData addRules(Collection<RuleDefinitionDto> rules, Collection<RuleParamDto> ruleParams) {
+    rules.forEach(rule -> rulesByKey.put(rule.getKey(), rule));
+    ruleParams.forEach(param -> ruleParamsByRuleId.put(param.getRuleId(), param));
+    return this;
+  }
+
+  RuleActivatorBulkData addProfiles(Collection<QProfileDto> profiles) {
+    profiles.forEach(profile -> profilesByUuid.put(profile.getKee(), profile));
+    profiles.stream()
+      .filter(profile -> profile.getParentKee() != null)
+      .forEach(profile -> childrenByParentUuid.put(profile.getParentKee(), profile));
+    return this;
+  }
+
+  RuleActivatorBulkData addActiveRules(Collection<ActiveRuleDto> activeRules, Collection<ActiveRuleParamDto> activeRuleParams) {
+    activeRules.forEach(activeRule -> activeRulesByKey.put(activeRule.getKey(), activeRule));
+    activeRuleParams.forEach(param -> activeRuleParamsByActiveRuleId.put(param.getActiveRuleId(), param));
+    return this;
+  }
+
+  RuleActivatorContext createContext(RuleKey ruleKey, QProfileDto profile, boolean cascade) {
+    RuleDefinitionDto rule = rulesByKey.get(ruleKey);
+    checkRequest(rule != null, "Rule not found: %s", ruleKey);
+    RuleActivatorContext context = new RuleActivatorContext(profile, cascade)
+      .setRule(rule)
+      .setRuleParams(ruleParamsByRuleId.get(rule.getId()));
+
+    ActiveRuleDto activeRule = activeRulesByKey.get(ActiveRuleKey.of(profile, ruleKey));
+    context.setActiveRule(activeRule);
+    context.setActiveRuleParams(activeRule == null ? null : activeRuleParamsByActiveRuleId.get(activeRule.getId()));
+
+    QProfileDto parent = profile.getParentKee() == null ? null : profilesByUuid.get(profile.getParentKee());
+    if (parent != null) {
+      ActiveRuleDto parentActiveRule = activeRulesByKey.get(ActiveRuleKey.of(parent, ruleKey));
+      context.setParentActiveRule(parentActiveRule);
+      context.setParentActiveRuleParams(parentActiveRule == null ? null : activeRuleParamsByActiveRuleId.get(parentActiveRule.getId()));
+    }
+    return context;
+  }
+
+  List<QProfileDto> getChildren(QProfileDto profile) {
+    return childrenByParentUuid.get(profile.getKee());
+  }
+
+  /**
+   * Records the active rule of the context once its change has been persisted
+   */
+  void update(RuleActivatorContext context) {
+    ActiveRuleKey key = ActiveRuleKey.of(context.getRulesProfile(), context.getRule().getKey());
+    ActiveRuleDto activeRule = context.activeRule();
+    ActiveRuleDto previous = activeRule == null ? activeRulesByKey.remove(key) : activeRulesByKey.put(key, activeRule);
+    if (previous != null) {
+      activeRuleParamsByActiveRuleId.removeAll(previous.getId());
+    }
+    if (activeRule != null) {
+      activeRuleParamsByActiveRuleId.putAll(activeRule.getId(), context.activeRuleParamsAsMap().values());
+    }
+  }
+
+  void markAsUpdated(QProfileDto profile) {
+    updatedProfilesByUuid.put(profile.getKee(), profile);
+  }
+
+  Collection<QProfileDto> getUpdatedProfiles() {
+    return updatedProfilesByUuid.values();
+  }
+}
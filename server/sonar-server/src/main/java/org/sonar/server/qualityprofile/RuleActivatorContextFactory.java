@@ -19,11 +19,13 @@
  */
 package org.sonar.server.qualityprofile;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.server.ServerSide;
+import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.qualityprofile.ActiveRuleDto;
@@ -55,6 +57,34 @@ public class RuleActivatorContextFactory {
     return init(dbSession, ruleKey, context);
   }
 
+  /**
+   * Loads at once the rules, the active rules of the profile, of its parent and of its descendants,
+   * so that the rules can be activated without any other selects.
+   */
+  RuleActivatorBulkData createBulk(DbSession dbSession, Collection<RuleKey> ruleKeys, QProfileDto profile) {
+    List<RuleDefinitionDto> rules = db.ruleDao().selectDefinitionByKeys(dbSession, ruleKeys);
+    List<Integer> ruleIds = rules.stream().map(RuleDefinitionDto::getId).collect(MoreCollectors.toList(rules.size()));
+
+    List<QProfileDto> profiles = new ArrayList<>();
+    profiles.add(profile);
+    if (profile.getParentKee() != null) {
+      QProfileDto parent = db.qualityProfileDao().selectByUuid(dbSession, profile.getParentKee());
+      if (parent != null) {
+        profiles.add(parent);
+      }
+    }
+    profiles.addAll(db.qualityProfileDao().selectDescendants(dbSession, profile));
+    List<String> ruleProfileUuids = profiles.stream().map(QProfileDto::getRulesProfileUuid).collect(MoreCollectors.toList(profiles.size()));
+
+    List<ActiveRuleDto> activeRules = db.activeRuleDao().selectByRuleIdsAndRuleProfileUuids(dbSession, ruleIds, ruleProfileUuids);
+    List<Integer> activeRuleIds = activeRules.stream().map(ActiveRuleDto::getId).collect(MoreCollectors.toList(activeRules.size()));
+
+    return new RuleActivatorBulkData()
+      .addRules(rules, db.ruleDao().selectRuleParamsByRuleIds(dbSession, ruleIds))
+      .addProfiles(profiles)
+      .addActiveRules(activeRules, db.activeRuleDao().selectParamsByActiveRuleIds(dbSession, activeRuleIds));
+  }
+
   private RuleActivatorContext init(DbSession dbSession, RuleKey ruleKey, RuleActivatorContext context) {
     initRule(ruleKey, context, dbSession);
     initActiveRules(context.getRulesProfile(), ruleKey, context, dbSession, false);
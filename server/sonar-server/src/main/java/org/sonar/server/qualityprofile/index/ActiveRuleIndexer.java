@@ -49,6 +49,7 @@ import org.sonar.server.es.OneToOneResilientIndexingListener;
 import org.sonar.server.es.ResilientIndexer;
 import org.sonar.server.qualityprofile.ActiveRule;
 import org.sonar.server.qualityprofile.ActiveRuleChange;
+import org.sonar.server.rule.index.RuleAggregationsCache;
 import org.sonar.server.rule.index.RuleIndexDefinition;
 
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
@@ -64,10 +65,19 @@ public class ActiveRuleIndexer implements ResilientIndexer {
 
   private final DbClient dbClient;
   private final EsClient esClient;
+  private final RuleAggregationsCache aggregationsCache;
 
-  public ActiveRuleIndexer(DbClient dbClient, EsClient esClient) {
+  public ActiveRuleIndexer(DbClient dbClient, EsClient esClient, RuleAggregationsCache aggregationsCache) {
     this.dbClient = dbClient;
     this.esClient = esClient;
+    this.aggregationsCache = aggregationsCache;
+  }
+
+  /**
+   * Used when aggregations on rules are not cached, for example in Compute Engine
+   */
+  public ActiveRuleIndexer(DbClient dbClient, EsClient esClient) {
+    this(dbClient, esClient, RuleAggregationsCache.disabled());
   }
 
   @Override
@@ -78,6 +88,7 @@ public class ActiveRuleIndexer implements ResilientIndexer {
       dbClient.activeRuleDao().scrollAllForIndexing(dbSession, ar -> bulkIndexer.add(newIndexRequest(ar)));
       bulkIndexer.stop();
     }
+    aggregationsCache.invalidateAll();
   }
 
   @Override
@@ -145,6 +156,7 @@ public class ActiveRuleIndexer implements ResilientIndexer {
     if (!ruleProfileItems.isEmpty()) {
       result.add(doIndexRuleProfiles(dbSession, ruleProfileItems));
     }
+    aggregationsCache.invalidateAll();
     return result;
   }
 
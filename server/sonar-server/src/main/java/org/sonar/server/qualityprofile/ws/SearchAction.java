@@ -48,6 +48,7 @@ import org.sonar.db.qualityprofile.QProfileDto;
 import org.sonar.db.user.UserDto;
 import org.sonar.server.component.ComponentFinder;
 import org.sonar.server.exceptions.NotFoundException;
+import org.sonar.server.rule.index.RuleAggregationsCache;
 import org.sonar.server.user.UserSession;
 import org.sonar.server.util.LanguageParamUtils;
 import org.sonarqube.ws.Qualityprofiles.SearchWsResponse;
@@ -56,6 +57,8 @@ import org.sonarqube.ws.Qualityprofiles.SearchWsResponse.QualityProfile;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.function.Function.identity;
 import static org.sonar.api.rule.RuleStatus.DEPRECATED;
 import static org.sonar.api.utils.DateUtils.formatDateTime;
@@ -81,13 +84,16 @@ public class SearchAction implements QProfileWsAction {
   private final DbClient dbClient;
   private final QProfileWsSupport wsSupport;
   private final ComponentFinder componentFinder;
+  private final RuleAggregationsCache aggregationsCache;
 
-  public SearchAction(UserSession userSession, Languages languages, DbClient dbClient, QProfileWsSupport wsSupport, ComponentFinder componentFinder) {
+  public SearchAction(UserSession userSession, Languages languages, DbClient dbClient, QProfileWsSupport wsSupport, ComponentFinder componentFinder,
+    RuleAggregationsCache aggregationsCache) {
     this.userSession = userSession;
     this.languages = languages;
     this.dbClient = dbClient;
     this.wsSupport = wsSupport;
     this.componentFinder = componentFinder;
+    this.aggregationsCache = aggregationsCache;
   }
 
   @Override
@@ -158,20 +164,35 @@ public class SearchAction implements QProfileWsAction {
       List<String> editableProfiles = searchEditableProfiles(dbSession, organization);
       List<QProfileDto> profiles = searchProfiles(dbSession, request, organization, defaultProfiles, project);
 
-      ActiveRuleCountQuery.Builder builder = ActiveRuleCountQuery.builder().setOrganization(organization);
+      ActiveRuleCounts activeRuleCounts = countActiveRules(dbSession, organization);
       return new SearchData()
         .setOrganization(organization)
         .setProfiles(profiles)
-        .setActiveRuleCountByProfileKey(
-          dbClient.activeRuleDao().countActiveRulesByQuery(dbSession, builder.setProfiles(profiles).build()))
-        .setActiveDeprecatedRuleCountByProfileKey(
-          dbClient.activeRuleDao().countActiveRulesByQuery(dbSession, builder.setProfiles(profiles).setRuleStatus(DEPRECATED).build()))
+        .setActiveRuleCountByProfileKey(activeRuleCounts.all)
+        .setActiveDeprecatedRuleCountByProfileKey(activeRuleCounts.deprecated)
         .setProjectCountByProfileKey(dbClient.qualityProfileDao().countProjectsByOrganizationAndProfiles(dbSession, organization, profiles))
         .setDefaultProfileKeys(defaultProfiles)
         .setEditableProfileKeys(editableProfiles);
     }
   }
 
+  /**
+   * Counts of active rules of all the profiles of the organization, shared by the requests until active rules
+   * are indexed again
+   */
+  private ActiveRuleCounts countActiveRules(DbSession dbSession, OrganizationDto organization) {
+    return aggregationsCache.get("qprofiles.activeRuleCounts|" + organization.getUuid(), () -> {
+      List<QProfileDto> allProfiles = dbClient.qualityProfileDao().selectOrderedByOrganizationUuid(dbSession, organization);
+      if (allProfiles.isEmpty()) {
+        return new ActiveRuleCounts(emptyMap(), emptyMap());
+      }
+      ActiveRuleCountQuery.Builder builder = ActiveRuleCountQuery.builder().setOrganization(organization).setProfiles(allProfiles);
+      return new ActiveRuleCounts(
+        dbClient.activeRuleDao().countActiveRulesByQuery(dbSession, builder.build()),
+        dbClient.activeRuleDao().countActiveRulesByQuery(dbSession, builder.setRuleStatus(DEPRECATED).build()));
+    });
+  }
+
   @CheckForNull
   private ComponentDto findProject(DbSession dbSession, OrganizationDto organization, SearchRequest request) {
     if (request.getProjectKey() == null) {
@@ -375,4 +396,15 @@ public class SearchAction implements QProfileWsAction {
       return this;
     }
   }
+
+  private static class ActiveRuleCounts {
+    private final Map<String, Long> all;
+    private final Map<String, Long> deprecated;
+
+    private ActiveRuleCounts(Map<String, Long> all, Map<String, Long> deprecated) {
+      // shared by requests
+      this.all = unmodifiableMap(all);
+      this.deprecated = unmodifiableMap(deprecated);
+    }
+  }
 }
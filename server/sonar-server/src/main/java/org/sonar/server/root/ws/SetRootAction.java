@@ -25,6 +25,7 @@ import org.sonar.api.server.ws.WebService;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.user.UserDto;
+import org.sonar.server.authentication.AuthenticatedUserCache;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.user.UserSession;
 
@@ -35,10 +36,12 @@ public class SetRootAction implements RootsWsAction {
 
   private final UserSession userSession;
   private final DbClient dbClient;
+  private final AuthenticatedUserCache authenticatedUserCache;
 
-  public SetRootAction(UserSession userSession, DbClient dbClient) {
+  public SetRootAction(UserSession userSession, DbClient dbClient, AuthenticatedUserCache authenticatedUserCache) {
     this.userSession = userSession;
     this.dbClient = dbClient;
+    this.authenticatedUserCache = authenticatedUserCache;
   }
 
   @Override
@@ -72,6 +75,7 @@ public class SetRootAction implements RootsWsAction {
       if (!userDto.isRoot()) {
         dbClient.userDao().setRoot(dbSession, login, true);
         dbSession.commit();
+        authenticatedUserCache.invalidateAll();
       }
     }
     response.noContent();
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -33,6 +34,7 @@ import javax.annotation.Nullable;
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
 import org.picocontainer.Startable;
+import org.sonar.api.SonarRuntime;
 import org.sonar.api.resources.Languages;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rule.RuleStatus;
@@ -53,10 +55,12 @@ import org.sonar.db.rule.RuleDto.Format;
 import org.sonar.db.rule.RuleParamDto;
 import org.sonar.db.rule.RuleRepositoryDto;
 import org.sonar.server.organization.OrganizationFlags;
+import org.sonar.server.property.InternalProperties;
 import org.sonar.server.qualityprofile.ActiveRuleChange;
 import org.sonar.server.qualityprofile.RuleActivator;
 import org.sonar.server.qualityprofile.index.ActiveRuleIndexer;
 import org.sonar.server.rule.index.RuleIndexer;
+import org.sonar.server.util.Fingerprints;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Lists.newArrayList;
@@ -78,10 +82,11 @@ public class RegisterRules implements Startable {
   private final System2 system2;
   private final OrganizationFlags organizationFlags;
   private final WebServerRuleFinder webServerRuleFinder;
+  private final SonarRuntime sonarRuntime;
 
   public RegisterRules(RuleDefinitionsLoader defLoader, RuleActivator ruleActivator, DbClient dbClient, RuleIndexer ruleIndexer,
     ActiveRuleIndexer activeRuleIndexer, Languages languages, System2 system2, OrganizationFlags organizationFlags,
-    WebServerRuleFinder webServerRuleFinder) {
+    WebServerRuleFinder webServerRuleFinder, SonarRuntime sonarRuntime) {
     this.defLoader = defLoader;
     this.ruleActivator = ruleActivator;
     this.dbClient = dbClient;
@@ -91,6 +96,7 @@ public class RegisterRules implements Startable {
     this.system2 = system2;
     this.organizationFlags = organizationFlags;
     this.webServerRuleFinder = webServerRuleFinder;
+    this.sonarRuntime = sonarRuntime;
   }
 
   @Override
@@ -102,26 +108,21 @@ public class RegisterRules implements Startable {
 
       RulesDefinition.Context context = defLoader.load();
       boolean orgsEnabled = organizationFlags.isEnabled(dbSession);
-      for (RulesDefinition.ExtendedRepository repoDef : getRepositories(context)) {
-        if (languages.get(repoDef.language()) != null) {
-          for (RulesDefinition.Rule ruleDef : repoDef.rules()) {
-            RuleKey ruleKey = RuleKey.of(ruleDef.repository().key(), ruleDef.key());
-            if (ruleDef.template() && orgsEnabled) {
-              RuleDefinitionDto ruleDefinition = allRules.get(ruleKey);
-              if (ruleDefinition != null && ruleDefinition.getStatus() == RuleStatus.REMOVED) {
-                LOG.debug("Template rule {} kept removed, because organizations are enabled.", ruleKey);
-                allRules.remove(ruleKey);
-              } else {
-                LOG.info("Template rule {} will not be imported, because organizations are enabled.", ruleKey);
-              }
-              continue;
-            }
-            boolean relevantForIndex = registerRule(ruleDef, allRules, dbSession);
-            if (relevantForIndex) {
-              keysToIndex.add(ruleKey);
-            }
-          }
-          dbSession.commit();
+      Map<String, String> persistedFingerprints = loadFingerprints(dbSession);
+      Map<String, String> fingerprints = new HashMap<>();
+      String serverVersion = sonarRuntime.getApiVersion().toString();
+      for (List<RulesDefinition.ExtendedRepository> repoDefs : getRepositoriesByKey(context).values()) {
+        String repositoryKey = repoDefs.get(0).key();
+        String fingerprint = RuleRepositoryFingerprint.compute(repoDefs, orgsEnabled, serverVersion);
+        boolean languagesInstalled = repoDefs.stream().allMatch(repoDef -> languages.get(repoDef.language()) != null);
+        if (languagesInstalled && fingerprint.equals(persistedFingerprints.get(repositoryKey)) && isRegistered(repoDefs, allRules, orgsEnabled)) {
+          LOG.debug("Rules of repository {} are unchanged", repositoryKey);
+          repoDefs.forEach(repoDef -> repoDef.rules().forEach(ruleDef -> allRules.remove(RuleKey.of(ruleDef.repository().key(), ruleDef.key()))));
+        } else {
+          repoDefs.forEach(repoDef -> registerRepository(repoDef, allRules, keysToIndex, orgsEnabled, dbSession));
+        }
+        if (languagesInstalled) {
+          fingerprints.put(repositoryKey, fingerprint);
         }
       }
       List<RuleDefinitionDto> removedRules = processRemainingDbRules(allRules.values(), dbSession);
@@ -130,6 +131,8 @@ public class RegisterRules implements Startable {
       keysToIndex.addAll(removedRules.stream().map(RuleDefinitionDto::getKey).collect(Collectors.toList()));
 
       persistRepositories(dbSession, context.repositories());
+      persistFingerprints(dbSession, fingerprints);
+      RulesCache.invalidate(dbClient, dbSession);
       ruleIndexer.commitAndIndex(dbSession, keysToIndex);
       activeRuleIndexer.commitAndIndex(dbSession, changes);
       profiler.stopDebug();
@@ -138,6 +141,69 @@ public class RegisterRules implements Startable {
     }
   }
 
+  private void registerRepository(RulesDefinition.ExtendedRepository repoDef, Map<RuleKey, RuleDefinitionDto> allRules, List<RuleKey> keysToIndex,
+    boolean orgsEnabled, DbSession dbSession) {
+    if (languages.get(repoDef.language()) == null) {
+      return;
+    }
+    Map<Integer, List<RuleParamDto>> paramsByRuleId = loadRuleParams(repoDef, dbSession);
+    for (RulesDefinition.Rule ruleDef : repoDef.rules()) {
+      RuleKey ruleKey = RuleKey.of(ruleDef.repository().key(), ruleDef.key());
+      if (ruleDef.template() && orgsEnabled) {
+        RuleDefinitionDto ruleDefinition = allRules.get(ruleKey);
+        if (ruleDefinition != null && ruleDefinition.getStatus() == RuleStatus.REMOVED) {
+          LOG.debug("Template rule {} kept removed, because organizations are enabled.", ruleKey);
+          allRules.remove(ruleKey);
+        } else {
+          LOG.info("Template rule {} will not be imported, because organizations are enabled.", ruleKey);
+        }
+        continue;
+      }
+      boolean relevantForIndex = registerRule(ruleDef, allRules, paramsByRuleId, dbSession);
+      if (relevantForIndex) {
+        keysToIndex.add(ruleKey);
+      }
+    }
+    dbSession.commit();
+  }
+
+  /**
+   * Parameters of the existing rules of the repository, loaded at once instead of rule by rule
+   */
+  private Map<Integer, List<RuleParamDto>> loadRuleParams(RulesDefinition.ExtendedRepository repoDef, DbSession dbSession) {
+    List<RuleKey> ruleKeys = repoDef.rules().stream()
+      .map(ruleDef -> RuleKey.of(ruleDef.repository().key(), ruleDef.key()))
+      .collect(MoreCollectors.toList(repoDef.rules().size()));
+    return dbClient.ruleDao().selectRuleParamsByRuleKeys(dbSession, ruleKeys).stream()
+      .collect(Collectors.groupingBy(RuleParamDto::getRuleId));
+  }
+
+  /**
+   * A repository is not registered again if its definitions did not change and if its rules have not been
+   * changed in the meantime, for example removed because the language plugin was uninstalled.
+   */
+  private static boolean isRegistered(List<RulesDefinition.ExtendedRepository> repoDefs, Map<RuleKey, RuleDefinitionDto> allRules, boolean orgsEnabled) {
+    return repoDefs.stream()
+      .flatMap(repoDef -> repoDef.rules().stream())
+      .filter(ruleDef -> !(ruleDef.template() && orgsEnabled))
+      .allMatch(ruleDef -> {
+        RuleDefinitionDto rule = allRules.get(RuleKey.of(ruleDef.repository().key(), ruleDef.key()));
+        return rule != null && rule.getStatus() == ruleDef.status();
+      });
+  }
+
+  private Map<String, String> loadFingerprints(DbSession dbSession) {
+    return Fingerprints.parse(dbClient.internalPropertiesDao().selectByKey(dbSession, InternalProperties.RULES_FINGERPRINTS).orElse(null));
+  }
+
+  private void persistFingerprints(DbSession dbSession, Map<String, String> fingerprints) {
+    if (fingerprints.isEmpty()) {
+      dbClient.internalPropertiesDao().saveAsEmpty(dbSession, InternalProperties.RULES_FINGERPRINTS);
+    } else {
+      dbClient.internalPropertiesDao().save(dbSession, InternalProperties.RULES_FINGERPRINTS, Fingerprints.format(fingerprints));
+    }
+  }
+
   private void persistRepositories(DbSession dbSession, List<RulesDefinition.Repository> repositories) {
     dbClient.ruleRepositoryDao().truncate(dbSession);
     List<RuleRepositoryDto> dtos = repositories
@@ -153,7 +219,8 @@ public class RegisterRules implements Startable {
     // nothing
   }
 
-  private boolean registerRule(RulesDefinition.Rule ruleDef, Map<RuleKey, RuleDefinitionDto> allRules, DbSession session) {
+  private boolean registerRule(RulesDefinition.Rule ruleDef, Map<RuleKey, RuleDefinitionDto> allRules, Map<Integer, List<RuleParamDto>> paramsByRuleId,
+    DbSession session) {
     RuleKey ruleKey = RuleKey.of(ruleDef.repository().key(), ruleDef.key());
 
     RuleDefinitionDto existingRule = allRules.remove(ruleKey);
@@ -184,7 +251,7 @@ public class RegisterRules implements Startable {
       update(session, rule);
     }
 
-    mergeParams(ruleDef, rule, session);
+    mergeParams(ruleDef, rule, paramsByRuleId.getOrDefault(rule.getId(), Collections.emptyList()), session);
     return newRule || executeUpdate;
   }
 
@@ -196,7 +263,15 @@ public class RegisterRules implements Startable {
     return rules;
   }
 
-  private List<RulesDefinition.ExtendedRepository> getRepositories(RulesDefinition.Context context) {
+  /**
+   * Repositories and their extensions, grouped by repository key
+   */
+  private static Map<String, List<RulesDefinition.ExtendedRepository>> getRepositoriesByKey(RulesDefinition.Context context) {
+    return getRepositories(context).stream()
+      .collect(Collectors.groupingBy(RulesDefinition.ExtendedRepository::key, LinkedHashMap::new, Collectors.toList()));
+  }
+
+  private static List<RulesDefinition.ExtendedRepository> getRepositories(RulesDefinition.Context context) {
     List<RulesDefinition.ExtendedRepository> repositories = new ArrayList<>();
     for (RulesDefinition.Repository repoDef : context.repositories()) {
       repositories.add(repoDef);
@@ -332,8 +407,7 @@ public class RegisterRules implements Startable {
     return changed;
   }
 
-  private void mergeParams(RulesDefinition.Rule ruleDef, RuleDefinitionDto rule, DbSession session) {
-    List<RuleParamDto> paramDtos = dbClient.ruleDao().selectRuleParamsByRuleKey(session, rule.getKey());
+  private void mergeParams(RulesDefinition.Rule ruleDef, RuleDefinitionDto rule, List<RuleParamDto> paramDtos, DbSession session) {
     Map<String, RuleParamDto> existingParamsByName = Maps.newHashMap();
 
     Profiler profiler = Profiler.create(Loggers.get(getClass()));
@@ -89,6 +89,7 @@ public class RuleCreator {
       createCustomRule(customRuleKey, newRule, templateRule, dbSession);
     }
 
+    RulesCache.invalidate(dbClient, dbSession);
     ruleIndexer.commitAndIndex(dbSession, customRuleKey);
     return customRuleKey;
   }
@@ -0,0 +1,87 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.rule;
+
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sonar.api.server.debt.DebtRemediationFunction;
+import org.sonar.api.server.rule.RulesDefinition;
+import org.sonar.core.util.stream.MoreCollectors;
+
+import static org.sonar.server.util.Fingerprints.update;
+
+/**
+ * Fingerprint of the rules provided by plugins for a repository. Fingerprints of the last registered
+ * definitions are persisted so that unchanged repositories are not merged again at startup.
+ */
+class RuleRepositoryFingerprint {
+
+  /**
+   * Version of the registration of rules. It must be increased when the registration changes the way rules are
+   * stored, so that all the repositories are registered again.
+   */
+  private static final String REGISTRATION_VERSION = "1";
+
+  private RuleRepositoryFingerprint() {
+    // only statics
+  }
+
+  /**
+   * @param repositories the repository and its extensions, which all have the same key
+   * @param serverVersion version of SonarQube, as a new version may register the same definitions differently
+   */
+  static String compute(Collection<RulesDefinition.ExtendedRepository> repositories, boolean organizationsEnabled, String serverVersion) {
+    // extensions are not loaded in a guaranteed order
+    List<String> hashes = repositories.stream()
+      .map(RuleRepositoryFingerprint::hash)
+      .sorted()
+      .collect(MoreCollectors.toList(repositories.size()));
+    MessageDigest digest = DigestUtils.getSha1Digest();
+    update(digest, REGISTRATION_VERSION, serverVersion, String.valueOf(organizationsEnabled));
+    hashes.forEach(hash -> update(digest, hash));
+    return Hex.encodeHexString(digest.digest());
+  }
+
+  private static String hash(RulesDefinition.ExtendedRepository repository) {
+    MessageDigest digest = DigestUtils.getSha1Digest();
+    update(digest, repository.key(), repository.language());
+    repository.rules().stream()
+      .sorted(Comparator.comparing(RulesDefinition.Rule::key))
+      .forEach(rule -> updateRule(digest, rule));
+    return Hex.encodeHexString(digest.digest());
+  }
+
+  private static void updateRule(MessageDigest digest, RulesDefinition.Rule rule) {
+    update(digest, rule.key(), rule.repository().language(), rule.pluginKey(), rule.name(), rule.htmlDescription(), rule.markdownDescription(),
+      rule.severity(), rule.internalKey(), String.valueOf(rule.template()), rule.status().name(), rule.type().name(), rule.gapDescription());
+    rule.tags().stream().sorted().forEach(tag -> update(digest, tag));
+    DebtRemediationFunction function = rule.debtRemediationFunction();
+    if (function != null) {
+      update(digest, function.type().name(), function.gapMultiplier(), function.baseEffort());
+    }
+    rule.params().stream()
+      .sorted(Comparator.comparing(RulesDefinition.Param::key))
+      .forEach(param -> update(digest, param.key(), param.type().toString(), param.defaultValue(), param.description()));
+  }
+}
@@ -81,6 +81,7 @@ public class RuleUpdater {
     apply(update, rule, userSession);
     update(dbSession, rule);
     updateParameters(dbSession, organization, update, rule);
+    RulesCache.invalidate(dbClient, dbSession);
     ruleIndexer.commitAndIndex(dbSession, rule.getKey(), organization);
 
     return true;
@@ -0,0 +1,261 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.rule;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.db.rule.RuleDto;
+import org.sonar.db.rule.RuleMetadataDto;
+import org.sonar.db.rule.RuleParamDto;
+import org.sonar.server.property.InternalProperties;
+import org.sonar.server.property.InternalPropertyVersion;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Rules and rule parameters of organizations, shared by the successive tasks and requests of the process
+ * so that they are not loaded from DB each time.
+ * <p>
+ * Definitions of rules are loaded once for all the organizations, without their descriptions. Only the
+ * metadata of rules (tags, remediation function) are kept per organization, without their notes. The number
+ * of metadata kept in memory is bounded.
+ * <p>
+ * Snapshots are stamped with the version of rules stored in DB ({@link InternalProperties#RULES_VERSION}).
+ * Any change of rules, of their metadata or of their parameters must call {@link #invalidate(DbClient, DbSession)}
+ * in the same transaction, so that the snapshots of all the processes are reloaded.
+ */
+@ServerSide
+@ComputeEngineSide
+public class RulesCache {
+
+  /**
+   * Maximum number of metadata of rules kept in memory, all organizations included. Each organization weighs one
+   * more, so that organizations without metadata are bounded too.
+   */
+  private static final long MAX_METADATA = 100_000L;
+
+  private final DbClient dbClient;
+  private final Cache<String, Metadata> metadataByOrganizationUuid;
+  private final Object definitionsLock = new Object();
+  private volatile Definitions definitions;
+
+  public RulesCache(DbClient dbClient) {
+    this(dbClient, MAX_METADATA);
+  }
+
+  @VisibleForTesting
+  RulesCache(DbClient dbClient, long maxMetadata) {
+    this.dbClient = dbClient;
+    // a single segment, so that the whole weight is available to the metadata of a single big organization
+    this.metadataByOrganizationUuid = CacheBuilder.newBuilder()
+      .concurrencyLevel(1)
+      .maximumWeight(maxMetadata)
+      .weigher((String organizationUuid, Metadata metadata) -> metadata.weight())
+      .build();
+  }
+
+  /**
+   * Rules of the given organization. They are loaded from DB only if rules have been changed since the
+   * previous call.
+   */
+  public Snapshot get(DbSession dbSession, String organizationUuid) {
+    // version is read before rules, so that a concurrent change is detected on next call
+    String version = dbClient.internalPropertiesDao().selectByKey(dbSession, InternalProperties.RULES_VERSION).orElse("");
+    Definitions currentDefinitions = getDefinitions(dbSession, version);
+    Metadata metadata = metadataByOrganizationUuid.getIfPresent(organizationUuid);
+    if (metadata == null || !metadata.version.equals(version)) {
+      metadata = new Metadata(version, dbClient.ruleDao().selectAllMetadata(dbSession, organizationUuid));
+      metadataByOrganizationUuid.put(organizationUuid, metadata);
+    }
+    return new Snapshot(currentDefinitions, organizationUuid, metadata);
+  }
+
+  private Definitions getDefinitions(DbSession dbSession, String version) {
+    Definitions current = definitions;
+    if (current != null && current.version.equals(version)) {
+      return current;
+    }
+    synchronized (definitionsLock) {
+      current = definitions;
+      if (current == null || !current.version.equals(version)) {
+        List<RuleDefinitionDto> rules = dbClient.ruleDao().selectAllDefinitions(dbSession);
+        List<Integer> ruleIds = rules.stream().map(RuleDefinitionDto::getId).collect(Collectors.toList());
+        current = new Definitions(version, rules, dbClient.ruleDao().selectRuleParamsByRuleIds(dbSession, ruleIds));
+        definitions = current;
+      }
+      return current;
+    }
+  }
+
+  /**
+   * Changes the version of rules. Must be called in the transaction which changes rules.
+   */
+  public static void invalidate(DbClient dbClient, DbSession dbSession) {
+    InternalPropertyVersion.change(dbClient, dbSession, InternalProperties.RULES_VERSION);
+  }
+
+  /**
+   * Definitions of all the rules, sorted by id. Shared by all the organizations.
+   */
+  private static final class Definitions {
+    private final String version;
+    private final int[] ids;
+    private final RuleDefinitionDto[] rulesSortedById;
+    private final Map<RuleKey, Integer> indexesByKey;
+    private final Map<Integer, List<RuleParamDto>> paramsByRuleId;
+
+    private Definitions(String version, List<RuleDefinitionDto> rules, List<RuleParamDto> params) {
+      this.version = version;
+      this.rulesSortedById = rules.stream()
+        .sorted((r1, r2) -> Integer.compare(r1.getId(), r2.getId()))
+        .toArray(RuleDefinitionDto[]::new);
+      this.ids = new int[rulesSortedById.length];
+      this.indexesByKey = new HashMap<>(rulesSortedById.length * 4 / 3 + 1);
+      for (int i = 0; i < rulesSortedById.length; i++) {
+        RuleDefinitionDto rule = rulesSortedById[i];
+        // descriptions are the biggest part of rules and are never read from the cache
+        rule.setDescription(null);
+        ids[i] = rule.getId();
+        // key is lazily computed, it's done here so that the shared DTOs are not modified afterwards
+        indexesByKey.put(rule.getKey(), i);
+      }
+      this.paramsByRuleId = params.stream().collect(Collectors.groupingBy(RuleParamDto::getRuleId));
+    }
+
+    private int indexOf(int id) {
+      int index = Arrays.binarySearch(ids, id);
+      return index < 0 ? -1 : index;
+    }
+  }
+
+  /**
+   * Metadata of the rules of an organization, sorted by rule id.
+   */
+  private static final class Metadata {
+    private final String version;
+    private final int[] ruleIds;
+    private final RuleMetadataDto[] metadataSortedByRuleId;
+
+    private Metadata(String version, List<RuleMetadataDto> metadata) {
+      this.version = version;
+      this.metadataSortedByRuleId = metadata.stream()
+        .sorted((m1, m2) -> Integer.compare(m1.getRuleId(), m2.getRuleId()))
+        .toArray(RuleMetadataDto[]::new);
+      this.ruleIds = new int[metadataSortedByRuleId.length];
+      for (int i = 0; i < metadataSortedByRuleId.length; i++) {
+        RuleMetadataDto ruleMetadata = metadataSortedByRuleId[i];
+        // notes are displayed only by web services, which don't use the cache
+        ruleMetadata.setNoteData(null);
+        ruleIds[i] = ruleMetadata.getRuleId();
+      }
+    }
+
+    @CheckForNull
+    private RuleMetadataDto get(int ruleId) {
+      int index = Arrays.binarySearch(ruleIds, ruleId);
+      return index < 0 ? null : metadataSortedByRuleId[index];
+    }
+
+    private int weight() {
+      return 1 + ruleIds.length;
+    }
+  }
+
+  /**
+   * Immutable set of rules of an organization. Rules are identified by their index, from 0 to {@link #size()}
+   * excluded, so that callers can index their own data by rule without boxing ids.
+   * <p>
+   * Descriptions of rules and notes of metadata are not loaded. The returned DTOs are shared and must not be modified.
+   */
+  public static final class Snapshot {
+    private final Definitions definitions;
+    private final String organizationUuid;
+    private final Metadata metadata;
+
+    private Snapshot(Definitions definitions, String organizationUuid, Metadata metadata) {
+      this.definitions = definitions;
+      this.organizationUuid = organizationUuid;
+      this.metadata = metadata;
+    }
+
+    public String getVersion() {
+      return definitions.version;
+    }
+
+    public int size() {
+      return definitions.ids.length;
+    }
+
+    /**
+     * Index of the rule with the given id, or -1 if it does not exist.
+     */
+    public int indexOf(int id) {
+      return definitions.indexOf(id);
+    }
+
+    /**
+     * Index of the rule with the given key, or -1 if it does not exist.
+     */
+    public int indexOf(RuleKey key) {
+      Integer index = definitions.indexesByKey.get(key);
+      return index == null ? -1 : index;
+    }
+
+    public RuleDto get(int index) {
+      RuleDefinitionDto definition = definitions.rulesSortedById[index];
+      RuleMetadataDto ruleMetadata = metadata.get(definition.getId());
+      if (ruleMetadata == null) {
+        ruleMetadata = new RuleMetadataDto().setRuleId(definition.getId()).setOrganizationUuid(organizationUuid);
+      }
+      return new RuleDto(definition, ruleMetadata);
+    }
+
+    @CheckForNull
+    public RuleDto getByKey(RuleKey key) {
+      int index = indexOf(key);
+      return index < 0 ? null : get(index);
+    }
+
+    @CheckForNull
+    public RuleDto getById(int id) {
+      int index = indexOf(id);
+      return index < 0 ? null : get(index);
+    }
+
+    public List<RuleParamDto> getParams(int ruleId) {
+      List<RuleParamDto> params = definitions.paramsByRuleId.get(ruleId);
+      return params == null ? Collections.emptyList() : unmodifiableList(params);
+    }
+  }
+}
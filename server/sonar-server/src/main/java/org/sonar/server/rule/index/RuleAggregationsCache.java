@@ -0,0 +1,108 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.rule.index;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Aggregations on rules and active rules, like the facets of rule searches or the number of active rules
+ * of quality profiles. They change only when rules or active rules are changed, so they are shared by
+ * the successive requests until {@link RuleIndexer} or {@link org.sonar.server.qualityprofile.index.ActiveRuleIndexer} index changes.
+ * <p>
+ * Changes made by the other nodes of a cluster are not notified. They are visible after
+ * at most {@link #PROPERTY_TTL_IN_SECONDS}.
+ */
+@ServerSide
+public class RuleAggregationsCache {
+
+  public static final String PROPERTY_TTL_IN_SECONDS = "sonar.web.rulesAggregationsCache.ttlInSeconds";
+  static final long DEFAULT_TTL_IN_SECONDS = 60L;
+  private static final long MAX_ENTRIES = 1_000L;
+
+  @CheckForNull
+  private final Cache<Object, Object> entries;
+
+  public RuleAggregationsCache(Configuration config) {
+    this(config.getLong(PROPERTY_TTL_IN_SECONDS).orElse(DEFAULT_TTL_IN_SECONDS));
+  }
+
+  private RuleAggregationsCache(long ttlInSeconds) {
+    if (ttlInSeconds > 0) {
+      this.entries = CacheBuilder.newBuilder()
+        .maximumSize(MAX_ENTRIES)
+        .expireAfterWrite(ttlInSeconds, SECONDS)
+        .build();
+    } else {
+      this.entries = null;
+    }
+  }
+
+  /**
+   * Cache which never keeps anything
+   */
+  public static RuleAggregationsCache disabled() {
+    return new RuleAggregationsCache(0L);
+  }
+
+  public boolean isEnabled() {
+    return entries != null;
+  }
+
+  @CheckForNull
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key) {
+    return entries == null ? null : (T) entries.getIfPresent(key);
+  }
+
+  public void put(Object key, Object value) {
+    if (entries != null) {
+      entries.put(key, value);
+    }
+  }
+
+  /**
+   * Value of the given key, computed by {@code loader} if it is not cached yet.
+   */
+  public <T> T get(Object key, Supplier<T> loader) {
+    T value = get(key);
+    if (value == null) {
+      // do not use Cache#get(K, Callable), which would lock the other requests during the computation
+      value = loader.get();
+      put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Must be called once the changes of rules or active rules are indexed.
+   */
+  public void invalidateAll() {
+    if (entries != null) {
+      entries.invalidateAll();
+    }
+  }
+}
@@ -28,6 +28,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
@@ -63,6 +64,7 @@ import org.sonar.db.qualityprofile.QProfileDto;
 import org.sonar.server.es.DefaultIndexSettings;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.es.EsUtils;
+import org.sonar.server.es.Facets;
 import org.sonar.server.es.SearchIdResult;
 import org.sonar.server.es.SearchOptions;
 import org.sonar.server.es.StickyFacetBuilder;
@@ -134,10 +136,19 @@ public class RuleIndex {
 
   private final EsClient client;
   private final System2 system2;
+  private final RuleAggregationsCache aggregationsCache;
 
-  public RuleIndex(EsClient client, System2 system2) {
+  public RuleIndex(EsClient client, System2 system2, RuleAggregationsCache aggregationsCache) {
     this.client = client;
     this.system2 = system2;
+    this.aggregationsCache = aggregationsCache;
+  }
+
+  /**
+   * Used when facets are not cached, for example in Compute Engine
+   */
+  public RuleIndex(EsClient client, System2 system2) {
+    this(client, system2, RuleAggregationsCache.disabled());
   }
 
   public SearchIdResult<RuleKey> search(RuleQuery query, SearchOptions options) {
@@ -147,22 +158,48 @@ public class RuleIndex {
     QueryBuilder qb = buildQuery(query);
     Map<String, QueryBuilder> filters = buildFilters(query);
 
+    BoolQueryBuilder fb = boolQuery();
+    for (QueryBuilder filterBuilder : filters.values()) {
+      fb.must(filterBuilder);
+    }
+    QueryBuilder filteredQuery = boolQuery().must(qb).filter(fb);
+
+    String facetsKey = null;
+    Facets cachedFacets = null;
     if (!options.getFacets().isEmpty()) {
-      for (AggregationBuilder aggregation : getFacets(query, options, qb, filters).values()) {
-        esSearch.addAggregation(aggregation);
+      if (aggregationsCache.isEnabled()) {
+        facetsKey = facetsCacheKey(query, options, filteredQuery);
+        cachedFacets = aggregationsCache.get(facetsKey);
+      }
+      if (cachedFacets == null) {
+        for (AggregationBuilder aggregation : getFacets(query, options, qb, filters).values()) {
+          esSearch.addAggregation(aggregation);
+        }
       }
     }
 
     setSorting(query, esSearch);
     setPagination(options, esSearch);
 
-    BoolQueryBuilder fb = boolQuery();
-    for (QueryBuilder filterBuilder : filters.values()) {
-      fb.must(filterBuilder);
+    esSearch.setQuery(filteredQuery);
+    // cached facets are shared by requests, whereas callers may add values to the returned facets
+    if (cachedFacets != null) {
+      return new SearchIdResult<>(esSearch.get(), RuleKey::parse, cachedFacets.copy());
     }
+    SearchIdResult<RuleKey> result = new SearchIdResult<>(esSearch.get(), RuleKey::parse, system2.getDefaultTimeZone());
+    if (facetsKey != null) {
+      aggregationsCache.put(facetsKey, result.getFacets().copy());
+    }
+    return result;
+  }
 
-    esSearch.setQuery(boolQuery().must(qb).filter(fb));
-    return new SearchIdResult<>(esSearch.get(), RuleKey::parse, system2.getDefaultTimeZone());
+  /**
+   * Facets depend only on the requested facets, on the organization (tags) and on the filtered query, which
+   * includes the values selected in facets. Its JSON representation is used as a normalized form of the query.
+   */
+  private static String facetsCacheKey(RuleQuery query, SearchOptions options, QueryBuilder filteredQuery) {
+    OrganizationDto organization = query.getOrganization();
+    return "rules.facets|" + (organization == null ? "" : organization.getUuid()) + "|" + new TreeSet<>(options.getFacets()) + "|" + filteredQuery;
   }
 
   /**
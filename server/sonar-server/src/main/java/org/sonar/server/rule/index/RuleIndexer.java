@@ -55,10 +55,19 @@ public class RuleIndexer implements ResilientIndexer {
 
   private final EsClient esClient;
   private final DbClient dbClient;
+  private final RuleAggregationsCache aggregationsCache;
 
-  public RuleIndexer(EsClient esClient, DbClient dbClient) {
+  public RuleIndexer(EsClient esClient, DbClient dbClient, RuleAggregationsCache aggregationsCache) {
     this.esClient = esClient;
     this.dbClient = dbClient;
+    this.aggregationsCache = aggregationsCache;
+  }
+
+  /**
+   * Used when aggregations on rules are not cached, for example in Compute Engine
+   */
+  public RuleIndexer(EsClient esClient, DbClient dbClient) {
+    this(esClient, dbClient, RuleAggregationsCache.disabled());
   }
 
   @Override
@@ -89,6 +98,7 @@ public class RuleIndexer implements ResilientIndexer {
 
       bulk.stop();
     }
+    aggregationsCache.invalidateAll();
   }
 
   public void commitAndIndex(DbSession dbSession, RuleKey ruleKey) {
@@ -129,6 +139,7 @@ public class RuleIndexer implements ResilientIndexer {
       ListMultimap<IndexType, EsQueueDto> itemsByType = groupItemsByType(items);
       result.add(doIndexRules(dbSession, itemsByType.get(INDEX_TYPE_RULE)));
       result.add(doIndexRuleExtensions(dbSession, itemsByType.get(INDEX_TYPE_RULE_EXTENSION)));
+      aggregationsCache.invalidateAll();
     }
     return result;
   }
@@ -29,6 +29,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.rule.RuleDefinitionDto;
 import org.sonar.server.qualityprofile.RuleActivator;
+import org.sonar.server.rule.RulesCache;
 import org.sonar.server.rule.index.RuleIndexer;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -88,6 +89,7 @@ public class DeleteAction implements RulesWsAction {
       rule.setStatus(RuleStatus.REMOVED);
       rule.setUpdatedAt(system2.now());
       dbClient.ruleDao().update(dbSession, rule);
+      RulesCache.invalidate(dbClient, dbSession);
       ruleIndexer.commitAndIndex(dbSession, ruleKey);
     }
   }
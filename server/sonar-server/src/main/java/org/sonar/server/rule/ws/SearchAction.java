@@ -56,6 +56,7 @@ import org.sonar.server.qualityprofile.ActiveRule;
 import org.sonar.server.rule.index.RuleIndex;
 import org.sonar.server.rule.index.RuleIndexDefinition;
 import org.sonar.server.rule.index.RuleQuery;
+import org.sonar.server.ws.ProtobufStreamWriter;
 import org.sonarqube.ws.Common;
 import org.sonarqube.ws.Rules.SearchResponse;
 
@@ -96,7 +97,6 @@ import static org.sonar.server.rule.ws.RulesWsParameters.PARAM_STATUSES;
 import static org.sonar.server.rule.ws.RulesWsParameters.PARAM_TAGS;
 import static org.sonar.server.rule.ws.RulesWsParameters.PARAM_TEMPLATE_KEY;
 import static org.sonar.server.rule.ws.RulesWsParameters.PARAM_TYPES;
-import static org.sonar.server.ws.WsUtils.writeProtobuf;
 
 public class SearchAction implements RulesWsAction {
   public static final String ACTION = "search";
@@ -159,15 +159,22 @@ public class SearchAction implements RulesWsAction {
       SearchOptions context = buildSearchOptions(searchWsRequest);
       RuleQuery query = ruleQueryFactory.createRuleQuery(dbSession, request);
       SearchResult searchResult = doSearch(dbSession, query, context);
-      SearchResponse responseBuilder = buildResponse(dbSession, searchWsRequest, context, searchResult, query);
-      writeProtobuf(responseBuilder, request, response);
+      SearchOptions contextForResponse = loadCommonContext(searchWsRequest);
+      SearchResponse responseWithoutRules = buildResponse(dbSession, searchWsRequest, context, contextForResponse, searchResult, query);
+      try (ProtobufStreamWriter writer = ProtobufStreamWriter.of(SearchResponse.getDescriptor(), request, response)) {
+        writer.writeFields(responseWithoutRules);
+        writeRules(writer, searchResult, contextForResponse);
+      }
     }
   }
 
-  private SearchResponse buildResponse(DbSession dbSession, SearchRequest request, SearchOptions context, SearchResult result, RuleQuery query) {
+  private SearchResponse buildResponse(DbSession dbSession, SearchRequest request, SearchOptions context, SearchOptions contextForResponse,
+    SearchResult result, RuleQuery query) {
     SearchResponse.Builder responseBuilder = SearchResponse.newBuilder();
     writeStatistics(responseBuilder, result, context);
-    doContextResponse(dbSession, request, result, responseBuilder, query);
+    if (contextForResponse.getFields().contains("actives")) {
+      activeRuleCompleter.completeSearch(dbSession, query, result.rules, responseBuilder);
+    }
     if (!context.getFacets().isEmpty()) {
       writeFacets(responseBuilder, request, context, result);
     }
@@ -314,10 +321,15 @@ public class SearchAction implements RulesWsAction {
       .setSince("6.4");
   }
 
-  private void writeRules(SearchResponse.Builder response, SearchResult result, SearchOptions context) {
+  /**
+   * Rules are written one by one, so that the complete response is never built in memory
+   */
+  private void writeRules(ProtobufStreamWriter writer, SearchResult result, SearchOptions context) {
+    writer.beginArray("rules");
     for (RuleDto rule : result.rules) {
-      response.addRules(mapper.toWsRule(rule.getDefinition(), result, context.getFields(), rule.getMetadata()));
+      writer.writeElement(mapper.toWsRule(rule.getDefinition(), result, context.getFields(), rule.getMetadata()));
     }
+    writer.endArray();
   }
 
   private static SearchOptions buildSearchOptions(SearchRequest request) {
@@ -375,14 +387,6 @@ public class SearchAction implements RulesWsAction {
       .setTotal(result.getTotal());
   }
 
-  private void doContextResponse(DbSession dbSession, SearchRequest request, SearchResult result, SearchResponse.Builder response, RuleQuery query) {
-    SearchOptions contextForResponse = loadCommonContext(request);
-    writeRules(response, result, contextForResponse);
-    if (contextForResponse.getFields().contains("actives")) {
-      activeRuleCompleter.completeSearch(dbSession, query, result.rules, response);
-    }
-  }
-
   private static void writeFacets(SearchResponse.Builder response, SearchRequest request, SearchOptions context, SearchResult results) {
     addMandatoryFacetValues(results, FACET_LANGUAGES, request.getLanguages());
     addMandatoryFacetValues(results, FACET_REPOSITORIES, request.getRepositories());
@@ -0,0 +1,116 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.source;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import javax.annotation.concurrent.ThreadSafe;
+import org.sonar.db.protobuf.DbFileSources;
+
+/**
+ * Decoded lines of a file source, as stored in {@link SourceCache}. The HTML decoration of each line
+ * is computed on first access.
+ * <p>
+ * Lines are selected by their number, like {@link org.sonar.db.source.FileSourceDto#decodeSourceLines(int, int)}
+ * does when source is not cached.
+ */
+@ThreadSafe
+class CachedSource {
+
+  private final List<DbFileSources.Line> lines;
+  private final AtomicReferenceArray<String> htmlLines;
+  private final int weight;
+  /**
+   * Whether the line at index {@code i} has the number {@code i + 1}, for all the lines. In this
+   * usual case, lines are selected without being scanned.
+   */
+  private final boolean numberedByIndex;
+
+  CachedSource(List<DbFileSources.Line> lines, int weight) {
+    this.lines = lines;
+    this.htmlLines = new AtomicReferenceArray<>(lines.size());
+    this.weight = weight;
+    this.numberedByIndex = isNumberedByIndex(lines);
+  }
+
+  int getWeight() {
+    return weight;
+  }
+
+  /**
+   * @param from starts from 1
+   * @param toInclusive starts from 1, must be greater than or equal param {@code from}
+   */
+  List<DbFileSources.Line> getLines(int from, int toInclusive) {
+    int[] indexes = selectIndexes(from, toInclusive);
+    List<DbFileSources.Line> result = new ArrayList<>(indexes.length);
+    for (int index : indexes) {
+      result.add(lines.get(index));
+    }
+    return result;
+  }
+
+  List<String> getHtmlLines(int from, int toInclusive, Function<DbFileSources.Line, String> decorator) {
+    int[] indexes = selectIndexes(from, toInclusive);
+    List<String> result = new ArrayList<>(indexes.length);
+    for (int index : indexes) {
+      String html = htmlLines.get(index);
+      if (html == null) {
+        // concurrent computations of the same line are harmless, they produce the same value
+        html = decorator.apply(lines.get(index));
+        htmlLines.set(index, html);
+      }
+      result.add(html);
+    }
+    return result;
+  }
+
+  /**
+   * Indexes of the first {@code toInclusive - from + 1} lines which have a number greater than or equal to {@code from}.
+   */
+  private int[] selectIndexes(int from, int toInclusive) {
+    int limit = toInclusive - from + 1;
+    if (numberedByIndex) {
+      int fromIndex = Math.min(from - 1, lines.size());
+      int toIndex = Math.min(toInclusive, lines.size());
+      return IntStream.range(fromIndex, toIndex).toArray();
+    }
+    return IntStream.range(0, lines.size())
+      .filter(i -> {
+        DbFileSources.Line line = lines.get(i);
+        return line.hasLine() && line.getLine() >= from;
+      })
+      .limit(limit)
+      .toArray();
+  }
+
+  private static boolean isNumberedByIndex(List<DbFileSources.Line> lines) {
+    for (int i = 0; i < lines.size(); i++) {
+      DbFileSources.Line line = lines.get(i);
+      if (!line.hasLine() || line.getLine() != i + 1) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
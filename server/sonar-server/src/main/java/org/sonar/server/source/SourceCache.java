@@ -0,0 +1,128 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.source;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.protobuf.DbFileSources;
+import org.sonar.db.source.FileSourceDto;
+
+/**
+ * In-memory cache of the decoded lines of file sources, and of their HTML decoration, for the
+ * web process. Entries are keyed by file uuid and hash of source data, so that a new analysis
+ * changing the source of a file makes the previous entry unreachable. It's then evicted as
+ * any least recently used entry.
+ * <p>
+ * Size is bounded by an approximation of the memory used by entries, see {@link #PROPERTY_MAX_SIZE_IN_MB}.
+ */
+@ServerSide
+public class SourceCache {
+
+  public static final String PROPERTY_MAX_SIZE_IN_MB = "sonar.web.sourceCache.maxSizeInMb";
+  static final int DEFAULT_MAX_SIZE_IN_MB = 50;
+
+  /**
+   * Entries weighing more than this ratio of the cache size are not cached, so that a single
+   * huge file does not flush all the other entries.
+   */
+  private static final int MAX_ENTRY_RATIO = 20;
+
+  /**
+   * Weight of an entry is the serialized size of its lines, doubled to reserve room
+   * for the HTML decoration computed later.
+   */
+  private static final int HTML_WEIGHT_FACTOR = 2;
+
+  private final long maxWeight;
+  private final long maxEntryWeight;
+  private final Cache<String, CachedSource> cache;
+
+  public SourceCache(Configuration config) {
+    this.maxWeight = config.getInt(PROPERTY_MAX_SIZE_IN_MB).orElse(DEFAULT_MAX_SIZE_IN_MB) * 1024L * 1024L;
+    this.maxEntryWeight = maxWeight / MAX_ENTRY_RATIO;
+    // a single segment, otherwise the maximum weight is divided between segments and big entries are evicted early
+    this.cache = CacheBuilder.newBuilder()
+      .concurrencyLevel(1)
+      .maximumWeight(maxWeight)
+      .weigher((String key, CachedSource source) -> source.getWeight())
+      .recordStats()
+      .build();
+  }
+
+  public boolean isEnabled() {
+    return maxWeight > 0;
+  }
+
+  /**
+   * Whether the source of the given file may be put in cache. The weight of decoded lines is
+   * greater than the size of compressed data, so files whose compressed data is already too
+   * heavy are rejected without being decoded. The others are checked by {@link #put(String, String, List)}.
+   */
+  boolean accepts(FileSourceDto dto) {
+    byte[] binaryData = dto.getBinaryData();
+    return isEnabled() && dto.getDataHash() != null && binaryData != null && binaryData.length <= maxEntryWeight;
+  }
+
+  @CheckForNull
+  CachedSource get(String fileUuid, String dataHash) {
+    return cache.getIfPresent(key(fileUuid, dataHash));
+  }
+
+  /**
+   * Puts the lines in cache if they don't weigh more than the limit of an entry. The returned
+   * source can be used in both cases.
+   */
+  CachedSource put(String fileUuid, String dataHash, List<DbFileSources.Line> lines) {
+    CachedSource source = new CachedSource(lines, weightOf(lines));
+    if (source.getWeight() <= maxEntryWeight) {
+      cache.put(key(fileUuid, dataHash), source);
+    }
+    return source;
+  }
+
+  public long getMaxSizeInBytes() {
+    return maxWeight;
+  }
+
+  public long getEntries() {
+    return cache.size();
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  private static int weightOf(List<DbFileSources.Line> lines) {
+    long weight = 0L;
+    for (DbFileSources.Line line : lines) {
+      weight += line.getSerializedSize();
+    }
+    return (int) Math.min(Integer.MAX_VALUE, weight * HTML_WEIGHT_FACTOR);
+  }
+
+  private static String key(String fileUuid, String dataHash) {
+    return fileUuid + ':' + dataHash;
+  }
+}
@@ -19,6 +19,7 @@
  */
 package org.sonar.server.source;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 import org.sonar.core.util.stream.MoreCollectors;
@@ -33,10 +34,12 @@ public class SourceService {
 
   private final DbClient dbClient;
   private final HtmlSourceDecorator htmlDecorator;
+  private final SourceCache sourceCache;
 
-  public SourceService(DbClient dbClient, HtmlSourceDecorator htmlDecorator) {
+  public SourceService(DbClient dbClient, HtmlSourceDecorator htmlDecorator, SourceCache sourceCache) {
     this.dbClient = dbClient;
     this.htmlDecorator = htmlDecorator;
+    this.sourceCache = sourceCache;
   }
 
   /**
@@ -57,19 +60,39 @@ public class SourceService {
   }
 
   public Optional<Iterable<String>> getLinesAsHtml(DbSession dbSession, String fileUuid, int from, int toInclusive) {
-    return getLines(dbSession, fileUuid, from, toInclusive, lineToHtml());
+    return getLines(dbSession, fileUuid, from, toInclusive, lineToHtml(),
+      source -> source.getHtmlLines(from, toInclusive, lineToHtml()));
   }
 
   private <E> Optional<Iterable<E>> getLines(DbSession dbSession, String fileUuid, int from, int toInclusive, Function<DbFileSources.Line, E> function) {
+    return getLines(dbSession, fileUuid, from, toInclusive, function,
+      source -> source.getLines(from, toInclusive).stream().map(function).collect(MoreCollectors.toList()));
+  }
+
+  /**
+   * Lines are read from {@link SourceCache} when possible. Otherwise, depending on its size, the source
+   * is either fully decoded and put in cache, or only the requested range of lines is decoded.
+   */
+  private <E> Optional<Iterable<E>> getLines(DbSession dbSession, String fileUuid, int from, int toInclusive,
+    Function<DbFileSources.Line, E> function, Function<CachedSource, List<E>> cachedFunction) {
     verifyLine(from);
     checkArgument(toInclusive >= from, String.format("Line number must greater than or equal to %d, got %d", from, toInclusive));
+    if (sourceCache.isEnabled()) {
+      String dataHash = dbClient.fileSourceDao().selectSourceDataHash(dbSession, fileUuid);
+      CachedSource cached = dataHash == null ? null : sourceCache.get(fileUuid, dataHash);
+      if (cached != null) {
+        return Optional.of(cachedFunction.apply(cached));
+      }
+    }
     FileSourceDto dto = dbClient.fileSourceDao().selectSourceByFileUuid(dbSession, fileUuid);
     if (dto == null) {
       return Optional.empty();
     }
-    return Optional.of(dto.getSourceData().getLinesList().stream()
-      .filter(line -> line.hasLine() && line.getLine() >= from)
-      .limit((toInclusive - from) + 1L)
+    if (sourceCache.accepts(dto)) {
+      CachedSource cached = sourceCache.put(fileUuid, dto.getDataHash(), dto.getSourceData().getLinesList());
+      return Optional.of(cachedFunction.apply(cached));
+    }
+    return Optional.of(dto.decodeSourceLines(from, (toInclusive - from) + 1).stream()
       .map(function)
       .collect(MoreCollectors.toList()));
   }
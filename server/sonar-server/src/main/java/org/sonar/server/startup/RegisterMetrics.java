@@ -35,6 +35,7 @@ import org.sonar.api.utils.log.Profiler;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.metric.MetricDto;
+import org.sonar.server.metric.MetricsCache;
 
 import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.collect.Iterables.concat;
@@ -67,6 +68,7 @@ public class RegisterMetrics {
     Profiler profiler = Profiler.create(LOG).startInfo("Register metrics");
     try (DbSession session = dbClient.openSession(false)) {
       save(session, metrics);
+      MetricsCache.invalidate(dbClient, session);
       sanitizeQualityGates(session);
       session.commit();
     }
@@ -24,9 +24,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import javax.annotation.CheckForNull;
@@ -42,7 +40,6 @@ import org.sonar.db.user.UserDto;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.organization.OrganizationFlags;
 
-import static com.google.common.collect.Maps.newHashMap;
 import static org.apache.commons.lang.StringUtils.defaultIfEmpty;
 
 /**
@@ -56,16 +53,18 @@ public class ServerUserSession extends AbstractUserSession {
   private final DefaultOrganizationProvider defaultOrganizationProvider;
   private final Supplier<Collection<GroupDto>> groups = Suppliers.memoize(this::loadGroups);
   private final Supplier<Boolean> isSystemAdministratorSupplier = Suppliers.memoize(this::loadIsSystemAdministrator);
-  private final Map<String, String> projectUuidByComponentUuid = newHashMap();
-  private Map<String, Set<OrganizationPermission>> permissionsByOrganizationUuid;
-  private Map<String, Set<String>> permissionsByProjectUuid;
+  private final Supplier<UserPermissionsCache.UserPermissions> permissions;
+  private final UserPermissionsCache permissionsCache;
 
   ServerUserSession(DbClient dbClient, OrganizationFlags organizationFlags,
-    DefaultOrganizationProvider defaultOrganizationProvider, @Nullable UserDto userDto) {
+    DefaultOrganizationProvider defaultOrganizationProvider, UserPermissionsCache permissionsCache, @Nullable UserDto userDto) {
     this.dbClient = dbClient;
     this.organizationFlags = organizationFlags;
     this.defaultOrganizationProvider = defaultOrganizationProvider;
+    this.permissionsCache = permissionsCache;
     this.userDto = userDto;
+    // permissions of the session are consistent, even if they are changed during the request
+    this.permissions = Suppliers.memoize(() -> permissionsCache.get(getUserId()));
   }
 
   private Collection<GroupDto> loadGroups() {
@@ -112,11 +111,7 @@ public class ServerUserSession extends AbstractUserSession {
 
   @Override
   protected boolean hasPermissionImpl(OrganizationPermission permission, String organizationUuid) {
-    if (permissionsByOrganizationUuid == null) {
-      permissionsByOrganizationUuid = new HashMap<>();
-    }
-    Set<OrganizationPermission> permissions = permissionsByOrganizationUuid.computeIfAbsent(organizationUuid, this::loadOrganizationPermissions);
-    return permissions.contains(permission);
+    return permissions.get().getOrganizationPermissions(organizationUuid, this::loadOrganizationPermissions).contains(permission);
   }
 
   private Set<OrganizationPermission> loadOrganizationPermissions(String organizationUuid) {
@@ -135,7 +130,7 @@ public class ServerUserSession extends AbstractUserSession {
 
   @Override
   protected Optional<String> componentUuidToProjectUuid(String componentUuid) {
-    String projectUuid = projectUuidByComponentUuid.get(componentUuid);
+    String projectUuid = permissionsCache.getProjectUuid(componentUuid);
     if (projectUuid != null) {
       return Optional.of(projectUuid);
     }
@@ -147,18 +142,14 @@ public class ServerUserSession extends AbstractUserSession {
       // if component is part of a branch, then permissions must be
       // checked on the project (represented by its main branch)
       projectUuid = defaultIfEmpty(component.get().getMainBranchProjectUuid(), component.get().projectUuid());
-      projectUuidByComponentUuid.put(componentUuid, projectUuid);
+      permissionsCache.putProjectUuid(componentUuid, projectUuid);
       return Optional.of(projectUuid);
     }
   }
 
   @Override
   protected boolean hasProjectUuidPermission(String permission, String projectUuid) {
-    if (permissionsByProjectUuid == null) {
-      permissionsByProjectUuid = new HashMap<>();
-    }
-    Set<String> permissions = permissionsByProjectUuid.computeIfAbsent(projectUuid, this::loadProjectPermissions);
-    return permissions.contains(permission);
+    return permissions.get().getProjectPermissions(projectUuid, this::loadProjectPermissions).contains(permission);
   }
 
   private Set<String> loadProjectPermissions(String projectUuid) {
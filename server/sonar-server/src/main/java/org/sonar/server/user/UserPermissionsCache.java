@@ -0,0 +1,179 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.permission.AuthorizationChanges;
+import org.sonar.db.permission.OrganizationPermission;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Permissions of users, shared by the {@link ServerUserSession}s of successive requests, so that
+ * permissions are not loaded from DB again on each request of a user.
+ * <p>
+ * Entries are stamped with the {@link UserPermissionsVersion} read when they are created. {@link #invalidateAll()}
+ * increments this version on all the nodes of the cluster. It is called on commit of any change of permissions
+ * or of group membership, as notified by {@link AuthorizationChanges}, and must be called explicitly on changes
+ * of project visibility. Changes which are not notified are visible after at most {@link #PROPERTY_TTL_IN_SECONDS}.
+ * The same bound applies when cluster mode is disabled to the changes made by the other process, the web server
+ * or the Compute Engine, as each one has its own {@link UserPermissionsStandaloneVersion}.
+ */
+@ServerSide
+public class UserPermissionsCache {
+
+  public static final String PROPERTY_TTL_IN_SECONDS = "sonar.web.permissionsCache.ttlInSeconds";
+  static final long DEFAULT_TTL_IN_SECONDS = 300L;
+  private static final long MAX_USERS = 10_000L;
+  private static final long MAX_COMPONENTS = 100_000L;
+  private static final int ANONYMOUS_USER_ID = -1;
+
+  private final UserPermissionsVersion version;
+  private final long ttlInSeconds;
+  @CheckForNull
+  private final Cache<Integer, UserPermissions> permissionsByUserId;
+  @CheckForNull
+  private final Cache<String, String> projectUuidsByComponentUuid;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public UserPermissionsCache(Configuration config, UserPermissionsVersion version, AuthorizationChanges authorizationChanges) {
+    this.version = version;
+    this.ttlInSeconds = config.getLong(PROPERTY_TTL_IN_SECONDS).orElse(DEFAULT_TTL_IN_SECONDS);
+    if (ttlInSeconds > 0) {
+      this.permissionsByUserId = CacheBuilder.newBuilder()
+        .maximumSize(MAX_USERS)
+        .expireAfterWrite(ttlInSeconds, SECONDS)
+        .build();
+      // a component never moves to another project, so these entries never need to be invalidated
+      this.projectUuidsByComponentUuid = CacheBuilder.newBuilder()
+        .maximumSize(MAX_COMPONENTS)
+        .build();
+    } else {
+      this.permissionsByUserId = null;
+      this.projectUuidsByComponentUuid = null;
+    }
+    authorizationChanges.addListener(this::invalidateAll);
+  }
+
+  public boolean isEnabled() {
+    return permissionsByUserId != null;
+  }
+
+  public long getTtlInSeconds() {
+    return ttlInSeconds;
+  }
+
+  /**
+   * Permissions of the given user, or of anonymous if {@code userId} is null. The returned object is
+   * empty if the cache is disabled or if permissions have been changed since it was created.
+   */
+  UserPermissions get(@Nullable Integer userId) {
+    long currentVersion = version.get();
+    if (permissionsByUserId == null) {
+      return new UserPermissions(currentVersion);
+    }
+    Integer key = userId == null ? ANONYMOUS_USER_ID : userId;
+    UserPermissions permissions = permissionsByUserId.getIfPresent(key);
+    if (permissions != null && permissions.version == currentVersion) {
+      hits.incrementAndGet();
+      return permissions;
+    }
+    misses.incrementAndGet();
+    permissions = new UserPermissions(currentVersion);
+    permissionsByUserId.put(key, permissions);
+    return permissions;
+  }
+
+  @CheckForNull
+  String getProjectUuid(String componentUuid) {
+    return projectUuidsByComponentUuid == null ? null : projectUuidsByComponentUuid.getIfPresent(componentUuid);
+  }
+
+  void putProjectUuid(String componentUuid, String projectUuid) {
+    if (projectUuidsByComponentUuid != null) {
+      projectUuidsByComponentUuid.put(componentUuid, projectUuid);
+    }
+  }
+
+  /**
+   * Must be called once the changes of permissions are committed.
+   */
+  public void invalidateAll() {
+    version.increment();
+    if (permissionsByUserId != null) {
+      permissionsByUserId.invalidateAll();
+    }
+  }
+
+  public long getEntries() {
+    return permissionsByUserId == null ? 0L : permissionsByUserId.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Permissions of a user, lazily loaded by organization and by project. It can be used
+   * concurrently by the sessions of the same user.
+   */
+  static class UserPermissions {
+    private final long version;
+    private final Map<String, Set<OrganizationPermission>> permissionsByOrganizationUuid = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> permissionsByProjectUuid = new ConcurrentHashMap<>();
+
+    private UserPermissions(long version) {
+      this.version = version;
+    }
+
+    Set<OrganizationPermission> getOrganizationPermissions(String organizationUuid, Function<String, Set<OrganizationPermission>> loader) {
+      return get(permissionsByOrganizationUuid, organizationUuid, loader);
+    }
+
+    Set<String> getProjectPermissions(String projectUuid, Function<String, Set<String>> loader) {
+      return get(permissionsByProjectUuid, projectUuid, loader);
+    }
+
+    private static <T> Set<T> get(Map<String, Set<T>> permissionsByUuid, String uuid, Function<String, Set<T>> loader) {
+      // do not use computeIfAbsent(), which would lock other sessions during the DB request
+      Set<T> permissions = permissionsByUuid.get(uuid);
+      if (permissions == null) {
+        permissions = loader.apply(uuid);
+        permissionsByUuid.put(uuid, permissions);
+      }
+      return permissions;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of permissions used when cluster mode is disabled. It's local to the process: the web server and the
+ * Compute Engine each have their own version, which is not incremented by the changes of permissions made by the
+ * other process. For example permissions changed by the Compute Engine are visible to the web server only once
+ * the entries of its {@link UserPermissionsCache} expire, i.e. after at most
+ * {@link UserPermissionsCache#PROPERTY_TTL_IN_SECONDS} (5 minutes by default).
+ */
+public class UserPermissionsStandaloneVersion implements UserPermissionsVersion {
+
+  private final AtomicLong version = new AtomicLong();
+
+  @Override
+  public long get() {
+    return version.get();
+  }
+
+  @Override
+  public void increment() {
+    version.incrementAndGet();
+  }
+}
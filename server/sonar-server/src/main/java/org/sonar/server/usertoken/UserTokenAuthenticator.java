@@ -23,14 +23,17 @@ import com.google.common.base.Optional;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.user.UserTokenDto;
+import org.sonar.server.authentication.AuthenticatedUserCache;
 
 public class UserTokenAuthenticator {
   private final TokenGenerator tokenGenerator;
   private final DbClient dbClient;
+  private final AuthenticatedUserCache authenticatedUserCache;
 
-  public UserTokenAuthenticator(TokenGenerator tokenGenerator, DbClient dbClient) {
+  public UserTokenAuthenticator(TokenGenerator tokenGenerator, DbClient dbClient, AuthenticatedUserCache authenticatedUserCache) {
     this.tokenGenerator = tokenGenerator;
     this.dbClient = dbClient;
+    this.authenticatedUserCache = authenticatedUserCache;
   }
 
   /**
@@ -39,7 +42,10 @@ public class UserTokenAuthenticator {
    * for instance), then the login may not relate to a valid user.
    */
   public java.util.Optional<String> authenticate(String token) {
-    String tokenHash = tokenGenerator.hash(token);
+    return authenticatedUserCache.getLoginByTokenHash(tokenGenerator.hash(token), this::selectLoginByTokenHash);
+  }
+
+  private java.util.Optional<String> selectLoginByTokenHash(String tokenHash) {
     try (DbSession dbSession = dbClient.openSession(false)) {
       Optional<UserTokenDto> userToken = dbClient.userTokenDao().selectByTokenHash(dbSession, tokenHash);
       if (userToken.isPresent()) {
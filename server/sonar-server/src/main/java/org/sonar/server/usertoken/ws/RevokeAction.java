@@ -24,6 +24,7 @@ import org.sonar.api.server.ws.Response;
 import org.sonar.api.server.ws.WebService;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
+import org.sonar.server.authentication.AuthenticatedUserCache;
 import org.sonar.server.user.UserSession;
 
 import static org.sonar.server.usertoken.ws.UserTokensWsParameters.ACTION_REVOKE;
@@ -33,10 +34,12 @@ import static org.sonar.server.usertoken.ws.UserTokensWsParameters.PARAM_NAME;
 public class RevokeAction implements UserTokensWsAction {
   private final DbClient dbClient;
   private final UserSession userSession;
+  private final AuthenticatedUserCache authenticatedUserCache;
 
-  public RevokeAction(DbClient dbClient, UserSession userSession) {
+  public RevokeAction(DbClient dbClient, UserSession userSession, AuthenticatedUserCache authenticatedUserCache) {
     this.dbClient = dbClient;
     this.userSession = userSession;
+    this.authenticatedUserCache = authenticatedUserCache;
   }
 
   @Override
@@ -71,6 +74,7 @@ public class RevokeAction implements UserTokensWsAction {
     try (DbSession dbSession = dbClient.openSession(false)) {
       dbClient.userTokenDao().deleteByLoginAndName(dbSession, login, name);
       dbSession.commit();
+      authenticatedUserCache.invalidateAll();
     }
     response.noContent();
   }
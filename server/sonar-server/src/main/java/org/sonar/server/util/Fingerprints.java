@@ -0,0 +1,79 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.util;
+
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Helpers shared by the fingerprints persisted in internal properties, for example the ones of rule repositories
+ * and of built-in quality profiles, so that they are computed and stored the same way.
+ */
+public class Fingerprints {
+
+  private static final char ENTRY_SEPARATOR = '\n';
+  private static final char KEY_VALUE_SEPARATOR = '=';
+
+  private Fingerprints() {
+    // only statics
+  }
+
+  /**
+   * Adds the values to the digest. Values are delimited, so that for example ("ab", "c") and ("a", "bc") give
+   * different fingerprints, and {@code null} differs from the empty string.
+   */
+  public static void update(MessageDigest digest, @Nullable String... values) {
+    for (String value : values) {
+      if (value == null) {
+        digest.update((byte) 1);
+      } else {
+        digest.update(value.getBytes(UTF_8));
+      }
+      digest.update((byte) 0);
+    }
+  }
+
+  /**
+   * Fingerprints by key, as returned by {@link #format(Map)}
+   */
+  public static Map<String, String> parse(@Nullable String s) {
+    Map<String, String> fingerprints = new TreeMap<>();
+    if (s == null) {
+      return fingerprints;
+    }
+    for (String entry : s.split(String.valueOf(ENTRY_SEPARATOR))) {
+      int index = entry.lastIndexOf(KEY_VALUE_SEPARATOR);
+      if (index > 0) {
+        fingerprints.put(entry.substring(0, index), entry.substring(index + 1));
+      }
+    }
+    return fingerprints;
+  }
+
+  public static String format(Map<String, String> fingerprintsByKey) {
+    StringBuilder sb = new StringBuilder();
+    new TreeMap<>(fingerprintsByKey).forEach((key, fingerprint) -> sb.append(key).append(KEY_VALUE_SEPARATOR).append(fingerprint).append(ENTRY_SEPARATOR));
+    return sb.toString();
+  }
+}
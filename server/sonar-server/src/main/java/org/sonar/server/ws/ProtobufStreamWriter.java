@@ -0,0 +1,224 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.ws;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import javax.annotation.CheckForNull;
+import org.apache.commons.io.IOUtils;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.util.ProtobufJsonFormat;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.sonarqube.ws.MediaTypes.JSON;
+import static org.sonarqube.ws.MediaTypes.PROTOBUF;
+
+/**
+ * Writes a protobuf response without building it entirely in memory. The elements of the biggest repeated
+ * fields are written one by one, in the format requested by client (protobuf or JSON), so that neither the
+ * complete protobuf message nor its JSON conversion are allocated. Compression is done by the web server.
+ * <p>
+ * The resulting response is equivalent to the message built by {@link WsUtils#writeProtobuf(Message, Request, Response)},
+ * except that the order of JSON fields may differ.
+ * <p>
+ * The response is committed as soon as the first bytes are flushed, so request must be validated before
+ * creating the writer. Example:
+ * <pre>
+ *   try (ProtobufStreamWriter writer = ProtobufStreamWriter.of(SearchResponse.getDescriptor(), request, response)) {
+ *     writer.writeFields(SearchResponse.newBuilder().setTotal(total).build());
+ *     writer.beginArray("rules");
+ *     rules.forEach(rule -&gt; writer.writeElement(toWsRule(rule)));
+ *     writer.endArray();
+ *   }
+ * </pre>
+ */
+public abstract class ProtobufStreamWriter implements AutoCloseable {
+
+  private final Descriptors.Descriptor descriptor;
+  @CheckForNull
+  private Descriptors.FieldDescriptor currentArray;
+
+  private ProtobufStreamWriter(Descriptors.Descriptor descriptor) {
+    this.descriptor = descriptor;
+  }
+
+  public static ProtobufStreamWriter of(Descriptors.Descriptor descriptor, Request request, Response response) {
+    OutputStream output = response.stream().output();
+    if (request.getMediaType().equals(PROTOBUF)) {
+      response.stream().setMediaType(PROTOBUF);
+      return new ProtobufWriter(descriptor, output);
+    }
+    response.stream().setMediaType(JSON);
+    return new JsonStreamWriter(descriptor, output);
+  }
+
+  /**
+   * Writes the fields of a message of the response type. Empty repeated fields are ignored. They must
+   * be written with {@link #beginArray(String)}, even if they have no elements.
+   */
+  public ProtobufStreamWriter writeFields(Message message) {
+    checkArgument(message.getDescriptorForType().equals(descriptor), "Message of type %s is expected. Got %s",
+      descriptor.getFullName(), message.getDescriptorForType().getFullName());
+    checkState(currentArray == null, "Array %s is not ended", currentArray);
+    doWriteFields(message);
+    return this;
+  }
+
+  /**
+   * Starts writing the elements of a repeated field of messages of the response type
+   */
+  public ProtobufStreamWriter beginArray(String fieldName) {
+    checkState(currentArray == null, "Array %s is not ended", currentArray);
+    Descriptors.FieldDescriptor field = descriptor.findFieldByName(fieldName);
+    checkArgument(field != null && field.isRepeated() && !field.isMapField() && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE,
+      "Field %s is not a repeated field of messages of %s", fieldName, descriptor.getFullName());
+    currentArray = field;
+    doBeginArray(field);
+    return this;
+  }
+
+  public ProtobufStreamWriter writeElement(Message element) {
+    checkState(currentArray != null, "No array has been started");
+    doWriteElement(currentArray, element);
+    return this;
+  }
+
+  public ProtobufStreamWriter endArray() {
+    checkState(currentArray != null, "No array has been started");
+    currentArray = null;
+    doEndArray();
+    return this;
+  }
+
+  @Override
+  public void close() {
+    checkState(currentArray == null, "Array %s is not ended", currentArray);
+    doClose();
+  }
+
+  abstract void doWriteFields(Message message);
+
+  abstract void doBeginArray(Descriptors.FieldDescriptor field);
+
+  abstract void doWriteElement(Descriptors.FieldDescriptor field, Message element);
+
+  abstract void doEndArray();
+
+  abstract void doClose();
+
+  /**
+   * Fields of a protobuf message can be written in any order, and the elements of a
+   * repeated field do not need to be contiguous. Each element is written as an embedded message.
+   */
+  private static class ProtobufWriter extends ProtobufStreamWriter {
+    private final OutputStream output;
+    private final CodedOutputStream codedOutput;
+
+    private ProtobufWriter(Descriptors.Descriptor descriptor, OutputStream output) {
+      super(descriptor);
+      this.output = output;
+      this.codedOutput = CodedOutputStream.newInstance(output);
+    }
+
+    @Override
+    void doWriteFields(Message message) {
+      try {
+        message.writeTo(codedOutput);
+      } catch (IOException e) {
+        throw new IllegalStateException("Error while writing protobuf message", e);
+      }
+    }
+
+    @Override
+    void doBeginArray(Descriptors.FieldDescriptor field) {
+      // nothing to do
+    }
+
+    @Override
+    void doWriteElement(Descriptors.FieldDescriptor field, Message element) {
+      try {
+        codedOutput.writeMessage(field.getNumber(), element);
+      } catch (IOException e) {
+        throw new IllegalStateException("Error while writing protobuf message", e);
+      }
+    }
+
+    @Override
+    void doEndArray() {
+      // nothing to do
+    }
+
+    @Override
+    void doClose() {
+      try {
+        codedOutput.flush();
+      } catch (IOException e) {
+        throw new IllegalStateException("Error while writing protobuf message", e);
+      } finally {
+        IOUtils.closeQuietly(output);
+      }
+    }
+  }
+
+  private static class JsonStreamWriter extends ProtobufStreamWriter {
+    private final JsonWriter writer;
+
+    private JsonStreamWriter(Descriptors.Descriptor descriptor, OutputStream output) {
+      super(descriptor);
+      this.writer = JsonWriter.of(new OutputStreamWriter(output, UTF_8));
+      this.writer.setSerializeNulls(false).setSerializeEmptys(true);
+      this.writer.beginObject();
+    }
+
+    @Override
+    void doWriteFields(Message message) {
+      ProtobufJsonFormat.writeFields(message, writer);
+    }
+
+    @Override
+    void doBeginArray(Descriptors.FieldDescriptor field) {
+      writer.name(field.getName()).beginArray();
+    }
+
+    @Override
+    void doWriteElement(Descriptors.FieldDescriptor field, Message element) {
+      ProtobufJsonFormat.writeValue(element, writer);
+    }
+
+    @Override
+    void doEndArray() {
+      writer.endArray();
+    }
+
+    @Override
+    void doClose() {
+      writer.endObject();
+      writer.close();
+    }
+  }
+}
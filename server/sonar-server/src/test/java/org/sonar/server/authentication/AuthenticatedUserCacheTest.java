@@ -0,0 +1,135 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.authentication;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.db.user.UserDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.user.UserTesting.newUserDto;
+
+public class AuthenticatedUserCacheTest {
+
+  private static final String LOGIN = "john";
+
+  private MapSettings settings = new MapSettings();
+  private AuthenticatedUserCacheVersion version = new AuthenticatedUserCacheStandaloneVersion();
+  private AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  public void is_enabled_by_default() {
+    AuthenticatedUserCache underTest = new AuthenticatedUserCache(settings.asConfig(), version);
+
+    assertThat(underTest.isEnabled()).isTrue();
+    assertThat(underTest.getTtlInSeconds()).isEqualTo(AuthenticatedUserCache.DEFAULT_TTL_IN_SECONDS);
+  }
+
+  @Test
+  public void getActiveUser_loads_user_only_once() {
+    AuthenticatedUserCache underTest = new AuthenticatedUserCache(settings.asConfig(), version);
+    UserDto user = newUserDto().setLogin(LOGIN);
+
+    assertThat(underTest.getActiveUser(LOGIN, login -> load(user))).isSameAs(user);
+    assertThat(underTest.getActiveUser(LOGIN, login -> load(user))).isSameAs(user);
+
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(underTest.getUserEntries()).isEqualTo(1);
+    assertThat(underTest.getUserStats().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void getActiveUser_does_not_cache_missing_user() {
+    AuthenticatedUserCache underTest = new AuthenticatedUserCache(settings.asConfig(), version);
+
+    assertThat(underTest.getActiveUser(LOGIN, login -> load(null))).isNull();
+    assertThat(underTest.getActiveUser(LOGIN, login -> load(null))).isNull();
+
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(underTest.getUserEntries()).isZero();
+  }
+
+  @Test
+  public void getLoginByTokenHash_loads_login_only_once() {
+    AuthenticatedUserCache underTest = new AuthenticatedUserCache(settings.asConfig(), version);
+
+    assertThat(underTest.getLoginByTokenHash("hash", hash -> load(Optional.of(LOGIN)))).contains(LOGIN);
+    assertThat(underTest.getLoginByTokenHash("hash", hash -> load(Optional.of(LOGIN)))).contains(LOGIN);
+    assertThat(underTest.getLoginByTokenHash("unknown", hash -> load(Optional.empty()))).isEmpty();
+
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(underTest.getTokenEntries()).isEqualTo(1);
+  }
+
+  @Test
+  public void invalidateAll_removes_users_and_tokens() {
+    AuthenticatedUserCache underTest = new AuthenticatedUserCache(settings.asConfig(), version);
+    UserDto user = newUserDto().setLogin(LOGIN);
+    underTest.getActiveUser(LOGIN, login -> user);
+    underTest.getLoginByTokenHash("hash1", hash -> Optional.of(LOGIN));
+    underTest.getLoginByTokenHash("hash2", hash -> Optional.of("other"));
+
+    underTest.invalidateAll();
+
+    assertThat(version.get()).isEqualTo(1L);
+    assertThat(underTest.getUserEntries()).isZero();
+    assertThat(underTest.getTokenEntries()).isZero();
+    assertThat(underTest.getLoginByTokenHash("hash2", hash -> load(Optional.of("other")))).contains("other");
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void entries_loaded_before_an_invalidation_on_another_node_are_ignored() {
+    AuthenticatedUserCache underTest = new AuthenticatedUserCache(settings.asConfig(), version);
+    AuthenticatedUserCache otherNode = new AuthenticatedUserCache(settings.asConfig(), version);
+    UserDto user = newUserDto().setLogin(LOGIN);
+    underTest.getActiveUser(LOGIN, login -> load(user));
+    underTest.getLoginByTokenHash("hash", hash -> load(Optional.of(LOGIN)));
+
+    otherNode.invalidateAll();
+
+    assertThat(underTest.getActiveUser(LOGIN, login -> load(null))).isNull();
+    assertThat(underTest.getLoginByTokenHash("hash", hash -> load(Optional.empty()))).isEmpty();
+    assertThat(loads.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void cache_is_disabled_when_ttl_is_zero() {
+    settings.setProperty(AuthenticatedUserCache.PROPERTY_TTL_IN_SECONDS, 0);
+    AuthenticatedUserCache underTest = new AuthenticatedUserCache(settings.asConfig(), version);
+    UserDto user = newUserDto().setLogin(LOGIN);
+
+    underTest.getActiveUser(LOGIN, login -> load(user));
+    underTest.getActiveUser(LOGIN, login -> load(user));
+    underTest.invalidateAll();
+
+    assertThat(underTest.isEnabled()).isFalse();
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(underTest.getUserEntries()).isZero();
+    assertThat(underTest.getUserStats().requestCount()).isZero();
+  }
+
+  private <T> T load(T value) {
+    loads.incrementAndGet();
+    return value;
+  }
+}
@@ -83,8 +83,9 @@ public class JwtHttpHandlerTest {
   private JwtSerializer jwtSerializer = mock(JwtSerializer.class);
   private JwtCsrfVerifier jwtCsrfVerifier = mock(JwtCsrfVerifier.class);
   private UserDto userDto = newUserDto().setLogin(USER_LOGIN);
+  private AuthenticatedUserCache authenticatedUserCache = new AuthenticatedUserCache(new MapSettings().asConfig(), new AuthenticatedUserCacheStandaloneVersion());
 
-  private JwtHttpHandler underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+  private JwtHttpHandler underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authenticatedUserCache);
 
   @Before
   public void setUp() throws Exception {
@@ -124,7 +125,7 @@ public class JwtHttpHandlerTest {
     int sessionTimeoutInMinutes = 10;
     settings.setProperty("sonar.web.sessionTimeoutInMinutes", sessionTimeoutInMinutes);
 
-    underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authenticatedUserCache);
     underTest.generateToken(userDto, request, response);
 
     verify(jwtSerializer).encode(jwtArgumentCaptor.capture());
@@ -136,7 +137,7 @@ public class JwtHttpHandlerTest {
     int firstSessionTimeoutInMinutes = 10;
     settings.setProperty("sonar.web.sessionTimeoutInMinutes", firstSessionTimeoutInMinutes);
 
-    underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authenticatedUserCache);
     underTest.generateToken(userDto, request, response);
 
     // The property is updated, but it won't be taking into account
@@ -154,7 +155,7 @@ public class JwtHttpHandlerTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Property sonar.web.sessionTimeoutInMinutes must be strictly positive. Got 0");
 
-    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authenticatedUserCache);
   }
 
   @Test
@@ -164,7 +165,7 @@ public class JwtHttpHandlerTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Property sonar.web.sessionTimeoutInMinutes must be strictly positive. Got -10");
 
-    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authenticatedUserCache);
   }
 
   @Test
@@ -174,7 +175,7 @@ public class JwtHttpHandlerTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Property sonar.web.sessionTimeoutInMinutes must not be greater than 3 months (129600 minutes). Got 172800 minutes");
 
-    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authenticatedUserCache);
   }
 
   @Test
@@ -241,6 +242,22 @@ public class JwtHttpHandlerTest {
     assertThat(underTest.validateToken(request, response).isPresent()).isFalse();
   }
 
+  @Test
+  public void validate_token_loads_user_from_cache_until_it_is_invalidated() throws Exception {
+    addJwtCookie();
+    UserDto user = addUser(true);
+    Claims claims = createToken(user.getLogin(), NOW);
+    when(jwtSerializer.decode(JWT_TOKEN)).thenReturn(Optional.of(claims));
+    assertThat(underTest.validateToken(request, response).isPresent()).isTrue();
+
+    dbClient.userDao().deactivateUser(dbSession, user);
+    dbSession.commit();
+
+    assertThat(underTest.validateToken(request, response).isPresent()).isTrue();
+    authenticatedUserCache.invalidateAll();
+    assertThat(underTest.validateToken(request, response).isPresent()).isFalse();
+  }
+
   @Test
   public void validate_token_does_not_refresh_session_when_token_is_no_more_valid() throws Exception {
     addJwtCookie();
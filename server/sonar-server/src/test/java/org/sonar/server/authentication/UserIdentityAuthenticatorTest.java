@@ -41,6 +41,9 @@ import org.sonar.server.organization.OrganizationCreation;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
 import org.sonar.server.organization.TestOrganizationFlags;
 import org.sonar.server.user.NewUserNotifier;
+import org.sonar.server.user.UserPermissionsCache;
+import org.sonar.server.user.UserPermissionsStandaloneVersion;
+import org.sonar.server.user.UserSessionFactoryImpl;
 import org.sonar.server.user.UserUpdater;
 import org.sonar.server.user.index.UserIndexDefinition;
 import org.sonar.server.user.index.UserIndexer;
@@ -51,6 +54,7 @@ import static java.util.Arrays.stream;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.sonar.core.config.CorePropertyDefinitions.ONBOARDING_TUTORIAL_SHOW_TO_NEW_USERS;
+import static org.sonar.db.permission.OrganizationPermission.ADMINISTER;
 import static org.sonar.db.user.UserTesting.newUserDto;
 import static org.sonar.server.authentication.event.AuthenticationExceptionMatcher.authenticationException;
 
@@ -248,6 +252,27 @@ public class UserIdentityAuthenticatorTest {
     checkGroupMembership(user, group1);
   }
 
+  @Test
+  public void permissions_granted_by_groups_removed_at_login_are_revoked_from_cached_permissions() {
+    organizationFlags.setEnabled(true);
+    UserDto user = db.users().insertUser(newUserDto()
+      .setLogin(USER_LOGIN)
+      .setActive(true)
+      .setName("John"));
+    GroupDto admins = db.users().insertGroup(db.getDefaultOrganization(), "admins");
+    GroupDto users = db.users().insertGroup(db.getDefaultOrganization(), "users");
+    db.users().insertPermissionOnGroup(admins, ADMINISTER);
+    db.users().insertMember(admins, user);
+    db.users().insertMember(users, user);
+    UserSessionFactoryImpl userSessionFactory = new UserSessionFactoryImpl(db.getDbClient(), defaultOrganizationProvider, organizationFlags,
+      new UserPermissionsCache(settings.asConfig(), new UserPermissionsStandaloneVersion(), db.getAuthorizationChanges()));
+    assertThat(userSessionFactory.create(user).hasPermission(ADMINISTER, db.getDefaultOrganization())).isTrue();
+
+    authenticate(USER_LOGIN, "users");
+
+    assertThat(userSessionFactory.create(user).hasPermission(ADMINISTER, db.getDefaultOrganization())).isFalse();
+  }
+
   @Test
   public void authenticate_existing_user_and_remove_all_groups_expect_default_when_organizations_are_disabled() {
     organizationFlags.setEnabled(false);
@@ -0,0 +1,124 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.batch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.utils.System2;
+import org.sonar.api.web.UserRole;
+import org.sonar.core.util.CloseableIterator;
+import org.sonar.core.util.Protobuf;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.source.FileSourceTester;
+import org.sonar.scanner.protocol.input.ScannerInput.FileLineHashes;
+import org.sonar.server.component.TestComponentFinder;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.exceptions.NotFoundException;
+import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.ws.WsActionTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+
+public class LineHashesActionTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+
+  private FileSourceTester fileSources = new FileSourceTester(db);
+
+  private WsActionTester tester = new WsActionTester(new LineHashesAction(db.getDbClient(), userSession, TestComponentFinder.from(db)));
+
+  @Test
+  public void return_line_hashes_of_requested_files() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file1 = db.components().insertComponent(newFileDto(project));
+    ComponentDto file2 = db.components().insertComponent(newFileDto(project));
+    ComponentDto file3 = db.components().insertComponent(newFileDto(project));
+    fileSources.insertFileSource(file1, dto -> dto.setLineHashes("ABC\nDEF"));
+    fileSources.insertFileSource(file2, dto -> dto.setLineHashes("GHI"));
+    fileSources.insertFileSource(file3, dto -> dto.setLineHashes("JKL"));
+    userSession.addProjectPermission(UserRole.USER, project);
+
+    try (CloseableIterator<FileLineHashes> result = call(project.getKey(), file1.getKey() + "," + file2.getKey())) {
+      assertThat(result)
+        .extracting(FileLineHashes::getKey, FileLineHashes::getLineHashes)
+        .containsExactlyInAnyOrder(tuple(file1.getKey(), "ABC\nDEF"), tuple(file2.getKey(), "GHI"));
+    }
+  }
+
+  @Test
+  public void ignore_files_without_source_and_unknown_files() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    userSession.addProjectPermission(UserRole.USER, project);
+
+    try (CloseableIterator<FileLineHashes> result = call(project.getKey(), file.getKey() + ",unknown")) {
+      assertThat(result).isEmpty();
+    }
+  }
+
+  @Test
+  public void ignore_files_of_other_projects() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto otherProject = db.components().insertPrivateProject();
+    ComponentDto otherFile = db.components().insertComponent(newFileDto(otherProject));
+    fileSources.insertFileSource(otherFile);
+    userSession.addProjectPermission(UserRole.USER, project);
+
+    try (CloseableIterator<FileLineHashes> result = call(project.getKey(), otherFile.getKey())) {
+      assertThat(result).isEmpty();
+    }
+  }
+
+  @Test
+  public void fail_if_user_does_not_have_permission_on_project() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+
+    expectedException.expect(ForbiddenException.class);
+
+    call(project.getKey(), file.getKey());
+  }
+
+  @Test
+  public void fail_if_project_does_not_exist() {
+    expectedException.expect(NotFoundException.class);
+    expectedException.expectMessage("Component key 'does_not_exist' not found");
+
+    call("does_not_exist", "foo");
+  }
+
+  private CloseableIterator<FileLineHashes> call(String projectKey, String fileKeys) {
+    return Protobuf.readStream(tester.newRequest()
+      .setMethod("POST")
+      .setParam("key", projectKey)
+      .setParam("files", fileKeys)
+      .execute()
+      .getInputStream(), FileLineHashes.parser());
+  }
+}
@@ -30,9 +30,11 @@ import org.sonar.db.component.ComponentDbTester;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
 import org.sonar.server.es.TestProjectIndexers;
+import org.sonar.server.measure.ws.ComponentTreeMatrixCache;
 import org.sonar.server.tester.UserSessionRule;
 
 import static org.assertj.guava.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.sonar.db.component.ComponentTesting.newFileDto;
 import static org.sonar.db.component.ComponentTesting.newModuleDto;
 
@@ -50,7 +52,7 @@ public class ComponentServiceTest {
   private DbSession dbSession = dbTester.getSession();
   private TestProjectIndexers projectIndexers = new TestProjectIndexers();
 
-  private ComponentService underTest = new ComponentService(dbClient, userSession, projectIndexers);
+  private ComponentService underTest = new ComponentService(dbClient, userSession, projectIndexers, mock(ComponentTreeMatrixCache.class));
 
   @Test
   public void bulk_update() {
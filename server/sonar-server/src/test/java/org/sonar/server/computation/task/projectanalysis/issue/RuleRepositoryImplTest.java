@@ -29,9 +29,12 @@ import org.sonar.api.rule.RuleStatus;
 import org.sonar.api.rules.RuleType;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
+import org.sonar.db.property.InternalPropertiesDao;
 import org.sonar.db.rule.RuleDao;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolderRule;
+import org.sonar.server.property.InternalProperties;
+import org.sonar.server.rule.RulesCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.guava.api.Assertions.assertThat;
@@ -62,14 +65,19 @@ public class RuleRepositoryImplTest {
   private DbClient dbClient = mock(DbClient.class);
   private DbSession dbSession = mock(DbSession.class);
   private RuleDao ruleDao = mock(RuleDao.class);
+  private InternalPropertiesDao internalPropertiesDao = mock(InternalPropertiesDao.class);
+  private RulesCache rulesCache = new RulesCache(dbClient);
 
-  RuleRepositoryImpl underTest = new RuleRepositoryImpl(dbClient, analysisMetadataHolder);
+  RuleRepositoryImpl underTest = new RuleRepositoryImpl(dbClient, analysisMetadataHolder, rulesCache);
 
   @Before
   public void setUp() throws Exception {
     when(dbClient.openSession(anyBoolean())).thenReturn(dbSession);
     when(dbClient.ruleDao()).thenReturn(ruleDao);
-    when(ruleDao.selectAll(any(DbSession.class), eq(ORGANIZATION_UUID))).thenReturn(ImmutableList.of(AB_RULE));
+    when(dbClient.internalPropertiesDao()).thenReturn(internalPropertiesDao);
+    when(internalPropertiesDao.selectByKey(any(DbSession.class), eq(InternalProperties.RULES_VERSION))).thenReturn(java.util.Optional.of("v1"));
+    when(ruleDao.selectAllDefinitions(any(DbSession.class))).thenReturn(ImmutableList.of(AB_RULE.getDefinition()));
+    when(ruleDao.selectAllMetadata(any(DbSession.class), eq(ORGANIZATION_UUID))).thenReturn(ImmutableList.of(AB_RULE.getMetadata()));
   }
 
   @Test
@@ -81,7 +89,7 @@ public class RuleRepositoryImplTest {
   public void first_call_to_getByKey_triggers_call_to_db_and_any_subsequent_get_or_find_call_does_not() {
     underTest.getByKey(AB_RULE.getKey());
 
-    verify(ruleDao, times(1)).selectAll(any(DbSession.class), eq(ORGANIZATION_UUID));
+    verify(ruleDao, times(1)).selectAllDefinitions(any(DbSession.class));
 
     verifyNoMethodCallTriggersCallToDB();
   }
@@ -90,7 +98,7 @@ public class RuleRepositoryImplTest {
   public void first_call_to_findByKey_triggers_call_to_db_and_any_subsequent_get_or_find_call_does_not() {
     underTest.findByKey(AB_RULE.getKey());
 
-    verify(ruleDao, times(1)).selectAll(any(DbSession.class), eq(ORGANIZATION_UUID));
+    verify(ruleDao, times(1)).selectAllDefinitions(any(DbSession.class));
 
     verifyNoMethodCallTriggersCallToDB();
   }
@@ -99,7 +107,7 @@ public class RuleRepositoryImplTest {
   public void first_call_to_getById_triggers_call_to_db_and_any_subsequent_get_or_find_call_does_not() {
     underTest.getById(AB_RULE.getId());
 
-    verify(ruleDao, times(1)).selectAll(any(DbSession.class), eq(ORGANIZATION_UUID));
+    verify(ruleDao, times(1)).selectAllDefinitions(any(DbSession.class));
 
     verifyNoMethodCallTriggersCallToDB();
   }
@@ -108,11 +116,24 @@ public class RuleRepositoryImplTest {
   public void first_call_to_findById_triggers_call_to_db_and_any_subsequent_get_or_find_call_does_not() {
     underTest.findById(AB_RULE.getId());
 
-    verify(ruleDao, times(1)).selectAll(any(DbSession.class), eq(ORGANIZATION_UUID));
+    verify(ruleDao, times(1)).selectAllDefinitions(any(DbSession.class));
 
     verifyNoMethodCallTriggersCallToDB();
   }
 
+  @Test
+  public void rules_are_loaded_from_db_again_by_next_repositories_only_if_they_changed() {
+    underTest.getByKey(AB_RULE.getKey());
+    new RuleRepositoryImpl(dbClient, analysisMetadataHolder, rulesCache).getByKey(AB_RULE.getKey());
+
+    verify(ruleDao, times(1)).selectAllDefinitions(any(DbSession.class));
+
+    when(internalPropertiesDao.selectByKey(any(DbSession.class), eq(InternalProperties.RULES_VERSION))).thenReturn(java.util.Optional.of("v2"));
+    new RuleRepositoryImpl(dbClient, analysisMetadataHolder, rulesCache).getByKey(AB_RULE.getKey());
+
+    verify(ruleDao, times(2)).selectAllDefinitions(any(DbSession.class));
+  }
+
   @Test
   public void getByKey_throws_NPE_if_key_argument_is_null() {
     expectNullRuleKeyNPE();
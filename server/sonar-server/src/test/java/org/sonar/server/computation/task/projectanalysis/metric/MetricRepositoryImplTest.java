@@ -25,6 +25,7 @@ import org.junit.rules.ExpectedException;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbTester;
+import org.sonar.server.metric.MetricsCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -39,7 +40,7 @@ public class MetricRepositoryImplTest {
   public final ExpectedException expectedException = ExpectedException.none();
 
   private DbClient dbClient = dbTester.getDbClient();
-  private MetricRepositoryImpl underTest = new MetricRepositoryImpl(dbClient);
+  private MetricRepositoryImpl underTest = new MetricRepositoryImpl(dbClient, new MetricsCache(dbClient));
 
   @Test(expected = NullPointerException.class)
   public void getByKey_throws_NPE_if_arg_is_null() {
@@ -22,6 +22,7 @@ package org.sonar.server.es;
 import com.google.common.collect.ImmutableMap;
 import java.util.ArrayList;
 import java.util.List;
+import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
@@ -154,6 +155,57 @@ public class BulkIndexerTest {
     assertThat(listener.calledResult.getTotal()).isEqualTo(2);
   }
 
+  @Test
+  public void large_indexing_redirects_index_and_delete_requests_to_rebuilt_index() {
+    String rebuiltIndex = createRebuiltIndex();
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX_TYPE_FAKE, Size.LARGE);
+    indexer.start();
+    indexer.add(newIndexRequestWithDocId("foo"));
+    indexer.add(newIndexRequestWithDocId("bar"));
+    indexer.addDeletion(INDEX_TYPE_FAKE, "bar");
+    IndexingResult result = indexer.stop();
+
+    assertThat(result.getSuccess()).isEqualTo(3);
+    assertThat(count()).isEqualTo(0);
+    assertThat(esTester.countDocuments(rebuiltIndex, INDEX_TYPE_FAKE.getType())).isEqualTo(1);
+    assertThat(esTester.client().nativeClient().prepareGet(rebuiltIndex, INDEX_TYPE_FAKE.getType(), "foo").get().isExists()).isTrue();
+    assertThat(esTester.client().nativeClient().prepareGet(rebuiltIndex, INDEX_TYPE_FAKE.getType(), "bar").get().isExists()).isFalse();
+  }
+
+  @Test
+  public void large_indexing_reports_doc_ids_in_requested_index_when_writing_in_rebuilt_index() {
+    createRebuiltIndex();
+    FakeListener listener = new FakeListener();
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX_TYPE_FAKE, Size.LARGE, listener);
+    indexer.start();
+    indexer.add(newIndexRequestWithDocId("foo"));
+    indexer.addDeletion(INDEX_TYPE_FAKE, "bar");
+    indexer.stop();
+
+    assertThat(listener.calledDocIds)
+      .containsExactlyInAnyOrder(new DocId(INDEX_TYPE_FAKE, "foo"), new DocId(INDEX_TYPE_FAKE, "bar"));
+  }
+
+  @Test
+  public void regular_indexing_writes_in_served_index_even_if_index_is_being_rebuilt() {
+    String rebuiltIndex = createRebuiltIndex();
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX_TYPE_FAKE, Size.REGULAR);
+    indexer.start();
+    indexer.add(newIndexRequestWithDocId("foo"));
+    indexer.stop();
+
+    assertThat(count()).isEqualTo(1);
+    assertThat(esTester.countDocuments(rebuiltIndex, INDEX_TYPE_FAKE.getType())).isEqualTo(0);
+  }
+
+  private String createRebuiltIndex() {
+    String rebuiltIndex = IndexRebuild.newPhysicalName(INDEX, 2_000L);
+    esTester.client().nativeClient().admin().indices().prepareCreate(rebuiltIndex)
+      .addAlias(new Alias(IndexRebuild.rebuildAliasOf(INDEX)))
+      .get();
+    return rebuiltIndex;
+  }
+
   private static class FakeListener implements IndexingListener {
     private final List<DocId> calledDocIds = new ArrayList<>();
     private IndexingResult calledResult;
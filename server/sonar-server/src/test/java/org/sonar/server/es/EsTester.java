@@ -56,6 +56,7 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.test.NodeConfigurationSource;
 import org.junit.rules.ExternalResource;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.System2;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.api.utils.log.Loggers;
@@ -160,6 +161,7 @@ public class EsTester extends ExternalResource {
       container.addSingleton(esClient);
       container.addSingleton(IndexDefinitions.class);
       container.addSingleton(IndexCreator.class);
+      container.addSingleton(System2.INSTANCE);
       container.addSingleton(MetadataIndex.class);
       container.addSingleton(MetadataIndexDefinition.class);
       container.addSingleton(TestEsDbCompatibility.class);
@@ -31,6 +31,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.internal.TestSystem2;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.server.es.metadata.MetadataIndex;
 import org.sonar.server.es.metadata.MetadataIndexDefinition;
@@ -55,6 +56,7 @@ public class IndexCreatorTest {
   private MetadataIndex metadataIndex = new MetadataIndex(es.client());
   private TestEsDbCompatibility esDbCompatibility = new TestEsDbCompatibility();
   private MapSettings settings = new MapSettings();
+  private TestSystem2 system2 = new TestSystem2().setNow(1_500_000_000_000L);
 
   @Test
   public void create_index() throws Exception {
@@ -89,7 +91,7 @@ public class IndexCreatorTest {
   }
 
   @Test
-  public void recreate_index_on_definition_changes() throws Exception {
+  public void rebuild_index_on_definition_changes() throws Exception {
     // v1
     startNewCreator(new FakeIndexDefinition());
 
@@ -101,13 +103,18 @@ public class IndexCreatorTest {
     // v2
     startNewCreator(new FakeIndexDefinitionV2());
 
+    // new definition is created in another physical index
+    assertThat(IndexRebuild.getRebuiltIndex(es.client(), "fakes")).contains("fakes_1500000000000");
     ImmutableOpenMap<String, ImmutableOpenMap<String, MappingMetaData>> mappings = mappings();
-    MappingMetaData mapping = mappings.get("fakes").get("fake");
+    MappingMetaData mapping = mappings.get("fakes_1500000000000").get("fake");
     assertThat(countMappingFields(mapping)).isEqualTo(3);
     assertThat(field(mapping, "updatedAt").get("type")).isEqualTo("date");
     assertThat(field(mapping, "newField").get("type")).isEqualTo("integer");
+    assertThat(metadataIndex.getInitialized(fakeIndexType)).isFalse();
 
-    assertThat(es.client().prepareGet(fakeIndexType, id).get().isExists()).isFalse();
+    // existing index is still served until the new one is initialized
+    assertThat(countMappingFields(mappings.get("fakes").get("fake"))).isEqualTo(2);
+    assertThat(es.client().prepareGet(fakeIndexType, id).get().isExists()).isTrue();
   }
 
   @Test
@@ -213,7 +220,7 @@ public class IndexCreatorTest {
   private IndexCreator startNewCreator(IndexDefinition... definitions) {
     IndexDefinitions defs = new IndexDefinitions(definitions, new MapSettings().asConfig());
     defs.start();
-    IndexCreator creator = new IndexCreator(es.client(), defs, metadataIndexDefinition, metadataIndex, esDbCompatibility, settings.asConfig());
+    IndexCreator creator = new IndexCreator(es.client(), defs, metadataIndexDefinition, metadataIndex, esDbCompatibility, settings.asConfig(), system2);
     creator.start();
     return creator;
   }
@@ -20,6 +20,7 @@
 package org.sonar.server.es;
 
 import com.google.common.collect.ImmutableSet;
+import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -27,6 +28,7 @@ import org.mockito.Mockito;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.server.es.metadata.MetadataIndex;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -88,4 +90,26 @@ public class IndexerStartupTaskTest {
     // do not index
     verifyNoMoreInteractions(indexer);
   }
+
+  @Test
+  public void serve_rebuilt_index_once_initialized() throws Exception {
+    es.client().nativeClient().admin().indices().prepareCreate("fakes_1").addAlias(new Alias(IndexRebuild.rebuildAliasOf("fakes"))).get();
+    doReturn(false).doReturn(true).when(metadataIndex).getInitialized(INDEX_TYPE_FAKE);
+
+    underTest.execute();
+
+    verify(indexer).indexOnStartup(Mockito.eq(ImmutableSet.of(INDEX_TYPE_FAKE)));
+    assertThat(IndexRebuild.getRebuiltIndex(es.client(), "fakes")).isEmpty();
+    assertThat(es.client().nativeClient().admin().indices().prepareGetAliases("fakes").get().getAliases().containsKey("fakes_1")).isTrue();
+  }
+
+  @Test
+  public void do_not_serve_rebuilt_index_if_not_initialized() throws Exception {
+    es.client().nativeClient().admin().indices().prepareCreate("fakes_1").addAlias(new Alias(IndexRebuild.rebuildAliasOf("fakes"))).get();
+    doReturn(false).when(metadataIndex).getInitialized(INDEX_TYPE_FAKE);
+
+    underTest.execute();
+
+    assertThat(IndexRebuild.getRebuiltIndex(es.client(), "fakes")).contains("fakes_1");
+  }
 }
@@ -154,6 +154,21 @@ public class IssueIndexTest {
     assertThatFacetHasExactly(IssueQuery.builder(), "projectUuids", entry("ABCD", 2L), entry("EFGH", 1L));
   }
 
+  @Test
+  public void facets_are_computed_on_filtered_projects() {
+    OrganizationDto organizationDto = newOrganizationDto();
+    ComponentDto project = newPrivateProjectDto(organizationDto, "ABCD");
+    ComponentDto project2 = newPrivateProjectDto(organizationDto, "EFGH");
+
+    indexIssues(
+      newDoc("I1", newFileDto(project, null)).setSeverity(Severity.INFO),
+      newDoc("I2", newFileDto(project, null)).setSeverity(Severity.MAJOR),
+      newDoc("I3", newFileDto(project2, null)).setSeverity(Severity.BLOCKER));
+
+    assertThatFacetHasOnly(IssueQuery.builder().projectUuids(asList("ABCD")), "severities", entry("INFO", 1L), entry("MAJOR", 1L));
+    assertThatFacetHasExactly(IssueQuery.builder().projectUuids(asList("ABCD")), "projectUuids", entry("ABCD", 2L), entry("EFGH", 1L));
+  }
+
   @Test
   public void filter_by_modules() {
     ComponentDto project = ComponentTesting.newPrivateProjectDto(newOrganizationDto());
@@ -38,6 +38,7 @@ import org.sonar.api.server.ws.WebService;
 import org.sonar.api.utils.System2;
 import org.sonar.core.issue.DefaultIssue;
 import org.sonar.core.issue.IssueChangeContext;
+import org.sonar.core.util.UuidFactoryFast;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbTester;
 import org.sonar.db.component.ComponentDto;
@@ -65,6 +66,7 @@ import org.sonar.server.organization.TestDefaultOrganizationProvider;
 import org.sonar.server.qualitygate.changeevent.IssueChangeTrigger;
 import org.sonar.server.rule.DefaultRuleFinder;
 import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.user.ThreadLocalUserSession;
 import org.sonar.server.ws.TestRequest;
 import org.sonar.server.ws.WsActionTester;
 import org.sonarqube.ws.Issues.BulkChangeWsResponse;
@@ -129,7 +131,11 @@ public class BulkChangeActionTest {
   private ComponentDto file;
   private UserDto user;
 
-  private WsActionTester tester = new WsActionTester(new BulkChangeAction(system2, userSession, dbClient, issueStorage, notificationManager, actions, issueChangeTrigger));
+  private ThreadLocalUserSession threadLocalUserSession = new ThreadLocalUserSession();
+  private BulkChangeTasks bulkChangeTasks = new BulkChangeTasks(threadLocalUserSession, Runnable::run, UuidFactoryFast.getInstance(), new BulkChangeTaskStandaloneStore());
+
+  private WsActionTester tester = new WsActionTester(new BulkChangeAction(system2, userSession, dbClient, issueStorage, notificationManager, actions, issueChangeTrigger,
+    bulkChangeTasks));
 
   @Before
   public void setUp() throws Exception {
@@ -513,6 +519,49 @@ public class BulkChangeActionTest {
       .build());
   }
 
+  @Test
+  public void execute_bulk_change_in_background_when_async() {
+    setUserProjectPermissions(USER);
+    IssueDto issue1 = db.issues().insertIssue(newUnresolvedIssue().setSeverity(MAJOR));
+    IssueDto issue2 = db.issues().insertIssue(newUnresolvedIssue().setSeverity(MAJOR));
+    threadLocalUserSession.set(userSession);
+
+    BulkChangeWsResponse response = tester.newRequest()
+      .setParam("issues", issue1.getKey() + "," + issue2.getKey())
+      .setParam("set_severity", MINOR)
+      .setParam("async", "true")
+      .executeProtobuf(BulkChangeWsResponse.class);
+
+    assertThat(response.getTaskId()).isNotEmpty();
+    assertThat(response.getStatus()).isEqualTo("SUCCESS");
+    assertThat(response.getProcessed()).isEqualTo(2);
+    checkResponse(response, 2, 2, 0, 0);
+    assertThat(getIssueByKeys(issue1.getKey(), issue2.getKey())).extracting(IssueDto::getSeverity).containsOnly(MINOR);
+    assertThat(bulkChangeTasks.get(user.getLogin(), response.getTaskId()).get().getStatus()).isEqualTo("SUCCESS");
+    assertThat(threadLocalUserSession.hasSession()).isFalse();
+  }
+
+  @Test
+  public void number_of_issues_is_not_limited_when_async() {
+    setUserProjectPermissions(USER);
+    IssueDto issue = db.issues().insertIssue(newUnresolvedIssue().setSeverity(MAJOR));
+    List<String> issueKeys = IntStream.range(0, 510).mapToObj(String::valueOf).collect(Collectors.toList());
+    issueKeys.add(issue.getKey());
+    threadLocalUserSession.set(userSession);
+
+    BulkChangeWsResponse response = tester.newRequest()
+      .setParam("issues", String.join(",", issueKeys))
+      .setParam("set_severity", MINOR)
+      .setParam("async", "true")
+      .executeProtobuf(BulkChangeWsResponse.class);
+
+    assertThat(response.getStatus()).isEqualTo("SUCCESS");
+    assertThat(response.getProcessed()).isEqualTo(511);
+    // total is the number of requested issues, the ones which don't exist are ignored
+    checkResponse(response, 511, 1, 510, 0);
+    assertThat(getIssueByKeys(issue.getKey()).get(0).getSeverity()).isEqualTo(MINOR);
+  }
+
   @Test
   public void fail_when_not_authenticated() throws Exception {
     expectedException.expect(UnauthorizedException.class);
@@ -526,7 +575,7 @@ public class BulkChangeActionTest {
     assertThat(action.key()).isEqualTo("bulk_change");
     assertThat(action.isPost()).isTrue();
     assertThat(action.isInternal()).isFalse();
-    assertThat(action.params()).hasSize(10);
+    assertThat(action.params()).hasSize(11);
     assertThat(action.responseExample()).isNotNull();
   }
 
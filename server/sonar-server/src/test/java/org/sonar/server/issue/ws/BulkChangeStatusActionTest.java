@@ -0,0 +1,177 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.core.util.UuidFactory;
+import org.sonar.core.util.UuidFactoryFast;
+import org.sonar.server.exceptions.NotFoundException;
+import org.sonar.server.exceptions.UnauthorizedException;
+import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.user.ThreadLocalUserSession;
+import org.sonar.server.ws.WsActionTester;
+import org.sonarqube.ws.Issues.BulkChangeWsResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class BulkChangeStatusActionTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+
+  private ThreadLocalUserSession threadLocalUserSession = new ThreadLocalUserSession();
+  private BulkChangeTaskStore store = new BulkChangeTaskStandaloneStore();
+  private BulkChangeTasks bulkChangeTasks = new BulkChangeTasks(threadLocalUserSession, Runnable::run, UuidFactoryFast.getInstance(), store);
+
+  private WsActionTester tester = new WsActionTester(new BulkChangeStatusAction(userSession, bulkChangeTasks));
+
+  @After
+  public void tearDown() {
+    threadLocalUserSession.unload();
+  }
+
+  @Test
+  public void return_progress_of_bulk_change() {
+    userSession.logIn("john");
+    BulkChangeTask task = submit(3, (result, onBatchProcessed) -> {
+      result.onBatchProcessed(3);
+      result.increaseFailure();
+    });
+
+    BulkChangeWsResponse response = call(task.getUuid());
+
+    assertThat(response.getTaskId()).isEqualTo(task.getUuid());
+    assertThat(response.getStatus()).isEqualTo("SUCCESS");
+    assertThat(response.getProcessed()).isEqualTo(3);
+    assertThat(response.getTotal()).isEqualTo(3);
+    assertThat(response.getSuccess()).isEqualTo(0);
+    assertThat(response.getIgnored()).isEqualTo(2);
+    assertThat(response.getFailures()).isEqualTo(1);
+  }
+
+  @Test
+  public void return_failed_status_when_bulk_change_fails() {
+    userSession.logIn("john");
+    BulkChangeTask task = submit(1, (result, onBatchProcessed) -> {
+      throw new IllegalStateException("Boom");
+    });
+
+    assertThat(call(task.getUuid()).getStatus()).isEqualTo("FAILED");
+  }
+
+  @Test
+  public void progress_is_published_after_each_batch() {
+    userSession.logIn("john");
+    List<BulkChangeWsResponse> states = new ArrayList<>();
+    UuidFactory uuidFactory = () -> "TASK_1";
+    bulkChangeTasks = new BulkChangeTasks(threadLocalUserSession, Runnable::run, uuidFactory, store);
+
+    submit(4, (result, onBatchProcessed) -> {
+      for (int i = 0; i < 2; i++) {
+        result.onBatchProcessed(2);
+        onBatchProcessed.run();
+        states.add(call("TASK_1"));
+      }
+    });
+
+    assertThat(states)
+      .extracting(BulkChangeWsResponse::getStatus, BulkChangeWsResponse::getProcessed, BulkChangeWsResponse::getTotal)
+      .containsExactly(tuple("IN_PROGRESS", 2L, 4L), tuple("IN_PROGRESS", 4L, 4L));
+    assertThat(call("TASK_1").getStatus()).isEqualTo("SUCCESS");
+  }
+
+  @Test
+  public void progress_can_be_requested_to_another_node_sharing_the_store() {
+    userSession.logIn("john");
+    BulkChangeTask task = submit(1, (result, onBatchProcessed) -> result.onBatchProcessed(1));
+    BulkChangeTasks otherNode = new BulkChangeTasks(new ThreadLocalUserSession(), Runnable::run, UuidFactoryFast.getInstance(), store);
+    WsActionTester otherNodeTester = new WsActionTester(new BulkChangeStatusAction(userSession, otherNode));
+
+    BulkChangeWsResponse response = otherNodeTester.newRequest()
+      .setParam("taskId", task.getUuid())
+      .executeProtobuf(BulkChangeWsResponse.class);
+
+    assertThat(response.getStatus()).isEqualTo("SUCCESS");
+    assertThat(response.getProcessed()).isEqualTo(1);
+  }
+
+  @Test
+  public void fail_when_task_belongs_to_another_user() {
+    userSession.logIn("john");
+    BulkChangeTask task = submit(1, (result, onBatchProcessed) -> {
+    });
+    userSession.logIn("jane");
+
+    expectedException.expect(NotFoundException.class);
+    expectedException.expectMessage("Bulk change '" + task.getUuid() + "' not found");
+
+    call(task.getUuid());
+  }
+
+  @Test
+  public void fail_when_task_does_not_exist() {
+    userSession.logIn("john");
+
+    expectedException.expect(NotFoundException.class);
+    expectedException.expectMessage("Bulk change 'unknown' not found");
+
+    call("unknown");
+  }
+
+  @Test
+  public void fail_when_not_authenticated() {
+    expectedException.expect(UnauthorizedException.class);
+
+    call("unknown");
+  }
+
+  @Test
+  public void test_definition() {
+    WebService.Action action = tester.getDef();
+    assertThat(action.key()).isEqualTo("bulk_change_status");
+    assertThat(action.isInternal()).isTrue();
+    assertThat(action.isPost()).isFalse();
+    assertThat(action.since()).isEqualTo("7.0");
+    assertThat(action.params()).extracting(WebService.Param::key).containsOnly("taskId");
+    assertThat(action.responseExample()).isNotNull();
+  }
+
+  private BulkChangeTask submit(int requestedIssues, BiConsumer<BulkChangeResult, Runnable> bulkChange) {
+    threadLocalUserSession.set(userSession);
+    BulkChangeResult result = BulkChangeResult.ofRequestedIssues(requestedIssues);
+    return bulkChangeTasks.submit(result, onBatchProcessed -> bulkChange.accept(result, onBatchProcessed));
+  }
+
+  private BulkChangeWsResponse call(String taskId) {
+    return tester.newRequest()
+      .setParam("taskId", taskId)
+      .executeProtobuf(BulkChangeWsResponse.class);
+  }
+}
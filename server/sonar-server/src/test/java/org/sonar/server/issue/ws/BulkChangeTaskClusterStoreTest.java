@@ -0,0 +1,54 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.Map;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonar.process.cluster.hz.HazelcastMember;
+import org.sonarqube.ws.Issues.BulkChangeWsResponse;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkChangeTaskClusterStoreTest {
+
+  private Map<String, byte[]> map = mock(Map.class);
+  private HazelcastMember hazelcastMember = mock(HazelcastMember.class);
+  private BulkChangeTaskClusterStore underTest = new BulkChangeTaskClusterStore(hazelcastMember);
+
+  @Test
+  public void states_are_shared_as_serialized_protobuf_and_expire() {
+    when(hazelcastMember.<String, byte[]>getMap("BULK_CHANGE_TASKS")).thenReturn(map);
+    BulkChangeWsResponse state = BulkChangeWsResponse.newBuilder().setTaskId("TASK_1").setStatus("IN_PROGRESS").setProcessed(5).build();
+
+    underTest.put("john", state);
+
+    ArgumentCaptor<byte[]> bytes = ArgumentCaptor.forClass(byte[].class);
+    verify(hazelcastMember).putInMap(eq("BULK_CHANGE_TASKS"), eq("john:TASK_1"), bytes.capture(), eq(1L), eq(HOURS));
+    when(map.get("john:TASK_1")).thenReturn(bytes.getValue());
+    assertThat(underTest.get("john", "TASK_1")).contains(state);
+    assertThat(underTest.get("jane", "TASK_1")).isEmpty();
+  }
+}
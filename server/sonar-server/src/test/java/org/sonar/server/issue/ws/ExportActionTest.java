@@ -0,0 +1,203 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import com.google.common.collect.Lists;
+import java.time.Clock;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.resources.Languages;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.Durations;
+import org.sonar.api.utils.System2;
+import org.sonar.core.util.Protobuf;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.issue.IssueDto;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.server.es.EsTester;
+import org.sonar.server.issue.IssueFieldsSetter;
+import org.sonar.server.issue.IssueQueryFactory;
+import org.sonar.server.issue.TransitionService;
+import org.sonar.server.issue.index.IssueIndex;
+import org.sonar.server.issue.index.IssueIndexDefinition;
+import org.sonar.server.issue.index.IssueIndexer;
+import org.sonar.server.issue.index.IssueIteratorFactory;
+import org.sonar.server.issue.workflow.FunctionExecutor;
+import org.sonar.server.issue.workflow.IssueWorkflow;
+import org.sonar.server.permission.index.AuthorizationTypeSupport;
+import org.sonar.server.permission.index.PermissionIndexerTester;
+import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.ws.TestRequest;
+import org.sonar.server.ws.WsActionTester;
+import org.sonar.server.ws.WsResponseCommonFormat;
+import org.sonarqube.ws.Issues.Issue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.api.issue.Issue.STATUS_CLOSED;
+import static org.sonar.api.issue.Issue.STATUS_OPEN;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_COMPONENT_KEYS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_STATUSES;
+
+public class ExportActionTest {
+
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+  @Rule
+  public DbTester db = DbTester.create();
+  @Rule
+  public EsTester es = new EsTester(new IssueIndexDefinition(new MapSettings().asConfig()));
+
+  private DbClient dbClient = db.getDbClient();
+  private IssueIndex issueIndex = new IssueIndex(es.client(), System2.INSTANCE, userSession, new AuthorizationTypeSupport(userSession));
+  private IssueIndexer issueIndexer = new IssueIndexer(es.client(), dbClient, new IssueIteratorFactory(dbClient));
+  private IssueQueryFactory issueQueryFactory = new IssueQueryFactory(dbClient, Clock.systemUTC(), userSession);
+  private IssueFieldsSetter issueFieldsSetter = new IssueFieldsSetter();
+  private IssueWorkflow issueWorkflow = new IssueWorkflow(new FunctionExecutor(issueFieldsSetter), issueFieldsSetter);
+  private SearchResponseLoader searchResponseLoader = new SearchResponseLoader(userSession, dbClient, new TransitionService(userSession, issueWorkflow),
+    new SearchResponseCache(), new SearchResponseLoaderExecutorServiceImpl(new MapSettings().asConfig()));
+  private Languages languages = new Languages();
+  private SearchResponseFormat searchResponseFormat = new SearchResponseFormat(new Durations(), new WsResponseCommonFormat(languages), languages, new AvatarResolverImpl());
+  private PermissionIndexerTester permissionIndexer = new PermissionIndexerTester(es, issueIndexer);
+
+  private WsActionTester ws = new WsActionTester(new ExportAction(issueQueryFactory, issueIndex, searchResponseLoader, searchResponseFormat));
+
+  @Test
+  public void definition() {
+    WebService.Action definition = ws.getDef();
+
+    assertThat(definition.key()).isEqualTo("export");
+    assertThat(definition.since()).isEqualTo("7.0");
+    assertThat(definition.isInternal()).isTrue();
+    assertThat(definition.isPost()).isFalse();
+    assertThat(definition.params()).extracting(WebService.Param::key).containsOnly("componentKeys", "branch", "organization", "severities", "statuses",
+      "resolutions", "resolved", "rules", "tags", "types", "createdAfter", "createdBefore");
+  }
+
+  @Test
+  public void export_issues_of_projects_the_user_can_browse() {
+    RuleDefinitionDto rule = db.rules().insert();
+    ComponentDto project = db.components().insertPublicProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    IssueDto issue = db.issues().insert(rule, project, file);
+    ComponentDto privateProject = db.components().insertPrivateProject();
+    ComponentDto privateFile = db.components().insertComponent(newFileDto(privateProject));
+    db.issues().insert(rule, privateProject, privateFile);
+    permissionIndexer.allowOnlyAnyone(project);
+    indexIssues();
+
+    List<Issue> issues = call(ws.newRequest());
+
+    assertThat(issues).extracting(Issue::getKey, Issue::getComponent, Issue::getProject, Issue::getRule)
+      .containsExactlyInAnyOrder(tuple(issue.getKey(), file.getKey(), project.getKey(), rule.getKey().toString()));
+  }
+
+  @Test
+  public void export_more_issues_than_batch_size() {
+    RuleDefinitionDto rule = db.rules().insert();
+    ComponentDto project = db.components().insertPublicProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    IntStream.rangeClosed(1, ExportAction.BATCH_SIZE + 1).forEach(i -> db.issues().insert(rule, project, file));
+    permissionIndexer.allowOnlyAnyone(project);
+    indexIssues();
+
+    List<Issue> issues = call(ws.newRequest());
+
+    assertThat(issues).hasSize(ExportAction.BATCH_SIZE + 1);
+    assertThat(issues).extracting(Issue::getKey).doesNotHaveDuplicates();
+  }
+
+  @Test
+  public void release_scroll_when_all_issues_are_exported() {
+    RuleDefinitionDto rule = db.rules().insert();
+    ComponentDto project = db.components().insertPublicProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    IntStream.rangeClosed(1, ExportAction.BATCH_SIZE + 1).forEach(i -> db.issues().insert(rule, project, file));
+    permissionIndexer.allowOnlyAnyone(project);
+    indexIssues();
+
+    call(ws.newRequest());
+
+    assertThat(openSearchContexts()).isEqualTo(0);
+  }
+
+  @Test
+  public void release_scroll_when_export_fails() {
+    RuleDefinitionDto rule = db.rules().insert();
+    ComponentDto project = db.components().insertPublicProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    IntStream.rangeClosed(1, ExportAction.BATCH_SIZE + 1).forEach(i -> db.issues().insert(rule, project, file));
+    permissionIndexer.allowOnlyAnyone(project);
+    indexIssues();
+    SearchResponseLoader failingLoader = mock(SearchResponseLoader.class);
+    when(failingLoader.load(any(SearchResponseLoader.Collector.class), any())).thenThrow(new IllegalStateException("database is down"));
+    WsActionTester failingWs = new WsActionTester(new ExportAction(issueQueryFactory, issueIndex, failingLoader, searchResponseFormat));
+
+    try {
+      failingWs.newRequest().execute();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("database is down");
+    }
+    assertThat(openSearchContexts()).isEqualTo(0);
+  }
+
+  @Test
+  public void filter_by_component_and_status() {
+    RuleDefinitionDto rule = db.rules().insert();
+    ComponentDto project = db.components().insertPublicProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    IssueDto openIssue = db.issues().insert(rule, project, file, i -> i.setStatus(STATUS_OPEN).setResolution(null));
+    db.issues().insert(rule, project, file, i -> i.setStatus(STATUS_CLOSED).setResolution("FIXED"));
+    ComponentDto otherProject = db.components().insertPublicProject();
+    ComponentDto otherFile = db.components().insertComponent(newFileDto(otherProject));
+    db.issues().insert(rule, otherProject, otherFile, i -> i.setStatus(STATUS_OPEN).setResolution(null));
+    permissionIndexer.allowOnlyAnyone(project).allowOnlyAnyone(otherProject);
+    indexIssues();
+
+    List<Issue> issues = call(ws.newRequest()
+      .setParam(PARAM_COMPONENT_KEYS, project.getKey())
+      .setParam(PARAM_STATUSES, STATUS_OPEN));
+
+    assertThat(issues).extracting(Issue::getKey).containsExactly(openIssue.getKey());
+  }
+
+  private static List<Issue> call(TestRequest request) {
+    return Lists.newArrayList(Protobuf.readStream(request.execute().getInputStream(), Issue.parser()));
+  }
+
+  private void indexIssues() {
+    issueIndexer.indexOnStartup(null);
+  }
+
+  private long openSearchContexts() {
+    return es.client().nativeClient().admin().indices().prepareStats().setSearch(true).get().getTotal().getSearch().getOpenContexts();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.db.user.UserDto;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.rule.RuleTesting.newRule;
+import static org.sonar.db.user.UserTesting.newUserDto;
+
+public class SearchResponseCacheTest {
+
+  private static final RuleKey RULE_KEY_1 = RuleKey.of("java", "S001");
+  private static final RuleKey RULE_KEY_2 = RuleKey.of("java", "S002");
+
+  private SearchResponseCache underTest = new SearchResponseCache();
+
+  @Test
+  public void getRules_loads_only_rules_which_are_not_in_cache() {
+    RuleDefinitionDto rule1 = newRule(RULE_KEY_1);
+    RuleDefinitionDto rule2 = newRule(RULE_KEY_2);
+    List<Set<RuleKey>> loadedKeys = new ArrayList<>();
+
+    assertThat(underTest.getRules(of(RULE_KEY_1), keys -> {
+      loadedKeys.add(keys);
+      return singletonList(rule1);
+    })).containsOnly(rule1);
+    assertThat(underTest.getRules(of(RULE_KEY_1, RULE_KEY_2), keys -> {
+      loadedKeys.add(keys);
+      return singletonList(rule2);
+    })).containsOnly(rule1, rule2);
+
+    assertThat(loadedKeys).containsExactly(of(RULE_KEY_1), of(RULE_KEY_2));
+  }
+
+  @Test
+  public void getUsers_does_not_call_loader_when_all_users_are_in_cache() {
+    UserDto user1 = newUserDto();
+    UserDto user2 = newUserDto();
+    underTest.getUsers(of(user1.getLogin(), user2.getLogin()), logins -> asList(user1, user2));
+
+    List<UserDto> users = underTest.getUsers(of(user1.getLogin(), user2.getLogin()), logins -> {
+      throw new IllegalStateException("Users should be read from cache");
+    });
+
+    assertThat(users).containsOnly(user1, user2);
+  }
+
+  @Test
+  public void getUsers_ignores_unknown_logins() {
+    UserDto user = newUserDto();
+
+    List<UserDto> users = underTest.getUsers(of(user.getLogin(), "unknown"), logins -> singletonList(user));
+
+    assertThat(users).containsOnly(user);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.config.internal.MapSettings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchResponseLoaderExecutorServiceImplTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private MapSettings settings = new MapSettings();
+  private SearchResponseLoaderExecutorServiceImpl underTest;
+
+  @After
+  public void tearDown() {
+    if (underTest != null) {
+      underTest.stop();
+    }
+  }
+
+  @Test
+  public void thread_count_is_configurable() {
+    settings.setProperty(SearchResponseLoaderExecutorServiceImpl.PROPERTY_THREAD_COUNT, 2);
+
+    underTest = new SearchResponseLoaderExecutorServiceImpl(settings.asConfig());
+
+    assertThat(underTest.getThreadPool().getMaximumPoolSize()).isEqualTo(2);
+    assertThat(underTest.getThreadPool().getQueue().remainingCapacity()).isEqualTo(4);
+  }
+
+  @Test
+  public void default_thread_count_is_4() {
+    underTest = new SearchResponseLoaderExecutorServiceImpl(settings.asConfig());
+
+    assertThat(underTest.getThreadPool().getMaximumPoolSize()).isEqualTo(SearchResponseLoaderExecutorServiceImpl.DEFAULT_THREAD_COUNT);
+  }
+
+  @Test
+  public void fail_if_thread_count_is_not_positive() {
+    settings.setProperty(SearchResponseLoaderExecutorServiceImpl.PROPERTY_THREAD_COUNT, 0);
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Property sonar.web.issuesSearchLoader.threads must be strictly positive. Got 0");
+
+    new SearchResponseLoaderExecutorServiceImpl(settings.asConfig());
+  }
+
+  @Test
+  public void tasks_are_executed_by_calling_thread_when_queue_is_full() throws Exception {
+    settings.setProperty(SearchResponseLoaderExecutorServiceImpl.PROPERTY_THREAD_COUNT, 1);
+    underTest = new SearchResponseLoaderExecutorServiceImpl(settings.asConfig());
+    CountDownLatch blocker = new CountDownLatch(1);
+    // one running task and two pending tasks saturate the pool
+    for (int i = 0; i < 3; i++) {
+      underTest.submit(() -> {
+        blocker.await();
+        return null;
+      });
+    }
+
+    Future<Thread> future = underTest.submit(Thread::currentThread);
+
+    assertThat(future.isDone()).isTrue();
+    assertThat(future.get()).isSameAs(Thread.currentThread());
+    blocker.countDown();
+  }
+
+  @Test
+  public void tasks_are_rejected_once_pool_is_shut_down() {
+    underTest = new SearchResponseLoaderExecutorServiceImpl(settings.asConfig());
+    underTest.stop();
+
+    expectedException.expect(RejectedExecutionException.class);
+    expectedException.expectMessage("Pool of loaders of issues search responses is shut down");
+
+    underTest.submit(Thread::currentThread);
+  }
+}
@@ -380,6 +380,21 @@ public class ProjectMeasuresIndexTest {
     assertResults(query, PROJECT1, PROJECT3);
   }
 
+  @Test
+  public void facets_are_computed_on_filtered_ids() {
+    index(
+      newDoc(PROJECT1).setLanguages(singletonList("java")),
+      newDoc(PROJECT2).setLanguages(singletonList("java")),
+      newDoc(PROJECT3).setLanguages(asList("java", "xoo")));
+
+    ProjectMeasuresQuery query = new ProjectMeasuresQuery().setProjectUuids(newHashSet(PROJECT1.uuid(), PROJECT3.uuid()));
+    Facets facets = underTest.search(query, new SearchOptions().addFacets(LANGUAGES)).getFacets();
+
+    assertThat(facets.get(LANGUAGES)).containsOnly(
+      entry("java", 2L),
+      entry("xoo", 1L));
+  }
+
   @Test
   public void filter_on_tags() {
     index(
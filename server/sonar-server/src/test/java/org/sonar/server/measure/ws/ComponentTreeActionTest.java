@@ -25,6 +25,7 @@ import java.util.stream.IntStream;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.measures.Metric;
 import org.sonar.api.server.ws.WebService.Param;
 import org.sonar.api.utils.System2;
@@ -112,7 +113,7 @@ public class ComponentTreeActionTest {
   private WsActionTester ws = new WsActionTester(
     new ComponentTreeAction(
       dbClient, new ComponentFinder(dbClient, resourceTypes), userSession,
-      i18n, resourceTypes));
+      i18n, resourceTypes, new ComponentTreeMatrixCache(dbClient, new MapSettings().asConfig())));
 
   @Test
   public void json_example() {
@@ -0,0 +1,132 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.ws;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.metric.MetricDto;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+
+public class ComponentTreeMatrixCacheTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private MapSettings settings = new MapSettings();
+
+  @Test
+  public void matrix_is_kept_until_next_analysis() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    ComponentTreeMatrixCache underTest = new ComponentTreeMatrixCache(db.getDbClient(), settings.asConfig());
+
+    ComponentTreeMatrix matrix = underTest.get(db.getSession(), file, "A1").get();
+
+    assertThat(matrix.getAnalysisUuid()).isEqualTo("A1");
+    assertThat(underTest.get(db.getSession(), project, "A1").get()).isSameAs(matrix);
+    assertThat(underTest.size()).isEqualTo(1);
+
+    ComponentTreeMatrix matrixOfNextAnalysis = underTest.get(db.getSession(), project, "A2").get();
+
+    assertThat(matrixOfNextAnalysis).isNotSameAs(matrix);
+    assertThat(matrixOfNextAnalysis.getAnalysisUuid()).isEqualTo("A2");
+    assertThat(underTest.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void matrix_as_big_as_the_cache_is_kept() {
+    ComponentDto project = db.components().insertPrivateProject();
+    db.components().insertComponent(newFileDto(project));
+    db.components().insertComponent(newFileDto(project));
+    db.components().insertComponent(newFileDto(project));
+    ComponentTreeMatrixCache underTest = new ComponentTreeMatrixCache(db.getDbClient(), settings.asConfig(), 4);
+
+    ComponentTreeMatrix matrix = underTest.get(db.getSession(), project, "A1").get();
+
+    assertThat(underTest.size()).isEqualTo(1);
+    assertThat(underTest.get(db.getSession(), project, "A1").get()).isSameAs(matrix);
+  }
+
+  @Test
+  public void matrix_bigger_than_the_cache_is_not_kept() {
+    ComponentDto project = db.components().insertPrivateProject();
+    db.components().insertComponent(newFileDto(project));
+    db.components().insertComponent(newFileDto(project));
+    ComponentTreeMatrixCache underTest = new ComponentTreeMatrixCache(db.getDbClient(), settings.asConfig(), 2);
+
+    assertThat(underTest.get(db.getSession(), project, "A1").get().size()).isEqualTo(3);
+
+    assertThat(underTest.size()).isZero();
+    assertThat(underTest.get(db.getSession(), project, "A1")).isEmpty();
+    assertThat(underTest.get(db.getSession(), project, "A2")).isPresent();
+  }
+
+  @Test
+  public void loaded_measures_are_weighed() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    MetricDto ncloc = db.measures().insertMetric();
+    MetricDto coverage = db.measures().insertMetric();
+    db.measures().insertLiveMeasure(project, ncloc);
+    db.measures().insertLiveMeasure(file, ncloc);
+    db.measures().insertLiveMeasure(file, coverage);
+    ComponentTreeMatrixCache underTest = new ComponentTreeMatrixCache(db.getDbClient(), settings.asConfig(), 4);
+    ComponentTreeMatrix matrix = underTest.get(db.getSession(), project, "A1").get();
+
+    underTest.loadMeasures(db.getSession(), matrix, singletonList(ncloc.getId()));
+
+    assertThat(underTest.weight()).isEqualTo(4);
+    assertThat(underTest.get(db.getSession(), project, "A1").get()).isSameAs(matrix);
+
+    underTest.loadMeasures(db.getSession(), matrix, singletonList(coverage.getId()));
+
+    assertThat(underTest.size()).isZero();
+    assertThat(underTest.get(db.getSession(), project, "A1")).isEmpty();
+  }
+
+  @Test
+  public void invalidateAll_removes_all_matrices() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentTreeMatrixCache underTest = new ComponentTreeMatrixCache(db.getDbClient(), settings.asConfig());
+    ComponentTreeMatrix matrix = underTest.get(db.getSession(), project, "A1").get();
+
+    underTest.invalidateAll();
+
+    assertThat(underTest.size()).isZero();
+    assertThat(underTest.get(db.getSession(), project, "A1").get()).isNotSameAs(matrix);
+  }
+
+  @Test
+  public void cache_is_disabled_when_ttl_is_zero() {
+    settings.setProperty(ComponentTreeMatrixCache.PROPERTY_TTL_IN_SECONDS, 0);
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentTreeMatrixCache underTest = new ComponentTreeMatrixCache(db.getDbClient(), settings.asConfig());
+
+    assertThat(underTest.get(db.getSession(), project, "A1")).isEmpty();
+    assertThat(underTest.size()).isZero();
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.measure.ws;
+
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.component.ComponentTreeQuery;
+import org.sonar.db.metric.MetricDto;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.api.resources.Qualifiers.FILE;
+import static org.sonar.db.component.ComponentTesting.newDirectory;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+import static org.sonar.db.component.ComponentTesting.newModuleDto;
+import static org.sonar.db.component.ComponentTreeQuery.Strategy.CHILDREN;
+import static org.sonar.db.component.ComponentTreeQuery.Strategy.LEAVES;
+
+public class ComponentTreeMatrixTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private ComponentDto project = db.components().insertPrivateProject();
+  private ComponentDto module = db.components().insertComponent(newModuleDto(project));
+  private ComponentDto directory = db.components().insertComponent(newDirectory(module, "src"));
+  private ComponentDto file1 = db.components().insertComponent(newFileDto(module, directory).setName("Foo.java"));
+  private ComponentDto file2 = db.components().insertComponent(newFileDto(project).setName("Bar.java"));
+
+  @Test
+  public void select_children() {
+    ComponentTreeMatrix underTest = ComponentTreeMatrix.load(db.getDbClient(), db.getSession(), "A1", project);
+
+    assertThat(underTest.selectDescendants(project, query(project, CHILDREN))).containsOnly(module, file2);
+    assertThat(underTest.selectDescendants(module, query(module, CHILDREN))).containsOnly(directory);
+    assertThat(underTest.selectDescendants(file1, query(file1, CHILDREN))).isEmpty();
+  }
+
+  @Test
+  public void select_all_descendants() {
+    ComponentTreeMatrix underTest = ComponentTreeMatrix.load(db.getDbClient(), db.getSession(), "A1", project);
+
+    assertThat(underTest.size()).isEqualTo(5);
+    assertThat(underTest.selectDescendants(project, query(project, LEAVES))).containsOnly(module, directory, file1, file2);
+    assertThat(underTest.selectDescendants(module, query(module, LEAVES))).containsOnly(directory, file1);
+    assertThat(underTest.selectDescendants(directory, query(directory, LEAVES))).containsOnly(file1);
+  }
+
+  @Test
+  public void filter_descendants_by_qualifier_name_or_key() {
+    ComponentTreeMatrix underTest = ComponentTreeMatrix.load(db.getDbClient(), db.getSession(), "A1", project);
+
+    assertThat(underTest.selectDescendants(project, ComponentTreeQuery.builder().setBaseUuid(project.uuid()).setStrategy(LEAVES)
+      .setQualifiers(singletonList(FILE)).build())).containsOnly(file1, file2);
+    assertThat(underTest.selectDescendants(project, ComponentTreeQuery.builder().setBaseUuid(project.uuid()).setStrategy(LEAVES)
+      .setNameOrKeyQuery("foo").build())).containsOnly(file1);
+    assertThat(underTest.selectDescendants(project, ComponentTreeQuery.builder().setBaseUuid(project.uuid()).setStrategy(LEAVES)
+      .setNameOrKeyQuery(file2.getDbKey()).build())).containsOnly(file2);
+  }
+
+  @Test
+  public void load_measures_of_requested_metrics() {
+    MetricDto ncloc = db.measures().insertMetric();
+    MetricDto coverage = db.measures().insertMetric();
+    db.measures().insertLiveMeasure(project, ncloc, m -> m.setValue(10d));
+    db.measures().insertLiveMeasure(file1, ncloc, m -> m.setValue(4d));
+    db.measures().insertLiveMeasure(file1, coverage, m -> m.setValue(80d));
+    ComponentTreeMatrix underTest = ComponentTreeMatrix.load(db.getDbClient(), db.getSession(), "A1", project);
+
+    assertThat(underTest.loadMeasures(db.getDbClient(), db.getSession(), singletonList(ncloc.getId()))).isTrue();
+
+    assertThat(underTest.weight()).isEqualTo(5 + 2);
+    assertThat(underTest.getMeasure(ncloc.getId(), project.uuid()).getValue()).isEqualTo(10d);
+    assertThat(underTest.getMeasure(ncloc.getId(), file1.uuid()).getValue()).isEqualTo(4d);
+    assertThat(underTest.getMeasure(ncloc.getId(), file2.uuid())).isNull();
+    assertThat(underTest.getMeasure(coverage.getId(), file1.uuid())).isNull();
+
+    assertThat(underTest.loadMeasures(db.getDbClient(), db.getSession(), Arrays.asList(ncloc.getId(), coverage.getId()))).isTrue();
+    assertThat(underTest.loadMeasures(db.getDbClient(), db.getSession(), singletonList(coverage.getId()))).isFalse();
+
+    assertThat(underTest.weight()).isEqualTo(5 + 3);
+    assertThat(underTest.getMeasure(coverage.getId(), file1.uuid()).getValue()).isEqualTo(80d);
+  }
+
+  private static ComponentTreeQuery query(ComponentDto base, ComponentTreeQuery.Strategy strategy) {
+    return ComponentTreeQuery.builder().setBaseUuid(base.uuid()).setStrategy(strategy).build();
+  }
+}
@@ -36,7 +36,7 @@ public class DefaultMetricFinderTest {
   @Rule
   public DbTester db = DbTester.create(System2.INSTANCE);
 
-  private DefaultMetricFinder underTest = new DefaultMetricFinder(db.getDbClient());
+  private DefaultMetricFinder underTest = new DefaultMetricFinder(db.getDbClient(), new MetricsCache(db.getDbClient()));
 
   @Test
   public void findAll_enabled() {
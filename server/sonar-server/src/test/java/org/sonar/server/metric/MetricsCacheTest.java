@@ -0,0 +1,73 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.metric;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.metric.MetricDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.metric.MetricTesting.newMetricDto;
+
+public class MetricsCacheTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private DbSession dbSession = db.getSession();
+  private MetricsCache underTest = new MetricsCache(db.getDbClient());
+
+  @Test
+  public void load_enabled_metrics() {
+    MetricDto metric1 = db.getDbClient().metricDao().insert(dbSession, newMetricDto());
+    MetricDto metric2 = db.getDbClient().metricDao().insert(dbSession, newMetricDto());
+    MetricDto disabled = db.getDbClient().metricDao().insert(dbSession, newMetricDto().setEnabled(false));
+    db.commit();
+
+    MetricsCache.Snapshot snapshot = underTest.get(dbSession);
+
+    assertThat(snapshot.getAll()).extracting(MetricDto::getKey).containsExactlyInAnyOrder(metric1.getKey(), metric2.getKey());
+    assertThat(snapshot.getById(metric2.getId()).getKey()).isEqualTo(metric2.getKey());
+    assertThat(snapshot.getById(disabled.getId())).isNull();
+    assertThat(snapshot.getByKey(metric1.getKey()).getId()).isEqualTo(metric1.getId());
+    assertThat(snapshot.getByKey(disabled.getKey())).isNull();
+  }
+
+  @Test
+  public void metrics_are_loaded_again_only_when_they_are_invalidated() {
+    MetricDto metric1 = db.getDbClient().metricDao().insert(dbSession, newMetricDto());
+    db.commit();
+    MetricsCache.Snapshot snapshot = underTest.get(dbSession);
+
+    MetricDto metric2 = db.getDbClient().metricDao().insert(dbSession, newMetricDto());
+    db.commit();
+    assertThat(underTest.get(dbSession)).isSameAs(snapshot);
+
+    MetricsCache.invalidate(db.getDbClient(), dbSession);
+    db.commit();
+    MetricsCache.Snapshot reloaded = underTest.get(dbSession);
+
+    assertThat(reloaded).isNotSameAs(snapshot);
+    assertThat(reloaded.getAll()).extracting(MetricDto::getKey).containsExactlyInAnyOrder(metric1.getKey(), metric2.getKey());
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform;
+
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.core.platform.ComponentContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StartupProfilerTest {
+
+  private System2 system2 = mock(System2.class);
+  private StartupProfiler underTest = new StartupProfiler(system2);
+
+  @Test
+  public void levels_are_kept_in_start_order() {
+    underTest.addLevel("level1", 20L);
+    underTest.addLevel("level2", 10L);
+
+    assertThat(underTest.getLevelDurations()).containsExactly(entry("level1", 20L), entry("level2", 10L));
+  }
+
+  @Test
+  public void slowest_components_first() {
+    underTest.addComponent(String.class, 10L);
+    underTest.addComponent(Integer.class, 30L);
+    underTest.addComponent(Long.class, 20L);
+
+    assertThat(underTest.getSlowestComponents(2)).containsExactly(entry("java.lang.Integer", 30L), entry("java.lang.Long", 20L));
+  }
+
+  @Test
+  public void keep_last_start_of_component() {
+    underTest.addComponent(String.class, 10L);
+    underTest.addComponent(String.class, 5L);
+
+    assertThat(underTest.getSlowestComponents(10)).containsExactly(entry("java.lang.String", 5L));
+  }
+
+  @Test
+  public void profile_start_of_level() {
+    when(system2.now()).thenReturn(1_000L, 1_250L);
+    boolean[] started = {false};
+
+    underTest.profileLevel("level1", () -> started[0] = true);
+
+    assertThat(started[0]).isTrue();
+    assertThat(underTest.getLevelDurations()).containsExactly(entry("level1", 250L));
+  }
+
+  @Test
+  public void profile_start_of_component() {
+    when(system2.now()).thenReturn(1_000L, 1_040L);
+    boolean[] started = {false};
+
+    underTest.profileComponent(String.class, () -> started[0] = true);
+
+    assertThat(started[0]).isTrue();
+    assertThat(underTest.getSlowestComponents(10)).containsExactly(entry("java.lang.String", 40L));
+  }
+
+  @Test
+  public void record_start_of_components_of_container() {
+    ComponentContainer container = new ComponentContainer(monitor -> new StartupProfilingLifecycleStrategy(monitor, underTest));
+    container.add(FakeComponent.class);
+    container.createChild().add(OtherFakeComponent.class);
+
+    container.startComponents();
+
+    assertThat(underTest.getSlowestComponents(10)).extracting(entry -> entry.getKey())
+      .containsOnly(FakeComponent.class.getName(), OtherFakeComponent.class.getName());
+  }
+
+  public static class FakeComponent {
+    public void start() {
+      // nothing to do
+    }
+  }
+
+  public static class OtherFakeComponent {
+    public void start() {
+      // nothing to do
+    }
+  }
+}
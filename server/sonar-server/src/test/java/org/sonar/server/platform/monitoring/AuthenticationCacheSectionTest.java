@@ -0,0 +1,71 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import com.google.common.cache.CacheStats;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.authentication.AuthenticatedUserCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.server.platform.monitoring.SystemInfoTesting.assertThatAttributeIs;
+
+public class AuthenticationCacheSectionTest {
+
+  private AuthenticatedUserCache authenticatedUserCache = mock(AuthenticatedUserCache.class);
+  private AuthenticationCacheSection underTest = new AuthenticationCacheSection(authenticatedUserCache);
+
+  @Before
+  public void setUp() {
+    when(authenticatedUserCache.getUserStats()).thenReturn(new CacheStats(0, 0, 0, 0, 0, 0));
+    when(authenticatedUserCache.getTokenStats()).thenReturn(new CacheStats(0, 0, 0, 0, 0, 0));
+  }
+
+  @Test
+  public void name() {
+    assertThat(underTest.toProtobuf().getName()).isEqualTo("Web Authentication Cache");
+  }
+
+  @Test
+  public void cache_sizes_and_statistics() {
+    when(authenticatedUserCache.isEnabled()).thenReturn(true);
+    when(authenticatedUserCache.getTtlInSeconds()).thenReturn(30L);
+    when(authenticatedUserCache.getUserEntries()).thenReturn(12L);
+    when(authenticatedUserCache.getUserStats()).thenReturn(new CacheStats(30, 10, 0, 0, 0, 0));
+    when(authenticatedUserCache.getTokenEntries()).thenReturn(5L);
+    when(authenticatedUserCache.getTokenStats()).thenReturn(new CacheStats(1, 3, 0, 0, 0, 0));
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThatAttributeIs(section, "Enabled", true);
+    assertThatAttributeIs(section, "Time To Live (seconds)", 30L);
+    assertThatAttributeIs(section, "User Entries", 12L);
+    assertThatAttributeIs(section, "User Hits", 30L);
+    assertThatAttributeIs(section, "User Misses", 10L);
+    assertThatAttributeIs(section, "User Hit Rate", "75.00%");
+    assertThatAttributeIs(section, "Token Entries", 5L);
+    assertThatAttributeIs(section, "Token Hits", 1L);
+    assertThatAttributeIs(section, "Token Misses", 3L);
+    assertThatAttributeIs(section, "Token Hit Rate", "25.00%");
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import com.google.common.cache.CacheStats;
+import org.junit.Test;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.source.SourceCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.server.platform.monitoring.SystemInfoTesting.assertThatAttributeIs;
+
+public class SourceCacheSectionTest {
+
+  private SourceCache sourceCache = mock(SourceCache.class);
+  private SourceCacheSection underTest = new SourceCacheSection(sourceCache);
+
+  @Test
+  public void name() {
+    when(sourceCache.getStats()).thenReturn(new CacheStats(0, 0, 0, 0, 0, 0));
+
+    assertThat(underTest.toProtobuf().getName()).isEqualTo("Web Source Cache");
+  }
+
+  @Test
+  public void cache_size_and_statistics() {
+    when(sourceCache.isEnabled()).thenReturn(true);
+    when(sourceCache.getMaxSizeInBytes()).thenReturn(50L * 1024 * 1024);
+    when(sourceCache.getEntries()).thenReturn(12L);
+    when(sourceCache.getStats()).thenReturn(new CacheStats(30, 10, 10, 0, 0, 2));
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThatAttributeIs(section, "Enabled", true);
+    assertThatAttributeIs(section, "Max Size (MB)", 50L);
+    assertThatAttributeIs(section, "Entries", 12L);
+    assertThatAttributeIs(section, "Hits", 30L);
+    assertThatAttributeIs(section, "Misses", 10L);
+    assertThatAttributeIs(section, "Hit Rate", "75.00%");
+    assertThatAttributeIs(section, "Evictions", 2L);
+  }
+}
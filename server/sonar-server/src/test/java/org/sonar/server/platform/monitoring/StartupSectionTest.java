@@ -0,0 +1,55 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.process.systeminfo.SystemInfoUtils;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.platform.StartupProfiler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.platform.monitoring.SystemInfoTesting.assertThatAttributeIs;
+
+public class StartupSectionTest {
+
+  private StartupProfiler startupProfiler = new StartupProfiler(System2.INSTANCE);
+  private StartupSection underTest = new StartupSection(startupProfiler);
+
+  @Test
+  public void name() {
+    assertThat(underTest.toProtobuf().getName()).isEqualTo("Web Startup");
+  }
+
+  @Test
+  public void durations_of_levels_and_slowest_components() {
+    startupProfiler.addLevel("level1", 100L);
+    startupProfiler.addLevel("startup tasks", 2_000L);
+    startupProfiler.addComponent(String.class, 10L);
+    startupProfiler.addComponent(Integer.class, 500L);
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThatAttributeIs(section, "Start of level1 (ms)", 100L);
+    assertThatAttributeIs(section, "Start of startup tasks (ms)", 2_000L);
+    assertThat(SystemInfoUtils.attribute(section, "Slowest Components").getStringValuesList())
+      .containsExactly("java.lang.Integer: 500 ms", "java.lang.String: 10 ms");
+  }
+}
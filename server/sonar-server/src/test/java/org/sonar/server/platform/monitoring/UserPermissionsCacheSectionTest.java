@@ -0,0 +1,65 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.junit.Test;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.user.UserPermissionsCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.server.platform.monitoring.SystemInfoTesting.assertThatAttributeIs;
+
+public class UserPermissionsCacheSectionTest {
+
+  private UserPermissionsCache userPermissionsCache = mock(UserPermissionsCache.class);
+  private UserPermissionsCacheSection underTest = new UserPermissionsCacheSection(userPermissionsCache);
+
+  @Test
+  public void name() {
+    assertThat(underTest.toProtobuf().getName()).isEqualTo("Web Permissions Cache");
+  }
+
+  @Test
+  public void cache_size_and_statistics() {
+    when(userPermissionsCache.isEnabled()).thenReturn(true);
+    when(userPermissionsCache.getTtlInSeconds()).thenReturn(300L);
+    when(userPermissionsCache.getEntries()).thenReturn(12L);
+    when(userPermissionsCache.getHits()).thenReturn(30L);
+    when(userPermissionsCache.getMisses()).thenReturn(10L);
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThatAttributeIs(section, "Enabled", true);
+    assertThatAttributeIs(section, "Time To Live (seconds)", 300L);
+    assertThatAttributeIs(section, "Entries", 12L);
+    assertThatAttributeIs(section, "Hits", 30L);
+    assertThatAttributeIs(section, "Misses", 10L);
+    assertThatAttributeIs(section, "Hit Rate", "75.00%");
+  }
+
+  @Test
+  public void hit_rate_is_zero_when_cache_is_not_used() {
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThatAttributeIs(section, "Hit Rate", "0.00%");
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.plugins;
+
+import java.io.File;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.server.platform.ServerFileSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExplodedPluginCacheTest {
+
+  private static final Predicate<ZipEntry> LIBS = entry -> entry.getName().startsWith("META-INF/lib");
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File dataDir;
+  private ExplodedPluginCache underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    dataDir = temp.newFolder();
+    ServerFileSystem fs = mock(ServerFileSystem.class);
+    when(fs.getDataDir()).thenReturn(dataDir);
+    underTest = new ExplodedPluginCache(fs);
+  }
+
+  @Test
+  public void unzip_jar_in_directory_named_after_plugin_key_and_hash() throws Exception {
+    File jar = TestProjectUtils.jarOf("test-libs-plugin");
+
+    File dir = underTest.unzip("testlibs", jar, LIBS);
+
+    assertThat(dir.getParentFile()).isEqualTo(new File(dataDir, "exploded-plugins"));
+    assertThat(dir.getName()).matches("testlibs-[0-9a-f]{32}");
+    assertThat(new File(dir, jar.getName())).isFile();
+    assertThat(new File(dir, "META-INF/lib/commons-daemon-1.0.15.jar")).isFile();
+  }
+
+  @Test
+  public void do_not_unzip_again_jar_already_in_cache() throws Exception {
+    File jar = TestProjectUtils.jarOf("test-libs-plugin");
+    File dir = underTest.unzip("testlibs", jar, LIBS);
+    File lib = new File(dir, "META-INF/lib/commons-daemon-1.0.15.jar");
+    FileUtils.write(lib, "marker");
+
+    assertThat(underTest.unzip("testlibs", jar, LIBS)).isEqualTo(dir);
+    assertThat(FileUtils.readFileToString(lib)).isEqualTo("marker");
+  }
+
+  @Test
+  public void purge_directories_of_other_versions_and_of_uninstalled_plugins() throws Exception {
+    File jar = TestProjectUtils.jarOf("test-libs-plugin");
+    File dir = underTest.unzip("testlibs", jar, LIBS);
+    File cacheDir = dir.getParentFile();
+    File lock = new File(cacheDir, dir.getName() + ".lock");
+    File oldVersion = new File(cacheDir, "testlibs-0123456789abcdef0123456789abcdef");
+    File oldVersionLock = new File(cacheDir, "testlibs-0123456789abcdef0123456789abcdef.lock");
+    File uninstalledPlugin = new File(cacheDir, "uninstalled-0123456789abcdef0123456789abcdef");
+    File interruptedUnzip = new File(cacheDir, "uninstalled-fedcba9876543210fedcba9876543210.tmp");
+    File unknownFile = new File(cacheDir, "README.txt");
+    FileUtils.forceMkdir(oldVersion);
+    FileUtils.touch(oldVersionLock);
+    FileUtils.forceMkdir(uninstalledPlugin);
+    FileUtils.forceMkdir(interruptedUnzip);
+    FileUtils.touch(unknownFile);
+
+    underTest.purgeUnused();
+
+    assertThat(dir).isDirectory();
+    assertThat(lock).isFile();
+    assertThat(oldVersion).doesNotExist();
+    assertThat(oldVersionLock).doesNotExist();
+    assertThat(uninstalledPlugin).doesNotExist();
+    assertThat(interruptedUnzip).doesNotExist();
+    assertThat(unknownFile).isFile();
+  }
+
+  @Test
+  public void purge_keeps_directories_of_plugins_already_in_cache() throws Exception {
+    File jar = TestProjectUtils.jarOf("test-libs-plugin");
+    File dir = underTest.unzip("testlibs", jar, LIBS);
+
+    // another process, for example after a restart, loads the same plugin from cache
+    ServerFileSystem fs = mock(ServerFileSystem.class);
+    when(fs.getDataDir()).thenReturn(dataDir);
+    ExplodedPluginCache otherProcess = new ExplodedPluginCache(fs);
+    assertThat(otherProcess.unzip("testlibs", jar, LIBS)).isEqualTo(dir);
+    otherProcess.purgeUnused();
+
+    assertThat(dir).isDirectory();
+  }
+
+  @Test
+  public void purge_does_nothing_if_cache_does_not_exist() {
+    underTest.purgeUnused();
+
+    assertThat(new File(dataDir, "exploded-plugins")).doesNotExist();
+  }
+}
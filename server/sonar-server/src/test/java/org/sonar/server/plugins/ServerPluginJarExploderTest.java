@@ -39,27 +39,30 @@ public class ServerPluginJarExploderTest {
 
   ServerFileSystem fs = mock(ServerFileSystem.class);
   PluginCompression pluginCompression = mock(PluginCompression.class);
-  ServerPluginJarExploder underTest = new ServerPluginJarExploder(fs, pluginCompression);
 
   @Test
   public void copy_all_classloader_files_to_dedicated_directory() throws Exception {
     File deployDir = temp.newFolder();
+    File dataDir = temp.newFolder();
     when(fs.getDeployedPluginsDir()).thenReturn(deployDir);
+    when(fs.getDataDir()).thenReturn(dataDir);
+    ServerPluginJarExploder underTest = new ServerPluginJarExploder(fs, pluginCompression, new ExplodedPluginCache(fs));
     File jar = TestProjectUtils.jarOf("test-libs-plugin");
     PluginInfo info = PluginInfo.create(jar);
 
     ExplodedPlugin exploded = underTest.explode(info);
 
-    // all the files loaded by classloaders (JAR + META-INF/libs/*.jar) are copied to the dedicated directory
-    // web/deploy/{pluginKey}
+    // the JAR is copied to the dedicated directory web/deploy/{pluginKey}, the files of META-INF/libs/*.jar
+    // are loaded from the cache of exploded plugins
     File pluginDeployDir = new File(deployDir, "testlibs");
+    File cacheDir = new File(dataDir, "exploded-plugins");
 
     assertThat(exploded.getKey()).isEqualTo("testlibs");
     assertThat(exploded.getMain()).isFile().exists().hasParent(pluginDeployDir);
     assertThat(exploded.getLibs()).extracting("name").containsOnly("commons-daemon-1.0.15.jar", "commons-email-20030310.165926.jar");
     for (File lib : exploded.getLibs()) {
       assertThat(lib).exists().isFile();
-      assertThat(lib.getCanonicalPath()).startsWith(pluginDeployDir.getCanonicalPath());
+      assertThat(lib.getCanonicalPath()).startsWith(cacheDir.getCanonicalPath());
     }
     verify(pluginCompression).compressJar(info.getKey(), exploded.getMain().toPath());
   }
@@ -32,6 +32,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.sonar.api.SonarRuntime;
 import org.sonar.api.platform.ServerUpgradeStatus;
@@ -44,6 +45,7 @@ import org.sonar.updatecenter.common.Version;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyMapOf;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -62,7 +64,8 @@ public class ServerPluginRepositoryTest {
   ServerUpgradeStatus upgradeStatus = mock(ServerUpgradeStatus.class);
   ServerFileSystem fs = mock(ServerFileSystem.class, Mockito.RETURNS_DEEP_STUBS);
   PluginLoader pluginLoader = mock(PluginLoader.class);
-  ServerPluginRepository underTest = new ServerPluginRepository(runtime, upgradeStatus, fs, pluginLoader);
+  ExplodedPluginCache explodedPluginCache = mock(ExplodedPluginCache.class);
+  ServerPluginRepository underTest = new ServerPluginRepository(runtime, upgradeStatus, fs, pluginLoader, explodedPluginCache);
 
   @Before
   public void setUp() throws IOException {
@@ -113,6 +116,17 @@ public class ServerPluginRepositoryTest {
     assertThat(underTest.getPluginInfosByKeys()).containsOnlyKeys("testbase");
   }
 
+  @Test
+  public void purge_unused_exploded_plugins_once_plugins_are_loaded() throws Exception {
+    copyTestPluginTo("test-base-plugin", fs.getInstalledPluginsDir());
+
+    underTest.start();
+
+    InOrder inOrder = Mockito.inOrder(pluginLoader, explodedPluginCache);
+    inOrder.verify(pluginLoader).load(anyMapOf(String.class, PluginInfo.class));
+    inOrder.verify(explodedPluginCache).purgeUnused();
+  }
+
   @Test
   public void no_plugins_at_all_on_startup() {
     underTest.start();
@@ -0,0 +1,86 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.property;
+
+import java.util.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InternalPropertyVersionTest {
+
+  private static final String KEY = "foo.version";
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private DbClient dbClient = db.getDbClient();
+  private DbSession dbSession = db.getSession();
+
+  @Test
+  public void change_creates_version_if_missing() {
+    InternalPropertyVersion.change(dbClient, dbSession, KEY);
+    dbSession.commit();
+
+    assertThat(selectVersion()).isPresent();
+    assertThat(selectVersion().get()).isNotEmpty();
+  }
+
+  @Test
+  public void change_updates_existing_version() {
+    dbClient.internalPropertiesDao().save(dbSession, KEY, "v1");
+    dbSession.commit();
+
+    InternalPropertyVersion.change(dbClient, dbSession, KEY);
+    dbSession.commit();
+    String version = selectVersion().get();
+    InternalPropertyVersion.change(dbClient, dbSession, KEY);
+    dbSession.commit();
+
+    assertThat(version).isNotEqualTo("v1");
+    assertThat(selectVersion().get()).isNotEqualTo(version);
+  }
+
+  @Test
+  public void insertIfMissing_ignores_version_created_concurrently() {
+    dbClient.internalPropertiesDao().save(dbSession, KEY, "v1");
+    dbSession.commit();
+
+    InternalPropertyVersion.insertIfMissing(dbClient, KEY);
+
+    assertThat(selectVersion()).contains("v1");
+  }
+
+  @Test
+  public void insertIfMissing_creates_empty_version() {
+    InternalPropertyVersion.insertIfMissing(dbClient, KEY);
+
+    assertThat(selectVersion()).contains("");
+  }
+
+  private Optional<String> selectVersion() {
+    return dbClient.internalPropertiesDao().selectByKey(dbSession, KEY);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.qualityprofile;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition;
+import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition.NewBuiltInQualityProfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BuiltInQProfileFingerprintTest {
+
+  @Rule
+  public BuiltInQProfileRepositoryRule builtInProfileRepository = new BuiltInQProfileRepositoryRule();
+
+  @Test
+  public void fingerprint_is_stable() {
+    assertThat(compute(Severity.MAJOR, ImmutableMap.of("repo", "abc"))).isEqualTo(compute(Severity.MAJOR, ImmutableMap.of("repo", "abc")));
+  }
+
+  @Test
+  public void fingerprint_changes_with_active_rules() {
+    assertThat(compute(Severity.MAJOR, ImmutableMap.of("repo", "abc"))).isNotEqualTo(compute(Severity.BLOCKER, ImmutableMap.of("repo", "abc")));
+  }
+
+  @Test
+  public void fingerprint_changes_with_rules_of_repositories_of_active_rules() {
+    assertThat(compute(Severity.MAJOR, ImmutableMap.of("repo", "abc"))).isNotEqualTo(compute(Severity.MAJOR, ImmutableMap.of("repo", "def")));
+    assertThat(compute(Severity.MAJOR, ImmutableMap.of("repo", "abc"))).isNotEqualTo(compute(Severity.MAJOR, Collections.emptyMap()));
+  }
+
+  @Test
+  public void fingerprint_does_not_change_with_rules_of_other_repositories() {
+    assertThat(compute(Severity.MAJOR, ImmutableMap.of("repo", "abc", "other", "abc")))
+      .isEqualTo(compute(Severity.MAJOR, ImmutableMap.of("repo", "abc", "other", "def")))
+      .isEqualTo(compute(Severity.MAJOR, ImmutableMap.of("repo", "abc")));
+  }
+
+  private String compute(String severity, Map<String, String> rulesFingerprints) {
+    BuiltInQualityProfilesDefinition.Context context = new BuiltInQualityProfilesDefinition.Context();
+    NewBuiltInQualityProfile newQp = context.createBuiltInQualityProfile("Sonar way", "xoo");
+    newQp.activateRule("repo", "rule1").overrideSeverity(severity);
+    newQp.activateRule("repo", "rule2").overrideParam("max", "10");
+    newQp.done();
+    BuiltInQProfile builtIn = builtInProfileRepository.create(context.profile("xoo", "Sonar way"));
+    return BuiltInQProfileFingerprint.compute(builtIn, rulesFingerprints);
+  }
+}
@@ -28,11 +28,13 @@ import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.rule.Severity;
 import org.sonar.api.rules.RulePriority;
 import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition;
+import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition.NewBuiltInActiveRule;
 import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition.NewBuiltInQualityProfile;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.internal.TestSystem2;
 import org.sonar.db.DbTester;
 import org.sonar.db.qualityprofile.ActiveRuleDto;
+import org.sonar.db.qualityprofile.ActiveRuleParamDto;
 import org.sonar.db.qualityprofile.RulesProfileDto;
 import org.sonar.db.rule.RuleDefinitionDto;
 import org.sonar.server.qualityprofile.index.ActiveRuleIndexer;
@@ -43,6 +45,7 @@ import org.sonar.server.util.TypeValidations;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.mock;
 import static org.sonar.api.rules.RulePriority.BLOCKER;
 import static org.sonar.api.rules.RulePriority.CRITICAL;
@@ -138,6 +141,31 @@ public class BuiltInQProfileUpdateImplTest {
     assertThatProfileIsNotMarkedAsUpdated(persistedProfile);
   }
 
+  @Test
+  public void already_activated_rule_is_updated_in_case_of_differences_on_parameters() {
+    RuleDefinitionDto rule = db.rules().insert(r -> r.setLanguage("xoo"));
+    db.rules().insertRuleParam(rule, p -> p.setName("max").setType("INTEGER").setDefaultValue("10"));
+    BuiltInQualityProfilesDefinition.Context context = new BuiltInQualityProfilesDefinition.Context();
+    NewBuiltInQualityProfile newQp = context.createBuiltInQualityProfile("Sonar way", "xoo");
+    NewBuiltInActiveRule newActiveRule = newQp.activateRule(rule.getRepositoryKey(), rule.getRuleKey()).overrideSeverity(Severity.CRITICAL);
+    newActiveRule.overrideParam("max", "20");
+    newQp.done();
+    BuiltInQProfile builtIn = builtInProfileRepository.create(context.profile("xoo", "Sonar way"));
+
+    // same severity, but parameter is not set
+    activateRuleInDb(persistedProfile, rule, CRITICAL);
+
+    underTest.update(db.getSession(), builtIn, persistedProfile);
+
+    List<ActiveRuleDto> activeRules = db.getDbClient().activeRuleDao().selectByRuleProfile(db.getSession(), persistedProfile);
+    assertThat(activeRules).hasSize(1);
+    assertThatRuleIsUpdated(activeRules, rule, CRITICAL);
+    assertThat(db.getDbClient().activeRuleDao().selectParamsByActiveRuleId(db.getSession(), activeRules.get(0).getId()))
+      .extracting(ActiveRuleParamDto::getKey, ActiveRuleParamDto::getValue)
+      .containsExactly(tuple("max", "20"));
+    assertThatProfileIsMarkedAsUpdated(persistedProfile);
+  }
+
   @Test
   public void deactivate_rule_that_is_not_in_built_in_definition_anymore() {
     RuleDefinitionDto rule1 = db.rules().insert(r -> r.setLanguage("xoo"));
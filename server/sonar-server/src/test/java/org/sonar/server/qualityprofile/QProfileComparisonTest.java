@@ -247,4 +247,20 @@ public class QProfileComparisonTest {
     assertThat(activeRuleDiff.paramDifference().entriesOnlyOnLeft()).containsExactly(MapEntry.entry("max", "20"));
     assertThat(activeRuleDiff.paramDifference().entriesOnlyOnRight()).containsExactly(MapEntry.entry("min", "5"));
   }
+
+  @Test
+  public void compare_rules_activated_on_one_or_both_sides() {
+    ruleActivator.activate(dbSession, RuleActivation.create(xooRule1.getKey(), null, ImmutableMap.of("max", "20")), left);
+    ruleActivator.activate(dbSession, RuleActivation.create(xooRule1.getKey(), null, ImmutableMap.of("max", "20")), right);
+    ruleActivator.activate(dbSession, RuleActivation.create(xooRule2.getKey(), Severity.CRITICAL, null), left);
+    ruleActivator.activate(dbSession, RuleActivation.create(xooRule2.getKey(), Severity.BLOCKER, null), right);
+    dbSession.commit();
+
+    QProfileComparisonResult result = comparison.compare(dbSession, left, right);
+    assertThat(result.same()).containsOnlyKeys(xooRule1.getKey());
+    assertThat(result.modified()).containsOnlyKeys(xooRule2.getKey());
+    assertThat(result.inLeft()).isEmpty();
+    assertThat(result.inRight()).isEmpty();
+    assertThat(result.collectRuleKeys()).containsOnly(xooRule1.getKey(), xooRule2.getKey());
+  }
 }
@@ -26,6 +26,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.sonar.api.resources.Language;
+import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition;
+import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition.NewBuiltInQualityProfile;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.internal.AlwaysIncreasingSystem2;
 import org.sonar.api.utils.log.LogTester;
@@ -37,6 +39,7 @@ import org.sonar.db.organization.OrganizationDto;
 import org.sonar.db.qualityprofile.QProfileDto;
 import org.sonar.db.qualityprofile.RulesProfileDto;
 import org.sonar.server.language.LanguageTesting;
+import org.sonar.server.property.InternalProperties;
 import org.sonar.server.tester.UserSessionRule;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -134,6 +137,63 @@ public class RegisterQualityProfilesTest {
     assertThat(logTester.logs(LoggerLevel.INFO)).contains("Update profile foo/Sonar way");
   }
 
+  @Test
+  public void do_not_update_built_in_profile_if_its_definition_did_not_change() {
+    RulesProfileDto ruleProfile = newRuleProfileDto(rp -> rp.setIsBuiltIn(true).setName("Sonar way").setLanguage(FOO_LANGUAGE.getKey()));
+    db.getDbClient().qualityProfileDao().insert(db.getSession(), ruleProfile);
+    db.commit();
+    BuiltInQProfile builtIn = builtInQProfileRepositoryRule.add(FOO_LANGUAGE, ruleProfile.getName(), false);
+    builtInQProfileRepositoryRule.initialize();
+    underTest.start();
+    assertThat(update.callLogs).containsExactly(builtIn);
+
+    underTest.start();
+
+    assertThat(update.callLogs).containsExactly(builtIn);
+  }
+
+  @Test
+  public void update_built_in_profile_again_if_rules_of_its_active_rules_changed() {
+    BuiltInQProfile builtIn = addBuiltInProfileActivatingRuleOfRepository("repo1");
+    dbClient.internalPropertiesDao().save(db.getSession(), InternalProperties.RULES_FINGERPRINTS, "repo1=abc\nrepo2=abc\n");
+    db.commit();
+    underTest.start();
+
+    dbClient.internalPropertiesDao().save(db.getSession(), InternalProperties.RULES_FINGERPRINTS, "repo1=def\nrepo2=abc\n");
+    db.commit();
+    underTest.start();
+
+    assertThat(update.callLogs).containsExactly(builtIn, builtIn);
+  }
+
+  @Test
+  public void do_not_update_built_in_profile_if_only_rules_of_other_repositories_changed() {
+    BuiltInQProfile builtIn = addBuiltInProfileActivatingRuleOfRepository("repo1");
+    dbClient.internalPropertiesDao().save(db.getSession(), InternalProperties.RULES_FINGERPRINTS, "repo1=abc\nrepo2=abc\n");
+    db.commit();
+    underTest.start();
+
+    dbClient.internalPropertiesDao().save(db.getSession(), InternalProperties.RULES_FINGERPRINTS, "repo1=abc\nrepo2=def\n");
+    db.commit();
+    underTest.start();
+
+    assertThat(update.callLogs).containsExactly(builtIn);
+  }
+
+  private BuiltInQProfile addBuiltInProfileActivatingRuleOfRepository(String repositoryKey) {
+    RulesProfileDto ruleProfile = newRuleProfileDto(rp -> rp.setIsBuiltIn(true).setName("Sonar way").setLanguage(FOO_LANGUAGE.getKey()));
+    db.getDbClient().qualityProfileDao().insert(db.getSession(), ruleProfile);
+    db.commit();
+    BuiltInQualityProfilesDefinition.Context context = new BuiltInQualityProfilesDefinition.Context();
+    NewBuiltInQualityProfile newQp = context.createBuiltInQualityProfile(ruleProfile.getName(), FOO_LANGUAGE.getKey());
+    newQp.activateRule(repositoryKey, "rule1");
+    newQp.done();
+    BuiltInQProfile builtIn = builtInQProfileRepositoryRule.add(FOO_LANGUAGE, ruleProfile.getName(), false,
+      context.profile(FOO_LANGUAGE.getKey(), ruleProfile.getName()).rules().toArray(new BuiltInQualityProfilesDefinition.BuiltInActiveRule[0]));
+    builtInQProfileRepositoryRule.initialize();
+    return builtIn;
+  }
+
   private String selectPersistedName(QProfileDto profile) {
     return db.qualityProfiles().selectByUuid(profile.getKee()).get().getName();
   }
@@ -39,6 +39,7 @@ import org.sonar.api.utils.internal.AlwaysIncreasingSystem2;
 import org.sonar.db.DbTester;
 import org.sonar.db.qualityprofile.ActiveRuleParamDto;
 import org.sonar.db.qualityprofile.OrgActiveRuleDto;
+import org.sonar.db.qualityprofile.QProfileChangeQuery;
 import org.sonar.db.qualityprofile.QProfileDto;
 import org.sonar.db.qualityprofile.RulesProfileDto;
 import org.sonar.db.rule.RuleDefinitionDto;
@@ -70,6 +71,7 @@ import static org.sonar.api.rule.Severity.MAJOR;
 import static org.sonar.api.rule.Severity.MINOR;
 import static org.sonar.db.rule.RuleTesting.newCustomRule;
 import static org.sonar.server.qualityprofile.ActiveRule.Inheritance.INHERITED;
+import static org.sonar.server.qualityprofile.ActiveRule.Inheritance.OVERRIDES;
 
 public class RuleActivatorTest {
 
@@ -955,6 +957,41 @@ public class RuleActivatorTest {
     assertThatRuleIsActivated(grandchildProfile, rule2, null, rule2.getSeverityString(), INHERITED, emptyMap());
   }
 
+  @Test
+  public void bulk_activation_cascades_to_descendants_and_stops_on_overriding_profiles() {
+    userSession.logIn();
+    RuleDefinitionDto rule1 = createJavaRule();
+    RuleDefinitionDto rule2 = createJavaRule();
+    db.rules().insertRuleParam(rule1, p -> p.setName("max").setDefaultValue("10"));
+    QProfileDto parentProfile = createProfile(rule1);
+    QProfileDto childProfile = createChildProfile(parentProfile);
+    QProfileDto grandchildProfile = createChildProfile(childProfile);
+    activate(childProfile, RuleActivation.create(rule2.getKey(), BLOCKER, null));
+
+    ruleIndexer.indexOnStartup(ruleIndexer.getIndexTypes());
+
+    RuleQuery query = new RuleQuery()
+      .setRepositories(asList(rule1.getRepositoryKey(), rule2.getRepositoryKey()))
+      .setLanguages(singletonList("java"));
+    BulkChangeResult result = underTest.bulkActivateAndCommit(db.getSession(), query, parentProfile, null);
+
+    assertThat(result.countSucceeded()).isEqualTo(2);
+    assertThat(result.countFailed()).isEqualTo(0);
+    assertThat(result.getChanges()).hasSize(5);
+
+    assertThatRuleIsActivated(parentProfile, rule1, result.getChanges(), MAJOR, null, of("max", "10"));
+    assertThatRuleIsActivated(childProfile, rule1, result.getChanges(), MAJOR, INHERITED, of("max", "10"));
+    assertThatRuleIsActivated(grandchildProfile, rule1, result.getChanges(), MAJOR, INHERITED, of("max", "10"));
+
+    assertThatRuleIsActivated(parentProfile, rule2, result.getChanges(), MAJOR, null, emptyMap());
+    assertThatRuleIsUpdated(childProfile, rule2, BLOCKER, OVERRIDES, emptyMap());
+    assertThatRuleIsUpdated(grandchildProfile, rule2, BLOCKER, INHERITED, emptyMap());
+
+    assertThat(db.getDbClient().qProfileChangeDao().countByQuery(db.getSession(), new QProfileChangeQuery(parentProfile.getKee()))).isEqualTo(2);
+    assertThatProfileIsUpdatedByUser(parentProfile);
+    assertThatProfileIsUpdatedByUser(grandchildProfile);
+  }
+
   @Test
   public void activateOnBuiltInProfile_throws_IAE_when_profile_is_not_built_in() {
     RuleDefinitionDto rule = createJavaRule();
@@ -34,6 +34,7 @@ import org.sonar.db.DbClient;
 import org.sonar.server.language.LanguageTesting;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
+import org.sonar.server.rule.index.RuleAggregationsCache;
 import org.sonar.server.tester.UserSessionRule;
 import org.sonar.server.ws.WsTester;
 
@@ -61,7 +62,7 @@ public class QProfilesWsTest {
     controller = new WsTester(new QProfilesWs(
       new CreateAction(null, null, null, languages, wsSupport, userSession, null, importers),
       new ImportersAction(importers),
-      new SearchAction(userSession, languages, dbClient, wsSupport, null),
+      new SearchAction(userSession, languages, dbClient, wsSupport, null, RuleAggregationsCache.disabled()),
       new SetDefaultAction(languages, null, null, wsSupport),
       new ProjectsAction(null, userSession, wsSupport),
       new ChangelogAction(wsSupport, languages, dbClient),
@@ -44,6 +44,7 @@ import org.sonar.server.component.ComponentFinder;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
+import org.sonar.server.rule.index.RuleAggregationsCache;
 import org.sonar.server.tester.UserSessionRule;
 import org.sonar.server.ws.TestRequest;
 import org.sonar.server.ws.WsActionTester;
@@ -84,7 +85,7 @@ public class SearchActionTest {
   private DefaultOrganizationProvider defaultOrganizationProvider = TestDefaultOrganizationProvider.from(db);
   private QProfileWsSupport qProfileWsSupport = new QProfileWsSupport(dbClient, userSession, defaultOrganizationProvider);
 
-  private SearchAction underTest = new SearchAction(userSession, LANGUAGES, dbClient, qProfileWsSupport, new ComponentFinder(dbClient, null));
+  private SearchAction underTest = new SearchAction(userSession, LANGUAGES, dbClient, qProfileWsSupport, new ComponentFinder(dbClient, null), RuleAggregationsCache.disabled());
   private WsActionTester ws = new WsActionTester(underTest);
 
   @Test
@@ -136,7 +137,7 @@ public class SearchActionTest {
 
   @Test
   public void empty_when_no_language_installed() {
-    WsActionTester ws = new WsActionTester(new SearchAction(userSession, new Languages(), dbClient, qProfileWsSupport, new ComponentFinder(dbClient, null)));
+    WsActionTester ws = new WsActionTester(new SearchAction(userSession, new Languages(), dbClient, qProfileWsSupport, new ComponentFinder(dbClient, null), RuleAggregationsCache.disabled()));
     db.qualityProfiles().insert(db.getDefaultOrganization());
 
     SearchWsResponse result = call(ws.newRequest());
@@ -313,7 +314,7 @@ public class SearchActionTest {
 
   @Test
   public void empty_when_filtering_on_project_and_no_language_installed() {
-    WsActionTester ws = new WsActionTester(new SearchAction(userSession, new Languages(), dbClient, qProfileWsSupport, new ComponentFinder(dbClient, null)));
+    WsActionTester ws = new WsActionTester(new SearchAction(userSession, new Languages(), dbClient, qProfileWsSupport, new ComponentFinder(dbClient, null), RuleAggregationsCache.disabled()));
     db.qualityProfiles().insert(db.getDefaultOrganization());
     ComponentDto project = db.components().insertPrivateProject();
     QProfileDto profileOnXoo1 = db.qualityProfiles().insert(db.getDefaultOrganization(), q -> q.setLanguage(XOO1.getKey()));
@@ -521,7 +522,7 @@ public class SearchActionTest {
     db.qualityProfiles().addUserPermission(myBuProfile, user);
     userSession.logIn(user);
 
-    underTest = new SearchAction(userSession, new Languages(cs, java, python), dbClient, qProfileWsSupport, new ComponentFinder(dbClient, null));
+    underTest = new SearchAction(userSession, new Languages(cs, java, python), dbClient, qProfileWsSupport, new ComponentFinder(dbClient, null), RuleAggregationsCache.disabled());
     ws = new WsActionTester(underTest);
     String result = ws.newRequest().setParam(PARAM_ORGANIZATION, organization.getKey()).execute().getInput();
     assertJson(result).ignoreFields("ruleUpdatedAt", "lastUsed", "userUpdatedAt")
@@ -30,6 +30,7 @@ import org.sonar.db.DbTester;
 import org.sonar.db.user.UserDao;
 import org.sonar.db.user.UserDto;
 import org.sonar.db.user.UserTesting;
+import org.sonar.server.authentication.AuthenticatedUserCache;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.tester.UserSessionRule;
@@ -37,6 +38,8 @@ import org.sonar.server.ws.TestRequest;
 import org.sonar.server.ws.WsActionTester;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class SetRootActionTest {
   private static final String SOME_LOGIN = "johndoe";
@@ -50,7 +53,8 @@ public class SetRootActionTest {
 
   private UserDao userDao = dbTester.getDbClient().userDao();
   private DbSession dbSession = dbTester.getSession();
-  private SetRootAction underTest = new SetRootAction(userSessionRule, dbTester.getDbClient());
+  private AuthenticatedUserCache authenticatedUserCache = mock(AuthenticatedUserCache.class);
+  private SetRootAction underTest = new SetRootAction(userSessionRule, dbTester.getDbClient(), authenticatedUserCache);
   private WsActionTester wsTester = new WsActionTester(underTest);
 
   @Test
@@ -115,6 +119,7 @@ public class SetRootActionTest {
 
     assertThat(userDao.selectByLogin(dbSession, SOME_LOGIN).isRoot()).isTrue();
     assertThat(userDao.selectByLogin(dbSession, otherUser.getLogin()).isRoot()).isFalse();
+    verify(authenticatedUserCache).invalidateAll();
   }
 
   @Test
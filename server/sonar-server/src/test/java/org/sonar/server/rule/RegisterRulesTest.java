@@ -24,7 +24,10 @@ import java.util.List;
 import java.util.stream.IntStream;
 import org.junit.Before;
 import org.junit.Test;
+import org.sonar.api.SonarQubeSide;
+import org.sonar.api.SonarRuntime;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.resources.Language;
 import org.sonar.api.resources.Languages;
 import org.sonar.api.rule.RuleKey;
@@ -34,6 +37,7 @@ import org.sonar.api.server.debt.DebtRemediationFunction;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.api.utils.DateUtils;
 import org.sonar.api.utils.System2;
+import org.sonar.api.utils.Version;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.db.DbClient;
@@ -49,6 +53,7 @@ import org.sonar.server.es.SearchOptions;
 import org.sonar.server.organization.OrganizationFlags;
 import org.sonar.server.organization.TestOrganizationFlags;
 import org.sonar.server.plugins.ServerPluginRepository;
+import org.sonar.server.property.InternalProperties;
 import org.sonar.server.qualityprofile.RuleActivator;
 import org.sonar.server.qualityprofile.index.ActiveRuleIndexer;
 import org.sonar.server.rule.index.RuleIndex;
@@ -96,6 +101,7 @@ public class RegisterRulesTest {
   private RuleIndex ruleIndex;
   private OrganizationDto defaultOrganization;
   private OrganizationFlags organizationFlags = TestOrganizationFlags.standalone();
+  private SonarRuntime sonarRuntime = SonarRuntimeImpl.forSonarQube(Version.create(7, 0), SonarQubeSide.SERVER);
 
   @Before
   public void before() {
@@ -434,6 +440,51 @@ public class RegisterRulesTest {
     assertThat(rule1.getUpdatedAt()).isEqualTo(DATE1.getTime());
   }
 
+  @Test
+  public void do_not_register_again_unchanged_repositories() {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    execute(new FakeRepositoryV1());
+    assertThat(dbClient.internalPropertiesDao().selectByKey(dbTester.getSession(), InternalProperties.RULES_FINGERPRINTS).get()).startsWith("fake=");
+
+    // change is not done by the repository, so it is kept as long as definitions of repository do not change
+    RuleDefinitionDto rule1 = dbClient.ruleDao().selectOrFailDefinitionByKey(dbTester.getSession(), RULE_KEY1);
+    dbClient.ruleDao().update(dbTester.getSession(), rule1.setName("Changed"));
+    dbTester.getSession().commit();
+
+    when(system.now()).thenReturn(DATE2.getTime());
+    execute(new FakeRepositoryV1());
+
+    assertThat(dbClient.ruleDao().selectOrFailDefinitionByKey(dbTester.getSession(), RULE_KEY1).getName()).isEqualTo("Changed");
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Rules of repository fake are unchanged");
+  }
+
+  @Test
+  public void register_again_repository_when_its_definitions_change() {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    execute(new FakeRepositoryV1());
+    String fingerprints = dbClient.internalPropertiesDao().selectByKey(dbTester.getSession(), InternalProperties.RULES_FINGERPRINTS).get();
+
+    when(system.now()).thenReturn(DATE2.getTime());
+    execute(new FakeRepositoryV2());
+
+    assertThat(dbClient.internalPropertiesDao().selectByKey(dbTester.getSession(), InternalProperties.RULES_FINGERPRINTS).get()).isNotEqualTo(fingerprints);
+    assertThat(dbClient.ruleDao().selectOrFailDefinitionByKey(dbTester.getSession(), RULE_KEY1).getUpdatedAt()).isEqualTo(DATE2.getTime());
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).doesNotContain("Rules of repository fake are unchanged");
+  }
+
+  @Test
+  public void register_again_unchanged_repository_when_server_version_changes() {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    execute(new FakeRepositoryV1());
+    String fingerprints = dbClient.internalPropertiesDao().selectByKey(dbTester.getSession(), InternalProperties.RULES_FINGERPRINTS).get();
+
+    sonarRuntime = SonarRuntimeImpl.forSonarQube(Version.create(7, 1), SonarQubeSide.SERVER);
+    execute(new FakeRepositoryV1());
+
+    assertThat(dbClient.internalPropertiesDao().selectByKey(dbTester.getSession(), InternalProperties.RULES_FINGERPRINTS).get()).isNotEqualTo(fingerprints);
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).doesNotContain("Rules of repository fake are unchanged");
+  }
+
   @Test
   public void do_not_update_already_removed_rules() {
     execute(new FakeRepositoryV1());
@@ -535,7 +586,8 @@ public class RegisterRulesTest {
     when(languages.get("java")).thenReturn(mock(Language.class));
     reset(webServerRuleFinder);
 
-    RegisterRules task = new RegisterRules(loader, ruleActivator, dbClient, ruleIndexer, activeRuleIndexer, languages, system, organizationFlags, webServerRuleFinder);
+    RegisterRules task = new RegisterRules(loader, ruleActivator, dbClient, ruleIndexer, activeRuleIndexer, languages, system, organizationFlags, webServerRuleFinder,
+      sonarRuntime);
     task.start();
     // Execute a commit to refresh session state as the task is using its own session
     dbTester.getSession().commit();
@@ -0,0 +1,63 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sonar.api.server.rule.RulesDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleRepositoryFingerprintTest {
+
+  @Test
+  public void fingerprint_is_stable() {
+    assertThat(compute("One", false, "7.0")).isEqualTo(compute("One", false, "7.0"));
+  }
+
+  @Test
+  public void fingerprint_changes_with_definitions_of_rules() {
+    assertThat(compute("One", false, "7.0")).isNotEqualTo(compute("One v2", false, "7.0"));
+  }
+
+  @Test
+  public void fingerprint_changes_with_organizations_flag() {
+    assertThat(compute("One", false, "7.0")).isNotEqualTo(compute("One", true, "7.0"));
+  }
+
+  @Test
+  public void fingerprint_changes_with_server_version() {
+    assertThat(compute("One", false, "7.0")).isNotEqualTo(compute("One", false, "7.1"));
+  }
+
+  private static String compute(String ruleName, boolean organizationsEnabled, String serverVersion) {
+    RulesDefinition.Context context = new RulesDefinition.Context();
+    RulesDefinition.NewRepository repo = context.createRepository("fake", "java");
+    repo.createRule("rule1")
+      .setName(ruleName)
+      .setHtmlDescription("Description of One")
+      .setTags("tag1", "tag2")
+      .createParam("param1").setDefaultValue("default1");
+    repo.done();
+    List<RulesDefinition.ExtendedRepository> repositories = new ArrayList<>(context.repositories());
+    return RuleRepositoryFingerprint.compute(repositories, organizationsEnabled, serverVersion);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.rule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.db.rule.RuleDto;
+import org.sonar.db.rule.RuleParamDto;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RulesCacheTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private DbSession dbSession = db.getSession();
+  private RulesCache underTest = new RulesCache(db.getDbClient());
+
+  @Test
+  public void load_rules_and_params_of_organization() {
+    RuleDefinitionDto rule1 = db.rules().insert();
+    RuleDefinitionDto rule2 = db.rules().insert();
+    RuleParamDto param = db.rules().insertRuleParam(rule1);
+
+    RulesCache.Snapshot snapshot = underTest.get(dbSession, db.getDefaultOrganization().getUuid());
+
+    assertThat(snapshot.size()).isEqualTo(2);
+    assertThat(snapshot.getById(rule2.getId()).getKey()).isEqualTo(rule2.getKey());
+    assertThat(snapshot.getById(-1)).isNull();
+    assertThat(snapshot.indexOf(-1)).isEqualTo(-1);
+    assertThat(snapshot.getByKey(rule1.getKey()).getId()).isEqualTo(rule1.getId());
+    assertThat(snapshot.getByKey(RuleKey.of("unknown", "unknown"))).isNull();
+    assertThat(snapshot.indexOf(RuleKey.of("unknown", "unknown"))).isEqualTo(-1);
+    assertThat(snapshot.get(snapshot.indexOf(rule1.getKey())).getId()).isEqualTo(rule1.getId());
+    assertThat(snapshot.indexOf(rule1.getId())).isEqualTo(snapshot.indexOf(rule1.getKey()));
+    assertThat(snapshot.getParams(rule1.getId())).extracting(RuleParamDto::getName).containsExactly(param.getName());
+    assertThat(snapshot.getParams(rule2.getId())).isEmpty();
+  }
+
+  @Test
+  public void metadata_are_specific_to_organization_and_definitions_are_shared() {
+    OrganizationDto organization1 = db.organizations().insert();
+    OrganizationDto organization2 = db.organizations().insert();
+    RuleDefinitionDto rule = db.rules().insert();
+    db.rules().insertOrUpdateMetadata(rule, organization1, m -> m.setTags(newHashSet("tag1")));
+
+    RuleDto ruleOfOrganization1 = underTest.get(dbSession, organization1.getUuid()).getById(rule.getId());
+    RuleDto ruleOfOrganization2 = underTest.get(dbSession, organization2.getUuid()).getById(rule.getId());
+
+    assertThat(ruleOfOrganization1.getTags()).containsOnly("tag1");
+    assertThat(ruleOfOrganization1.getOrganizationUuid()).isEqualTo(organization1.getUuid());
+    assertThat(ruleOfOrganization2.getTags()).isEmpty();
+    assertThat(ruleOfOrganization2.getOrganizationUuid()).isEqualTo(organization2.getUuid());
+    assertThat(ruleOfOrganization1.getDefinition()).isSameAs(ruleOfOrganization2.getDefinition());
+  }
+
+  @Test
+  public void descriptions_and_notes_are_not_kept() {
+    OrganizationDto organization = db.organizations().insert();
+    RuleDefinitionDto rule = db.rules().insert(r -> r.setDescription("description"));
+    db.rules().insertOrUpdateMetadata(rule, organization, m -> m.setNoteData("note"));
+
+    RuleDto cached = underTest.get(dbSession, organization.getUuid()).getById(rule.getId());
+
+    assertThat(cached.getDescription()).isNull();
+    assertThat(cached.getNoteData()).isNull();
+  }
+
+  @Test
+  public void metadata_of_organizations_are_evicted_when_cache_is_full() {
+    RulesCache smallCache = new RulesCache(db.getDbClient(), 3);
+    OrganizationDto organization1 = db.organizations().insert();
+    OrganizationDto organization2 = db.organizations().insert();
+    RuleDefinitionDto rule = db.rules().insert();
+    db.rules().insertOrUpdateMetadata(rule, organization1, m -> m.setTags(newHashSet("tag1")));
+    db.rules().insertOrUpdateMetadata(rule, organization2, m -> m.setTags(newHashSet("tag2")));
+
+    smallCache.get(dbSession, organization1.getUuid());
+    db.getDbClient().ruleDao().insertOrUpdate(dbSession, db.getDbClient().ruleDao().selectMetadataByKey(dbSession, rule.getKey(), organization1).get()
+      .setTags(newHashSet("updated")));
+    dbSession.commit();
+    // 2 organizations with 1 metadata weigh 4, first one is evicted
+    smallCache.get(dbSession, organization2.getUuid());
+
+    assertThat(smallCache.get(dbSession, organization1.getUuid()).getById(rule.getId()).getTags()).containsOnly("updated");
+  }
+
+  @Test
+  public void rules_are_loaded_again_only_when_they_are_invalidated() {
+    String organizationUuid = db.getDefaultOrganization().getUuid();
+    RuleDefinitionDto rule1 = db.rules().insert();
+    RulesCache.Snapshot snapshot = underTest.get(dbSession, organizationUuid);
+
+    RuleDefinitionDto rule2 = db.rules().insert();
+    assertThat(underTest.get(dbSession, organizationUuid).getById(rule2.getId())).isNull();
+
+    RulesCache.invalidate(db.getDbClient(), dbSession);
+    dbSession.commit();
+    RulesCache.Snapshot reloaded = underTest.get(dbSession, organizationUuid);
+
+    assertThat(reloaded.getVersion()).isNotEqualTo(snapshot.getVersion());
+    assertThat(reloaded.size()).isEqualTo(2);
+    assertThat(reloaded.getById(rule1.getId())).isNotNull();
+    assertThat(reloaded.getById(rule2.getId())).isNotNull();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.rule.index;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleAggregationsCacheTest {
+
+  private RuleAggregationsCache underTest = new RuleAggregationsCache(new MapSettings().asConfig());
+
+  @Test
+  public void values_are_computed_once_until_cache_is_invalidated() {
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThat(underTest.isEnabled()).isTrue();
+    assertThat(underTest.<Integer>get("foo", calls::incrementAndGet)).isEqualTo(1);
+    assertThat(underTest.<Integer>get("foo", calls::incrementAndGet)).isEqualTo(1);
+    assertThat(underTest.<Integer>get("bar", calls::incrementAndGet)).isEqualTo(2);
+
+    underTest.invalidateAll();
+
+    assertThat(underTest.<Integer>get("foo")).isNull();
+    assertThat(underTest.<Integer>get("foo", calls::incrementAndGet)).isEqualTo(3);
+  }
+
+  @Test
+  public void cache_is_disabled_if_ttl_is_zero() {
+    underTest = new RuleAggregationsCache(new MapSettings().setProperty(RuleAggregationsCache.PROPERTY_TTL_IN_SECONDS, "0").asConfig());
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThat(underTest.isEnabled()).isFalse();
+    assertThat(underTest.<Integer>get("foo", calls::incrementAndGet)).isEqualTo(1);
+    assertThat(underTest.<Integer>get("foo", calls::incrementAndGet)).isEqualTo(2);
+  }
+
+  @Test
+  public void disabled_cache_never_keeps_values() {
+    underTest = RuleAggregationsCache.disabled();
+    underTest.put("foo", "bar");
+
+    assertThat(underTest.isEnabled()).isFalse();
+    assertThat(underTest.<String>get("foo")).isNull();
+  }
+}
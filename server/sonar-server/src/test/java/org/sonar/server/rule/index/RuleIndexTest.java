@@ -794,6 +794,29 @@ public class RuleIndexTest {
     assertThat(facets.get(FACET_TYPES).keySet()).containsOnly("BUG", "CODE_SMELL", "VULNERABILITY");
   }
 
+  @Test
+  public void facets_are_cached_until_rules_are_indexed() {
+    RuleAggregationsCache aggregationsCache = new RuleAggregationsCache(new MapSettings().asConfig());
+    RuleIndex cachingIndex = new RuleIndex(es.client(), system2, aggregationsCache);
+    RuleIndexer cachingIndexer = new RuleIndexer(es.client(), db.getDbClient(), aggregationsCache);
+    createRule(setLanguage("java"));
+    cachingIndexer.indexOnStartup(Sets.newHashSet(INDEX_TYPE_RULE, INDEX_TYPE_RULE_EXTENSION));
+    RuleQuery query = newRuleQuery();
+    SearchOptions options = new SearchOptions().addFacets(singletonList(FACET_LANGUAGES));
+
+    assertThat(cachingIndex.search(query, options).getFacets().get(FACET_LANGUAGES)).containsOnlyKeys("java");
+
+    // indexed by an indexer which does not share the cache
+    RuleDefinitionDto cobolRule = createRule(setLanguage("cobol"));
+    index();
+    SearchIdResult<RuleKey> result = cachingIndex.search(query, options);
+    assertThat(result.getIds()).hasSize(2);
+    assertThat(result.getFacets().get(FACET_LANGUAGES)).containsOnlyKeys("java");
+
+    cachingIndexer.commitAndIndex(db.getSession(), cobolRule.getKey());
+    assertThat(cachingIndex.search(query, options).getFacets().get(FACET_LANGUAGES)).containsOnlyKeys("java", "cobol");
+  }
+
   /**
   * Facet with a language filter
   * -- lang facet should still have all language
@@ -29,6 +29,8 @@ import org.assertj.core.api.iterable.Extractor;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.resources.Languages;
 import org.sonar.api.rule.RuleKey;
@@ -47,6 +49,7 @@ import org.sonar.db.rule.RuleDefinitionDto;
 import org.sonar.db.rule.RuleMetadataDto;
 import org.sonar.db.rule.RuleParamDto;
 import org.sonar.server.es.EsTester;
+import org.sonar.server.es.Facets;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.language.LanguageTesting;
 import org.sonar.server.organization.DefaultOrganizationProvider;
@@ -56,6 +59,7 @@ import org.sonar.server.qualityprofile.RuleActivation;
 import org.sonar.server.qualityprofile.RuleActivator;
 import org.sonar.server.qualityprofile.RuleActivatorContextFactory;
 import org.sonar.server.qualityprofile.index.ActiveRuleIndexer;
+import org.sonar.server.rule.index.RuleAggregationsCache;
 import org.sonar.server.rule.index.RuleIndex;
 import org.sonar.server.rule.index.RuleIndexDefinition;
 import org.sonar.server.rule.index.RuleIndexer;
@@ -78,9 +82,11 @@ import static org.apache.commons.lang.RandomStringUtils.randomAlphanumeric;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.assertj.guava.api.Assertions.entry;
+import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.sonar.api.rule.Severity.BLOCKER;
 import static org.sonar.db.rule.RuleTesting.setSystemTags;
 import static org.sonar.db.rule.RuleTesting.setTags;
@@ -336,6 +342,25 @@ public class SearchActionTest {
               tuple("tag9", 1L), tuple("tagA", 1L));
   }
 
+  @Test
+  public void mandatory_facet_values_are_not_added_to_cached_facets() {
+    RuleAggregationsCache aggregationsCache = spy(new RuleAggregationsCache(new MapSettings().asConfig()));
+    RuleIndex cachingIndex = new RuleIndex(es.client(), system2, aggregationsCache);
+    WsActionTester cachingWs = new WsActionTester(new SearchAction(cachingIndex, activeRuleCompleter, ruleQueryFactory, db.getDbClient(), ruleMapper));
+    db.rules().insert(r -> r.setType(RuleType.BUG));
+    indexRules();
+
+    SearchResponse first = cachingWs.newRequest().setParam("facets", "types").executeProtobuf(SearchResponse.class);
+    SearchResponse second = cachingWs.newRequest().setParam("facets", "types").executeProtobuf(SearchResponse.class);
+
+    ArgumentCaptor<Facets> cachedFacets = ArgumentCaptor.forClass(Facets.class);
+    Mockito.verify(aggregationsCache).put(anyObject(), cachedFacets.capture());
+    assertThat(cachedFacets.getValue().get("types")).containsOnlyKeys("BUG");
+    assertThat(second.getFacets()).isEqualTo(first.getFacets());
+    assertThat(second.getFacets().getFacets(0).getValuesList()).extracting(Common.FacetValue::getVal)
+      .containsOnly("BUG", "CODE_SMELL", "VULNERABILITY");
+  }
+
   @Test
   public void should_list_tags_ordered_by_count_then_by_name_in_tags_facet() throws IOException {
     OrganizationDto organization = db.organizations().insert();
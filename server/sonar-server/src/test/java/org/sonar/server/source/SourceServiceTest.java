@@ -19,6 +19,7 @@
  */
 package org.sonar.server.source;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import java.io.IOException;
 import java.util.List;
@@ -27,6 +28,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbTester;
 import org.sonar.db.protobuf.DbFileSources;
@@ -35,6 +37,8 @@ import org.sonar.server.source.index.FileSourceTesting;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class SourceServiceTest {
@@ -49,7 +53,9 @@ public class SourceServiceTest {
 
   HtmlSourceDecorator htmlDecorator = mock(HtmlSourceDecorator.class);
 
-  SourceService underTest = new SourceService(dbTester.getDbClient(), htmlDecorator);
+  SourceCache sourceCache = new SourceCache(new MapSettings().asConfig());
+
+  SourceService underTest = new SourceService(dbTester.getDbClient(), htmlDecorator, sourceCache);
 
   @Before
   public void injectFakeLines() throws IOException {
@@ -120,4 +126,101 @@ public class SourceServiceTest {
     assertThat(lines.isPresent()).isFalse();
   }
 
+  @Test
+  public void lines_are_read_from_cache_when_data_hash_is_unchanged() throws Exception {
+    insertFileWithDataHash("CACHED_FILE_UUID", "HASH_1", 10);
+
+    assertThat(underTest.getLinesAsRawText(dbTester.getSession(), "CACHED_FILE_UUID", 1, 2).get()).containsExactly("SOURCE_1", "SOURCE_2");
+    assertThat(underTest.getLinesAsRawText(dbTester.getSession(), "CACHED_FILE_UUID", 9, 12).get()).containsExactly("SOURCE_9", "SOURCE_10");
+
+    assertThat(sourceCache.getEntries()).isEqualTo(1);
+    assertThat(sourceCache.getStats().hitCount()).isEqualTo(1);
+    assertThat(sourceCache.getStats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void cached_lines_are_ignored_when_data_hash_changes() throws Exception {
+    insertFileWithDataHash("CACHED_FILE_UUID", "HASH_1", 10);
+    assertThat(underTest.getLines(dbTester.getSession(), "CACHED_FILE_UUID", 1, 20).get()).hasSize(10);
+
+    FileSourceDto dto = dbTester.getDbClient().fileSourceDao().selectSourceByFileUuid(dbTester.getSession(), "CACHED_FILE_UUID");
+    dto.setSourceData(FileSourceTesting.newFakeData(3).build()).setDataHash("HASH_2");
+    dbTester.getDbClient().fileSourceDao().update(dbTester.getSession(), dto);
+    dbTester.commit();
+
+    assertThat(underTest.getLines(dbTester.getSession(), "CACHED_FILE_UUID", 1, 20).get()).hasSize(3);
+  }
+
+  @Test
+  public void html_of_cached_lines_is_computed_once() throws Exception {
+    insertFileWithDataHash("CACHED_FILE_UUID", "HASH_1", 10);
+    when(htmlDecorator.getDecoratedSourceAsHtml("SOURCE_5", "HIGHLIGHTING_5", "SYMBOLS_5")).thenReturn("HTML_5");
+
+    assertThat(underTest.getLinesAsHtml(dbTester.getSession(), "CACHED_FILE_UUID", 5, 5).get()).containsExactly("HTML_5");
+    assertThat(underTest.getLinesAsHtml(dbTester.getSession(), "CACHED_FILE_UUID", 5, 5).get()).containsExactly("HTML_5");
+
+    verify(htmlDecorator, times(1)).getDecoratedSourceAsHtml("SOURCE_5", "HIGHLIGHTING_5", "SYMBOLS_5");
+  }
+
+  @Test
+  public void cache_is_not_used_when_disabled() throws Exception {
+    sourceCache = new SourceCache(new MapSettings().setProperty(SourceCache.PROPERTY_MAX_SIZE_IN_MB, 0).asConfig());
+    underTest = new SourceService(dbTester.getDbClient(), htmlDecorator, sourceCache);
+    insertFileWithDataHash("CACHED_FILE_UUID", "HASH_1", 10);
+
+    assertThat(underTest.getLinesAsRawText(dbTester.getSession(), "CACHED_FILE_UUID", 1, 2).get()).containsExactly("SOURCE_1", "SOURCE_2");
+
+    assertThat(sourceCache.getEntries()).isZero();
+  }
+
+  @Test
+  public void cached_lines_are_selected_by_line_number() throws Exception {
+    // first line has no number and second line is missing
+    DbFileSources.Data.Builder data = DbFileSources.Data.newBuilder();
+    data.addLinesBuilder().setSource("NO_NUMBER");
+    for (int i = 3; i <= 6; i++) {
+      data.addLinesBuilder().setLine(i).setSource("SOURCE_" + i);
+    }
+    insertFileWithDataHash("CACHED_FILE_UUID", "HASH_1", data.build());
+    List<String> uncached = Lists.newArrayList(new SourceService(dbTester.getDbClient(), htmlDecorator,
+      new SourceCache(new MapSettings().setProperty(SourceCache.PROPERTY_MAX_SIZE_IN_MB, 0).asConfig()))
+        .getLinesAsRawText(dbTester.getSession(), "CACHED_FILE_UUID", 2, 4).get());
+
+    assertThat(underTest.getLinesAsRawText(dbTester.getSession(), "CACHED_FILE_UUID", 2, 4).get())
+      .containsExactly("SOURCE_3", "SOURCE_4", "SOURCE_5")
+      .containsExactlyElementsOf(uncached);
+    assertThat(underTest.getLinesAsRawText(dbTester.getSession(), "CACHED_FILE_UUID", 5, 10).get()).containsExactly("SOURCE_5", "SOURCE_6");
+    assertThat(sourceCache.getStats().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void lines_weighing_more_than_the_limit_of_an_entry_are_not_cached() throws Exception {
+    sourceCache = new SourceCache(new MapSettings().setProperty(SourceCache.PROPERTY_MAX_SIZE_IN_MB, 1).asConfig());
+    underTest = new SourceService(dbTester.getDbClient(), htmlDecorator, sourceCache);
+    // highly compressible lines, so that compressed data is small but decoded lines are heavier than 1MB / 20
+    DbFileSources.Data.Builder data = DbFileSources.Data.newBuilder();
+    for (int i = 1; i <= 50; i++) {
+      data.addLinesBuilder().setLine(i).setSource(Strings.repeat("a", 1_000));
+    }
+    insertFileWithDataHash("BIG_FILE_UUID", "HASH_1", data.build());
+
+    assertThat(underTest.getLinesAsRawText(dbTester.getSession(), "BIG_FILE_UUID", 1, 2).get()).hasSize(2);
+
+    assertThat(sourceCache.getEntries()).isZero();
+  }
+
+  private void insertFileWithDataHash(String fileUuid, String dataHash, int numberOfLines) throws IOException {
+    insertFileWithDataHash(fileUuid, dataHash, FileSourceTesting.newFakeData(numberOfLines).build());
+  }
+
+  private void insertFileWithDataHash(String fileUuid, String dataHash, DbFileSources.Data data) {
+    FileSourceDto dto = new FileSourceDto()
+      .setFileUuid(fileUuid)
+      .setProjectUuid("PROJECT_UUID")
+      .setDataHash(dataHash)
+      .setSourceData(data);
+    dbTester.getDbClient().fileSourceDao().insert(dbTester.getSession(), dto);
+    dbTester.commit();
+  }
+
 }
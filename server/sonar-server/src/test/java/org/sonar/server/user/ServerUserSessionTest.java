@@ -25,6 +25,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.System2;
 import org.sonar.api.web.UserRole;
 import org.sonar.db.DbClient;
@@ -32,6 +33,7 @@ import org.sonar.db.DbTester;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
 import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.permission.AuthorizationChanges;
 import org.sonar.db.permission.OrganizationPermission;
 import org.sonar.db.user.GroupDto;
 import org.sonar.db.user.UserDto;
@@ -558,8 +560,86 @@ public class ServerUserSessionTest {
     assertThat(hasComponentPermissionByDtoOrUuid(underTest, "p1", fileInBranch)).isTrue();
   }
 
+  @Test
+  public void permissions_are_shared_by_the_sessions_of_a_user() {
+    UserPermissionsCache permissionsCache = newPermissionsCache();
+    db.users().insertPermissionOnUser(organization, user, PROVISION_PROJECTS);
+    assertThat(newUserSession(permissionsCache, user).hasPermission(PROVISION_PROJECTS, organization.getUuid())).isTrue();
+
+    db.users().deletePermissionFromUser(organization, user, PROVISION_PROJECTS);
+
+    assertThat(newUserSession(permissionsCache, user).hasPermission(PROVISION_PROJECTS, organization.getUuid())).isTrue();
+    assertThat(newUserSession(permissionsCache, user).hasPermission(ADMINISTER, organization.getUuid())).isFalse();
+    assertThat(permissionsCache.getHits()).isEqualTo(2);
+    assertThat(permissionsCache.getMisses()).isEqualTo(1);
+  }
+
+  @Test
+  public void permissions_are_reloaded_when_cache_is_invalidated() {
+    UserPermissionsCache permissionsCache = newPermissionsCache();
+    db.users().insertProjectPermissionOnUser(user, UserRole.ADMIN, privateProject);
+    ServerUserSession session = newUserSession(permissionsCache, user);
+    assertThat(session.hasComponentPermission(UserRole.ADMIN, privateProject)).isTrue();
+
+    db.users().deletePermissionFromUser(privateProject, user, UserRole.ADMIN);
+    permissionsCache.invalidateAll();
+
+    assertThat(newUserSession(permissionsCache, user).hasComponentPermission(UserRole.ADMIN, privateProject)).isFalse();
+    // permissions of a session do not change during its lifetime
+    assertThat(session.hasComponentPermission(UserRole.ADMIN, privateProject)).isTrue();
+  }
+
+  @Test
+  public void permissions_are_reloaded_when_changes_are_committed() {
+    UserPermissionsCache permissionsCache = new UserPermissionsCache(new MapSettings().asConfig(), new UserPermissionsStandaloneVersion(), db.getAuthorizationChanges());
+    GroupDto group = db.users().insertGroup(organization);
+    db.users().insertPermissionOnGroup(group, ADMINISTER);
+    db.users().insertMember(group, user);
+    assertThat(newUserSession(permissionsCache, user).hasPermission(ADMINISTER, organization.getUuid())).isTrue();
+
+    db.getDbClient().userGroupDao().delete(db.getSession(), group.getId(), user.getId());
+    assertThat(newUserSession(permissionsCache, user).hasPermission(ADMINISTER, organization.getUuid())).isTrue();
+    db.commit();
+
+    assertThat(newUserSession(permissionsCache, user).hasPermission(ADMINISTER, organization.getUuid())).isFalse();
+  }
+
+  @Test
+  public void permissions_are_not_shared_between_users() {
+    UserPermissionsCache permissionsCache = newPermissionsCache();
+    UserDto otherUser = db.users().insertUser();
+    db.users().insertPermissionOnUser(organization, user, PROVISION_PROJECTS);
+
+    assertThat(newUserSession(permissionsCache, user).hasPermission(PROVISION_PROJECTS, organization.getUuid())).isTrue();
+    assertThat(newUserSession(permissionsCache, otherUser).hasPermission(PROVISION_PROJECTS, organization.getUuid())).isFalse();
+    assertThat(newUserSession(permissionsCache, null).hasPermission(PROVISION_PROJECTS, organization.getUuid())).isFalse();
+  }
+
+  @Test
+  public void permissions_are_not_shared_when_cache_is_disabled() {
+    UserPermissionsCache permissionsCache = new UserPermissionsCache(new MapSettings().setProperty(UserPermissionsCache.PROPERTY_TTL_IN_SECONDS, 0).asConfig(),
+      new UserPermissionsStandaloneVersion(), new AuthorizationChanges());
+    db.users().insertPermissionOnUser(organization, user, PROVISION_PROJECTS);
+    assertThat(newUserSession(permissionsCache, user).hasPermission(PROVISION_PROJECTS, organization.getUuid())).isTrue();
+
+    db.users().deletePermissionFromUser(organization, user, PROVISION_PROJECTS);
+
+    assertThat(newUserSession(permissionsCache, user).hasPermission(PROVISION_PROJECTS, organization.getUuid())).isFalse();
+  }
+
   private ServerUserSession newUserSession(@Nullable UserDto userDto) {
-    return new ServerUserSession(dbClient, organizationFlags, defaultOrganizationProvider, userDto);
+    return newUserSession(newPermissionsCache(), userDto);
+  }
+
+  private ServerUserSession newUserSession(UserPermissionsCache permissionsCache, @Nullable UserDto userDto) {
+    return new ServerUserSession(dbClient, organizationFlags, defaultOrganizationProvider, permissionsCache, userDto);
+  }
+
+  /**
+   * Not notified of the changes committed by {@link #db}, so that tests can check what is kept in cache.
+   */
+  private static UserPermissionsCache newPermissionsCache() {
+    return new UserPermissionsCache(new MapSettings().asConfig(), new UserPermissionsStandaloneVersion(), new AuthorizationChanges());
   }
 
   private ServerUserSession newAnonymousSession() {
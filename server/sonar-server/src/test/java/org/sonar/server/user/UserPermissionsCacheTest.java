@@ -0,0 +1,111 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.db.DbSession;
+import org.sonar.db.permission.AuthorizationChanges;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class UserPermissionsCacheTest {
+
+  private UserPermissionsVersion version = new UserPermissionsStandaloneVersion();
+  private AuthorizationChanges authorizationChanges = new AuthorizationChanges();
+  private UserPermissionsCache underTest = new UserPermissionsCache(new MapSettings().asConfig(), version, authorizationChanges);
+
+  @Test
+  public void enabled_by_default() {
+    assertThat(underTest.isEnabled()).isTrue();
+    assertThat(underTest.getTtlInSeconds()).isEqualTo(UserPermissionsCache.DEFAULT_TTL_IN_SECONDS);
+  }
+
+  @Test
+  public void disabled_when_ttl_is_zero() {
+    UserPermissionsCache disabled = new UserPermissionsCache(new MapSettings().setProperty(UserPermissionsCache.PROPERTY_TTL_IN_SECONDS, 0).asConfig(), version,
+      authorizationChanges);
+
+    assertThat(disabled.isEnabled()).isFalse();
+    assertThat(disabled.get(1)).isNotSameAs(disabled.get(1));
+    assertThat(disabled.getEntries()).isZero();
+    disabled.putProjectUuid("file", "project");
+    assertThat(disabled.getProjectUuid("file")).isNull();
+  }
+
+  @Test
+  public void permissions_are_cached_by_user() {
+    UserPermissionsCache.UserPermissions permissions = underTest.get(1);
+
+    assertThat(underTest.get(1)).isSameAs(permissions);
+    assertThat(underTest.get(2)).isNotSameAs(permissions);
+    assertThat(underTest.get(null)).isNotSameAs(permissions).isSameAs(underTest.get(null));
+    assertThat(underTest.getEntries()).isEqualTo(3);
+    assertThat(underTest.getHits()).isEqualTo(2);
+    assertThat(underTest.getMisses()).isEqualTo(3);
+  }
+
+  @Test
+  public void invalidateAll_increments_version() {
+    UserPermissionsCache.UserPermissions permissions = underTest.get(1);
+
+    underTest.invalidateAll();
+
+    assertThat(version.get()).isEqualTo(1L);
+    assertThat(underTest.get(1)).isNotSameAs(permissions);
+  }
+
+  @Test
+  public void invalidated_on_commit_of_authorization_changes() {
+    DbSession dbSession = mock(DbSession.class);
+    ArgumentCaptor<Runnable> commitListener = ArgumentCaptor.forClass(Runnable.class);
+    UserPermissionsCache.UserPermissions permissions = underTest.get(1);
+
+    authorizationChanges.onChange(dbSession);
+    verify(dbSession).addCommitListener(commitListener.capture());
+    commitListener.getValue().run();
+
+    assertThat(version.get()).isEqualTo(1L);
+    assertThat(underTest.get(1)).isNotSameAs(permissions);
+  }
+
+  @Test
+  public void entries_loaded_before_a_change_of_version_are_ignored() {
+    UserPermissionsCache.UserPermissions permissions = underTest.get(1);
+
+    // for example a change done on another node of the cluster
+    version.increment();
+
+    assertThat(underTest.get(1)).isNotSameAs(permissions);
+    assertThat(underTest.getMisses()).isEqualTo(2);
+  }
+
+  @Test
+  public void project_uuids_are_cached_by_component_uuid() {
+    assertThat(underTest.getProjectUuid("file")).isNull();
+
+    underTest.putProjectUuid("file", "project");
+
+    assertThat(underTest.getProjectUuid("file")).isEqualTo("project");
+  }
+}
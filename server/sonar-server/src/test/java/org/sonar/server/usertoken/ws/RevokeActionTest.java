@@ -29,6 +29,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.user.UserTokenDto;
+import org.sonar.server.authentication.AuthenticatedUserCache;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.exceptions.UnauthorizedException;
 import org.sonar.server.tester.UserSessionRule;
@@ -36,6 +37,8 @@ import org.sonar.server.ws.TestRequest;
 import org.sonar.server.ws.WsActionTester;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.sonar.db.user.UserTokenTesting.newUserToken;
 import static org.sonar.server.usertoken.ws.UserTokensWsParameters.PARAM_LOGIN;
 import static org.sonar.server.usertoken.ws.UserTokensWsParameters.PARAM_NAME;
@@ -55,12 +58,13 @@ public class RevokeActionTest {
 
   private DbClient dbClient = db.getDbClient();
   private final DbSession dbSession = db.getSession();
+  private AuthenticatedUserCache authenticatedUserCache = mock(AuthenticatedUserCache.class);
   private WsActionTester ws;
 
   @Before
   public void setUp() {
     ws = new WsActionTester(
-      new RevokeAction(dbClient, userSession));
+      new RevokeAction(dbClient, userSession, authenticatedUserCache));
   }
 
   @Test
@@ -76,6 +80,7 @@ public class RevokeActionTest {
     assertThat(response).isEmpty();
     assertThat(dbClient.userTokenDao().selectByLogin(dbSession, GRACE_HOPPER)).extracting("name").containsOnly("token-to-keep-1", "token-to-keep-2");
     assertThat(dbClient.userTokenDao().selectByLogin(dbSession, ADA_LOVELACE)).extracting("name").containsOnly("token-to-delete");
+    verify(authenticatedUserCache).invalidateAll();
   }
 
   @Test
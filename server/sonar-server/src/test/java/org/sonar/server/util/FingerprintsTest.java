@@ -0,0 +1,59 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.util;
+
+import com.google.common.collect.ImmutableMap;
+import java.security.MessageDigest;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class FingerprintsTest {
+
+  @Test
+  public void values_are_delimited() {
+    assertThat(digest("ab", "c")).isNotEqualTo(digest("a", "bc"));
+    assertThat(digest("a", null)).isNotEqualTo(digest("a", ""));
+  }
+
+  @Test
+  public void format_then_parse() {
+    String formatted = Fingerprints.format(ImmutableMap.of("squid", "abc", "java/Sonar way", "def"));
+
+    assertThat(formatted).isEqualTo("java/Sonar way=def\nsquid=abc\n");
+    assertThat(Fingerprints.parse(formatted)).containsOnly(
+      entry("squid", "abc"),
+      entry("java/Sonar way", "def"));
+  }
+
+  @Test
+  public void parse_null() {
+    assertThat(Fingerprints.parse(null)).isEmpty();
+  }
+
+  private static String digest(String... values) {
+    MessageDigest digest = DigestUtils.getSha1Digest();
+    Fingerprints.update(digest, values);
+    return Hex.encodeHexString(digest.digest());
+  }
+}
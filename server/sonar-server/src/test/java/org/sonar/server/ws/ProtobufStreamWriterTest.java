@@ -0,0 +1,107 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.ws;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.core.util.ProtobufJsonFormat;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.Issues.SearchWsResponse;
+import org.sonarqube.ws.MediaTypes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.test.JsonAssert.assertJson;
+
+public class ProtobufStreamWriterTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private TestRequest request = new TestRequest();
+  private DumbResponse response = new DumbResponse();
+
+  @Test
+  public void write_json_by_default() {
+    writeResponse();
+
+    assertThat(response.stream().mediaType()).isEqualTo(MediaTypes.JSON);
+    assertJson(response.outputAsString()).isSimilarTo(ProtobufJsonFormat.toJson(expectedResponse()));
+  }
+
+  @Test
+  public void write_protobuf() throws Exception {
+    request.setMediaType(MediaTypes.PROTOBUF);
+
+    writeResponse();
+
+    assertThat(response.stream().mediaType()).isEqualTo(MediaTypes.PROTOBUF);
+    assertThat(SearchWsResponse.parseFrom(response.getFlushedOutput())).isEqualTo(expectedResponse());
+  }
+
+  @Test
+  public void fail_to_write_message_of_another_type() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Message of type sonarqube.ws.issues.SearchWsResponse is expected. Got sonarqube.ws.issues.Issue");
+
+    ProtobufStreamWriter.of(SearchWsResponse.getDescriptor(), request, response).writeFields(newIssue("I1"));
+  }
+
+  @Test
+  public void fail_to_begin_array_of_non_repeated_field() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Field total is not a repeated field of messages of sonarqube.ws.issues.SearchWsResponse");
+
+    ProtobufStreamWriter.of(SearchWsResponse.getDescriptor(), request, response).beginArray("total");
+  }
+
+  @Test
+  public void fail_to_write_element_outside_array() {
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("No array has been started");
+
+    ProtobufStreamWriter.of(SearchWsResponse.getDescriptor(), request, response).writeElement(newIssue("I1"));
+  }
+
+  private void writeResponse() {
+    try (ProtobufStreamWriter writer = ProtobufStreamWriter.of(SearchWsResponse.getDescriptor(), request, response)) {
+      writer.writeFields(SearchWsResponse.newBuilder().setTotal(2L).setP(1L).build());
+      writer.beginArray("issues");
+      writer.writeElement(newIssue("I1"));
+      writer.writeElement(newIssue("I2"));
+      writer.endArray();
+      writer.beginArray("components");
+      writer.endArray();
+    }
+  }
+
+  private static SearchWsResponse expectedResponse() {
+    return SearchWsResponse.newBuilder()
+      .setTotal(2L)
+      .setP(1L)
+      .addIssues(newIssue("I1"))
+      .addIssues(newIssue("I2"))
+      .build();
+  }
+
+  private static Issues.Issue newIssue(String key) {
+    return Issues.Issue.newBuilder().setKey(key).build();
+  }
+}
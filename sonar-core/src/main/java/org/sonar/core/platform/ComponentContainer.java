@@ -25,6 +25,7 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.picocontainer.Characteristics;
 import org.picocontainer.ComponentAdapter;
@@ -86,6 +87,14 @@ public class ComponentContainer implements ContainerPopulator.Container {
     this(createPicoContainer());
   }
 
+  /**
+   * Create root container, whose components are started and stopped by the given lifecycle strategy. The strategy
+   * is shared with the child containers.
+   */
+  public ComponentContainer(Function<ComponentMonitor, LifecycleStrategy> lifecycleStrategyFactory) {
+    this(createPicoContainer(lifecycleStrategyFactory));
+  }
+
   protected ComponentContainer(MutablePicoContainer picoContainer) {
     this(picoContainer, new PropertyDefinitions());
   }
@@ -294,8 +303,12 @@ public class ComponentContainer implements ContainerPopulator.Container {
   }
 
   public static MutablePicoContainer createPicoContainer() {
+    return createPicoContainer(StopSafeReflectionLifecycleStrategy::new);
+  }
+
+  public static MutablePicoContainer createPicoContainer(Function<ComponentMonitor, LifecycleStrategy> lifecycleStrategyFactory) {
     NullComponentMonitor componentMonitor = new NullComponentMonitor();
-    return new ExtendedDefaultPicoContainer(new OptInCaching(), new StopSafeReflectionLifecycleStrategy(componentMonitor), null, componentMonitor);
+    return new ExtendedDefaultPicoContainer(new OptInCaching(), lifecycleStrategyFactory.apply(componentMonitor), null, componentMonitor);
   }
 
   public ComponentContainer getParent() {
@@ -20,12 +20,25 @@
 package org.sonar.core.util;
 
 import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.MapEntry;
 import com.google.protobuf.Message;
 import java.io.StringWriter;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.text.JsonWriter;
 
 /**
@@ -131,31 +144,232 @@ public class ProtobufJsonFormat {
     // only statics
   }
 
+  /**
+   * Fields of a message class, computed only once. It avoids browsing the protobuf descriptors
+   * for each message to be written. As all the instances of {@link DynamicMessage} share the same
+   * class whatever their type, their fields are cached by descriptor.
+   */
   static class MessageType {
-    private static final Map<Class<? extends Message>, MessageType> TYPES_BY_CLASS = new HashMap<>();
+    private static final Map<Class<? extends Message>, MessageType> TYPES_BY_CLASS = new ConcurrentHashMap<>();
+    private static final Map<Descriptors.Descriptor, MessageType> DYNAMIC_TYPES_BY_DESCRIPTOR = new ConcurrentHashMap<>();
 
-    private final Descriptors.FieldDescriptor[] fieldDescriptors;
+    private final FieldType[] fields;
     private final boolean doesWrapRepeated;
 
-    private MessageType(Descriptors.Descriptor descriptor) {
-      this.fieldDescriptors = descriptor.getFields().toArray(new Descriptors.FieldDescriptor[descriptor.getFields().size()]);
-      this.doesWrapRepeated = fieldDescriptors.length == 1 && fieldDescriptors[0].isRepeated() && descriptor.getName().equalsIgnoreCase(fieldDescriptors[0].getName());
+    private MessageType(Class<? extends Message> messageClass, Descriptors.Descriptor descriptor) {
+      this.fields = descriptor.getFields().stream().map(f -> new FieldType(messageClass, f)).toArray(FieldType[]::new);
+      this.doesWrapRepeated = fields.length == 1 && fields[0].repeated && descriptor.getName().equalsIgnoreCase(fields[0].name);
     }
 
     static MessageType of(Message message) {
+      if (message instanceof DynamicMessage) {
+        return ofDynamic(message.getDescriptorForType());
+      }
       MessageType type = TYPES_BY_CLASS.get(message.getClass());
       if (type == null) {
-        type = new MessageType(message.getDescriptorForType());
-        TYPES_BY_CLASS.put(message.getClass(), type);
+        type = TYPES_BY_CLASS.computeIfAbsent(message.getClass(), c -> new MessageType(c, message.getDescriptorForType()));
       }
       return type;
     }
+
+    private static MessageType ofDynamic(Descriptors.Descriptor descriptor) {
+      MessageType type = DYNAMIC_TYPES_BY_DESCRIPTOR.get(descriptor);
+      if (type == null) {
+        type = DYNAMIC_TYPES_BY_DESCRIPTOR.computeIfAbsent(descriptor, d -> new MessageType(DynamicMessage.class, d));
+      }
+      return type;
+    }
+  }
+
+  static class FieldType {
+    private final Descriptors.FieldDescriptor descriptor;
+    private final String name;
+    private final boolean repeated;
+    // descriptor of the values of the map field, null if the field is not a map
+    @CheckForNull
+    private final Descriptors.FieldDescriptor mapValueDescriptor;
+    private final FieldAccessor accessor;
+
+    private FieldType(Class<? extends Message> messageClass, Descriptors.FieldDescriptor descriptor) {
+      this.descriptor = descriptor;
+      this.name = descriptor.getName();
+      this.repeated = descriptor.isRepeated();
+      this.mapValueDescriptor = descriptor.isMapField() ? descriptor.getMessageType().findFieldByName("value") : null;
+      this.accessor = FieldAccessor.of(messageClass, descriptor);
+    }
+  }
+
+  /**
+   * Reads the value of a field. Fields of generated message classes are read through the generated
+   * methods {@code hasFoo()}, {@code getFoo()} and {@code getFooList()}, bound once by {@link LambdaMetafactory},
+   * instead of the reflection used by {@link Message#hasField(Descriptors.FieldDescriptor)} and
+   * {@link Message#getField(Descriptors.FieldDescriptor)}.
+   * <p>
+   * The descriptors are still used for:
+   * <ul>
+   *   <li>map fields, as protobuf exposes them as entries only through {@link Message#getField(Descriptors.FieldDescriptor)}</li>
+   *   <li>enum fields, as the generated getters of proto3 return {@code UNRECOGNIZED} for unknown values, which has no name</li>
+   *   <li>singular fields without {@code hasFoo()} (proto3 scalars), fields of type not supported by JSON format
+   *   and messages that are not generated classes, for example {@link com.google.protobuf.DynamicMessage}</li>
+   *   <li>classes that are not visible from the classloader of {@link ProtobufJsonFormat}, for example classes
+   *   of plugins</li>
+   * </ul>
+   */
+  abstract static class FieldAccessor {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Descriptors.FieldDescriptor.JavaType, Class<?>> GETTER_TYPES = new EnumMap<>(Descriptors.FieldDescriptor.JavaType.class);
+
+    static {
+      GETTER_TYPES.put(Descriptors.FieldDescriptor.JavaType.INT, int.class);
+      GETTER_TYPES.put(Descriptors.FieldDescriptor.JavaType.LONG, long.class);
+      GETTER_TYPES.put(Descriptors.FieldDescriptor.JavaType.DOUBLE, double.class);
+      GETTER_TYPES.put(Descriptors.FieldDescriptor.JavaType.BOOLEAN, boolean.class);
+      GETTER_TYPES.put(Descriptors.FieldDescriptor.JavaType.STRING, String.class);
+      GETTER_TYPES.put(Descriptors.FieldDescriptor.JavaType.MESSAGE, Message.class);
+    }
+
+    /**
+     * Whether the singular field is set. Not called on repeated fields.
+     */
+    abstract boolean has(Message message);
+
+    /**
+     * Value of the field, a {@link Collection} if the field is repeated.
+     */
+    abstract Object get(Message message);
+
+    static FieldAccessor of(Class<? extends Message> messageClass, Descriptors.FieldDescriptor descriptor) {
+      Class<?> getterType = GETTER_TYPES.get(descriptor.getJavaType());
+      if (getterType == null || descriptor.isMapField() || !isVisible(messageClass)) {
+        return new ReflectiveFieldAccessor(descriptor);
+      }
+      String camelCaseName = toCamelCase(descriptor.getName());
+      if (descriptor.isRepeated()) {
+        Method getter = findGetter(messageClass, "get" + camelCaseName + "List", List.class);
+        if (getter != null) {
+          return new GeneratedFieldAccessor(null, bindGetter(getter));
+        }
+      } else {
+        Method hasser = findGetter(messageClass, "has" + camelCaseName, boolean.class);
+        Method getter = findGetter(messageClass, "get" + camelCaseName, getterType);
+        if (hasser != null && getter != null) {
+          return new GeneratedFieldAccessor(bindHasser(hasser), bindGetter(getter));
+        }
+      }
+      return new ReflectiveFieldAccessor(descriptor);
+    }
+
+    /**
+     * Same conversion as protoc: underscores are removed and the letters following
+     * an underscore or a digit are upper-cased, for example "foo_bar2baz" gives "FooBar2Baz".
+     */
+    static String toCamelCase(String fieldName) {
+      StringBuilder sb = new StringBuilder(fieldName.length());
+      boolean upperCaseNext = true;
+      for (char c : fieldName.toCharArray()) {
+        if (c == '_') {
+          upperCaseNext = true;
+        } else if (Character.isDigit(c)) {
+          sb.append(c);
+          upperCaseNext = true;
+        } else {
+          sb.append(upperCaseNext ? Character.toUpperCase(c) : c);
+          upperCaseNext = false;
+        }
+      }
+      return sb.toString();
+    }
+
+    private static boolean isVisible(Class<?> messageClass) {
+      try {
+        return Class.forName(messageClass.getName(), false, ProtobufJsonFormat.class.getClassLoader()) == messageClass;
+      } catch (ClassNotFoundException e) {
+        return false;
+      }
+    }
+
+    /**
+     * The generated method must be declared by the message class itself, so that for instance
+     * a field named "class" is not bound to {@link Object#getClass()}.
+     */
+    @CheckForNull
+    private static Method findGetter(Class<?> messageClass, String methodName, Class<?> expectedType) {
+      try {
+        Method method = messageClass.getMethod(methodName);
+        if (method.getDeclaringClass() == messageClass && expectedType.isAssignableFrom(method.getReturnType())) {
+          return method;
+        }
+        return null;
+      } catch (NoSuchMethodException e) {
+        return null;
+      }
+    }
+
+    private static Function<Object, Object> bindGetter(Method getter) {
+      MethodType instantiatedType = MethodType.methodType(getter.getReturnType(), getter.getDeclaringClass()).wrap();
+      return (Function<Object, Object>) bind(getter, Function.class, "apply", MethodType.methodType(Object.class, Object.class), instantiatedType);
+    }
+
+    private static Predicate<Object> bindHasser(Method hasser) {
+      MethodType instantiatedType = MethodType.methodType(boolean.class, hasser.getDeclaringClass());
+      return (Predicate<Object>) bind(hasser, Predicate.class, "test", MethodType.methodType(boolean.class, Object.class), instantiatedType);
+    }
+
+    private static Object bind(Method method, Class<?> functionalInterface, String interfaceMethodName, MethodType interfaceMethodType, MethodType instantiatedType) {
+      try {
+        MethodHandle handle = LOOKUP.unreflect(method);
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, interfaceMethodName, MethodType.methodType(functionalInterface),
+          interfaceMethodType, handle, instantiatedType);
+        return site.getTarget().invoke();
+      } catch (Throwable e) {
+        throw new IllegalStateException(String.format("Fail to bind method %s of %s", method.getName(), method.getDeclaringClass()), e);
+      }
+    }
+  }
+
+  static class GeneratedFieldAccessor extends FieldAccessor {
+    @CheckForNull
+    private final Predicate<Object> hasser;
+    private final Function<Object, Object> getter;
+
+    private GeneratedFieldAccessor(@Nullable Predicate<Object> hasser, Function<Object, Object> getter) {
+      this.hasser = hasser;
+      this.getter = getter;
+    }
+
+    @Override
+    boolean has(Message message) {
+      return hasser.test(message);
+    }
+
+    @Override
+    Object get(Message message) {
+      return getter.apply(message);
+    }
+  }
+
+  static class ReflectiveFieldAccessor extends FieldAccessor {
+    private final Descriptors.FieldDescriptor descriptor;
+
+    private ReflectiveFieldAccessor(Descriptors.FieldDescriptor descriptor) {
+      this.descriptor = descriptor;
+    }
+
+    @Override
+    boolean has(Message message) {
+      return message.hasField(descriptor);
+    }
+
+    @Override
+    Object get(Message message) {
+      return message.getField(descriptor);
+    }
   }
 
   public static void write(Message message, JsonWriter writer) {
     writer.setSerializeNulls(false).setSerializeEmptys(true);
     writer.beginObject();
-    writeMessage(message, writer);
+    writeMessage(message, MessageType.of(message), writer, true);
     writer.endObject();
   }
 
@@ -167,24 +381,45 @@ public class ProtobufJsonFormat {
     return json.toString();
   }
 
-  private static void writeMessage(Message message, JsonWriter writer) {
-    MessageType type = MessageType.of(message);
-    for (Descriptors.FieldDescriptor fieldDescriptor : type.fieldDescriptors) {
-      if (fieldDescriptor.isRepeated()) {
-        writer.name(fieldDescriptor.getName());
-        if (fieldDescriptor.isMapField()) {
-          writeMap((Collection<MapEntry>) message.getField(fieldDescriptor), writer);
-        } else {
-          writeArray(writer, fieldDescriptor, (Collection) message.getField(fieldDescriptor));
+  /**
+   * Writes the fields of the message into the JSON object currently opened by {@code writer}.
+   * Contrary to {@link #write(Message, JsonWriter)}, empty repeated fields are ignored, so that
+   * they can be written afterwards element by element with {@link #writeValue(Message, JsonWriter)}.
+   */
+  public static void writeFields(Message message, JsonWriter writer) {
+    writeMessage(message, MessageType.of(message), writer, false);
+  }
+
+  /**
+   * Writes the message as a JSON value, for example as an element of an array opened by caller.
+   */
+  public static void writeValue(Message message, JsonWriter writer) {
+    writeMessageValue(message, writer);
+  }
+
+  private static void writeMessage(Message message, MessageType type, JsonWriter writer, boolean writeEmptyRepeatedFields) {
+    for (FieldType field : type.fields) {
+      if (field.repeated) {
+        Collection values = (Collection) field.accessor.get(message);
+        if (writeEmptyRepeatedFields || !values.isEmpty()) {
+          writer.name(field.name);
+          writeRepeated(field, values, writer);
         }
-      } else if (message.hasField(fieldDescriptor)) {
-        writer.name(fieldDescriptor.getName());
-        Object fieldValue = message.getField(fieldDescriptor);
-        writeFieldValue(fieldDescriptor, fieldValue, writer);
+      } else if (field.accessor.has(message)) {
+        writer.name(field.name);
+        writeFieldValue(field.descriptor, field.accessor.get(message), writer);
       }
     }
   }
 
+  private static void writeRepeated(FieldType field, Collection values, JsonWriter writer) {
+    if (field.mapValueDescriptor != null) {
+      writeMap((Collection<MapEntry>) values, field.mapValueDescriptor, writer);
+    } else {
+      writeArray(writer, field.descriptor, values);
+    }
+  }
+
   private static void writeArray(JsonWriter writer, Descriptors.FieldDescriptor fieldDescriptor, Collection array) {
     writer.beginArray();
     for (Object o : array) {
@@ -193,12 +428,11 @@ public class ProtobufJsonFormat {
     writer.endArray();
   }
 
-  private static void writeMap(Collection<MapEntry> mapEntries, JsonWriter writer) {
+  private static void writeMap(Collection<MapEntry> mapEntries, Descriptors.FieldDescriptor valueDescriptor, JsonWriter writer) {
     writer.beginObject();
     for (MapEntry mapEntry : mapEntries) {
       // Key fields are always double-quoted in json
       writer.name(mapEntry.getKey().toString());
-      Descriptors.FieldDescriptor valueDescriptor = mapEntry.getDescriptorForType().findFieldByName("value");
       writeFieldValue(valueDescriptor, mapEntry.getValue(), writer);
     }
     writer.endObject();
@@ -235,15 +469,11 @@ public class ProtobufJsonFormat {
   private static void writeMessageValue(Message message, JsonWriter writer) {
     MessageType messageType = MessageType.of(message);
     if (messageType.doesWrapRepeated) {
-      Descriptors.FieldDescriptor repeatedDescriptor = messageType.fieldDescriptors[0];
-      if (repeatedDescriptor.isMapField()) {
-        writeMap((Collection<MapEntry>) message.getField(repeatedDescriptor), writer);
-      } else {
-        writeArray(writer, repeatedDescriptor, (Collection) message.getField(repeatedDescriptor));
-      }
+      FieldType field = messageType.fields[0];
+      writeRepeated(field, (Collection) field.accessor.get(message), writer);
     } else {
       writer.beginObject();
-      writeMessage(message, writer);
+      writeMessage(message, messageType, writer, true);
       writer.endObject();
     }
   }
@@ -62,6 +62,25 @@ public class ComponentContainerTest {
     assertThat(container.getComponentByType(StartableStoppableComponent.class).stopped).isTrue();
   }
 
+  @Test
+  public void components_are_started_by_lifecycle_strategy_of_root_container() {
+    List<Object> startedComponents = new ArrayList<>();
+    ComponentContainer container = new ComponentContainer(monitor -> new StopSafeReflectionLifecycleStrategy(monitor) {
+      @Override
+      public void start(Object component) {
+        super.start(component);
+        startedComponents.add(component);
+      }
+    });
+    ComponentContainer child = container.createChild();
+    container.addSingleton(StartableStoppableComponent.class);
+    child.addSingleton(FailingStopWithISEComponent.class);
+    container.startComponents();
+
+    assertThat(startedComponents)
+      .containsExactly(container.getComponentByType(StartableStoppableComponent.class), child.getComponentByType(FailingStopWithISEComponent.class));
+  }
+
   @Test
   public void should_start_and_stop_hierarchy_of_containers() {
     StartableStoppableComponent parentComponent = new StartableStoppableComponent();
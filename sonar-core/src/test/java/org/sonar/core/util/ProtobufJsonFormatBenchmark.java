@@ -0,0 +1,81 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.util;
+
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.core.test.Test.NestedMsg;
+import org.sonar.core.test.Test.TestArray;
+
+/**
+ * Compares the conversion to JSON of generated messages, read through their generated accessors,
+ * with the conversion of the same {@link DynamicMessage}, read through the protobuf descriptors.
+ * It is not executed by unit tests. Run {@link #main(String[])} from the IDE or with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProtobufJsonFormatBenchmark {
+
+  private TestArray generatedMessage;
+  private DynamicMessage dynamicMessage;
+
+  @Setup
+  public void setUp() throws InvalidProtocolBufferException {
+    TestArray.Builder builder = TestArray.newBuilder();
+    for (int i = 0; i < 100; i++) {
+      builder.addStrings("string " + i);
+      builder.addNesteds(NestedMsg.newBuilder().setLabel("nested " + i));
+    }
+    generatedMessage = builder.build();
+    dynamicMessage = DynamicMessage.parseFrom(TestArray.getDescriptor(), generatedMessage.toByteString());
+  }
+
+  @Benchmark
+  public String generated_accessors() {
+    return ProtobufJsonFormat.toJson(generatedMessage);
+  }
+
+  @Benchmark
+  public String descriptors() {
+    return ProtobufJsonFormat.toJson(dynamicMessage);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ProtobufJsonFormatBenchmark.class.getSimpleName()).build()).run();
+  }
+}
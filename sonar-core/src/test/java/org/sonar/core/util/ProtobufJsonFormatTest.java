@@ -20,6 +20,8 @@
 package org.sonar.core.util;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
 import java.io.StringWriter;
 import org.junit.Rule;
 import org.junit.Test;
@@ -210,6 +212,102 @@ public class ProtobufJsonFormatTest {
     assertThat(toJson(msg.build())).isEqualTo("{\"catalogs\":{\"numbers\":{\"one\":\"un\",\"two\":\"deux\"}}}");
   }
 
+  @Test
+  public void writeFields_ignores_empty_arrays_so_that_they_can_be_streamed() {
+    StringWriter json = new StringWriter();
+    try (JsonWriter writer = JsonWriter.of(json)) {
+      writer.beginObject();
+      ProtobufJsonFormat.writeFields(TestArray.newBuilder().addStrings("one").build(), writer);
+      writer.name("nesteds").beginArray();
+      ProtobufJsonFormat.writeValue(NestedMsg.newBuilder().setLabel("nested 1").build(), writer);
+      ProtobufJsonFormat.writeValue(NestedMsg.newBuilder().setLabel("nested 2").build(), writer);
+      writer.endArray();
+      writer.endObject();
+    }
+
+    assertThat(json.toString()).isEqualTo("{\"strings\":[\"one\"],\"nesteds\":[{\"label\":\"nested 1\"},{\"label\":\"nested 2\"}]}");
+  }
+
+  @Test
+  public void fields_of_message_types_are_computed_only_once() {
+    ProtobufJsonFormat.MessageType type = ProtobufJsonFormat.MessageType.of(TestMap.newBuilder().build());
+
+    assertThat(ProtobufJsonFormat.MessageType.of(TestMap.newBuilder().build())).isSameAs(type);
+    assertThat(ProtobufJsonFormat.MessageType.of(TestArray.newBuilder().build())).isNotSameAs(type);
+  }
+
+  @Test
+  public void fields_of_generated_messages_are_read_through_generated_accessors() {
+    assertThat(accessorOf(PrimitiveTypeMsg.getDefaultInstance(), "stringField")).isInstanceOf(ProtobufJsonFormat.GeneratedFieldAccessor.class);
+    assertThat(accessorOf(PrimitiveTypeMsg.getDefaultInstance(), "intField")).isInstanceOf(ProtobufJsonFormat.GeneratedFieldAccessor.class);
+    assertThat(accessorOf(PrimitiveTypeMsg.getDefaultInstance(), "nested")).isInstanceOf(ProtobufJsonFormat.GeneratedFieldAccessor.class);
+    assertThat(accessorOf(TestArray.getDefaultInstance(), "strings")).isInstanceOf(ProtobufJsonFormat.GeneratedFieldAccessor.class);
+    assertThat(accessorOf(TestArray.getDefaultInstance(), "nesteds")).isInstanceOf(ProtobufJsonFormat.GeneratedFieldAccessor.class);
+  }
+
+  @Test
+  public void enum_map_and_unsupported_fields_are_read_through_descriptors() {
+    assertThat(accessorOf(PrimitiveTypeMsg.getDefaultInstance(), "enumField")).isInstanceOf(ProtobufJsonFormat.ReflectiveFieldAccessor.class);
+    assertThat(accessorOf(PrimitiveTypeMsg.getDefaultInstance(), "bytesField")).isInstanceOf(ProtobufJsonFormat.ReflectiveFieldAccessor.class);
+    assertThat(accessorOf(TestMap.getDefaultInstance(), "stringMap")).isInstanceOf(ProtobufJsonFormat.ReflectiveFieldAccessor.class);
+    assertThat(ProtobufJsonFormat.FieldAccessor.of(DynamicMessage.class, PrimitiveTypeMsg.getDescriptor().findFieldByName("stringField")))
+      .isInstanceOf(ProtobufJsonFormat.ReflectiveFieldAccessor.class);
+  }
+
+  @Test
+  public void generated_and_dynamic_messages_are_written_the_same_way() throws Exception {
+    PrimitiveTypeMsg primitives = PrimitiveTypeMsg.newBuilder()
+      .setStringField("foo")
+      .setIntField(10)
+      .setLongField(100L)
+      .setDoubleField(3.14)
+      .setBooleanField(true)
+      .setEnumField(org.sonar.core.test.Test.FakeEnum.GREEN)
+      .setNested(NestedMsg.newBuilder().setLabel("nested"))
+      .build();
+    TestArray array = TestArray.newBuilder()
+      .addStrings("one").addStrings("two")
+      .addNesteds(NestedMsg.newBuilder().setLabel("nested 1"))
+      .build();
+    TestNullableArray nullableArray = TestNullableArray.newBuilder()
+      .setLabel("world")
+      .setCountries(Countries.newBuilder().addCountries(Country.newBuilder().setName("France").setContinent("Europe")))
+      .build();
+    TestMap.Builder map = TestMap.newBuilder();
+    map.getMutableStringMap().put("one", "un");
+    map.getMutableNestedMap().put("two", NestedMsg.newBuilder().setLabel("deux").build());
+
+    for (Message message : new Message[] {primitives, PrimitiveTypeMsg.getDefaultInstance(), array, nullableArray, map.build()}) {
+      DynamicMessage dynamicMessage = DynamicMessage.parseFrom(message.getDescriptorForType(), message.toByteString());
+      assertThat(toJson(message)).isEqualTo(toJson(dynamicMessage));
+    }
+  }
+
+  @Test
+  public void write_dynamic_message_containing_nested_dynamic_message_of_other_type() throws Exception {
+    PrimitiveTypeMsg message = PrimitiveTypeMsg.newBuilder()
+      .setStringField("foo")
+      .setNested(NestedMsg.newBuilder().setLabel("nested"))
+      .build();
+    DynamicMessage dynamicMessage = DynamicMessage.parseFrom(PrimitiveTypeMsg.getDescriptor(), message.toByteString());
+
+    assertThat(ProtobufJsonFormat.MessageType.of(dynamicMessage))
+      .isNotSameAs(ProtobufJsonFormat.MessageType.of((Message) dynamicMessage.getField(PrimitiveTypeMsg.getDescriptor().findFieldByName("nested"))));
+    assertThat(toJson(dynamicMessage)).isEqualTo("{\"stringField\":\"foo\",\"nested\":{\"label\":\"nested\"}}");
+  }
+
+  @Test
+  public void field_names_are_converted_to_camel_case_as_protoc_does() {
+    assertThat(ProtobufJsonFormat.FieldAccessor.toCamelCase("label")).isEqualTo("Label");
+    assertThat(ProtobufJsonFormat.FieldAccessor.toCamelCase("stringField")).isEqualTo("StringField");
+    assertThat(ProtobufJsonFormat.FieldAccessor.toCamelCase("string_field")).isEqualTo("StringField");
+    assertThat(ProtobufJsonFormat.FieldAccessor.toCamelCase("foo_bar2baz")).isEqualTo("FooBar2Baz");
+  }
+
+  private static ProtobufJsonFormat.FieldAccessor accessorOf(Message defaultInstance, String fieldName) {
+    return ProtobufJsonFormat.FieldAccessor.of(defaultInstance.getClass(), defaultInstance.getDescriptorForType().findFieldByName(fieldName));
+  }
+
   @Test
   public void constructor_is_private() throws Exception {
     assertThat(TestUtils.hasOnlyPrivateConstructors(ProtobufJsonFormat.class)).isTrue();
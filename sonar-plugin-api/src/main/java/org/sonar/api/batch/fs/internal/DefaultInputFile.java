@@ -54,6 +54,11 @@ public class DefaultInputFile extends DefaultInputComponent implements InputFile
   private Status status;
   private Charset charset;
   private Metadata metadata;
+  /**
+   * Written once metadata, charset and status are all set, so that a thread reading {@code true}
+   * sees all of them.
+   */
+  private volatile boolean metadataComputed;
   private boolean published;
   private boolean excludedForCoverage;
 
@@ -72,9 +77,20 @@ public class DefaultInputFile extends DefaultInputComponent implements InputFile
     this.contents = contents;
   }
 
+  /**
+   * Metadata is computed lazily, on first access, as it requires to read the whole file. Files
+   * which are never used by sensors are never read. Can be called concurrently by several threads.
+   */
   public void checkMetadata() {
-    if (metadata == null) {
-      metadataGenerator.accept(this);
+    if (!metadataComputed) {
+      synchronized (this) {
+        if (!metadataComputed) {
+          if (metadata == null) {
+            metadataGenerator.accept(this);
+          }
+          metadataComputed = true;
+        }
+      }
     }
   }
 
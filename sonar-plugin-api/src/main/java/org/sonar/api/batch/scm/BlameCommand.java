@@ -43,6 +43,17 @@ public abstract class BlameCommand {
    */
   public abstract void blame(BlameInput input, BlameOutput output);
 
+  /**
+   * Whether {@link #blame(BlameInput, BlameOutput)} can be called concurrently by several threads, each call
+   * receiving a distinct subset of the files to blame. When {@code true}, the scanner splits the files
+   * into batches and blames them in parallel, so the implementation should not start its own threads.
+   * The number of threads is defined by the property "sonar.scm.blame.threads".
+   * @since 7.0
+   */
+  public boolean supportsConcurrentBlame() {
+    return false;
+  }
+
   /**
    * Callback for the provider to report results of blame per file.
    */
@@ -198,6 +198,18 @@ public final class ZipUtils {
     }
   }
 
+  /**
+   * Writes the zip of the directory to the stream, for example to upload it without creating
+   * a temporary file. The stream is not closed.
+   * @since 7.0
+   */
+  public static void zipDir(File dir, OutputStream out) throws IOException {
+    ZipOutputStream zout = new ZipOutputStream(out);
+    doZipDir(dir, zout);
+    zout.finish();
+    zout.flush();
+  }
+
   private static void doZip(String entryName, InputStream in, ZipOutputStream out) throws IOException {
     ZipEntry entry = new ZipEntry(entryName);
     out.putNextEntry(entry);
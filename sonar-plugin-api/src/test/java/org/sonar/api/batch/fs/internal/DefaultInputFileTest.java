@@ -33,6 +33,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.junit.Before;
 import org.junit.Rule;
@@ -94,6 +100,33 @@ public class DefaultInputFileTest {
     assertThat(new File(inputFile.relativePath())).isRelative();
   }
 
+  @Test
+  public void metadata_is_computed_lazily_and_only_once() throws Exception {
+    AtomicInteger generations = new AtomicInteger();
+    DefaultInputFile inputFile = new DefaultInputFile(indexedFile, f -> {
+      generations.incrementAndGet();
+      f.setCharset(StandardCharsets.UTF_8);
+      f.setStatus(InputFile.Status.SAME);
+      f.setMetadata(new Metadata(42, 42, "", new int[0], 0));
+    });
+    assertThat(generations.get()).isZero();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<InputFile.Status>> statuses = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        statuses.add(executor.submit(inputFile::status));
+      }
+      for (Future<InputFile.Status> status : statuses) {
+        assertThat(status.get()).isEqualTo(InputFile.Status.SAME);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(inputFile.lines()).isEqualTo(42);
+    assertThat(generations.get()).isEqualTo(1);
+  }
+
   @Test
   public void test_content() throws IOException {
     Path testFile = baseDir.resolve(PROJECT_RELATIVE_PATH);
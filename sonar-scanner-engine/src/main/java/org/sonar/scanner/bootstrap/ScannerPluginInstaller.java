@@ -20,15 +20,21 @@
 package org.sonar.scanner.bootstrap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.sonar.api.utils.log.Logger;
@@ -49,6 +55,10 @@ public class ScannerPluginInstaller implements PluginInstaller {
 
   private static final Logger LOG = Loggers.get(ScannerPluginInstaller.class);
   private static final String PLUGINS_WS_URL = "/api/plugins/installed";
+  /**
+   * Plugins are downloaded concurrently. The hash of each file is verified by {@link FileCache}.
+   */
+  private static final int DOWNLOAD_THREADS = 4;
 
   private final FileCache fileCache;
   private final ScannerPluginPredicate pluginPredicate;
@@ -70,17 +80,43 @@ public class ScannerPluginInstaller implements PluginInstaller {
 
     Profiler profiler = Profiler.create(LOG).startInfo("Load/download plugins");
 
-    for (InstalledPlugin installedPlugin : remotePlugins) {
-      if (pluginPredicate.apply(installedPlugin.key)) {
-        File jarFile = download(installedPlugin);
-        PluginInfo info = PluginInfo.create(jarFile);
-        infosByKey.put(info.getKey(), new ScannerPlugin(installedPlugin.key, installedPlugin.updatedAt, info));
+    ExecutorService executorService = Executors.newFixedThreadPool(DOWNLOAD_THREADS, new ThreadFactoryBuilder().setNameFormat("PluginDownloader-%d").build());
+    try {
+      List<Future<ScannerPlugin>> tasks = new ArrayList<>(remotePlugins.length);
+      for (InstalledPlugin installedPlugin : remotePlugins) {
+        if (pluginPredicate.apply(installedPlugin.key)) {
+          tasks.add(executorService.submit(() -> loadPlugin(installedPlugin)));
+        }
       }
+      for (Future<ScannerPlugin> task : tasks) {
+        ScannerPlugin plugin = waitFor(task);
+        infosByKey.put(plugin.getInfo().getKey(), plugin);
+      }
+    } finally {
+      executorService.shutdownNow();
     }
     profiler.stopInfo();
     return infosByKey;
   }
 
+  private ScannerPlugin loadPlugin(InstalledPlugin installedPlugin) {
+    File jarFile = download(installedPlugin);
+    PluginInfo info = PluginInfo.create(jarFile);
+    return new ScannerPlugin(installedPlugin.key, installedPlugin.updatedAt, info);
+  }
+
+  private static ScannerPlugin waitFor(Future<ScannerPlugin> task) {
+    try {
+      return task.get();
+    } catch (ExecutionException e) {
+      // Unwrap ExecutionException
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
   /**
    * Returns empty on purpose. This method is used only by medium tests.
    * @see org.sonar.scanner.mediumtest.ScannerMediumTester
@@ -20,27 +20,89 @@
 package org.sonar.scanner.issue.tracking;
 
 import com.google.common.base.Splitter;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
 import org.apache.commons.io.IOUtils;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.api.utils.log.Profiler;
 import org.sonar.scanner.bootstrap.ScannerWsClient;
+import org.sonar.scanner.protocol.input.ScannerInput.FileLineHashes;
 import org.sonar.scanner.util.ScannerUtils;
+import org.sonarqube.ws.MediaTypes;
 import org.sonarqube.ws.client.GetRequest;
+import org.sonarqube.ws.client.PostRequest;
 
 public class DefaultServerLineHashesLoader implements ServerLineHashesLoader {
-  private ScannerWsClient wsClient;
+
+  /**
+   * Maximum number of file keys sent in a single request, in order to stay below the max size of
+   * POST bodies accepted by server.
+   */
+  private static final int MAX_FILES_PER_REQUEST = 1_000;
+  private static final Splitter LINE_SPLITTER = Splitter.on('\n');
+
+  private final ScannerWsClient wsClient;
+  private final Set<String> preloadedKeys = new HashSet<>();
+  private final Map<String, String[]> preloadedHashes = new HashMap<>();
 
   public DefaultServerLineHashesLoader(ScannerWsClient wsClient) {
     this.wsClient = wsClient;
   }
 
+  @Override
+  public void preload(String projectKey, Collection<String> fileKeys) {
+    if (fileKeys.isEmpty()) {
+      return;
+    }
+    Profiler profiler = Profiler.create(Loggers.get(getClass()))
+      .startInfo("Load line hashes of " + fileKeys.size() + " changed file(s)");
+    for (List<String> page : Iterables.partition(fileKeys, MAX_FILES_PER_REQUEST)) {
+      PostRequest request = new PostRequest("api/batch/line_hashes")
+        .setMediaType(MediaTypes.PROTOBUF)
+        .setParam("key", projectKey)
+        .setParam("files", String.join(",", page));
+      parseLineHashes(wsClient.call(request).contentStream());
+      preloadedKeys.addAll(page);
+    }
+    profiler.stopInfo();
+  }
+
+  private void parseLineHashes(InputStream is) {
+    try {
+      FileLineHashes fileLineHashes = FileLineHashes.parseDelimitedFrom(is);
+      while (fileLineHashes != null) {
+        preloadedHashes.put(fileLineHashes.getKey(), split(fileLineHashes.getLineHashes()));
+        fileLineHashes = FileLineHashes.parseDelimitedFrom(is);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to get line hashes", e);
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  @CheckForNull
   @Override
   public String[] getLineHashes(String fileKey) {
-    String hashesFromWs = loadHashesFromWs(fileKey);
-    return Iterators.toArray(Splitter.on('\n').split(hashesFromWs).iterator(), String.class);
+    if (preloadedKeys.remove(fileKey)) {
+      // each file is requested only once during issue tracking, so memory can be released
+      return preloadedHashes.remove(fileKey);
+    }
+    return split(loadHashesFromWs(fileKey));
+  }
+
+  private static String[] split(String lineHashes) {
+    return Iterators.toArray(LINE_SPLITTER.split(lineHashes).iterator(), String.class);
   }
 
   private String loadHashesFromWs(String fileKey) {
@@ -40,6 +40,7 @@ import org.sonar.api.batch.fs.internal.DefaultInputModule;
 import org.sonar.api.batch.fs.internal.InputComponentTree;
 import org.sonar.api.batch.rule.ActiveRule;
 import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.core.component.ComponentKeys;
 import org.sonar.core.issue.tracking.Input;
 import org.sonar.core.issue.tracking.Tracker;
 import org.sonar.core.issue.tracking.Tracking;
@@ -47,6 +48,7 @@ import org.sonar.scanner.analysis.DefaultAnalysisMode;
 import org.sonar.scanner.issue.IssueTransformer;
 import org.sonar.scanner.protocol.output.ScannerReport;
 import org.sonar.scanner.repository.ProjectRepositories;
+import org.sonar.scanner.scan.filesystem.InputComponentStore;
 
 @ScannerSide
 public class LocalIssueTracking {
@@ -56,14 +58,17 @@ public class LocalIssueTracking {
   private final ServerIssueRepository serverIssueRepository;
   private final DefaultAnalysisMode mode;
   private final InputComponentTree componentTree;
+  private final InputComponentStore componentStore;
 
   private boolean hasServerAnalysis;
 
   public LocalIssueTracking(Tracker<TrackedIssue, ServerIssueFromWs> tracker, ServerLineHashesLoader lastLineHashes, InputComponentTree componentTree,
-    ActiveRules activeRules, ServerIssueRepository serverIssueRepository, ProjectRepositories projectRepositories, DefaultAnalysisMode mode) {
+    InputComponentStore componentStore, ActiveRules activeRules, ServerIssueRepository serverIssueRepository, ProjectRepositories projectRepositories,
+    DefaultAnalysisMode mode) {
     this.tracker = tracker;
     this.lastLineHashes = lastLineHashes;
     this.componentTree = componentTree;
+    this.componentStore = componentStore;
     this.serverIssueRepository = serverIssueRepository;
     this.mode = mode;
     this.activeRules = activeRules;
@@ -73,9 +78,30 @@ public class LocalIssueTracking {
   public void init() {
     if (hasServerAnalysis) {
       serverIssueRepository.load();
+      preloadLineHashesOfChangedFiles();
     }
   }
 
+  /**
+   * Line hashes are required to track the issues of changed files. Loading them in bulk
+   * avoids one request per file.
+   */
+  private void preloadLineHashesOfChangedFiles() {
+    List<String> changedFileKeys = new ArrayList<>();
+    for (InputFile inputFile : componentStore.allFiles()) {
+      if (inputFile.status() == Status.CHANGED) {
+        changedFileKeys.add(serverSideKey((DefaultInputFile) inputFile));
+      }
+    }
+    DefaultInputModule root = (DefaultInputModule) componentStore.root();
+    lastLineHashes.preload(root.definition().getKeyWithBranch(), changedFileKeys);
+  }
+
+  private String serverSideKey(DefaultInputFile inputFile) {
+    DefaultInputModule module = (DefaultInputModule) componentTree.getParent(componentTree.getParent(inputFile));
+    return ComponentKeys.createEffectiveKey(module.definition().getKeyWithBranch(), inputFile);
+  }
+
   public List<TrackedIssue> trackIssues(InputComponent component, Collection<ScannerReport.Issue> reportIssues, Date analysisDate) {
     List<TrackedIssue> trackedIssues = new LinkedList<>();
     if (hasServerAnalysis) {
@@ -19,10 +19,22 @@
  */
 package org.sonar.scanner.issue.tracking;
 
+import java.util.Collection;
+import javax.annotation.CheckForNull;
 import org.sonar.api.batch.ScannerSide;
 
 @ScannerSide
 public interface ServerLineHashesLoader {
 
+  /**
+   * Loads in bulk the line hashes of the given files, so that subsequent calls to {@link #getLineHashes(String)}
+   * for these files do not require a request to server.
+   */
+  void preload(String projectKey, Collection<String> fileKeys);
+
+  /**
+   * @return the line hashes of the file, or {@code null} if the file has been preloaded and is not known by server
+   */
+  @CheckForNull
   String[] getLineHashes(String fileKey);
 }
@@ -19,23 +19,20 @@
  */
 package org.sonar.scanner.scan.filesystem;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
-import java.nio.file.FileSystemLoopException;
-import java.nio.file.FileVisitOption;
-import java.nio.file.FileVisitResult;
-import java.nio.file.FileVisitor;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
@@ -59,6 +56,8 @@ import org.sonar.scanner.util.ProgressReport;
 public class FileIndexer {
 
   private static final Logger LOG = LoggerFactory.getLogger(FileIndexer.class);
+  // files of a directory are indexed by batches, so that a large directory is shared between threads
+  private static final int FILES_PER_TASK = 100;
   private final InputFileFilter[] filters;
   private final ExclusionFilters exclusionFilters;
   private final InputFileBuilder inputFileBuilder;
@@ -67,8 +66,6 @@ public class FileIndexer {
   private final BatchIdGenerator batchIdGenerator;
   private final InputComponentStore componentStore;
   private final ModuleFileSystemInitializer moduleFileSystemInitializer;
-  private ExecutorService executorService;
-  private final List<Future<Void>> tasks;
   private final DefaultModuleFileSystem defaultModuleFileSystem;
   private final LanguageDetection langDetection;
 
@@ -88,7 +85,6 @@ public class FileIndexer {
     this.langDetection = languageDetection;
     this.filters = filters;
     this.exclusionFilters = exclusionFilters;
-    this.tasks = new ArrayList<>();
   }
 
   public FileIndexer(BatchIdGenerator batchIdGenerator, InputComponentStore componentStore, DefaultInputModule module, ExclusionFilters exclusionFilters,
@@ -100,7 +96,7 @@ public class FileIndexer {
 
   public void index() {
     int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
-    this.executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("FileIndexer-%d").build());
+    ForkJoinPool pool = new ForkJoinPool(threads, FileIndexer::newWorkerThread, null, false);
 
     progressReport = new ProgressReport("Report about progress of file indexation", TimeUnit.SECONDS.toMillis(10));
     progressReport.start("Index files");
@@ -108,10 +104,12 @@ public class FileIndexer {
 
     Progress progress = new Progress();
 
-    indexFiles(moduleFileSystemInitializer.sources(), InputFile.Type.MAIN, progress);
-    indexFiles(moduleFileSystemInitializer.tests(), InputFile.Type.TEST, progress);
-
-    waitForTasksToComplete();
+    try {
+      pool.invoke(new IndexPathsTask(moduleFileSystemInitializer.sources(), InputFile.Type.MAIN, progress));
+      pool.invoke(new IndexPathsTask(moduleFileSystemInitializer.tests(), InputFile.Type.TEST, progress));
+    } finally {
+      pool.shutdown();
+    }
 
     progressReport.stop(progress.count() + " " + pluralizeFiles(progress.count()) + " indexed");
 
@@ -120,43 +118,16 @@ public class FileIndexer {
     }
   }
 
-  private void waitForTasksToComplete() {
-    executorService.shutdown();
-    for (Future<Void> task : tasks) {
-      try {
-        task.get();
-      } catch (ExecutionException e) {
-        // Unwrap ExecutionException
-        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
-      } catch (InterruptedException e) {
-        throw new IllegalStateException(e);
-      }
-    }
+  private static ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool) {
+    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    thread.setName("FileIndexer-" + thread.getPoolIndex());
+    return thread;
   }
 
   private static String pluralizeFiles(int count) {
     return count == 1 ? "file" : "files";
   }
 
-  private void indexFiles(List<Path> sources, InputFile.Type type, Progress progress) {
-    try {
-      for (Path dirOrFile : sources) {
-        if (dirOrFile.toFile().isDirectory()) {
-          indexDirectory(dirOrFile, type, progress);
-        } else {
-          tasks.add(executorService.submit(() -> indexFile(dirOrFile, type, progress)));
-        }
-      }
-    } catch (IOException e) {
-      throw new IllegalStateException("Failed to index files", e);
-    }
-  }
-
-  private void indexDirectory(Path dirToIndex, InputFile.Type type, Progress progress) throws IOException {
-    Files.walkFileTree(dirToIndex.normalize(), Collections.singleton(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
-      new IndexFileVisitor(type, progress));
-  }
-
   private Void indexFile(Path sourceFile, InputFile.Type type, Progress progress) throws IOException {
     // get case of real file without resolving link
     Path realAbsoluteFile = sourceFile.toRealPath(LinkOption.NOFOLLOW_LINKS).toAbsolutePath().normalize();
@@ -218,49 +189,128 @@ public class FileIndexer {
     return true;
   }
 
-  private class IndexFileVisitor implements FileVisitor<Path> {
-    private final Progress status;
+  /**
+   * Indexes the source files and directories of the module. Directories are walked in parallel, each sub-directory
+   * and each batch of {@value #FILES_PER_TASK} files being a task which can be stolen by idle threads of the pool.
+   */
+  private class IndexPathsTask extends RecursiveAction {
+    private final List<Path> paths;
     private final Type type;
+    private final Progress progress;
 
-    IndexFileVisitor(InputFile.Type type, Progress status) {
-      this.status = status;
+    IndexPathsTask(List<Path> paths, Type type, Progress progress) {
+      this.paths = paths;
       this.type = type;
+      this.progress = progress;
     }
 
     @Override
-    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-      Path fileName = dir.getFileName();
+    protected void compute() {
+      List<IndexDirectoryTask> subTasks = new ArrayList<>();
+      for (Path dirOrFile : paths) {
+        if (dirOrFile.toFile().isDirectory()) {
+          subTasks.add(new IndexDirectoryTask(dirOrFile.normalize(), new HashSet<>(), type, progress));
+        } else {
+          indexFileUnchecked(dirOrFile, type, progress);
+        }
+      }
+      invokeAll(subTasks);
+    }
+  }
 
-      if (fileName != null && fileName.toString().length() > 1 && fileName.toString().charAt(0) == '.') {
-        return FileVisitResult.SKIP_SUBTREE;
+  private class IndexDirectoryTask extends RecursiveAction {
+    private final Path dir;
+    /**
+     * Real paths of the directory and of its ancestors, used to detect symlink loops
+     */
+    private final Set<Path> ancestors;
+    private final Type type;
+    private final Progress progress;
+
+    IndexDirectoryTask(Path dir, Set<Path> parentAncestors, Type type, Progress progress) {
+      this.dir = dir;
+      this.ancestors = parentAncestors;
+      this.type = type;
+      this.progress = progress;
+    }
+
+    @Override
+    protected void compute() {
+      List<RecursiveAction> subTasks = new ArrayList<>();
+      List<Path> files = new ArrayList<>();
+      try {
+        Path realDir = dir.toRealPath();
+        if (ancestors.contains(realDir)) {
+          LOG.warn("Not indexing due to symlink loop: {}", dir.toFile());
+          return;
+        }
+        if (isExcludedDirectory(dir)) {
+          return;
+        }
+        Set<Path> childAncestors = new HashSet<>(ancestors);
+        childAncestors.add(realDir);
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+          for (Path child : children) {
+            if (readAttributes(child).isDirectory()) {
+              subTasks.add(new IndexDirectoryTask(child, childAncestors, type, progress));
+            } else if (!Files.isHidden(child)) {
+              files.add(child);
+            }
+          }
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to index files", e);
       }
-      if (Files.isHidden(dir)) {
-        return FileVisitResult.SKIP_SUBTREE;
+      for (int from = 0; from < files.size(); from += FILES_PER_TASK) {
+        subTasks.add(new IndexFilesTask(files.subList(from, Math.min(files.size(), from + FILES_PER_TASK)), type, progress));
       }
-      return FileVisitResult.CONTINUE;
+      invokeAll(subTasks);
     }
 
-    @Override
-    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-      if (!Files.isHidden(file)) {
-        tasks.add(executorService.submit(() -> indexFile(file, type, status)));
+    private boolean isExcludedDirectory(Path dir) throws IOException {
+      Path fileName = dir.getFileName();
+      if (fileName != null && fileName.toString().length() > 1 && fileName.toString().charAt(0) == '.') {
+        return true;
       }
-      return FileVisitResult.CONTINUE;
+      return Files.isHidden(dir);
+    }
+  }
+
+  private class IndexFilesTask extends RecursiveAction {
+    private final List<Path> files;
+    private final Type type;
+    private final Progress progress;
+
+    IndexFilesTask(List<Path> files, Type type, Progress progress) {
+      this.files = files;
+      this.type = type;
+      this.progress = progress;
     }
 
     @Override
-    public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-      if (exc instanceof FileSystemLoopException) {
-        LOG.warn("Not indexing due to symlink loop: {}", file.toFile());
-        return FileVisitResult.CONTINUE;
+    protected void compute() {
+      for (Path file : files) {
+        indexFileUnchecked(file, type, progress);
       }
+    }
+  }
 
-      throw exc;
+  /**
+   * Symbolic links are followed, except broken links which are considered as files
+   */
+  private static BasicFileAttributes readAttributes(Path path) throws IOException {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
     }
+  }
 
-    @Override
-    public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-      return FileVisitResult.CONTINUE;
+  private void indexFileUnchecked(Path sourceFile, Type type, Progress progress) {
+    try {
+      indexFile(sourceFile, type, progress);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to index files", e);
     }
   }
 
@@ -0,0 +1,85 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.scm;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.scm.BlameCommand;
+import org.sonar.api.batch.scm.BlameCommand.BlameOutput;
+
+/**
+ * Splits the files to blame into batches which are blamed concurrently by a {@link BlameCommand}
+ * supporting concurrent invocations.
+ *
+ * @see BlameCommand#supportsConcurrentBlame()
+ */
+class ConcurrentBlameExecutor {
+
+  /**
+   * Number of batches per thread. Having more batches than threads balances the load
+   * when some files are much longer to blame than others.
+   */
+  private static final int BATCHES_PER_THREAD = 4;
+
+  private final int threads;
+
+  ConcurrentBlameExecutor(int threads) {
+    this.threads = threads;
+  }
+
+  void blame(BlameCommand blameCommand, FileSystem fs, List<InputFile> filesToBlame, BlameOutput output) {
+    int batchSize = Math.max(1, (int) Math.ceil((double) filesToBlame.size() / (threads * BATCHES_PER_THREAD)));
+    List<List<InputFile>> batches = Lists.partition(filesToBlame, batchSize);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threads, batches.size()),
+      new ThreadFactoryBuilder().setNameFormat("Blame-%d").build());
+    try {
+      List<Future<?>> tasks = new ArrayList<>(batches.size());
+      for (List<InputFile> batch : batches) {
+        tasks.add(executorService.submit(() -> blameCommand.blame(new DefaultBlameInput(fs, batch), output)));
+      }
+      waitForTasksToComplete(tasks);
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private static void waitForTasksToComplete(List<Future<?>> tasks) {
+    for (Future<?> task : tasks) {
+      try {
+        task.get();
+      } catch (ExecutionException e) {
+        // Unwrap ExecutionException
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
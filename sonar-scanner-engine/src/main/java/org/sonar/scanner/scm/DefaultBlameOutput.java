@@ -59,11 +59,16 @@ class DefaultBlameOutput implements BlameOutput {
     progressReport.start(total + " files to be analyzed");
   }
 
+  /**
+   * Thread safe: changesets are built by the calling thread, only the write to report is serialized.
+   */
   @Override
-  public synchronized void blameResult(InputFile file, List<BlameLine> lines) {
+  public void blameResult(InputFile file, List<BlameLine> lines) {
     Preconditions.checkNotNull(file);
     Preconditions.checkNotNull(lines);
-    Preconditions.checkArgument(allFilesToBlame.contains(file), "It was not expected to blame file %s", file);
+    synchronized (this) {
+      Preconditions.checkArgument(allFilesToBlame.contains(file), "It was not expected to blame file %s", file);
+    }
 
     if (lines.size() != file.lines()) {
       LOG.debug("Ignoring blame result since provider returned {} blame lines but file {} has {} lines", lines.size(), file, file.lines());
@@ -87,10 +92,16 @@ class DefaultBlameOutput implements BlameOutput {
       scmBuilder.addChangesetIndexByLine(changesetId);
       lineId++;
     }
-    writer.writeComponentChangesets(scmBuilder.build());
-    allFilesToBlame.remove(file);
-    count++;
-    progressReport.message(count + "/" + total + " files analyzed");
+    write(file, scmBuilder.build());
+  }
+
+  private synchronized void write(InputFile file, ScannerReport.Changesets changesets) {
+    // file may have been blamed concurrently by another thread
+    if (allFilesToBlame.remove(file)) {
+      writer.writeComponentChangesets(changesets);
+      count++;
+      progressReport.message(count + "/" + total + " files analyzed");
+    }
   }
 
   private static void validateLine(BlameLine line, int lineId, InputFile file) {
@@ -116,7 +127,7 @@ class DefaultBlameOutput implements BlameOutput {
     return inputString.toLowerCase(Locale.US);
   }
 
-  public void finish(boolean success) {
+  public synchronized void finish(boolean success) {
     progressReport.stop(count + "/" + total + " files analyzed");
     if (success && !allFilesToBlame.isEmpty()) {
       LOG.warn("Missing blame information for the following files:");
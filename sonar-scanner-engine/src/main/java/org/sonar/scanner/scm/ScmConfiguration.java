@@ -48,7 +48,16 @@ import org.sonar.api.utils.log.Loggers;
     project = false,
     module = false,
     global = false,
-    type = PropertyType.BOOLEAN)
+    type = PropertyType.BOOLEAN),
+  @Property(
+    key = ScmConfiguration.BLAME_THREADS_KEY,
+    name = "Number of threads used to compute SCM blame",
+    description = "Only used by the SCM providers which support concurrent blame. Defaults to the number of available processors.",
+    category = CoreProperties.CATEGORY_SCM,
+    project = false,
+    module = false,
+    global = false,
+    type = PropertyType.INTEGER)
 })
 @InstantiationStrategy(InstantiationStrategy.PER_BATCH)
 @ScannerSide
@@ -56,6 +65,7 @@ public class ScmConfiguration implements Startable {
   private static final Logger LOG = Loggers.get(ScmConfiguration.class);
 
   public static final String FORCE_RELOAD_KEY = "sonar.scm.forceReloadAll";
+  public static final String BLAME_THREADS_KEY = "sonar.scm.blame.threads";
 
   private final Configuration settings;
   private final Map<String, ScmProvider> providerPerKey = new LinkedHashMap<>();
@@ -147,6 +157,11 @@ public class ScmConfiguration implements Startable {
     return settings.getBoolean(FORCE_RELOAD_KEY).orElse(false);
   }
 
+  public int blameThreads() {
+    int threads = settings.getInt(BLAME_THREADS_KEY).orElse(Runtime.getRuntime().availableProcessors());
+    return Math.max(1, threads);
+  }
+
   @Override
   public void stop() {
     // Nothing to do
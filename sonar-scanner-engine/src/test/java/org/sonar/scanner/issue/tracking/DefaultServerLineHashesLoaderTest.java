@@ -19,6 +19,9 @@
  */
 package org.sonar.scanner.issue.tracking;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -29,9 +32,17 @@ import org.junit.rules.ExpectedException;
 import org.sonar.api.utils.HttpDownloader;
 import org.sonar.scanner.WsTestUtil;
 import org.sonar.scanner.bootstrap.ScannerWsClient;
+import org.sonar.scanner.protocol.input.ScannerInput.FileLineHashes;
+import org.sonarqube.ws.client.WsRequest;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class DefaultServerLineHashesLoaderTest {
   private ScannerWsClient wsClient;
@@ -64,6 +75,29 @@ public class DefaultServerLineHashesLoaderTest {
     WsTestUtil.verifyCall(wsClient, "/api/sources/hash?key=myproject%3Aorg%2Ffoo%2FFoo+Bar.c");
   }
 
+  @Test
+  public void should_preload_hashes_in_a_single_request() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    FileLineHashes.newBuilder().setKey("myproject:Foo.c").setLineHashes("ae12\n\n43fb").build().writeDelimitedTo(output);
+    WsTestUtil.mockStream(wsClient, "api/batch/line_hashes", new ByteArrayInputStream(output.toByteArray()));
+    ServerLineHashesLoader lastSnapshots = new DefaultServerLineHashesLoader(wsClient);
+
+    lastSnapshots.preload("myproject", asList("myproject:Foo.c", "myproject:Unknown.c"));
+
+    assertThat(lastSnapshots.getLineHashes("myproject:Foo.c")).containsExactly("ae12", "", "43fb");
+    assertThat(lastSnapshots.getLineHashes("myproject:Unknown.c")).isNull();
+    verify(wsClient, times(1)).call(any(WsRequest.class));
+  }
+
+  @Test
+  public void should_not_call_ws_when_no_file_to_preload() {
+    ServerLineHashesLoader lastSnapshots = new DefaultServerLineHashesLoader(wsClient);
+
+    lastSnapshots.preload("myproject", emptyList());
+
+    verifyZeroInteractions(wsClient);
+  }
+
   @Test
   public void should_fail_to_download_source_from_ws() throws URISyntaxException {
     WsTestUtil.mockException(wsClient, new HttpDownloader.HttpException(new URI(""), 500));
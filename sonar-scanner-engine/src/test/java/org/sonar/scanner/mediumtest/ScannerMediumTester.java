@@ -29,6 +29,7 @@ import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -495,6 +496,11 @@ public class ScannerMediumTester extends ExternalResource {
   private static class FakeServerLineHashesLoader implements ServerLineHashesLoader {
     private Map<String, String[]> byKey = new HashMap<>();
 
+    @Override
+    public void preload(String projectKey, Collection<String> fileKeys) {
+      // line hashes are already in memory
+    }
+
     @Override
     public String[] getLineHashes(String fileKey) {
       if (byKey.containsKey(fileKey)) {
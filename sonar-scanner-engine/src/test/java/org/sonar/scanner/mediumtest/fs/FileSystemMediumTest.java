@@ -443,6 +443,30 @@ public class FileSystemMediumTest {
     assertThat(parentInputDir).isNull();
   }
 
+  @Test
+  public void indexAllFilesOfLargeDirectory() throws IOException {
+    File srcDir = new File(baseDir, "src");
+    srcDir.mkdir();
+    File subDir = new File(srcDir, "sub");
+    subDir.mkdir();
+    for (int i = 0; i < 250; i++) {
+      FileUtils.write(new File(srcDir, "sample" + i + ".xoo"), "Sample xoo\ncontent");
+    }
+    FileUtils.write(new File(subDir, "other.xoo"), "Sample xoo\ncontent");
+
+    TaskResult result = tester.newTask()
+      .properties(builder
+        .put("sonar.sources", "src")
+        .build())
+      .execute();
+
+    assertThat(result.inputFiles()).hasSize(251);
+    assertThat(result.inputDirs()).hasSize(2);
+    assertThat(result.inputFile("src/sample0.xoo").type()).isEqualTo(InputFile.Type.MAIN);
+    assertThat(result.inputFile("src/sample249.xoo").type()).isEqualTo(InputFile.Type.MAIN);
+    assertThat(result.inputFile("src/sub/other.xoo").type()).isEqualTo(InputFile.Type.MAIN);
+  }
+
   @Test
   public void scanProjectWithSourceDir() throws IOException {
     File srcDir = new File(baseDir, "src");
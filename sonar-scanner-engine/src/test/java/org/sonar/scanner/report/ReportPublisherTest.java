@@ -19,6 +19,8 @@
  */
 package org.sonar.scanner.report;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PipedInputStream;
@@ -40,6 +42,7 @@ import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.platform.Server;
 import org.sonar.api.utils.MessageException;
 import org.sonar.api.utils.TempFolder;
+import org.sonar.api.utils.ZipUtils;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.core.config.CorePropertyDefinitions;
@@ -48,7 +51,9 @@ import org.sonar.scanner.bootstrap.GlobalAnalysisMode;
 import org.sonar.scanner.bootstrap.ScannerWsClient;
 import org.sonar.scanner.scan.branch.BranchConfiguration;
 import org.sonarqube.ws.Ce;
+import org.sonarqube.ws.MediaTypes;
 import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.PostRequest;
 import org.sonarqube.ws.client.WsRequest;
 import org.sonarqube.ws.client.WsResponse;
 
@@ -56,7 +61,9 @@ import static org.apache.commons.io.FileUtils.readFileToString;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sonar.scanner.scan.branch.BranchType.SHORT;
@@ -128,6 +135,89 @@ public class ReportPublisherTest {
     underTest.upload(temp.newFile());
   }
 
+  @Test
+  public void upload_report_zipped_while_being_sent() throws IOException {
+    TempFolder tempFolder = mock(TempFolder.class);
+    ReportPublisher underTest = new ReportPublisher(settings.asConfig(), wsClient, server, contextPublisher, moduleHierarchy, mode,
+      tempFolder, new ReportPublisherStep[0], branchConfiguration);
+    underTest.start();
+    Files.write(underTest.getReportDir().resolve("metadata.pb"), "the metadata".getBytes());
+    mockSubmitResponse("TASK-123");
+
+    underTest.execute();
+
+    ArgumentCaptor<WsRequest> capture = ArgumentCaptor.forClass(WsRequest.class);
+    verify(wsClient).call(capture.capture());
+    PostRequest.Part part = ((PostRequest) capture.getValue()).getParts().get("report");
+    assertThat(part.getFile()).isNull();
+    assertThat(part.getFilename()).isEqualTo("scanner-report.zip");
+    assertThat(part.getMediaType()).isEqualTo(MediaTypes.ZIP);
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    part.getContentWriter().writeTo(body);
+    File unzipDir = temp.newFolder();
+    ZipUtils.unzip(new ByteArrayInputStream(body.toByteArray()), unzipDir);
+    assertThat(readFileToString(new File(unzipDir, "metadata.pb"))).isEqualTo("the metadata");
+    // no temporary zip file
+    verify(tempFolder, never()).newFile(anyString(), anyString());
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("More about the report processing at https://localhost/api/ce/task?id=TASK-123");
+  }
+
+  @Test
+  public void upload_zip_file_if_report_is_kept() throws IOException {
+    settings.setProperty("sonar.scanner.keepReport", true);
+    TempFolder tempFolder = mock(TempFolder.class);
+    File reportZip = temp.newFile("scanner-report.zip");
+    when(tempFolder.newFile("scanner-report", ".zip")).thenReturn(reportZip);
+    ReportPublisher underTest = new ReportPublisher(settings.asConfig(), wsClient, server, contextPublisher, moduleHierarchy, mode,
+      tempFolder, new ReportPublisherStep[0], branchConfiguration);
+    underTest.start();
+    mockSubmitResponse("TASK-123");
+
+    underTest.execute();
+
+    ArgumentCaptor<WsRequest> capture = ArgumentCaptor.forClass(WsRequest.class);
+    verify(wsClient).call(capture.capture());
+    PostRequest.Part part = ((PostRequest) capture.getValue()).getParts().get("report");
+    assertThat(part.getFile()).isEqualTo(reportZip);
+    assertThat(part.getContentWriter()).isNull();
+  }
+
+  @Test
+  public void parse_upload_error_message_of_streamed_report() throws IOException {
+    ReportPublisher underTest = new ReportPublisher(settings.asConfig(), wsClient, server, contextPublisher, moduleHierarchy, mode,
+      mock(TempFolder.class), new ReportPublisherStep[0], branchConfiguration);
+    underTest.start();
+    HttpException ex = new HttpException("url", 404, "{\"errors\":[{\"msg\":\"Organization with key 'MyOrg' does not exist\"}]}");
+    WsResponse response = mock(WsResponse.class);
+    when(response.failIfNotSuccessful()).thenThrow(ex);
+    when(wsClient.call(any(WsRequest.class))).thenReturn(response);
+
+    exception.expect(MessageException.class);
+    exception.expectMessage("Failed to upload report - 404: Organization with key 'MyOrg' does not exist");
+    underTest.execute();
+  }
+
+  @Test
+  public void fail_if_streamed_upload_fails() throws IOException {
+    ReportPublisher underTest = new ReportPublisher(settings.asConfig(), wsClient, server, contextPublisher, moduleHierarchy, mode,
+      mock(TempFolder.class), new ReportPublisherStep[0], branchConfiguration);
+    underTest.start();
+    when(wsClient.call(any(WsRequest.class))).thenThrow(new IllegalStateException("Fail to request url"));
+
+    exception.expect(IllegalStateException.class);
+    exception.expectMessage("Fail to request url");
+    underTest.execute();
+  }
+
+  private void mockSubmitResponse(String taskId) throws IOException {
+    WsResponse response = mock(WsResponse.class);
+    ByteArrayOutputStream protobuf = new ByteArrayOutputStream();
+    Ce.SubmitResponse.newBuilder().setTaskId(taskId).build().writeTo(protobuf);
+    when(response.failIfNotSuccessful()).thenReturn(response);
+    when(response.contentStream()).thenReturn(new ByteArrayInputStream(protobuf.toByteArray()));
+    when(wsClient.call(any(WsRequest.class))).thenReturn(response);
+  }
+
   @Test
   public void log_public_url_if_defined() throws IOException {
     when(server.getPublicRootUrl()).thenReturn("https://publicserver/sonarqube");
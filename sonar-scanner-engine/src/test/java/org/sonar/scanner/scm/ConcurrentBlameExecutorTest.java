@@ -0,0 +1,91 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.scm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.scm.BlameCommand;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ConcurrentBlameExecutorTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private FileSystem fs = mock(FileSystem.class);
+
+  @Test
+  public void blame_all_files_in_batches() {
+    List<InputFile> files = newFiles(50);
+    Set<InputFile> blamed = ConcurrentHashMap.newKeySet();
+    Set<Integer> batchSizes = ConcurrentHashMap.newKeySet();
+    BlameCommand command = new BlameCommand() {
+      @Override
+      public void blame(BlameInput input, BlameOutput output) {
+        int size = 0;
+        for (InputFile file : input.filesToBlame()) {
+          output.blameResult(file, Collections.emptyList());
+          size++;
+        }
+        batchSizes.add(size);
+      }
+    };
+
+    new ConcurrentBlameExecutor(4).blame(command, fs, files, (file, lines) -> blamed.add(file));
+
+    assertThat(blamed).containsOnlyElementsOf(files).hasSize(50);
+    assertThat(batchSizes).allMatch(size -> size <= 4);
+  }
+
+  @Test
+  public void propagate_failure_of_blame_command() {
+    BlameCommand command = new BlameCommand() {
+      @Override
+      public void blame(BlameInput input, BlameOutput output) {
+        throw new IllegalStateException("blame failed");
+      }
+    };
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("blame failed");
+
+    new ConcurrentBlameExecutor(2).blame(command, fs, newFiles(3), (file, lines) -> {
+    });
+  }
+
+  private static List<InputFile> newFiles(int count) {
+    List<InputFile> files = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      files.add(new TestInputFileBuilder("foo", "src/File" + i + ".java").build());
+    }
+    return files;
+  }
+}
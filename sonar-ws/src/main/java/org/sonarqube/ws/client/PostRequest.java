@@ -20,8 +20,11 @@
 package org.sonarqube.ws.client;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.annotation.CheckForNull;
 
 /**
  * @since 5.3
@@ -51,19 +54,64 @@ public class PostRequest extends BaseRequest<PostRequest> {
   public static class Part {
     private final String mediaType;
     private final File file;
+    private final String filename;
+    private final ContentWriter contentWriter;
 
     public Part(String mediaType, File file) {
       this.mediaType = mediaType;
       this.file = file;
+      this.filename = file.getName();
+      this.contentWriter = null;
+    }
+
+    /**
+     * Part whose content is written on the fly when the request is sent, so that it does not
+     * have to be stored in a file or in memory. The writer may be called several times
+     * if the request is retried.
+     * @since 7.0
+     */
+    public Part(String mediaType, String filename, ContentWriter contentWriter) {
+      this.mediaType = mediaType;
+      this.file = null;
+      this.filename = filename;
+      this.contentWriter = contentWriter;
     }
 
     public String getMediaType() {
       return mediaType;
     }
 
+    /**
+     * @return the file, or {@code null} if the part is defined by a {@link ContentWriter}
+     */
+    @CheckForNull
     public File getFile() {
       return file;
     }
+
+    /**
+     * @since 7.0
+     */
+    public String getFilename() {
+      return filename;
+    }
+
+    /**
+     * @return the writer of content, or {@code null} if the part is defined by a file
+     * @since 7.0
+     */
+    @CheckForNull
+    public ContentWriter getContentWriter() {
+      return contentWriter;
+    }
+  }
+
+  /**
+   * @since 7.0
+   */
+  @FunctionalInterface
+  public interface ContentWriter {
+    void writeTo(OutputStream output) throws IOException;
   }
 
 }
@@ -42,7 +42,9 @@ public class IssuesWsParameters {
   public static final String ACTION_SET_TAGS = "set_tags";
   public static final String ACTION_SET_TYPE = "set_type";
   public static final String ACTION_BULK_CHANGE = "bulk_change";
+  public static final String ACTION_BULK_CHANGE_STATUS = "bulk_change_status";
   public static final String ACTION_TAGS = "tags";
+  public static final String ACTION_EXPORT = "export";
 
   public static final String PARAM_ISSUE = "issue";
   public static final String PARAM_COMMENT = "comment";
@@ -81,6 +83,8 @@ public class IssuesWsParameters {
   public static final String PARAM_ADD_TAGS = "add_tags";
   public static final String PARAM_REMOVE_TAGS = "remove_tags";
   public static final String PARAM_SEND_NOTIFICATIONS = "sendNotifications";
+  public static final String PARAM_ASYNC = "async";
+  public static final String PARAM_TASK_ID = "taskId";
 
   /**
    * @deprecated since 5.5, action plan feature has been removed